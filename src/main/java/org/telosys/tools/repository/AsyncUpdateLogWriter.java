@@ -0,0 +1,185 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update log writer delegating the writing to a background thread <br>
+ * The lines are encoded in the caller thread and put in a bounded queue drained by the background thread
+ * ( the caller is blocked when the queue is full ). <br>
+ * All the lines are written in the target writer before the end of 'close()'. <br>
+ * An error of the target writer (or an interruption of the background thread) is reported by the next call 
+ * of 'println', 'write' or 'close', the queue is still drained but the next lines are discarded.
+ *
+ * @since 3.3.0
+ */
+public class AsyncUpdateLogWriter extends UpdateLogWriter {
+
+	private static final byte[] FLUSH = new byte[0] ;
+
+	private static final byte[] END   = new byte[0] ;
+
+	private static final long OFFER_TIMEOUT_MS = 100 ; // delay between 2 checks of the background thread
+
+	private final UpdateLogWriter target ;
+
+	private final BlockingQueue<byte[]> queue ;
+
+	private final Thread thread ;
+
+	private volatile RuntimeException failure = null ;
+
+	private long bytesWritten = 0 ;
+
+	private boolean closed = false ;
+
+	/**
+	 * Constructor
+	 * @param target the writer used by the background thread (closed by 'close()')
+	 * @param queueCapacity the maximum number of pending lines 
+	 */
+	public AsyncUpdateLogWriter(UpdateLogWriter target, int queueCapacity) {
+		super(target.getCharset());
+		this.target = target ;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : 1);
+		this.thread = new Thread(new Drainer(), "UpdateLogWriter");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private class Drainer implements Runnable {
+		@Override
+		public void run() {
+			while ( true ) {
+				byte[] bytes ;
+				try {
+					bytes = queue.take();
+				} catch (InterruptedException e) {
+					if ( failure == null ) {
+						failure = new RuntimeException("UpdateLogWriter : background thread interrupted");
+					}
+					continue ; // still draining (the callers must not be blocked)
+				}
+				if ( bytes == END ) {
+					return ;
+				}
+				if ( failure == null ) { // after an error the lines are discarded (the callers must not be blocked)
+					try {
+						if ( bytes == FLUSH ) {
+							target.flush();
+						}
+						else {
+							target.write(bytes);
+						}
+					} catch (RuntimeException e) {
+						failure = e ;
+					}
+				}
+			}
+		}
+	}
+
+	private void checkFailure() {
+		if ( failure != null ) {
+			throw failure ;
+		}
+	}
+
+	/**
+	 * Puts the given bytes in the queue, waiting while the queue is full and the background thread is alive
+	 * @param bytes
+	 * @return true if put in the queue, false if the background thread is no longer running
+	 * @throws InterruptedException
+	 */
+	private boolean offer(byte[] bytes) throws InterruptedException {
+		while ( ! queue.offer(bytes, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS) ) {
+			if ( ! thread.isAlive() ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	private void put(byte[] bytes) {
+		if ( closed ) {
+			throw new RuntimeException("UpdateLogWriter : closed");
+		}
+		checkFailure();
+		boolean queued ;
+		try {
+			queued = offer(bytes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("UpdateLogWriter : cannot write (interrupted)");
+		}
+		if ( ! queued ) {
+			checkFailure();
+			throw new RuntimeException("UpdateLogWriter : cannot write (background thread stopped)");
+		}
+	}
+
+	@Override
+	public synchronized void println(String msg) {
+		byte[] bytes = toLineBytes(msg);
+		put(bytes);
+		bytesWritten = bytesWritten + bytes.length ;
+	}
+
+	@Override
+	public synchronized void write(byte[] bytes) {
+		put(bytes.clone()); // the caller can reuse its array
+		bytesWritten = bytesWritten + bytes.length ;
+	}
+
+	/**
+	 * Requests a flush of the target writer (after the pending lines)
+	 */
+	@Override
+	public synchronized void flush() {
+		put(FLUSH);
+	}
+
+	/**
+	 * Returns the number of bytes accepted by the writer (written or pending)
+	 */
+	@Override
+	public synchronized long getBytesWritten() {
+		return bytesWritten ;
+	}
+
+	/**
+	 * Waits for the writing of all the pending lines, then closes the target writer
+	 */
+	@Override
+	public synchronized void close() {
+		if ( closed ) {
+			return ;
+		}
+		closed = true ;
+		try {
+			offer(END); // not queued if the background thread is no longer running
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("UpdateLogWriter : cannot close (interrupted)");
+		}
+		target.close();
+		checkFailure();
+	}
+}
@@ -0,0 +1,433 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection wrapper loading the columns, primary keys and imported keys meta-data with one call 
+ * for all the tables of a catalog/schema (null table name pattern) instead of one call for each table. <br>
+ * The rows are bucketed by table name and the per-table calls made on the wrapped meta-data are served from memory. <br>
+ * If a bulk call fails or returns no row (drivers not supporting a null table name), the per-table calls are 
+ * sent to the database as usual.
+ *
+ * @since 3.3.0
+ */
+/* package */ class BulkMetadataConnection extends MetadataConnectionWrapper {
+
+	private static final int COLUMNS       = 0 ;
+	private static final int PRIMARY_KEYS  = 1 ;
+	private static final int IMPORTED_KEYS = 2 ;
+
+	private static final String[] METHODS = { "getColumns", "getPrimaryKeys", "getImportedKeys" } ;
+
+	private static final String[] TABLE_NAME_COLUMNS = { "TABLE_NAME", "TABLE_NAME", "FKTABLE_NAME" } ;
+
+	/**
+	 * Bulk results for each kind of meta-data : catalog/schema --> rows by table name (null if bulk call not supported)
+	 */
+	@SuppressWarnings("unchecked")
+	private final Map<String, BulkResult>[] bulkResults = new Map[] { new HashMap<>(), new HashMap<>(), new HashMap<>() } ;
+
+	private int bulkCalls = 0 ;
+
+	private int servedCalls = 0 ;
+
+	/**
+	 * Constructor 
+	 * @param connection the connection to be wrapped
+	 * @throws SQLException
+	 */
+	public BulkMetadataConnection(Connection connection) throws SQLException {
+		super(connection);
+	}
+
+	/**
+	 * Returns the BulkMetadataConnection of the given wrapped connection
+	 * @param connection
+	 * @return the BulkMetadataConnection or null if the connection is not a wrapped connection
+	 */
+	public static BulkMetadataConnection getBulkMetadataConnection(Connection connection) {
+		MetadataConnectionWrapper wrapper = getWrapper(connection);
+		return wrapper instanceof BulkMetadataConnection ? (BulkMetadataConnection) wrapper : null ;
+	}
+
+	/**
+	 * Returns the number of bulk calls sent to the database
+	 * @return
+	 */
+	public synchronized int getBulkCalls() {
+		return bulkCalls ;
+	}
+
+	/**
+	 * Returns the number of per-table calls served from the bulk results
+	 * @return
+	 */
+	public synchronized int getServedCalls() {
+		return servedCalls ;
+	}
+
+	/**
+	 * Returns the number of database round trips saved ( calls served - bulk calls )
+	 * @return
+	 */
+	public synchronized int getRoundTripsSaved() {
+		return servedCalls - bulkCalls ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Bulk results
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Rows of a bulk call bucketed by table name
+	 */
+	private static class BulkResult {
+		private final String[] labels ;
+		private final int[] types ;
+		private final String[] typeNames ;
+		private final ResultSetMetaData resultSetMetaData ;
+		private final Map<String, List<Object[]>> rowsByTable = new HashMap<>();
+
+		/**
+		 * Constructor keeping a copy of the result set meta-data (not usable after the result set closing)
+		 * @param rsmd
+		 * @throws SQLException
+		 */
+		private BulkResult(ResultSetMetaData rsmd) throws SQLException {
+			int n = rsmd.getColumnCount();
+			this.labels = new String[n];
+			this.types = new int[n];
+			this.typeNames = new String[n];
+			for ( int i = 0 ; i < n ; i++ ) {
+				labels[i] = rsmd.getColumnLabel(i + 1).toUpperCase();
+				types[i] = rsmd.getColumnType(i + 1);
+				typeNames[i] = rsmd.getColumnTypeName(i + 1);
+			}
+			this.resultSetMetaData = (ResultSetMetaData) Proxy.newProxyInstance(BulkMetadataConnection.class.getClassLoader(), 
+					new Class<?>[] { ResultSetMetaData.class }, new MemoryResultSetMetaDataHandler(this) );
+		}
+	}
+
+	private String key(String catalog, String schema) {
+		return catalog + "|" + schema ;
+	}
+
+	/**
+	 * Returns the rows of the given table or null if the bulk call is not supported
+	 * @param kind
+	 * @param catalog
+	 * @param schema
+	 * @param table
+	 * @return
+	 */
+	private synchronized ResultSet getTableResultSet(int kind, String catalog, String schema, String table) {
+		String key = key(catalog, schema);
+		Map<String, BulkResult> results = bulkResults[kind] ;
+		if ( ! results.containsKey(key) ) {
+			results.put(key, loadBulkResult(kind, catalog, schema));
+		}
+		BulkResult bulkResult = results.get(key);
+		if ( bulkResult == null ) {
+			return null ; // not supported => per-table call
+		}
+		servedCalls++ ;
+		List<Object[]> rows = bulkResult.rowsByTable.get(table);
+		if ( rows == null ) {
+			rows = Collections.emptyList();
+		}
+		return (ResultSet) Proxy.newProxyInstance(BulkMetadataConnection.class.getClassLoader(), 
+				new Class<?>[] { ResultSet.class }, new MemoryResultSetHandler(bulkResult, rows) );
+	}
+
+	/**
+	 * Loads all the rows for the given catalog/schema with a null table name 
+	 * @param kind
+	 * @param catalog
+	 * @param schema
+	 * @return the bulk result or null if not supported (error or no row)
+	 */
+	private BulkResult loadBulkResult(int kind, String catalog, String schema) {
+		try {
+			bulkCalls++ ;
+			ResultSet rs ;
+			switch ( kind ) {
+			case COLUMNS :
+				rs = metaData.getColumns(catalog, schema, null, "%");
+				break;
+			case PRIMARY_KEYS :
+				rs = metaData.getPrimaryKeys(catalog, schema, null);
+				break;
+			default :
+				rs = metaData.getImportedKeys(catalog, schema, null);
+				break;
+			}
+			try {
+				BulkResult bulkResult = new BulkResult(rs.getMetaData());
+				String[] labels = bulkResult.labels ;
+				int tableNameIndex = -1 ;
+				for ( int i = 0 ; i < labels.length ; i++ ) {
+					if ( labels[i].equals(TABLE_NAME_COLUMNS[kind]) ) {
+						tableNameIndex = i ;
+					}
+				}
+				if ( tableNameIndex < 0 ) {
+					return null ;
+				}
+				int count = 0 ;
+				while ( rs.next() ) {
+					Object[] row = new Object[labels.length];
+					for ( int i = 0 ; i < labels.length ; i++ ) {
+						row[i] = rs.getObject(i + 1);
+					}
+					String tableName = (String) row[tableNameIndex] ;
+					List<Object[]> rows = bulkResult.rowsByTable.get(tableName);
+					if ( rows == null ) {
+						rows = new LinkedList<>();
+						bulkResult.rowsByTable.put(tableName, rows);
+					}
+					rows.add(row);
+					count++ ;
+				}
+				// no row : cannot be distinguished from a driver ignoring the null table name
+				return count > 0 ? bulkResult : null ;
+			} finally {
+				rs.close();
+			}
+		} catch (Exception e) {
+			// driver not supporting a null table name
+			return null ;
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Proxies handlers
+	//-----------------------------------------------------------------------------------
+	@Override
+	protected Object invokeMetaData(Method method, Object[] args) throws Throwable {
+		for ( int kind = 0 ; kind < METHODS.length ; kind++ ) {
+			if ( METHODS[kind].equals(method.getName()) && isTableCall(kind, args) ) {
+				ResultSet rs = getTableResultSet(kind, (String) args[0], (String) args[1], (String) args[2]);
+				if ( rs != null ) {
+					return rs ;
+				}
+			}
+		}
+		return invoke(metaData, method, args);
+	}
+
+	private boolean isTableCall(int kind, Object[] args) {
+		if ( args == null || args.length < 3 || args[2] == null ) {
+			return false ;
+		}
+		if ( kind == COLUMNS ) {
+			// all the columns of a table 
+			return args.length == 4 && ( args[3] == null || "%".equals(args[3]) ) ;
+		}
+		return args.length == 3 ;
+	}
+
+	/**
+	 * Meta-data of the result set in memory
+	 */
+	private static class MemoryResultSetMetaDataHandler implements InvocationHandler {
+		private final BulkResult bulkResult ;
+
+		private MemoryResultSetMetaDataHandler(BulkResult bulkResult) {
+			this.bulkResult = bulkResult ;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ( "getColumnCount".equals(name) ) {
+				return bulkResult.labels.length ;
+			}
+			if ( "hashCode".equals(name) ) {
+				return System.identityHashCode(proxy);
+			}
+			if ( "equals".equals(name) ) {
+				return proxy == args[0] ;
+			}
+			if ( "toString".equals(name) ) {
+				return "MemoryResultSetMetaData" ;
+			}
+			if ( args != null && args.length == 1 && args[0] instanceof Integer ) {
+				int i = ((Integer) args[0]) - 1 ;
+				if ( i < 0 || i >= bulkResult.labels.length ) {
+					throw new SQLException("Invalid column index " + ( i + 1 ) );
+				}
+				if ( "getColumnLabel".equals(name) || "getColumnName".equals(name) ) {
+					return bulkResult.labels[i] ;
+				}
+				if ( "getColumnType".equals(name) ) {
+					return bulkResult.types[i] ;
+				}
+				if ( "getColumnTypeName".equals(name) ) {
+					return bulkResult.typeNames[i] ;
+				}
+				if ( "isNullable".equals(name) ) {
+					return ResultSetMetaData.columnNullableUnknown ;
+				}
+			}
+			throw new SQLFeatureNotSupportedException("Not supported by the meta-data result set in memory : " + name);
+		}
+	}
+
+	/**
+	 * Read-only forward-only result set in memory
+	 */
+	private static class MemoryResultSetHandler implements InvocationHandler {
+		private final BulkResult bulkResult ;
+		private final List<Object[]> rows ;
+		private int index = -1 ;
+		private boolean closed = false ;
+		private boolean wasNull = false ;
+
+		private MemoryResultSetHandler(BulkResult bulkResult, List<Object[]> rows) {
+			this.bulkResult = bulkResult ;
+			this.rows = new ArrayList<>(rows) ;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ( "next".equals(name) ) {
+				index++ ;
+				return index < rows.size() ;
+			}
+			if ( "close".equals(name) ) {
+				closed = true ;
+				return null ;
+			}
+			if ( "isClosed".equals(name) ) {
+				return closed ;
+			}
+			if ( "wasNull".equals(name) ) {
+				return wasNull ;
+			}
+			if ( "getMetaData".equals(name) ) {
+				return bulkResult.resultSetMetaData ;
+			}
+			if ( "findColumn".equals(name) ) {
+				return findColumn((String) args[0]) + 1 ;
+			}
+			if ( "getStatement".equals(name) ) {
+				return null ;
+			}
+			if ( "getWarnings".equals(name) ) {
+				return null ;
+			}
+			if ( "clearWarnings".equals(name) ) {
+				return null ;
+			}
+			if ( "hashCode".equals(name) ) {
+				return System.identityHashCode(proxy);
+			}
+			if ( "equals".equals(name) ) {
+				return proxy == args[0] ;
+			}
+			if ( "toString".equals(name) ) {
+				return "MemoryResultSet(" + rows.size() + " rows)" ;
+			}
+			if ( name.startsWith("get") && args != null && args.length == 1 ) {
+				int column = args[0] instanceof String ? findColumn((String) args[0]) : ((Integer) args[0]) - 1 ;
+				return getValue(column, method.getReturnType());
+			}
+			throw new SQLFeatureNotSupportedException("Not supported by the meta-data result set in memory : " + name);
+		}
+
+		private int findColumn(String label) throws SQLException {
+			String s = label.toUpperCase();
+			for ( int i = 0 ; i < bulkResult.labels.length ; i++ ) {
+				if ( bulkResult.labels[i].equals(s) ) {
+					return i ;
+				}
+			}
+			throw new SQLException("Invalid column label '" + label + "'");
+		}
+
+		private Object getValue(int column, Class<?> type) throws SQLException {
+			if ( index < 0 || index >= rows.size() ) {
+				throw new SQLException("No current row");
+			}
+			if ( column < 0 || column >= bulkResult.labels.length ) {
+				throw new SQLException("Invalid column index " + ( column + 1 ) );
+			}
+			Object value = rows.get(index)[column];
+			wasNull = ( value == null ) ;
+			if ( type == Object.class ) {
+				return value ;
+			}
+			if ( type == String.class ) {
+				return value != null ? value.toString() : null ;
+			}
+			if ( type == boolean.class ) {
+				if ( value instanceof Boolean ) {
+					return value ;
+				}
+				if ( value instanceof Number ) {
+					return ((Number) value).intValue() != 0 ;
+				}
+				return value != null && ( "true".equalsIgnoreCase(value.toString()) || "1".equals(value.toString()) ) ;
+			}
+			if ( type == BigDecimal.class ) {
+				return value != null ? new BigDecimal(value.toString()) : null ;
+			}
+			if ( type.isPrimitive() ) {
+				Number number = toNumber(value) ;
+				if ( type == int.class )    return number.intValue() ;
+				if ( type == short.class )  return number.shortValue() ;
+				if ( type == long.class )   return number.longValue() ;
+				if ( type == byte.class )   return number.byteValue() ;
+				if ( type == double.class ) return number.doubleValue() ;
+				if ( type == float.class )  return number.floatValue() ;
+			}
+			throw new SQLFeatureNotSupportedException("Type not supported by the meta-data result set in memory : " + type.getName());
+		}
+
+		private Number toNumber(Object value) throws SQLException {
+			if ( value == null ) {
+				return 0 ;
+			}
+			if ( value instanceof Number ) {
+				return (Number) value ;
+			}
+			if ( value instanceof Boolean ) {
+				return ((Boolean) value) ? 1 : 0 ;
+			}
+			try {
+				return new BigDecimal(value.toString().trim());
+			} catch (NumberFormatException e) {
+				throw new SQLException("Not a number : '" + value + "'");
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+
+/**
+ * Loads the database tables meta-data (columns, primary keys, foreign keys) concurrently using several connections <br>
+ * The tables list is read with the first connection, then the tables are partitioned across the connections
+ * and each table is loaded with the standard DatabaseModelManager. <br>
+ * The tables are returned in the order of the tables list, whatever the loading order.
+ *
+ * @since 3.3.0
+ */
+/* package */ class DatabaseTablesLoader {
+
+	private final TelosysToolsLogger logger ;
+
+	/**
+	 * Constructor
+	 * @param logger
+	 */
+	public DatabaseTablesLoader(TelosysToolsLogger logger) {
+		this.logger = logger ;
+	}
+
+	/**
+	 * Table identification as returned by the meta-data
+	 */
+	private static class TableRef {
+		private final String catalog ;
+		private final String schema ;
+		private final String tableName ;
+
+		private TableRef(String catalog, String schema, String tableName) {
+			this.catalog = catalog ;
+			this.schema = schema ;
+			this.tableName = tableName ;
+		}
+
+		private boolean isSameTable(DatabaseTable dbTable) {
+			return new TableKey(catalog, schema, tableName).equals(
+					new TableKey(dbTable.getCatalogName(), dbTable.getSchemaName(), dbTable.getTableName()) );
+		}
+	}
+
+	/**
+	 * Loads the database tables using the given connections 
+	 * @param connections the connections to be used (one loading task for each connection)
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 * @return the tables in the meta-data order
+	 * @throws SQLException
+	 * @throws TelosysToolsException
+	 */
+	public List<DatabaseTable> loadTables(List<Connection> connections, final String catalog, final String schema, 
+			String tableNamePattern, final String[] tableTypes, 
+			final String tableNameInclude, final String tableNameExclude) throws SQLException, TelosysToolsException {
+
+		//--- Get the list of tables with the first connection
+		DatabaseMetaData dbmd = connections.get(0).getMetaData();
+		final String escape = dbmd.getSearchStringEscape();
+		final List<TableRef> tables = new ArrayList<>();
+		ResultSet rs = dbmd.getTables(catalog, schema, tableNamePattern, tableTypes);
+		try {
+			while ( rs.next() ) {
+				tables.add(new TableRef(rs.getString("TABLE_CAT"), rs.getString("TABLE_SCHEM"), rs.getString("TABLE_NAME")));
+			}
+		} finally {
+			rs.close();
+		}
+		int n = Math.min(connections.size(), Math.max(tables.size(), 1));
+		logger.log("   ... " + tables.size() + " table(s) to load with " + n + " connection(s)");
+
+		//--- Load the tables concurrently : table 'i' is loaded by the task 'i % n'
+		final DatabaseTable[] results = new DatabaseTable[tables.size()];
+		ExecutorService executor = Executors.newFixedThreadPool(n);
+		try {
+			List<Future<Void>> futures = new LinkedList<>();
+			for ( int t = 0 ; t < n ; t++ ) {
+				final int first = t ;
+				final int step = n ;
+				final Connection connection = connections.get(t);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws SQLException {
+						DatabaseModelManager manager = new DatabaseModelManager();
+						for ( int i = first ; i < results.length ; i = i + step ) {
+							TableRef table = tables.get(i);
+							DatabaseTables dbTables = manager.getDatabaseTables(connection, catalog, schema, 
+									escape(table.tableName, escape), tableTypes, tableNameInclude, tableNameExclude);
+							for ( DatabaseTable dbTable : dbTables ) {
+								if ( table.isSameTable(dbTable) ) {
+									results[i] = dbTable ;
+								}
+							}
+						}
+						return null ;
+					}
+				}));
+			}
+			for ( Future<Void> future : futures ) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Tables loading interrupted", e);
+		} catch (ExecutionException e) {
+			if ( e.getCause() instanceof SQLException ) {
+				throw (SQLException) e.getCause() ;
+			}
+			throw new TelosysToolsException("Tables loading error : " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		//--- Tables in the original order (excluding the tables filtered by the manager)
+		List<DatabaseTable> list = new ArrayList<>(results.length);
+		for ( DatabaseTable dbTable : results ) {
+			if ( dbTable != null ) {
+				list.add(dbTable);
+			}
+		}
+		return list ;
+	}
+
+	/**
+	 * Escapes the search pattern characters ( '_' and '%' ) in the given table name
+	 * @param tableName
+	 * @param escape the escape string (or null if not supported)
+	 * @return
+	 */
+	private String escape(String tableName, String escape) {
+		if ( escape == null || escape.length() == 0 ) {
+			return tableName ; // the loaded tables are filtered by name anyway
+		}
+		StringBuilder sb = new StringBuilder(tableName.length() + 8);
+		for ( char c : tableName.toCharArray() ) {
+			if ( c == '_' || c == '%' || escape.indexOf(c) >= 0 ) {
+				sb.append(escape);
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}
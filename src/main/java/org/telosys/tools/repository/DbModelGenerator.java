@@ -18,7 +18,9 @@ package org.telosys.tools.repository;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
@@ -26,7 +28,7 @@ import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
 import org.telosys.tools.commons.dbcfg.DbConnectionManager;
 import org.telosys.tools.db.model.DatabaseModelManager;
 import org.telosys.tools.db.model.DatabaseTable;
-import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.repository.model.EntityInDbModel;
 import org.telosys.tools.repository.model.RepositoryModel;
 
 /**
@@ -37,6 +39,8 @@ import org.telosys.tools.repository.model.RepositoryModel;
  */
 public class DbModelGenerator extends DbModelManager {
 	
+	private int connectionsCount = 1 ; // v 3.3.0
+
 	/**
 	 * Constructor
 	 * @param dbConnectionManager
@@ -47,6 +51,18 @@ public class DbModelGenerator extends DbModelManager {
 		super(dbConnectionManager, logger);
 	}
 
+	/**
+	 * Sets the number of connections used to load the database meta-data (1 by default) <br>
+	 * With more than one connection the tables are partitioned across the connections 
+	 * and their columns, primary keys and foreign keys are loaded concurrently. <br>
+	 * Not used with the bulk meta-data loading (a single connection is enough in this case)
+	 * @param connectionsCount
+	 * @since 3.3.0
+	 */
+	public void setConnectionsCount(int connectionsCount) {
+		this.connectionsCount = connectionsCount > 1 ? connectionsCount : 1 ;
+	}
+
 	/**
 	 * Generates the repository model from the given database configuration<br>
 	 * Generates all the entities and all the links between the entities
@@ -56,6 +72,8 @@ public class DbModelGenerator extends DbModelManager {
 	 * @throws TelosysToolsException
 	 */
 	public RepositoryModel generate(DatabaseConfiguration databaseConfiguration) throws TelosysToolsException {
+		DbModelStats stats = newStats(DbModelStats.GENERATION); // v 3.3.0
+		stats.startPhase(DbModelStats.PHASE_CONNECTION);
 		Connection connection = getConnection(databaseConfiguration);
 		
 		//--- STEP 1 : Generates the model entities 
@@ -67,13 +85,17 @@ public class DbModelGenerator extends DbModelManager {
 		}
 		
 		//--- STEP 1.1 : set FK flags on attributes - MUST BE CALLED BEFORE THE LINKS GENERATION
+		stats.startPhase(DbModelStats.PHASE_FOREIGN_KEY_TYPES);
 		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
 		fkTypeManager.setAttributesForeignKeyInformation(repositoryModel);
 		
 		//--- STEP 2 : Generates the links between entities 
+		stats.startPhase(DbModelStats.PHASE_LINKS);
 		LinksManager linksManager = new LinksManager(getRepositoryRules() );
 		linksManager.generateAllLinks(repositoryModel);
 		
+		setStatsCounters(stats, repositoryModel);
+		reportStats();
 		return repositoryModel ;
 	}
 
@@ -104,6 +126,7 @@ public class DbModelGenerator extends DbModelManager {
 			//--- Add all tables/entities to the new repository	
 			generateEntities(repositoryModel, 
 					con, 
+					databaseConfig, 
 					databaseConfig.getMetadataCatalog(), 
 					databaseConfig.getMetadataSchema(), 
 					databaseConfig.getMetadataTableNamePattern(), 
@@ -118,10 +141,10 @@ public class DbModelGenerator extends DbModelManager {
 		return repositoryModel ;
 	}
 	
-	private void generateEntities(RepositoryModel repositoryModel, Connection con,
+	private void generateEntities(RepositoryModel repositoryModel, Connection con, DatabaseConfiguration databaseConfig,
 			String sCatalog, String sSchema,
 			String sTableNamePattern, String[] arrayTableTypes,
-			String sTableNameInclude, String sTableNameExclude) throws SQLException 
+			String sTableNameInclude, String sTableNameExclude) throws SQLException, TelosysToolsException 
 	{
 		// --- Get METADATA parameters
 		if (sTableNamePattern == null) {
@@ -140,10 +163,20 @@ public class DbModelGenerator extends DbModelManager {
 		logger.log("   ... * Table Types Array  = " + sb.toString());
 
 		//--- Load the Database Model
-		DatabaseModelManager manager = new DatabaseModelManager();
-		DatabaseTables dbTables = manager.getDatabaseTables(con, sCatalog, sSchema, sTableNamePattern, arrayTableTypes, sTableNameInclude, sTableNameExclude);
+		getStats().startPhase(DbModelStats.PHASE_METADATA); // v 3.3.0
+		Iterable<DatabaseTable> dbTables ;
+		if ( connectionsCount > 1 && ! isBulkMetadata() ) { // v 3.3.0
+			dbTables = loadTablesInParallel(con, databaseConfig, sCatalog, sSchema, sTableNamePattern, arrayTableTypes, sTableNameInclude, sTableNameExclude);
+		}
+		else {
+			Connection metadataConnection = getMetadataConnection(con); // v 3.3.0
+			DatabaseModelManager manager = new DatabaseModelManager();
+			dbTables = manager.getDatabaseTables(metadataConnection, sCatalog, sSchema, sTableNamePattern, arrayTableTypes, sTableNameInclude, sTableNameExclude);
+			reportMetadataRoundTrips(metadataConnection); // v 3.3.0
+		}
 
 		//--- For each table add an Entity in the repository
+		getStats().startPhase(DbModelStats.PHASE_ENTITIES); // v 3.3.0
 		int iTablesCount = 0;
 		for ( DatabaseTable dbTable : dbTables ) {
 			iTablesCount++;
@@ -158,4 +191,46 @@ public class DbModelGenerator extends DbModelManager {
 		logger.log("   --------------------------------------------------------------");
 	}
 
+	/**
+	 * Loads the database tables with the given connection and additional connections 
+	 * @return the tables in the meta-data order
+	 * @since 3.3.0
+	 */
+	private List<DatabaseTable> loadTablesInParallel(Connection con, DatabaseConfiguration databaseConfig,
+			String sCatalog, String sSchema,
+			String sTableNamePattern, String[] arrayTableTypes,
+			String sTableNameInclude, String sTableNameExclude) throws SQLException, TelosysToolsException 
+	{
+		List<Connection> connections = new ArrayList<>(connectionsCount);
+		connections.add(getCountingConnection(con));
+		try {
+			for ( int i = 1 ; i < connectionsCount ; i++ ) {
+				connections.add(getCountingConnection(getConnection(databaseConfig)));
+			}
+			DatabaseTablesLoader loader = new DatabaseTablesLoader(logger);
+			return loader.loadTables(connections, sCatalog, sSchema, sTableNamePattern, arrayTableTypes, sTableNameInclude, sTableNameExclude);
+		} finally {
+			//--- Close the additional connections 
+			for ( int i = 1 ; i < connections.size() ; i++ ) {
+				closeConnection(connections.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Sets the counters of the statistics from the generated model
+	 * @since 3.3.0
+	 */
+	private void setStatsCounters(DbModelStats stats, RepositoryModel repositoryModel) {
+		int columnsCount = 0 ;
+		int foreignKeysCount = 0 ;
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesSortedByTableName() ) {
+			columnsCount = columnsCount + entity.getAttributes().size() ;
+			foreignKeysCount = foreignKeysCount + entity.getDatabaseForeignKeys().size() ;
+		}
+		stats.setTablesCount(repositoryModel.getNumberOfEntities());
+		stats.setColumnsCount(columnsCount);
+		stats.setForeignKeysCount(foreignKeysCount);
+		stats.setLinksCount(repositoryModel.getNumberOfLinks());
+	}
 }
@@ -36,6 +36,8 @@ import org.telosys.tools.repository.model.EntityInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyInDbModel;
 import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.GenericPersistenceManager;
+import org.telosys.tools.repository.persistence.PersistenceManager;
 import org.telosys.tools.repository.rules.RepositoryRules;
 import org.telosys.tools.repository.rules.RepositoryRulesProvider;
 
@@ -58,6 +60,12 @@ public abstract class DbModelManager
 		return logger;
 	}
 
+	private boolean bulkMetadata = false ; // v 3.3.0
+
+	private int metadataRoundTripsSaved = 0 ; // v 3.3.0
+
+	private DbModelStats stats = null ; // v 3.3.0
+
 	/**
 	 * Constructor
 	 * @param dbConnectionManager
@@ -96,6 +104,129 @@ public abstract class DbModelManager
 		}
 	}
 	
+	/**
+	 * Enables or disables the bulk meta-data loading (disabled by default) <br>
+	 * When enabled, the columns, primary keys and foreign keys are loaded with one call for all the tables of the schema
+	 * instead of one call for each table ( with a fallback to the per-table calls if not supported by the driver )
+	 * @param bulkMetadata
+	 * @since 3.3.0
+	 */
+	public void setBulkMetadata(boolean bulkMetadata) {
+		this.bulkMetadata = bulkMetadata ;
+	}
+
+	protected boolean isBulkMetadata() {
+		return bulkMetadata ;
+	}
+
+	/**
+	 * Returns the number of database round trips saved by the bulk meta-data loading during the last model loading
+	 * @return
+	 * @since 3.3.0
+	 */
+	public int getMetadataRoundTripsSaved() {
+		return metadataRoundTripsSaved ;
+	}
+
+	/**
+	 * Returns the connection to be used to load the meta-data <br>
+	 * (the given connection or a connection wrapper for the bulk meta-data loading)
+	 * @param connection
+	 * @return
+	 * @throws SQLException
+	 * @since 3.3.0
+	 */
+	protected Connection getMetadataConnection(Connection connection) throws SQLException {
+		metadataRoundTripsSaved = 0 ;
+		Connection countingConnection = getCountingConnection(connection); // the bulk calls are counted
+		if ( bulkMetadata ) {
+			return new BulkMetadataConnection(countingConnection).getConnection() ;
+		}
+		return countingConnection ;
+	}
+
+	/**
+	 * Returns the statistics of the last model generation or update ( null if none )
+	 * @return
+	 * @since 3.3.0
+	 */
+	public DbModelStats getStats() {
+		return stats ;
+	}
+
+	/**
+	 * Creates the statistics for a new model generation or update 
+	 * @param operation
+	 * @return
+	 * @since 3.3.0
+	 */
+	protected DbModelStats newStats(String operation) {
+		stats = new DbModelStats(operation);
+		return stats ;
+	}
+
+	/**
+	 * Returns a connection wrapper counting the JDBC meta-data calls in the current statistics <br>
+	 * (or the given connection if no statistics)
+	 * @param connection
+	 * @return
+	 * @throws SQLException
+	 * @since 3.3.0
+	 */
+	protected Connection getCountingConnection(Connection connection) throws SQLException {
+		if ( stats != null ) {
+			return new JdbcCallsCounter(connection, stats).getConnection() ;
+		}
+		return connection ;
+	}
+
+	/**
+	 * Ends the current phase and logs the statistics 
+	 * @since 3.3.0
+	 */
+	protected void reportStats() {
+		if ( stats != null ) {
+			stats.endPhase();
+			logger.log("   stats : " + stats.toJson());
+		}
+	}
+
+	/**
+	 * Saves the given model with the given persistence manager <br>
+	 * The time of the save ("save" phase) and the bytes written are added to the statistics 
+	 * of the last model generation or update (if any)
+	 * @param persistenceManager
+	 * @param repositoryModel
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	public void saveRepository(PersistenceManager persistenceManager, RepositoryModel repositoryModel) throws TelosysToolsException {
+		if ( stats != null ) {
+			stats.startPhase(DbModelStats.PHASE_SAVE);
+		}
+		persistenceManager.save(repositoryModel);
+		if ( stats != null ) {
+			if ( persistenceManager instanceof GenericPersistenceManager ) {
+				stats.addBytesWritten(((GenericPersistenceManager) persistenceManager).getBytesWritten());
+			}
+			reportStats();
+		}
+	}
+
+	/**
+	 * Reports the database round trips saved if the given connection has been returned by 'getMetadataConnection'
+	 * @param metadataConnection
+	 * @since 3.3.0
+	 */
+	protected void reportMetadataRoundTrips(Connection metadataConnection) {
+		BulkMetadataConnection bulkMetadataConnection = BulkMetadataConnection.getBulkMetadataConnection(metadataConnection);
+		if ( bulkMetadataConnection != null ) {
+			metadataRoundTripsSaved = bulkMetadataConnection.getRoundTripsSaved() ;
+			logger.log("   bulk meta-data : " + bulkMetadataConnection.getServedCalls() + " call(s) served by " 
+					+ bulkMetadataConnection.getBulkCalls() + " bulk call(s), " + metadataRoundTripsSaved + " round trip(s) saved");
+		}
+	}
+
 	/**
 	 * Returns the RepositoryRules initialized in the constructor 
 	 * @return
@@ -137,6 +268,7 @@ public abstract class DbModelManager
 		entity.setDatabaseSchema( dbTable.getSchemaName() ); 
 		entity.setDatabaseType( dbTable.getTableType() ) ; 
 		entity.setDatabaseComment( dbTable.getComment() );
+		entity.setDatabaseFingerprint( TableFingerprint.compute(dbTable) ); // v 3.3.0
 		
 		//--- Add the columns of this table
 		addColumns( entity, dbTable) ;
@@ -0,0 +1,254 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Statistics of a model generation or update : time of each phase and counters <br>
+ * The phases are measured with 'System.nanoTime()' at the phase boundaries 
+ * and the counters are set at the end of the phases (no cost for each table or column). <br>
+ * The statistics can be exported in JSON format.
+ *
+ * @since 3.3.0
+ */
+public class DbModelStats {
+
+	public static final String GENERATION = "generation" ;
+	public static final String UPDATE     = "update" ;
+
+	public static final String PHASE_CONNECTION        = "connection" ;
+	public static final String PHASE_METADATA          = "metadata" ;
+	public static final String PHASE_ENTITIES          = "entities" ;
+	public static final String PHASE_FOREIGN_KEY_TYPES = "foreignKeyTypes" ;
+	public static final String PHASE_LINKS             = "links" ;
+	public static final String PHASE_SAVE              = "save" ;
+
+	private final String operation ;
+
+	private final Map<String, Long> phasesTimes = new LinkedHashMap<>() ; // phase --> nanoseconds
+
+	private String currentPhase = null ;
+
+	private long   currentPhaseStart = 0 ;
+
+	private int  tablesCount = 0 ;
+	private int  columnsCount = 0 ;
+	private int  foreignKeysCount = 0 ;
+	private int  linksCount = 0 ;
+	private int  changesCount = 0 ;
+	private long jdbcCalls = 0 ;
+	private long bytesWritten = 0 ;
+
+	/**
+	 * Constructor
+	 * @param operation the operation measured (eg GENERATION or UPDATE)
+	 */
+	public DbModelStats(String operation) {
+		super();
+		this.operation = operation ;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Phases
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Starts a new phase (the current phase, if any, is ended) <br>
+	 * If the phase has already been measured the new time is added
+	 * @param phase
+	 */
+	public synchronized void startPhase(String phase) {
+		long now = System.nanoTime();
+		endPhase(now);
+		currentPhase = phase ;
+		currentPhaseStart = now ;
+	}
+
+	/**
+	 * Ends the current phase (if any)
+	 */
+	public synchronized void endPhase() {
+		endPhase(System.nanoTime());
+	}
+
+	private void endPhase(long now) {
+		if ( currentPhase != null ) {
+			Long time = phasesTimes.get(currentPhase);
+			phasesTimes.put(currentPhase, ( time != null ? time : 0L ) + ( now - currentPhaseStart ) );
+			currentPhase = null ;
+		}
+	}
+
+	/**
+	 * Returns the time of the given phase in milliseconds (0 if not measured)
+	 * @param phase
+	 * @return
+	 */
+	public synchronized double getPhaseTime(String phase) {
+		Long time = phasesTimes.get(phase);
+		return time != null ? time / 1000000.0 : 0 ;
+	}
+
+	/**
+	 * Returns the time of each phase in milliseconds (in the phases order)
+	 * @return
+	 */
+	public synchronized Map<String, Double> getPhasesTimes() {
+		Map<String, Double> map = new LinkedHashMap<>();
+		for ( Map.Entry<String, Long> entry : phasesTimes.entrySet() ) {
+			map.put(entry.getKey(), entry.getValue() / 1000000.0 );
+		}
+		return map ;
+	}
+
+	/**
+	 * Returns the total time of all the phases in milliseconds
+	 * @return
+	 */
+	public synchronized double getTotalTime() {
+		long total = 0 ;
+		for ( Long time : phasesTimes.values() ) {
+			total = total + time ;
+		}
+		return total / 1000000.0 ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Counters
+	//-----------------------------------------------------------------------------------
+	public synchronized int getTablesCount() {
+		return tablesCount;
+	}
+	public synchronized void setTablesCount(int tablesCount) {
+		this.tablesCount = tablesCount;
+	}
+
+	public synchronized int getColumnsCount() {
+		return columnsCount;
+	}
+	public synchronized void setColumnsCount(int columnsCount) {
+		this.columnsCount = columnsCount;
+	}
+
+	public synchronized int getForeignKeysCount() {
+		return foreignKeysCount;
+	}
+	public synchronized void setForeignKeysCount(int foreignKeysCount) {
+		this.foreignKeysCount = foreignKeysCount;
+	}
+
+	public synchronized int getLinksCount() {
+		return linksCount;
+	}
+	public synchronized void setLinksCount(int linksCount) {
+		this.linksCount = linksCount;
+	}
+
+	public synchronized int getChangesCount() {
+		return changesCount;
+	}
+	public synchronized void setChangesCount(int changesCount) {
+		this.changesCount = changesCount;
+	}
+
+	/**
+	 * Returns the number of JDBC calls sent to the database to load the meta-data
+	 * @return
+	 */
+	public synchronized long getJdbcCalls() {
+		return jdbcCalls;
+	}
+	/* package */ synchronized void incrementJdbcCalls() {
+		this.jdbcCalls++ ;
+	}
+
+	/**
+	 * Returns the number of bytes written (eg update log, repository file)
+	 * @return
+	 */
+	public synchronized long getBytesWritten() {
+		return bytesWritten;
+	}
+	public synchronized void addBytesWritten(long bytes) {
+		this.bytesWritten = this.bytesWritten + bytes ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Export
+	//-----------------------------------------------------------------------------------
+	private String toJsonString(String s) {
+		if ( s == null ) {
+			return "null" ;
+		}
+		StringBuilder sb = new StringBuilder(s.length() + 2);
+		sb.append('"');
+		for ( char c : s.toCharArray() ) {
+			if ( c == '"' || c == '\\' ) {
+				sb.append('\\').append(c);
+			}
+			else if ( c < 0x20 ) {
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+		return sb.toString();
+	}
+
+	private String toJsonNumber(double milliseconds) {
+		return String.format(Locale.ROOT, "%.3f", milliseconds);
+	}
+
+	/**
+	 * Returns the statistics in JSON format (times in milliseconds)
+	 * @return
+	 */
+	public synchronized String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{");
+		sb.append("\"operation\":").append(toJsonString(operation));
+		sb.append(",\"totalTimeMs\":").append(toJsonNumber(getTotalTime()));
+		sb.append(",\"phasesTimeMs\":{");
+		int n = 0 ;
+		for ( Map.Entry<String, Long> entry : phasesTimes.entrySet() ) {
+			sb.append( n++ > 0 ? "," : "" );
+			sb.append(toJsonString(entry.getKey())).append(":").append(toJsonNumber(entry.getValue() / 1000000.0));
+		}
+		sb.append("}");
+		sb.append(",\"tables\":").append(tablesCount);
+		sb.append(",\"columns\":").append(columnsCount);
+		sb.append(",\"foreignKeys\":").append(foreignKeysCount);
+		sb.append(",\"links\":").append(linksCount);
+		sb.append(",\"changes\":").append(changesCount);
+		sb.append(",\"jdbcCalls\":").append(jdbcCalls);
+		sb.append(",\"bytesWritten\":").append(bytesWritten);
+		sb.append("}");
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+}
@@ -15,13 +15,22 @@
  */
 package org.telosys.tools.repository;
 
+import java.io.ByteArrayOutputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import org.telosys.tools.commons.ObjectUtil;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
@@ -33,6 +42,7 @@ import org.telosys.tools.db.model.DatabaseModelManager;
 import org.telosys.tools.db.model.DatabaseTable;
 import org.telosys.tools.db.model.DatabaseTables;
 import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeLogWriter;
 import org.telosys.tools.repository.changelog.ChangeOnColumn;
 import org.telosys.tools.repository.changelog.ChangeOnEntity;
 import org.telosys.tools.repository.changelog.ChangeOnForeignKey;
@@ -55,6 +65,12 @@ public class DbModelUpdator extends DbModelManager
 {
 	private final UpdateLogWriter updateLogger ;
 
+	private ExecutorService executor = null ; // v 3.3.0 ( null : sequential update )
+
+	private boolean useFingerprints = true ; // v 3.3.0
+
+	private ChangeLogWriter changeLogWriter = null ; // v 3.3.0
+
 	/**
 	 * Constructor
 	 * @param dbConnectionManager
@@ -67,6 +83,42 @@ public class DbModelUpdator extends DbModelManager
 		this.updateLogger = updateLogger;
 	}
 
+	/**
+	 * Sets the executor used to update the existing entities in parallel (eg a ForkJoinPool) <br>
+	 * The entities are updated concurrently, then the changes and the update log are merged in table name order. <br>
+	 * The entities creation and deletion remain in the current thread. <br>
+	 * The executor is not shut down by the updator.
+	 * @param executor the executor to be used, or null for a sequential update (default)
+	 * @since 3.3.0
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor ;
+	}
+
+	/**
+	 * Enables or disables the use of the tables fingerprints (enabled by default) <br>
+	 * When enabled, an entity is not compared with its database table if the fingerprint of the table 
+	 * is the fingerprint stored in the entity by the last generation or update. <br>
+	 * To be disabled if the database information of the model may have been modified by another way
+	 * @param useFingerprints
+	 * @since 3.3.0
+	 */
+	public void setUseFingerprints(boolean useFingerprints) {
+		this.useFingerprints = useFingerprints ;
+	}
+
+	/**
+	 * Sets the writer where to write each change of the update as soon as it is logged <br>
+	 * The writer is not closed by the updator. 
+	 * A writer error does not stop the update, it is thrown at the end of 'updateRepository'. <br>
+	 * With a writer the returned change log no longer holds the 'before state' of the updated entities.
+	 * @param changeLogWriter the writer to be used, or null (default)
+	 * @since 3.3.0
+	 */
+	public void setChangeLogWriter(ChangeLogWriter changeLogWriter) {
+		this.changeLogWriter = changeLogWriter ;
+	}
+
 	/**
 	 * Adds a new attribute in the given entity
 	 * @param entity
@@ -85,20 +137,22 @@ public class DbModelUpdator extends DbModelManager
 	 * Updates the given column from the database column
 	 * @param column
 	 * @param dbColumn
+	 * @param changeOnEntity the entity change (the 'before state' is captured before the first update)
+	 * @param updateLog
 	 * @return the number of updates done
 	 */
-	private int updateEntityAttribute(AttributeInDbModel column, DatabaseColumn dbColumn) {
+	private int updateEntityAttribute(AttributeInDbModel column, DatabaseColumn dbColumn, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 
 		//--- Update the column 
-		r = r + updateDbType(column,   dbColumn.getDbTypeName()); // Database native type		
-		r = r + updateTypeCode(column, dbColumn.getJdbcTypeCode()); // JDBC type code 
-		r = r + updateNotNull(column,  dbColumn.getNotNullAsString()); // Not null
-		r = r + updateSize(column,     dbColumn.getSize()); // Size
-		r = r + updateComment(column,  dbColumn.getComment()); // Database comment - v 2.1.1 #LCH 
+		r = r + updateDbType(column,   dbColumn.getDbTypeName(), changeOnEntity, updateLog); // Database native type		
+		r = r + updateTypeCode(column, dbColumn.getJdbcTypeCode(), changeOnEntity, updateLog); // JDBC type code 
+		r = r + updateNotNull(column,  dbColumn.getNotNullAsString(), changeOnEntity, updateLog); // Not null
+		r = r + updateSize(column,     dbColumn.getSize(), changeOnEntity, updateLog); // Size
+		r = r + updateComment(column,  dbColumn.getComment(), changeOnEntity, updateLog); // Database comment - v 2.1.1 #LCH 
 
 		//--- If this column is in the Table Primary Key
-		r = r + updatePrimaryKey(column, dbColumn.isInPrimaryKey()); // Column in Primary Key
+		r = r + updatePrimaryKey(column, dbColumn.isInPrimaryKey(), changeOnEntity, updateLog); // Column in Primary Key
 		
 		// other updates (in the future ?)
 		// . default value
@@ -108,69 +162,75 @@ public class DbModelUpdator extends DbModelManager
 		return r;
 	}
 
-	private int updateTypeCode( AttributeInDbModel column, int iDbTypeCode) {
+	private int updateTypeCode( AttributeInDbModel column, int iDbTypeCode, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 		int i = column.getJdbcTypeCode();
 		if ( i != iDbTypeCode ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : JDBC type code changed to " + iDbTypeCode);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : JDBC type code changed to " + iDbTypeCode);
+			changeOnEntity.captureEntityBefore();
 			column.setJdbcTypeCode(iDbTypeCode);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateDbType( AttributeInDbModel column, String sDbType ) {
+	private int updateDbType( AttributeInDbModel column, String sDbType, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog ) {
 		int r = 0;
 		String s = column.getDatabaseType(); // v 3.0.0
 		if ( ! s.equals(sDbType) ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Database type changed to " + sDbType);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : Database type changed to " + sDbType);
+			changeOnEntity.captureEntityBefore();
 			column.setDatabaseTypeName(sDbType);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateNotNull( AttributeInDbModel column, String sNotNull) {
+	private int updateNotNull( AttributeInDbModel column, String sNotNull, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 		String s = column.getDatabaseNotNullAsString();
 		if ( ! s.equals(sNotNull) ) {
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : NotNull changed to " + sNotNull);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : NotNull changed to " + sNotNull);
+			changeOnEntity.captureEntityBefore();
 			column.setDatabaseNotNull(sNotNull);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateSize( AttributeInDbModel column, int iSize) {
+	private int updateSize( AttributeInDbModel column, int iSize, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 		String fullSize = "" + iSize ;
 //		if ( column.getDatabaseSize() != iSize ) 
 		if ( ! fullSize.equals(column.getDatabaseSize()) ) 
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Size changed to " + iSize);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : Size changed to " + iSize);
 //			column.setDatabaseSize(iSize);
+			changeOnEntity.captureEntityBefore();
 			column.setDatabaseSize(fullSize);
 			r++;
 		}
 		return r;
 	}
 
-	private int updateComment( AttributeInDbModel column, String sComment) {
+	private int updateComment( AttributeInDbModel column, String sComment, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 		if ( ! column.getDatabaseComment().equals(sComment) )
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Comment changed to " + sComment);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : Comment changed to " + sComment);
+			changeOnEntity.captureEntityBefore();
 			column.setDatabaseComment(sComment);
 			r++;
 		}
 		return r;
 	}
 
-	private int updatePrimaryKey( AttributeInDbModel column, boolean isPrimaryKey) {
+	private int updatePrimaryKey( AttributeInDbModel column, boolean isPrimaryKey, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog) {
 		int r = 0;
 		if ( column.isKeyElement() != isPrimaryKey ) // v 3.0.0
 		{
-			updateLogger.println(" . Column '" + column.getDatabaseName() + "' : Primary Key flag changed to " + isPrimaryKey);
+			updateLog.println(" . Column '" + column.getDatabaseName() + "' : Primary Key flag changed to " + isPrimaryKey);
+			changeOnEntity.captureEntityBefore();
 			column.setKeyElement(isPrimaryKey);
 			r++;
 		}
@@ -190,6 +250,8 @@ public class DbModelUpdator extends DbModelManager
 	 */
 	public ChangeLog updateRepository( DatabaseConfiguration databaseConfiguration, RepositoryModel repositoryModel ) throws TelosysToolsException 
 	{
+		DbModelStats stats = newStats(DbModelStats.UPDATE); // v 3.3.0
+		stats.startPhase(DbModelStats.PHASE_CONNECTION);
 		Connection connection = getConnection(databaseConfiguration);
 		
 //		//--- STEP 1 : Updates the repository from the current database meta-data
@@ -200,17 +262,27 @@ public class DbModelUpdator extends DbModelManager
 //		linksManager.updateLinks(repositoryModel, changeLog);
 		
 		//--- STEP 1 : Updates the repository from the current database meta-data
+		long bytesWrittenBefore = updateLogger.getBytesWritten() ; // the update logger can be used for several updates
 		ChangeLog changeLog = updateRepositoryStep1( databaseConfiguration, repositoryModel, connection );
 		closeConnection(connection);
+		stats.addBytesWritten(updateLogger.getBytesWritten() - bytesWrittenBefore);
 		
 		//--- STEP 1.1 : set FK flags on attributes - MUST BE CALLED BEFORE THE LINKS GENERATION
+		stats.startPhase(DbModelStats.PHASE_FOREIGN_KEY_TYPES);
 		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
 		fkTypeManager.setAttributesForeignKeyInformation(repositoryModel);
 
 		//--- STEP 2 : Updates the links between entities ( since v 2.1.1 )
+		stats.startPhase(DbModelStats.PHASE_LINKS);
 		LinksManager linksManager = new LinksManager(getRepositoryRules() );
-		linksManager.updateLinks(repositoryModel, changeLog);
+		stats.setLinksCount(linksManager.updateLinks(repositoryModel, changeLog));
+		if ( changeLogWriter != null ) { // v 3.3.0
+			//--- The changes are written and the links updated : the 'before state' copies are no longer used
+			changeLog.releaseEntitiesBefore();
+		}
 		
+		reportStats();
+		changeLog.checkWriter(); // v 3.3.0 : writer error (if any) reported once the model is fully updated
 		return changeLog ;
 	}
 
@@ -245,14 +317,20 @@ public class DbModelUpdator extends DbModelManager
 				updateLogger.println("Update date : " + now);
 				
 				//--- Load the Database Model
+				getStats().startPhase(DbModelStats.PHASE_METADATA); // v 3.3.0
 				DatabaseModelManager manager = new DatabaseModelManager();
-				DatabaseTables dbTables = manager.getDatabaseTables(connection, catalog, schema, 
+				Connection metadataConnection = getMetadataConnection(connection); // v 3.3.0
+				DatabaseTables dbTables = manager.getDatabaseTables(metadataConnection, catalog, schema, 
 						tableNamePattern, tableTypes, tableNameInclude, tableNameExclude);
+				reportMetadataRoundTrips(metadataConnection); // v 3.3.0
 
+				getStats().startPhase(DbModelStats.PHASE_ENTITIES); // v 3.3.0
 				changeLog = updateRepositoryStep1FromTables(repositoryModel, dbTables);
 
 			} catch (SQLException e) {
 				throw new TelosysToolsException("SQLException", e);
+			} catch (TelosysToolsException e) { // v 3.3.0
+				throw e ;
 			} catch (Exception t) {
 				throw new TelosysToolsException("Exception", t);
 			}
@@ -263,88 +341,266 @@ public class DbModelUpdator extends DbModelManager
 		return changeLog ;
 	}
 	
-	private ChangeLog updateRepositoryStep1FromTables(RepositoryModel repositoryModel, DatabaseTables dbTables ) {
-		ChangeLog changeLog = new ChangeLog() ;
+	private ChangeLog updateRepositoryStep1FromTables(RepositoryModel repositoryModel, DatabaseTables dbTables ) throws TelosysToolsException {
+		ChangeLog changeLog = new ChangeLog(changeLogWriter) ; // v 3.3.0 (writer or null)
 		
 		int changesCount = 0 ;
 		
-		LinkedList<String> databaseTables = new LinkedList<>();
+		//--- Set-based diff between the database tables and the model tables ( v 3.3.0 )
+		List<DatabaseTable> databaseTables = new ArrayList<>();
+		List<TableKey> databaseKeys = new ArrayList<>();
+		int columnsCount = 0 ;
+		int foreignKeysCount = 0 ;
+		for ( DatabaseTable dbTable : dbTables.getTables() ) {
+			databaseTables.add(dbTable);
+			databaseKeys.add(new TableKey(dbTable.getCatalogName(), dbTable.getSchemaName(), dbTable.getTableName()));
+			columnsCount = columnsCount + dbTable.getColumns().size() ;
+			foreignKeysCount = foreignKeysCount + dbTable.getForeignKeys().size() ;
+		}
+		List<TableKey> modelKeys = new ArrayList<>(repositoryModel.getNumberOfEntities());
+		for ( EntityInDbModel entity : repositoryModel.getEntitiesSortedByTableName() ) {
+			modelKeys.add(new TableKey(entity.getDatabaseCatalog(), entity.getDatabaseSchema(), entity.getDatabaseTable()));
+		}
+		TablesDiff tablesDiff = new TablesDiff(databaseKeys, modelKeys);
 
 		//-----------------------------------------------------------------------
 		// STEP 1 : Update existing tables and Create new ones
 		//-----------------------------------------------------------------------
-		//--- For each table in the database ...
-		for ( DatabaseTable dbTable : dbTables.getTables() ) {
-			
-			logger.log("   --------------------------------------------------------------");
-			logger.log("   Table '" + dbTable.getTableName() 
-					+ "' ( catalog = '" + dbTable.getCatalogName() 
-					+ "', schema = '"+ dbTable.getSchemaName() + "' )");
-
-			String sTableName = dbTable.getTableName();
-
-			//--- Store the table name in the list used to delete entities
-			databaseTables.add(sTableName);
-
-			updateLogger.println(" ");
-			EntityInDbModel entity = repositoryModel.getEntityByTableName(sTableName);
-			
-			if ( entity != null ) {
-				//------------------------------------------------------------------
-				//   ENTITY FOUND IN MODEL => UPDATE ENTITY
-				//------------------------------------------------------------------
-				updateLogger.println(" Table '" + sTableName + "' found in repository");
-				ChangeOnEntity changeOnEntity = updateEntity(repositoryModel, dbTable, entity);
-				if ( changeOnEntity.getNumberOfChanges() > 0 ) {
-					updateLogger.println(" (*) table '" + sTableName + "' updated : " + changeOnEntity.getNumberOfChanges() + " change(s)");
-					changeLog.log(changeOnEntity);
+		if ( executor != null ) {
+			changesCount = changesCount + updateTablesInParallel(repositoryModel, databaseTables, databaseKeys, tablesDiff, changeLog);
+		}
+		else {
+			//--- For each table in the database ...
+			for ( int i = 0 ; i < databaseTables.size() ; i++ ) {
+				DatabaseTable dbTable = databaseTables.get(i);
+				logTable(dbTable);
+				EntityInDbModel entity = getMatchingEntity(repositoryModel, tablesDiff, databaseKeys.get(i));
+				if ( entity != null ) {
+					//--- ENTITY FOUND IN MODEL => UPDATE ENTITY
+					ChangeOnEntity changeOnEntity = updateExistingTable(repositoryModel, dbTable, entity, updateLogger);
+					if ( changeOnEntity.getNumberOfChanges() > 0 ) {
+						changeLog.log(changeOnEntity);
+					}
+					changesCount = changesCount + changeOnEntity.getNumberOfChanges() ;
 				} else {
-					updateLogger.println(" (=) table '" + sTableName + "' unchanged");
+					//--- ENTITY NOT FOUND IN MODEL => CREATE ENTITY  (NEW)
+					changeLog.log(createTable(repositoryModel, dbTable, updateLogger));
+					changesCount++;
 				}
-				changesCount = changesCount + changeOnEntity.getNumberOfChanges() ;
-			} else {
-				//------------------------------------------------------------------
-				//   ENTITY NOT FOUND IN MODEL => CREATE ENTITY  (NEW)
-				//------------------------------------------------------------------
-				updateLogger.println(" Table '" + sTableName + "' not found in repository");
-				EntityInDbModel entityCreated = addEntity(repositoryModel, dbTable) ;
-				updateLogger.println(" (+) table '" + sTableName + "' added");
-				changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, entityCreated));
-				changesCount++;
 			}
 		}
 
 		//-----------------------------------------------------------------------
 		// STEP 2 : Remove tables that no longer exist in the database
 		//-----------------------------------------------------------------------
-		//--- For each table in the repository ...
-		String[] tableNames = repositoryModel.getEntitiesNames();
-		for (int i = 0; i < tableNames.length; i++) {
-			String sTableName = tableNames[i];
-			if (checkTableExistsInDatabase(sTableName, databaseTables) != true) {
-				//--- This table in the repository no longer exists in the database
-				updateLogger.println(" ");
-				updateLogger.println(" Table '" + sTableName + "' no longer exists in database");
-				//--- => Remove it
-				EntityInDbModel deletedEntity = repositoryModel.removeEntity(sTableName);
-				updateLogger.println(" (-) table '" + sTableName + "' removed");
-				changeLog.log(new ChangeOnEntity(ChangeType.DELETED, deletedEntity, null));
-				changesCount++;
-			}
+		//--- For each table in the repository that no longer exists in the database ...
+		for ( TableKey removedTable : tablesDiff.getRemovedTables() ) {
+			String sTableName = removedTable.getTableName();
+			updateLogger.println(" ");
+			updateLogger.println(" Table '" + sTableName + "' no longer exists in database");
+			//--- => Remove it
+			EntityInDbModel deletedEntity = repositoryModel.removeEntity(sTableName);
+			updateLogger.println(" (-) table '" + sTableName + "' removed");
+			changeLog.log(new ChangeOnEntity(ChangeType.DELETED, deletedEntity, null));
+			changesCount++;
 		}
+
+		//--- Statistics ( v 3.3.0 )
+		DbModelStats stats = getStats();
+		stats.setTablesCount(databaseTables.size());
+		stats.setColumnsCount(columnsCount);
+		stats.setForeignKeysCount(foreignKeysCount);
+		stats.setChangesCount(changesCount);
 		return changeLog ;
 	}
 	
-	private ChangeOnEntity updateEntity( RepositoryModel repositoryModel, DatabaseTable dbTable, EntityInDbModel entity) {
+	private void logTable(DatabaseTable dbTable) {
+		logger.log("   --------------------------------------------------------------");
+		logger.log("   Table '" + dbTable.getTableName() 
+				+ "' ( catalog = '" + dbTable.getCatalogName() 
+				+ "', schema = '"+ dbTable.getSchemaName() + "' )");
+	}
+
+	private EntityInDbModel getMatchingEntity(RepositoryModel repositoryModel, TablesDiff tablesDiff, TableKey databaseKey) {
+		TableKey matchingTable = tablesDiff.getMatchingTable(databaseKey);
+		return matchingTable != null ? repositoryModel.getEntityByTableName(matchingTable.getTableName()) : null ;
+	}
+
+	/**
+	 * Updates the existing entity from the given database table 
+	 * @param repositoryModel
+	 * @param dbTable
+	 * @param entity
+	 * @param updateLog
+	 * @return the changes on the entity (possibly without change)
+	 */
+	private ChangeOnEntity updateExistingTable(RepositoryModel repositoryModel, DatabaseTable dbTable, EntityInDbModel entity, 
+			UpdateLogWriter updateLog) {
+		String sTableName = dbTable.getTableName();
+		updateLog.println(" ");
+		updateLog.println(" Table '" + sTableName + "' found in repository");
+		//--- Same fingerprint => nothing to compare ( v 3.3.0 )
+		String fingerprint = TableFingerprint.compute(dbTable);
+		if ( useFingerprints && fingerprint.equals(entity.getDatabaseFingerprint()) ) {
+			updateLog.println(" (=) table '" + sTableName + "' unchanged (same fingerprint)");
+			return new ChangeOnEntity(entity);
+		}
+		ChangeOnEntity changeOnEntity = updateEntity(repositoryModel, dbTable, entity, updateLog);
+		entity.setDatabaseFingerprint(fingerprint); // after the 'before state' capture (if any)
+		if ( changeOnEntity.getNumberOfChanges() > 0 ) {
+			updateLog.println(" (*) table '" + sTableName + "' updated : " + changeOnEntity.getNumberOfChanges() + " change(s)");
+		} else {
+			updateLog.println(" (=) table '" + sTableName + "' unchanged");
+		}
+		return changeOnEntity ;
+	}
+
+	/**
+	 * Creates a new entity from the given database table 
+	 * @param repositoryModel
+	 * @param dbTable
+	 * @param updateLog
+	 * @return the entity creation
+	 */
+	private ChangeOnEntity createTable(RepositoryModel repositoryModel, DatabaseTable dbTable, UpdateLogWriter updateLog) {
+		String sTableName = dbTable.getTableName();
+		updateLog.println(" ");
+		updateLog.println(" Table '" + sTableName + "' not found in repository");
+		EntityInDbModel entityCreated = addEntity(repositoryModel, dbTable) ;
+		updateLog.println(" (+) table '" + sTableName + "' added");
+		return new ChangeOnEntity(ChangeType.CREATED, null, entityCreated);
+	}
+
+	// -----------------------------------------------------------------------------------------------------
+	// PARALLEL UPDATE ( v 3.3.0 )
+	// -----------------------------------------------------------------------------------------------------
+	/**
+	 * Result of the update of a table : the change on the entity and the update log lines
+	 */
+	private static class TableUpdate {
+		private final String tableName ;
+		private final ChangeOnEntity changeOnEntity ;
+		private final ByteArrayOutputStream log ;
+
+		private TableUpdate(String tableName, ChangeOnEntity changeOnEntity, ByteArrayOutputStream log) {
+			this.tableName = tableName ;
+			this.changeOnEntity = changeOnEntity ;
+			this.log = log ;
+		}
+	}
+
+	private static final Comparator<TableUpdate> TABLE_NAME_ORDER = new Comparator<TableUpdate>() {
+		@Override
+		public int compare(TableUpdate u1, TableUpdate u2) {
+			return u1.tableName.compareTo(u2.tableName);
+		}
+	};
+
+	/**
+	 * Task updating an entity from its database table(s) <br>
+	 * ( all the database tables matching the same entity are processed by the same task )
+	 */
+	private class EntityUpdateTask implements Callable<List<TableUpdate>> {
+		private final RepositoryModel repositoryModel ;
+		private final EntityInDbModel entity ;
+		private final List<DatabaseTable> dbTables = new LinkedList<>();
+
+		private EntityUpdateTask(RepositoryModel repositoryModel, EntityInDbModel entity) {
+			this.repositoryModel = repositoryModel ;
+			this.entity = entity ;
+		}
+
+		@Override
+		public List<TableUpdate> call() {
+			List<TableUpdate> updates = new LinkedList<>();
+			for ( DatabaseTable dbTable : dbTables ) {
+				ByteArrayOutputStream log = new ByteArrayOutputStream();
+				ChangeOnEntity changeOnEntity = updateExistingTable(repositoryModel, dbTable, entity, new UpdateLogWriter(log, updateLogger.getCharset()));
+				updates.add(new TableUpdate(dbTable.getTableName(), changeOnEntity, log));
+			}
+			return updates ;
+		}
+	}
+
+	/**
+	 * Updates the existing entities in parallel with the executor and creates the new ones <br>
+	 * The changes are logged in table name order
+	 * @param repositoryModel
+	 * @param databaseTables
+	 * @param databaseKeys
+	 * @param tablesDiff
+	 * @param changeLog
+	 * @return the number of changes
+	 * @throws TelosysToolsException
+	 */
+	private int updateTablesInParallel(RepositoryModel repositoryModel, List<DatabaseTable> databaseTables, List<TableKey> databaseKeys,
+			TablesDiff tablesDiff, ChangeLog changeLog) throws TelosysToolsException {
+		List<TableUpdate> updates = new ArrayList<>(databaseTables.size());
+		//--- Create the new entities in the current thread and prepare one task for each existing entity
+		Map<EntityInDbModel, EntityUpdateTask> tasks = new IdentityHashMap<>();
+		List<EntityUpdateTask> tasksList = new LinkedList<>();
+		for ( int i = 0 ; i < databaseTables.size() ; i++ ) {
+			DatabaseTable dbTable = databaseTables.get(i);
+			logTable(dbTable);
+			EntityInDbModel entity = getMatchingEntity(repositoryModel, tablesDiff, databaseKeys.get(i));
+			if ( entity != null ) {
+				EntityUpdateTask task = tasks.get(entity);
+				if ( task == null ) {
+					task = new EntityUpdateTask(repositoryModel, entity);
+					tasks.put(entity, task);
+					tasksList.add(task);
+				}
+				task.dbTables.add(dbTable);
+			} else {
+				ByteArrayOutputStream log = new ByteArrayOutputStream();
+				ChangeOnEntity changeOnEntity = createTable(repositoryModel, dbTable, new UpdateLogWriter(log, updateLogger.getCharset()));
+				updates.add(new TableUpdate(dbTable.getTableName(), changeOnEntity, log));
+			}
+		}
+		//--- Update the existing entities in parallel
+		List<Future<List<TableUpdate>>> futures = new LinkedList<>();
+		for ( EntityUpdateTask task : tasksList ) {
+			futures.add(executor.submit(task));
+		}
+		try {
+			for ( Future<List<TableUpdate>> future : futures ) {
+				updates.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Parallel update interrupted", e);
+		} catch (ExecutionException e) {
+			throw new TelosysToolsException("Parallel update error : " + e.getCause().getMessage(), e.getCause());
+		}
+		//--- Merge the results in table name order
+		Collections.sort(updates, TABLE_NAME_ORDER);
+		int changesCount = 0 ;
+		for ( TableUpdate update : updates ) {
+			updateLogger.write(update.log.toByteArray());
+			ChangeOnEntity changeOnEntity = update.changeOnEntity ;
+			if ( changeOnEntity.getChangeType() == ChangeType.CREATED ) {
+				changeLog.log(changeOnEntity);
+				changesCount++;
+			}
+			else if ( changeOnEntity.getNumberOfChanges() > 0 ) {
+				changeLog.log(changeOnEntity);
+				changesCount = changesCount + changeOnEntity.getNumberOfChanges() ;
+			}
+		}
+		return changesCount ;
+	}
+
+	// -----------------------------------------------------------------------------------------------------
+	private ChangeOnEntity updateEntity( RepositoryModel repositoryModel, DatabaseTable dbTable, EntityInDbModel entity, UpdateLogWriter updateLog) {
 		
-		EntityInDbModel entityBefore = ObjectUtil.deepCopy(entity);
-		ChangeOnEntity changeOnEntity = new ChangeOnEntity(ChangeType.UPDATED, entityBefore, entity);
+		// v 3.3.0 : no copy of the entity here, the 'before state' is captured only before its first modification
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(entity);
 		//--------------------------------------------------------------------------------
 		// 0) check if table information has changed
 		//--------------------------------------------------------------------------------
 		//--- Set or update TABLE TYPE ( "TABLE", "VIEW", ... )
-		checkIfTableTypeHasChanged(dbTable, entity, changeOnEntity);
-		checkIfTableCommentHasChanged(dbTable, entity, changeOnEntity);
+		checkIfTableTypeHasChanged(dbTable, entity, changeOnEntity, updateLog);
+		checkIfTableCommentHasChanged(dbTable, entity, changeOnEntity, updateLog);
 		
 		//--------------------------------------------------------------------------------
 		// 1) remove the columns that doesn't exist in the Database 
@@ -355,9 +611,10 @@ public class DbModelUpdator extends DbModelManager
 			// Does it still exist in the DATABASE ?
 			if ( null == dbTable.getColumnByName(sColumnName) ) {
 				//--- This column doesn't exist in the DB => remove it from the model
+				changeOnEntity.captureEntityBefore();
 				entity.removeAttribute(column);
 				changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.DELETED, column, null) );
-				updateLogger.println(" . Column '" + sColumnName + "' deleted");
+				updateLog.println(" . Column '" + sColumnName + "' deleted");
 			}
 		}
 
@@ -370,9 +627,10 @@ public class DbModelUpdator extends DbModelManager
 			// Does it still exist in the DATABASE ?
 			if ( null == dbTable.getForeignKeyByName(sFkName) ) {
 				//--- This FK doesn't exist in the DB => remove it from the model
+				changeOnEntity.captureEntityBefore();
 				entity.removeForeignKey(fk);
 				changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.DELETED, fk, null) );
-				updateLogger.println(" . Foreign key '" + sFkName + "' deleted");
+				updateLog.println(" . Foreign key '" + sFkName + "' deleted");
 			}
 		}
 
@@ -387,16 +645,18 @@ public class DbModelUpdator extends DbModelManager
 			AttributeInDbModel column = entity.getAttributeByColumnName(sColumnName);
 			if ( column != null ) {
 				//--- The column exists => update it
-				AttributeInDbModel columnBefore = ObjectUtil.deepCopy(column);
-				if ( updateEntityAttribute(column, dbColumn) > 0 ) {
+				if ( updateEntityAttribute(column, dbColumn, changeOnEntity, updateLog) > 0 ) {
+					// 'before state' of the column = column in the 'before state' of the entity (no specific copy)
+					AttributeInDbModel columnBefore = changeOnEntity.getEntityBefore().getAttributeByColumnName(sColumnName);
 					changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.UPDATED, columnBefore, column ) );
-					updateLogger.println(" . Column '" + sColumnName + "' updated");
+					updateLog.println(" . Column '" + sColumnName + "' updated");
 				}
 			} else {
 				//--- The column doesn't exist => add it
+				changeOnEntity.captureEntityBefore();
 				column = addEntityAttribute(entity, dbColumn);
 				changeOnEntity.addChangeOnColumn( new ChangeOnColumn(ChangeType.CREATED, null, column ) );
-				updateLogger.println(" . Column '" + sColumnName + "' added");
+				updateLog.println(" . Column '" + sColumnName + "' added");
 			}
 			//--- If this column is a member of a Foreign Key
 			//setFkAttribute(sColumnName, column, listFK);
@@ -419,18 +679,19 @@ public class DbModelUpdator extends DbModelManager
 				// The FK exists => update it if it has changed
 				if ( ! foreignKey.isIdentical( newForeignKey ) )
 				{
-					// 
+					changeOnEntity.captureEntityBefore();
 					entity.storeForeignKey(newForeignKey);
 					changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.UPDATED, foreignKey, newForeignKey) );
-					updateLogger.println(" . Foreign key '" + sFkName + "' updated");
+					updateLog.println(" . Foreign key '" + sFkName + "' updated");
 				}
 			}
 			else
 			{
 				// The FK doesn't exist => add it to the list
+				changeOnEntity.captureEntityBefore();
 				entity.storeForeignKey(newForeignKey);
 				changeOnEntity.addChangeOnForeignKey( new ChangeOnForeignKey(ChangeType.CREATED, null, newForeignKey) );
-				updateLogger.println(" . Foreign key '" + sFkName + "' added");
+				updateLog.println(" . Foreign key '" + sFkName + "' added");
 			}
 		}
 		//--- Return all the changes for this entity
@@ -442,21 +703,24 @@ public class DbModelUpdator extends DbModelManager
 	 * @param dbTable
 	 * @param entity
 	 * @param changeOnEntity
+	 * @param updateLog
 	 */
-	private void checkIfTableTypeHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity ) {
+	private void checkIfTableTypeHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog ) {
 		String tableType = dbTable.getTableType() ;
 		if ( tableType != null ) {
 			if ( StrUtil.nullOrVoid(entity.getDatabaseType()) ) {
 				// Not set yet => Set type
+				changeOnEntity.captureEntityBefore();
 				entity.setDatabaseType(tableType);
 			}
 			else {
 				String originalType = entity.getDatabaseType() ;
 				if ( tableType.equals(originalType) == false ) {
 					// The type has changed => Update type
+					changeOnEntity.captureEntityBefore();
 					entity.setDatabaseType(tableType);
 					changeOnEntity.setDatabaseTypeHasChanged(true);
-					updateLogger.println(" . Type has changed '" + originalType + "' --> '" + tableType + "'");
+					updateLog.println(" . Type has changed '" + originalType + "' --> '" + tableType + "'");
 				}
 			}
 		}
@@ -467,8 +731,9 @@ public class DbModelUpdator extends DbModelManager
 	 * @param dbTable
 	 * @param entity
 	 * @param changeOnEntity
+	 * @param updateLog
 	 */
-	private void checkIfTableCommentHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity ) {
+	private void checkIfTableCommentHasChanged(DatabaseTable dbTable, EntityInDbModel entity, ChangeOnEntity changeOnEntity, UpdateLogWriter updateLog ) {
 		String dbComment = dbTable.getComment(); // Can be null (metadata)
 		if ( dbComment == null ) {
 			dbComment = "" ;
@@ -476,22 +741,10 @@ public class DbModelUpdator extends DbModelManager
 		String originalComment = entity.getDatabaseComment() ;
 		if ( ! dbComment.equals(originalComment) ) {
 			// The comment has changed => Update it
+			changeOnEntity.captureEntityBefore();
 			entity.setDatabaseComment(dbComment);
 			changeOnEntity.setDatabaseCommentHasChanged(true);
-			updateLogger.println(" . Comment has changed '" + originalComment + "' --> '" + dbComment + "'");
-		}
-	}
-	
-	private boolean checkTableExistsInDatabase(String sTableName, LinkedList<String> databaseTables) {
-		// --- Search the Table Name in the Database Tables
-		int n = databaseTables.size();
-		for (int i = 0; i < n; i++) {
-			String s = databaseTables.get(i);
-			if (s != null) {
-				if (s.equals(sTableName))
-					return true;
-			}
+			updateLog.println(" . Comment has changed '" + originalComment + "' --> '" + dbComment + "'");
 		}
-		return false;
 	}
 }
@@ -48,22 +48,34 @@ public class ForeignKeyTypeManager
 	public void setAttributesForeignKeyInformation(RepositoryModel repositoryModel) {
 		
 		for ( Entity entity : repositoryModel.getEntities() ) {
-			List<ForeignKey> foreignKeys = entity.getDatabaseForeignKeys();
-			for ( ForeignKey fk : foreignKeys ) {
-				EntityInDbModel referencedEntity = repositoryModel.getEntityByTableName( fk.getReferencedTableName() );
-				// Check if found
-				if ( referencedEntity == null ) {
-					String msg = "Table '" + fk.getReferencedTableName() + "' not found in model." 
-							+ " Referenced by Foreign Key '" + fk.getName() + "' : "
-							+ " table '" + fk.getTableName() + "' --> '" + fk.getReferencedTableName() +"'" ;
-					throw new RuntimeException(msg);
-				}
-				// Set FK type for each attribute involved in a FK  
-				setAttributesFKInfo((EntityInDbModel)entity, fk, referencedEntity); 
-			}
+			setAttributesForeignKeyInformation(repositoryModel, (EntityInDbModel)entity);
 		}		
 	}
 	
+	/**
+	 * Set the Foreign Key type for each attribute of the given entity involved in a Foreign Key <br>
+	 * (only the class name of the referenced entities is used)
+	 * 
+	 * @param repositoryModel
+	 * @param entity
+	 * @since v 3.3.0
+	 */
+	public void setAttributesForeignKeyInformation(RepositoryModel repositoryModel, EntityInDbModel entity) {
+		List<ForeignKey> foreignKeys = entity.getDatabaseForeignKeys();
+		for ( ForeignKey fk : foreignKeys ) {
+			EntityInDbModel referencedEntity = repositoryModel.getEntityByTableName( fk.getReferencedTableName() );
+			// Check if found
+			if ( referencedEntity == null ) {
+				String msg = "Table '" + fk.getReferencedTableName() + "' not found in model." 
+						+ " Referenced by Foreign Key '" + fk.getName() + "' : "
+						+ " table '" + fk.getTableName() + "' --> '" + fk.getReferencedTableName() +"'" ;
+				throw new RuntimeException(msg);
+			}
+			// Set FK type for each attribute involved in a FK  
+			setAttributesFKInfo(entity, fk, referencedEntity); 
+		}
+	}
+	
 	/**
 	 * Set the FK information for all the attributes associated with the given FK
 	 * @param entity
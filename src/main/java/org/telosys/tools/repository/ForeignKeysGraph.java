@@ -0,0 +1,62 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.List;
+
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Foreign keys dependency graph of a model : entity --> incoming foreign keys (referencing the entity) <br>
+ * Used by the links update to find the relations of the entities referencing a new entity 
+ * (the neighbours of the updated entities are covered by the inverse side links). <br>
+ * The graph is based on the foreign keys indexes of the model, so it is always up to date 
+ * and each lookup does not depend on the number of entities.
+ *
+ * @since 3.3.0
+ */
+/* package */ class ForeignKeysGraph {
+
+	private final RepositoryModel model ;
+
+	/**
+	 * Constructor
+	 * @param model
+	 */
+	public ForeignKeysGraph(RepositoryModel model) {
+		this.model = model ;
+	}
+
+	/**
+	 * Returns the foreign keys referencing the given entity 
+	 * @param entity
+	 * @return
+	 */
+	public List<ForeignKeyInDbModel> getIncomingForeignKeys(EntityInDbModel entity) {
+		return model.getForeignKeysReferencingTable(entity.getDatabaseTable());
+	}
+
+	/**
+	 * Returns the entity holding the given foreign key
+	 * @param foreignKey
+	 * @return the entity (or null if the foreign key is not in the model)
+	 */
+	public EntityInDbModel getSourceEntity(ForeignKeyInDbModel foreignKey) {
+		return model.getEntityHoldingForeignKey(foreignKey);
+	}
+}
@@ -0,0 +1,51 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Connection wrapper counting the meta-data calls sent to the database <br>
+ * (each call of the meta-data returning a ResultSet is a round trip) 
+ *
+ * @since 3.3.0
+ */
+/* package */ class JdbcCallsCounter extends MetadataConnectionWrapper {
+
+	private final DbModelStats stats ;
+
+	/**
+	 * Constructor 
+	 * @param connection the connection to be wrapped
+	 * @param stats the statistics where to count the calls
+	 * @throws SQLException
+	 */
+	public JdbcCallsCounter(Connection connection, DbModelStats stats) throws SQLException {
+		super(connection);
+		this.stats = stats ;
+	}
+
+	@Override
+	protected Object invokeMetaData(Method method, Object[] args) throws Throwable {
+		if ( ResultSet.class.isAssignableFrom(method.getReturnType()) ) {
+			stats.incrementJdbcCalls();
+		}
+		return invoke(metaData, method, args);
+	}
+}
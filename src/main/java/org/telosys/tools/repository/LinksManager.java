@@ -16,6 +16,8 @@
 package org.telosys.tools.repository;
 
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Logger;
 
 import org.telosys.tools.commons.TelosysToolsException;
@@ -24,6 +26,7 @@ import org.telosys.tools.generic.model.FetchType;
 import org.telosys.tools.repository.changelog.ChangeLog;
 import org.telosys.tools.repository.changelog.ChangeOnEntity;
 import org.telosys.tools.repository.changelog.ChangeOnForeignKey;
+import org.telosys.tools.repository.changelog.ChangeType;
 import org.telosys.tools.repository.model.EntityInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
 import org.telosys.tools.repository.model.ForeignKeyInDbModel;
@@ -72,7 +75,7 @@ public class LinksManager {
 	{
 		log("generateAllLinks()...");
 		int count = 0 ;
-		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
 			count = count + createRelations(model, entity);
 		}
 		return count ;
@@ -446,17 +449,34 @@ public class LinksManager {
 	// LINKS UPDATE
 	//-----------------------------------------------------------------------------------------
 	/**
-	 * Updates the model's links according to the given change log
+	 * Updates the model's links according to the given change log <br>
+	 * Only the relations of the entities whose foreign keys or "join table" status have changed are recomputed
+	 * (the links of their direct neighbours are updated through the inverse sides). <br>
+	 * The entities are processed in table name order.
 	 * @param model
 	 * @param changeLog
-	 * @return
+	 * @return the number of links generated or removed
 	 * @throws TelosysToolsException
 	 */
 	public int updateLinks(RepositoryModel model, ChangeLog changeLog ) throws TelosysToolsException 
 	{
 		int count = 0 ;
+		ForeignKeysGraph graph = new ForeignKeysGraph(model); // v 3.3.0
+		Map<String, ChangeOnEntity> changes = new TreeMap<>(); // v 3.3.0 ( deterministic order )
 		//--- For each entity change...
 		for ( ChangeOnEntity change : changeLog.getChanges() ) {
+			if ( change.getChangeType() == ChangeType.DELETED ) {
+				//--- An entity as been deleted
+				EntityInDbModel entityDeleted = change.getEntityDeleted() ;
+				log("updateLinks() : entity DELETED = " + entityDeleted);
+				//--- Remove all the links using this entity 
+				count = count + this.removeRelations(model, entityDeleted);
+			}
+			else {
+				changes.put(change.getEntityName(), change);
+			}
+		}
+		for ( ChangeOnEntity change : changes.values() ) {
 			switch ( change.getChangeType() ) {
 			case CREATED :
 				//--- An entity as been created
@@ -471,18 +491,51 @@ public class LinksManager {
 				log("updateLinks() : entity UPDATED = " + entityUpdated);
 				count = count + this.updateEntityLinks(model, entityUpdated, change);
 				break;
-			case DELETED :
-				//--- An entity as been deleted
-				EntityInDbModel entityDeleted = change.getEntityDeleted() ;
-				log("updateLinks() : entity DELETED = " + entityDeleted);
-				//--- Remove all the links using this entity 
-				count = count + this.removeRelations(model, entityDeleted);
+			default :
 				break;
 			}
 		}
+		//--- Create the missing links referencing the created entities (once all the entities are processed)
+		for ( ChangeOnEntity change : changes.values() ) {
+			if ( change.getChangeType() == ChangeType.CREATED ) {
+				count = count + this.createIncomingRelations(model, graph, change.getEntityCreated());
+			}
+		}
 		return count ;
 	}
 	
+	/**
+	 * Creates the relations based on the foreign keys referencing the given entity if they don't exist <br>
+	 * ( eg a new table referenced by an existing table that is not changed or changed without foreign key change ) <br>
+	 * Called after the processing of all the changes : the relations already generated are kept
+	 * @param model
+	 * @param graph
+	 * @param entity
+	 * @return the number of links generated 
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	private int createIncomingRelations(RepositoryModel model, ForeignKeysGraph graph, EntityInDbModel entity) throws TelosysToolsException 
+	{
+		int count = 0 ;
+		for ( ForeignKeyInDbModel fk : graph.getIncomingForeignKeys(entity) ) {
+			EntityInDbModel sourceEntity = graph.getSourceEntity(fk);
+			if ( sourceEntity != null ) {
+				if ( sourceEntity.isJoinTable() ) {
+					if ( model.getLinkById(LinkInDbModel.buildId(sourceEntity, true)) == null ) {
+						count = count + createRelationManyToMany(model, sourceEntity);
+					}
+				}
+				else {
+					if ( model.getLinkById(LinkInDbModel.buildId(fk, true)) == null ) {
+						count = count + createRelationManyToOne(model, sourceEntity, fk);
+					}
+				}
+			}
+		}
+		return count ;
+	}
+
 	/**
 	 * Updates all the links for the given entity according with the given 'change'
 	 * @param model
@@ -494,11 +547,26 @@ public class LinksManager {
 	private int updateEntityLinks(RepositoryModel model, EntityInDbModel entity, ChangeOnEntity change ) throws TelosysToolsException 
 	{
 		int count = 0 ;
-		if ( entity.isJoinTable() ) {
+		EntityInDbModel entityBefore = change.getEntityBefore() ;
+		if ( entityBefore != null && entityBefore.isJoinTable() != entity.isJoinTable() ) { // v 3.3.0
+			//--- The "join table" status has changed : all the relations of the entity are recomputed
+			//--- 1) Remove existing links
+			if ( entityBefore.isJoinTable() ) {
+				count = count + model.removeLinksByJoinTableName(entityBefore.getDatabaseTable());
+			}
+			else {
+				for ( ForeignKeyInDbModel fk : entityBefore.getForeignKeys() ) {
+					count = count + this.removeRelation(model, fk);
+				}
+			}
+			//--- 2) Create new links 
+			count = count + this.createRelations(model, entity);
+		}
+		else if ( entity.isJoinTable() ) {
 			if ( change.getChangesOnForeignKey().size() > 0 ) {
 				//--- Something has changed in the Foreign Keys
 				//--- 1) Remove existing links
-				model.removeLinksByJoinTableName(entity.getDatabaseTable());
+				count = count + model.removeLinksByJoinTableName(entity.getDatabaseTable());
 				//--- 2) Create new links based on the new Foreign Keys
 				count = count + createRelationManyToMany(model, entity);
 			}
@@ -527,7 +595,7 @@ public class LinksManager {
 				}
 			}
 		}
-		return 0 ;
+		return count ; // v 3.3.0 (was always 0)
 	}
 	
 }
@@ -0,0 +1,133 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Base class for the connection wrappers intercepting the meta-data calls <br>
+ * The wrapped connection (proxy) returns a wrapped meta-data (proxy) and each meta-data call 
+ * is given to 'invokeMetaData' (except 'getConnection' returning the wrapped connection). 
+ * The other connection calls are sent to the original connection.
+ *
+ * @since 3.3.0
+ */
+/* package */ abstract class MetadataConnectionWrapper {
+
+	private final Connection connection ;
+
+	/**
+	 * The original meta-data
+	 */
+	protected final DatabaseMetaData metaData ;
+
+	private final Connection proxyConnection ;
+
+	private final DatabaseMetaData proxyMetaData ;
+
+	/**
+	 * Constructor 
+	 * @param connection the connection to be wrapped
+	 * @throws SQLException
+	 */
+	protected MetadataConnectionWrapper(Connection connection) throws SQLException {
+		this.connection = connection ;
+		this.metaData = connection.getMetaData();
+		ClassLoader classLoader = MetadataConnectionWrapper.class.getClassLoader();
+		this.proxyMetaData = (DatabaseMetaData) Proxy.newProxyInstance(classLoader, 
+				new Class<?>[] { DatabaseMetaData.class }, new MetaDataHandler() );
+		this.proxyConnection = (Connection) Proxy.newProxyInstance(classLoader, 
+				new Class<?>[] { Connection.class }, new ConnectionHandler() );
+	}
+
+	/**
+	 * Returns the wrapper of the given wrapped connection
+	 * @param connection
+	 * @return the wrapper or null if the connection is not a wrapped connection
+	 */
+	protected static MetadataConnectionWrapper getWrapper(Connection connection) {
+		if ( connection != null && Proxy.isProxyClass(connection.getClass()) ) {
+			InvocationHandler handler = Proxy.getInvocationHandler(connection);
+			if ( handler instanceof ConnectionHandler ) {
+				return ((ConnectionHandler) handler).getWrapper() ;
+			}
+		}
+		return null ;
+	}
+
+	/**
+	 * Returns the wrapped connection
+	 * @return
+	 */
+	public Connection getConnection() {
+		return proxyConnection ;
+	}
+
+	/**
+	 * Called for each call on the wrapped meta-data
+	 * @param method
+	 * @param args
+	 * @return
+	 * @throws Throwable
+	 */
+	protected abstract Object invokeMetaData(Method method, Object[] args) throws Throwable ;
+
+	/**
+	 * Invokes the given method on the given target (the original exception is thrown)
+	 * @param target
+	 * @param method
+	 * @param args
+	 * @return
+	 * @throws Throwable
+	 */
+	protected static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private class ConnectionHandler implements InvocationHandler {
+		private MetadataConnectionWrapper getWrapper() {
+			return MetadataConnectionWrapper.this ;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ( "getMetaData".equals(method.getName()) && method.getParameterTypes().length == 0 ) {
+				return proxyMetaData ;
+			}
+			return MetadataConnectionWrapper.invoke(connection, method, args);
+		}
+	}
+
+	private class MetaDataHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ( "getConnection".equals(method.getName()) ) {
+				return proxyConnection ;
+			}
+			return invokeMetaData(method, args);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.telosys.tools.db.model.DatabaseColumn;
+import org.telosys.tools.db.model.DatabaseForeignKey;
+import org.telosys.tools.db.model.DatabaseForeignKeyColumn;
+import org.telosys.tools.db.model.DatabaseTable;
+
+/**
+ * Structural fingerprint of a database table <br>
+ * Hash of all the table information compared by the model update : table type and comment, 
+ * columns ( name, type, JDBC type, not null, size, comment, primary key ) and foreign keys definitions. <br>
+ * The columns and the foreign keys are sorted by name (the fingerprint doesn't depend on the meta-data order)
+ *
+ * @since 3.3.0
+ */
+/* package */ final class TableFingerprint {
+
+	private final static String HASH_ALGORITHM = "SHA-1" ;
+
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	private final static char SEPARATOR = '\u0000' ;
+
+	private final static String NULL_VALUE = "\u0001" ;
+
+	private TableFingerprint() {
+	}
+
+	private static void append(StringBuilder sb, String s) {
+		sb.append( s != null ? s : NULL_VALUE ).append(SEPARATOR);
+	}
+
+	private static void append(StringBuilder sb, int i) {
+		sb.append(i).append(SEPARATOR);
+	}
+
+	private static String columnDescription(DatabaseColumn dbColumn) {
+		StringBuilder sb = new StringBuilder();
+		append(sb, dbColumn.getColumnName());
+		append(sb, dbColumn.getDbTypeName());
+		append(sb, dbColumn.getJdbcTypeCode());
+		append(sb, dbColumn.getNotNullAsString());
+		append(sb, dbColumn.getSize());
+		append(sb, dbColumn.getComment());
+		append(sb, dbColumn.isInPrimaryKey() ? "PK" : "" );
+		return sb.toString();
+	}
+
+	private static String foreignKeyDescription(DatabaseForeignKey dbFK) {
+		StringBuilder sb = new StringBuilder();
+		append(sb, dbFK.getForeignKeyName());
+		for ( DatabaseForeignKeyColumn dbFkCol : dbFK.getForeignKeyColumns() ) {
+			append(sb, dbFkCol.getFkSequence());
+			append(sb, dbFkCol.getFkTableName());
+			append(sb, dbFkCol.getFkColumnName());
+			append(sb, dbFkCol.getPkTableName());
+			append(sb, dbFkCol.getPkColumnName());
+			append(sb, dbFkCol.getUpdateRule());
+			append(sb, dbFkCol.getDeleteRule());
+			append(sb, dbFkCol.getDeferrability());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the fingerprint of the given table (hexadecimal string)
+	 * @param dbTable
+	 * @return
+	 */
+	public static String compute(DatabaseTable dbTable) {
+		List<String> columns = new ArrayList<>();
+		for ( DatabaseColumn dbColumn : dbTable.getColumns() ) {
+			columns.add(columnDescription(dbColumn));
+		}
+		Collections.sort(columns);
+		List<String> foreignKeys = new ArrayList<>();
+		for ( DatabaseForeignKey dbFK : dbTable.getForeignKeys() ) {
+			foreignKeys.add(foreignKeyDescription(dbFK));
+		}
+		Collections.sort(foreignKeys);
+
+		StringBuilder sb = new StringBuilder();
+		append(sb, dbTable.getTableType());
+		append(sb, dbTable.getComment());
+		append(sb, columns.size());
+		for ( String s : columns ) {
+			sb.append(s);
+		}
+		append(sb, foreignKeys.size());
+		for ( String s : foreignKeys ) {
+			sb.append(s);
+		}
+		return toHexString(createMessageDigest().digest(sb.toString().getBytes(UTF8)));
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-1 is supported by every Java platform
+			throw new IllegalStateException("Hash algorithm not available : " + HASH_ALGORITHM, e);
+		}
+	}
+
+	private static String toHexString(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for ( byte b : bytes ) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
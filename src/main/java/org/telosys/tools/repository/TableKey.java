@@ -0,0 +1,83 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+/**
+ * Key identifying a table in a database : catalog + schema + table name <br>
+ * A null catalog or schema is considered as a void string ( not all the databases use them )
+ *
+ * @since 3.3.0
+ */
+/* package */ class TableKey {
+
+	private final String catalog ;
+
+	private final String schema ;
+
+	private final String tableName ;
+
+	private final int hashCode ;
+
+	/**
+	 * Constructor
+	 * @param catalog the catalog name (or null)
+	 * @param schema the schema name (or null)
+	 * @param tableName the table name
+	 */
+	public TableKey(String catalog, String schema, String tableName) {
+		this.catalog   = catalog != null ? catalog : "" ;
+		this.schema    = schema  != null ? schema  : "" ;
+		this.tableName = tableName ;
+		this.hashCode  = ( ( 31 * this.catalog.hashCode() ) + this.schema.hashCode() ) * 31 + tableName.hashCode() ;
+	}
+
+	public String getCatalog() {
+		return catalog;
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode ;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true ;
+		}
+		if ( obj instanceof TableKey ) {
+			TableKey other = (TableKey) obj ;
+			return hashCode == other.hashCode 
+					&& tableName.equals(other.tableName) 
+					&& schema.equals(other.schema) 
+					&& catalog.equals(other.catalog) ;
+		}
+		return false ;
+	}
+
+	@Override
+	public String toString() {
+		return catalog + "." + schema + "." + tableName ;
+	}
+}
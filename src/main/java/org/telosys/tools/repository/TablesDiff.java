@@ -0,0 +1,117 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Three-way difference between the tables of the database and the tables of the repository model <br>
+ * . added tables : in the database but not in the model <br>
+ * . removed tables : in the model but no longer in the database <br>
+ * . common tables : in both <br>
+ * The tables are matched by key (catalog + schema + table name) using hashed sets (linear time). <br>
+ * As the entities of the model are identified by the table name, a database table is also matched
+ * by name when the key is not found (catalog or schema not set or changed in the model).
+ *
+ * @since 3.3.0
+ */
+/* package */ class TablesDiff {
+
+	private final List<TableKey> addedTables = new LinkedList<>() ;
+
+	private final List<TableKey> removedTables = new LinkedList<>() ;
+
+	private final List<TableKey> commonTables = new LinkedList<>() ;
+
+	/**
+	 * Database table --> model table (or first database table with the same name)
+	 */
+	private final Map<TableKey, TableKey> matches = new HashMap<>() ;
+
+	/**
+	 * Constructor : computes the differences
+	 * @param databaseTables the keys of the database tables (in the database order)
+	 * @param modelTables the keys of the model tables
+	 */
+	public TablesDiff(List<TableKey> databaseTables, List<TableKey> modelTables) {
+		Map<TableKey, TableKey> modelKeys = new HashMap<>();
+		Map<String, TableKey> tablesByName = new HashMap<>();
+		for ( TableKey modelTable : modelTables ) {
+			modelKeys.put(modelTable, modelTable);
+			tablesByName.put(modelTable.getTableName(), modelTable);
+		}
+		Set<TableKey> matchedModelTables = new HashSet<>();
+		for ( TableKey databaseTable : databaseTables ) {
+			TableKey match = modelKeys.get(databaseTable);
+			if ( match == null ) {
+				match = tablesByName.get(databaseTable.getTableName());
+			}
+			if ( match != null ) {
+				commonTables.add(databaseTable);
+				matches.put(databaseTable, match);
+				matchedModelTables.add(match);
+			}
+			else {
+				addedTables.add(databaseTable);
+				// another database table with the same name will be considered as the same entity
+				tablesByName.put(databaseTable.getTableName(), databaseTable);
+			}
+		}
+		for ( TableKey modelTable : modelTables ) {
+			if ( ! matchedModelTables.contains(modelTable) ) {
+				removedTables.add(modelTable);
+			}
+		}
+	}
+
+	/**
+	 * Returns the tables existing in the database but not in the model
+	 * @return
+	 */
+	public List<TableKey> getAddedTables() {
+		return addedTables;
+	}
+
+	/**
+	 * Returns the tables existing in the model but no longer in the database
+	 * @return
+	 */
+	public List<TableKey> getRemovedTables() {
+		return removedTables;
+	}
+
+	/**
+	 * Returns the database tables existing in the model
+	 * @return
+	 */
+	public List<TableKey> getCommonTables() {
+		return commonTables;
+	}
+
+	/**
+	 * Returns the table matching the given database table 
+	 * @param databaseTable
+	 * @return the model table (or the first added table with the same name), or null if the table is added
+	 */
+	public TableKey getMatchingTable(TableKey databaseTable) {
+		return matches.get(databaseTable);
+	}
+}
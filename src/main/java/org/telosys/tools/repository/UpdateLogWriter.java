@@ -19,12 +19,14 @@ package org.telosys.tools.repository ;
  * @author Laurent GUERIN
  * 
  */
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 
 public class UpdateLogWriter
 {
@@ -32,9 +34,17 @@ public class UpdateLogWriter
 
     private static final int         CRLF            = 2;
 
+    private static final int         BUFFER_SIZE     = 8192; // v 3.3.0
+
     private int                      endOfLine     = LF; // for future use ?
 	
 	private OutputStream outputStream = null ;
+
+	private final Charset charset ; // v 3.3.0
+
+	private final boolean autoFlush ; // v 3.3.0 ( flush after each write )
+
+	private long bytesWritten = 0 ; // v 3.3.0
 	
     //-----------------------------------------------------------------------------
     //--- CONSTRUCTORS
@@ -44,9 +54,76 @@ public class UpdateLogWriter
      * @param file
      */
     public UpdateLogWriter(File file) {
+    	this.charset = Charset.defaultCharset() ;
+    	this.autoFlush = true ;
+    	this.outputStream = createFileOutputStream(file);
+    }
+    
+    /**
+     * Constructor for logging "in memory"
+     * @param byteArrayOutputStream
+     */
+    public UpdateLogWriter(ByteArrayOutputStream byteArrayOutputStream) {
+    	this.charset = Charset.defaultCharset() ;
+    	this.autoFlush = true ;
+        if (byteArrayOutputStream != null) {
+        	outputStream = byteArrayOutputStream ;
+        }
+        else {
+        	throw new RuntimeException("UpdateLogWriter constructor : file parameter is null");
+        }
+    }
+    
+    /**
+     * Constructor for a buffered file logger <br>
+     * The lines are written in a buffer flushed when full, by 'flush()' and by 'close()'
+     * @param file
+     * @param charset the charset used to encode the lines
+     * @since 3.3.0
+     */
+    public UpdateLogWriter(File file, Charset charset) {
+    	this(createFileOutputStream(file), charset);
+    }
+    
+    /**
+     * Constructor for a buffered logger writing in the given stream <br>
+     * The lines are written in a buffer flushed when full, by 'flush()' and by 'close()' <br>
+     * ( no additional buffer for a ByteArrayOutputStream )
+     * @param outputStream
+     * @param charset the charset used to encode the lines
+     * @since 3.3.0
+     */
+    public UpdateLogWriter(OutputStream outputStream, Charset charset) {
+        if (outputStream == null) {
+        	throw new RuntimeException("UpdateLogWriter constructor : output stream parameter is null");
+        }
+        if (charset == null) {
+        	throw new RuntimeException("UpdateLogWriter constructor : charset parameter is null");
+        }
+    	this.charset = charset ;
+    	this.autoFlush = false ;
+    	if ( outputStream instanceof ByteArrayOutputStream || outputStream instanceof BufferedOutputStream ) {
+    		this.outputStream = outputStream ;
+    	}
+    	else {
+    		this.outputStream = new BufferedOutputStream(outputStream, BUFFER_SIZE) ;
+    	}
+    }
+    
+    /**
+     * Constructor for a writer without output stream ( for the subclasses )
+     * @param charset
+     * @since 3.3.0
+     */
+    protected UpdateLogWriter(Charset charset) {
+    	this.charset = charset ;
+    	this.autoFlush = false ;
+    }
+    
+    private static OutputStream createFileOutputStream(File file) {
         if (file != null) {
             try {
-                outputStream = new FileOutputStream(file);
+                return new FileOutputStream(file);
             } 
             catch (FileNotFoundException ex) {
             	// Cannot create file
@@ -58,50 +135,108 @@ public class UpdateLogWriter
         }
     }
     
+    //-----------------------------------------------------------------------------
     /**
-     * Constructor for logging "in memory"
-     * @param byteArrayOutputStream
+     * Returns the charset used to encode the lines
+     * @return
+     * @since 3.3.0
      */
-    public UpdateLogWriter(ByteArrayOutputStream byteArrayOutputStream) {
-        if (byteArrayOutputStream != null) {
-        	outputStream = byteArrayOutputStream ;
-        }
-        else {
-        	throw new RuntimeException("UpdateLogWriter constructor : file parameter is null");
-        }
+    public Charset getCharset() {
+    	return charset ;
+    }
+    
+    /**
+     * Returns the given message encoded as a line ( with the end of line )
+     * @param msg
+     * @return
+     * @since 3.3.0
+     */
+    protected byte[] toLineBytes( String msg ) 
+    {
+    	byte[] bytes = msg.getBytes(charset);
+    	int eolLength = ( endOfLine == CRLF ) ? 2 : 1 ;
+    	byte[] line = new byte[bytes.length + eolLength];
+    	System.arraycopy(bytes, 0, line, 0, bytes.length);
+    	if (endOfLine == CRLF)  {
+    		line[bytes.length] = '\r' ;
+    	}
+    	line[line.length - 1] = '\n' ;
+    	return line ;
     }
     
     //-----------------------------------------------------------------------------
     public synchronized void println( String msg )
     {
         if (outputStream != null) {
-            try {
-                outputStream.write(msg.getBytes());
-                if (endOfLine == CRLF)  {
-                	outputStream.write('\r');
-                	outputStream.write('\n');
-                }
-                else {
-                	outputStream.write('\n');
-                }
-                outputStream.flush();
-            } 
-            catch (IOException ex) {
-            	throw new RuntimeException("UpdateLogWriter : cannot write (IOException)");
+            writeBytes(toLineBytes(msg));
+        }
+    }
+    
+    //-----------------------------------------------------------------------------
+    /**
+     * Writes the given bytes as is (eg lines buffered by another writer)
+     * @param bytes
+     * @since 3.3.0
+     */
+    public synchronized void write( byte[] bytes )
+    {
+        if (outputStream != null) {
+            writeBytes(bytes);
+        }
+    }
+    
+    private void writeBytes( byte[] bytes )
+    {
+        try {
+            outputStream.write(bytes);
+            if ( autoFlush ) {
+            	outputStream.flush();
             }
+            bytesWritten = bytesWritten + bytes.length ;
+        } 
+        catch (IOException ex) {
+        	throw new RuntimeException("UpdateLogWriter : cannot write (IOException)");
+        }
+    }
+    
+    //-----------------------------------------------------------------------------
+    /**
+     * Flushes the lines written 
+     * @since 3.3.0
+     */
+    public synchronized void flush()
+    {
+        if (outputStream != null) {
+        	try {
+				outputStream.flush();
+			} 
+        	catch (IOException e) {
+				throw new RuntimeException("UpdateLogWriter : cannot flush (IOException)");
+			}
         }
     }
     
+    //-----------------------------------------------------------------------------
+    /**
+     * Returns the number of bytes written since the creation of the writer
+     * @return
+     * @since 3.3.0
+     */
+    public synchronized long getBytesWritten()
+    {
+        return bytesWritten ;
+    }
+    
     //-----------------------------------------------------------------------------
     public synchronized void close()
     {
         if (outputStream != null) {
         	try {
-				outputStream.close();
+				outputStream.close(); // flush included
 			} 
         	catch (IOException e) {
 				throw new RuntimeException("UpdateLogWriter : cannot close (IOException)");
 			}
         }
     }
-}
\ No newline at end of file
+}
@@ -15,19 +15,59 @@
  */
 package org.telosys.tools.repository.changelog;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.telosys.tools.commons.TelosysToolsException;
 
 public class ChangeLog {
 
 	private final List<ChangeOnEntity> list = new LinkedList<ChangeOnEntity>();
 	private final Date date = new Date();
+
+	private final Map<String, ChangeOnEntity> changesByName = new HashMap<>(); // v 3.3.0 (index)
+	private final Set<String> duplicatedNames = new HashSet<>(); // v 3.3.0
+	private final Map<ChangeType, List<ChangeOnEntity>> changesByType = new EnumMap<>(ChangeType.class); // v 3.3.0 (index)
+
+	private final ChangeLogWriter writer ; // v 3.3.0
+
+	private TelosysToolsException writerFailure = null ; // v 3.3.0
 	
 	private void check(boolean expression, String errorMessage ) {
 		if ( expression != true ) throw new RuntimeException(errorMessage);
 	}
 	
+	/**
+	 * Constructor
+	 */
+	public ChangeLog() {
+		this(null);
+	}
+	
+	/**
+	 * Constructor for a change log written as it is produced <br>
+	 * An error of the writer does not interrupt the logging (the next changes are not written), 
+	 * it is reported by 'checkWriter()'. <br>
+	 * The changes are still kept in memory, the 'before state' copies of the updated entities 
+	 * until 'releaseEntitiesBefore()' (one copy for each entity updated).
+	 * @param writer the writer where to write each change when it is logged (or null)
+	 * @since 3.3.0
+	 */
+	public ChangeLog(ChangeLogWriter writer) {
+		super();
+		this.writer = writer ;
+		for ( ChangeType changeType : ChangeType.values() ) {
+			changesByType.put(changeType, new LinkedList<ChangeOnEntity>());
+		}
+	}
+	
 	/**
 	 * Log a change : an entity created or updated or deleted
 	 * @param changeOnEntity
@@ -38,6 +78,42 @@ public class ChangeLog {
 			check( changeOnEntity.getChangesOnForeignKey().size() == 0, "Entity CREATED must not have changes on foreign keys" );
 		}
 		list.add(changeOnEntity);
+		//--- Indexes ( v 3.3.0 )
+		String entityName = changeOnEntity.getEntityName();
+		if ( entityName != null && changesByName.put(entityName, changeOnEntity) != null ) {
+			duplicatedNames.add(entityName);
+		}
+		changesByType.get(changeOnEntity.getChangeType()).add(changeOnEntity);
+		//--- Streaming ( v 3.3.0 )
+		if ( writer != null && writerFailure == null ) {
+			try {
+				writer.writeChange(changeOnEntity);
+			} catch (TelosysToolsException e) {
+				writerFailure = e ; // the caller (entity being updated) is not interrupted
+			}
+		}
+	}
+
+	/**
+	 * Throws the error of the writer if a change has not been written
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	public void checkWriter() throws TelosysToolsException {
+		if ( writerFailure != null ) {
+			throw new TelosysToolsException("Cannot write change log : " + writerFailure.getMessage(), writerFailure);
+		}
+	}
+
+	/**
+	 * Releases the 'before state' copies of all the entities updated <br>
+	 * ( 'getEntityBefore()' returns null for these entities after this call )
+	 * @since 3.3.0
+	 */
+	public void releaseEntitiesBefore() {
+		for ( ChangeOnEntity changeOnEntity : changesByType.get(ChangeType.UPDATED) ) {
+			changeOnEntity.releaseEntityBefore();
+		}
 	}
 	
 	public Date getDate() {
@@ -49,7 +125,7 @@ public class ChangeLog {
 	 * @return
 	 */
 	public List<ChangeOnEntity> getChanges() {
-		return list ;
+		return Collections.unmodifiableList(list) ; // v 3.3.0 (unmodifiable : only 'log' can add a change)
 	}
 
 	/**
@@ -58,25 +134,13 @@ public class ChangeLog {
 	 * @return
 	 */
 	public List<ChangeOnEntity> getChangesByType(ChangeType changeType) {
-		LinkedList<ChangeOnEntity> selection = new LinkedList<ChangeOnEntity>();
-		for ( ChangeOnEntity change : list ) {
-			if ( change.getChangeType() == changeType ) {
-				selection.add(change);
-			}
-		}
-		return selection ;
+		return Collections.unmodifiableList(changesByType.get(changeType)) ; // v 3.3.0 (index)
 	}
 	
 	public ChangeOnEntity getChangeByEntityName(String entityName) {
-		ChangeOnEntity changeFound = null ;
 		if ( entityName == null ) throw new IllegalArgumentException("Entity name is null");
-		for ( ChangeOnEntity change : list ) {
-			if ( entityName.equals(change.getEntityName()) ) {
-				if ( changeFound != null ) throw new RuntimeException("Duplicated name '" + entityName +"' in changeLog");
-				changeFound = change ;
-			}
-		}
-		return changeFound ;
+		if ( duplicatedNames.contains(entityName) ) throw new RuntimeException("Duplicated name '" + entityName +"' in changeLog");
+		return changesByName.get(entityName) ; // v 3.3.0 (index)
 	}
 	
 	/**
@@ -109,12 +173,6 @@ public class ChangeLog {
 	}
 
 	private int getNumberOfEntities(ChangeType changeType) {
-		int count = 0 ;
-		for ( ChangeOnEntity change : list ) {
-			if ( change.getChangeType() == changeType ) {
-				count++;
-			}
-		}
-		return count ;
+		return changesByType.get(changeType).size() ; // v 3.3.0 (index)
 	}
 }
@@ -0,0 +1,222 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.changelog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.Wrappers;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.persistence.util.RepositoryConst;
+import org.telosys.tools.repository.persistence.util.Xml;
+import org.telosys.tools.repository.persistence.util.XmlWriter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Streaming XML writer for the changes of a ChangeLog <br>
+ * Each change is written as soon as it is given (nothing is kept in memory), with the details of the changes 
+ * on the columns and on the foreign keys ( 'before' and 'after' states in the repository format ). <br>
+ * Layout : 
+ * <pre>
+ * &lt;changeLog date="..."&gt;
+ *   &lt;entityChange type="UPDATED" name="TABLE" changes="2" databaseTypeChanged="false" databaseCommentChanged="true"&gt;
+ *     &lt;columnChange type="UPDATED" name="COLUMN"&gt; &lt;before&gt; &lt;column .../&gt; &lt;/before&gt; &lt;after&gt; ... &lt;/after&gt; &lt;/columnChange&gt;
+ *     &lt;foreignKeyChange type="CREATED" name="FK"&gt; &lt;after&gt; &lt;fk ...&gt; ... &lt;/fk&gt; &lt;/after&gt; &lt;/foreignKeyChange&gt;
+ *   &lt;/entityChange&gt;
+ * &lt;/changeLog&gt;
+ * </pre>
+ * The entities created or deleted are written with their table description only.
+ *
+ * @since 3.3.0
+ */
+public class ChangeLogWriter {
+
+	public final static String CHANGELOG_ELEMENT          = "changeLog" ;
+	public final static String ENTITY_CHANGE_ELEMENT      = "entityChange" ;
+	public final static String COLUMN_CHANGE_ELEMENT      = "columnChange" ;
+	public final static String FOREIGN_KEY_CHANGE_ELEMENT = "foreignKeyChange" ;
+	public final static String BEFORE_ELEMENT             = "before" ;
+	public final static String AFTER_ELEMENT              = "after" ;
+
+	private final OutputStream outputStream ;
+
+	private final XmlWriter writer ;
+
+	private final Document scratchDocument ;
+
+	private final Date date ;
+
+	private boolean started = false ;
+
+	private int changesCount = 0 ;
+
+	/**
+	 * Constructor
+	 * @param outputStream the output stream (closed by 'close()')
+	 * @throws TelosysToolsException
+	 */
+	public ChangeLogWriter(OutputStream outputStream) throws TelosysToolsException {
+		this(outputStream, new Date());
+	}
+
+	/**
+	 * Constructor
+	 * @param outputStream the output stream (closed by 'close()')
+	 * @param date the date of the change log
+	 * @throws TelosysToolsException
+	 */
+	public ChangeLogWriter(OutputStream outputStream, Date date) throws TelosysToolsException {
+		super();
+		this.outputStream = outputStream ;
+		this.writer = new XmlWriter(outputStream);
+		this.scratchDocument = Xml.createDomDocument();
+		this.date = date ;
+	}
+
+	private String nonNull(String s) {
+		return s != null ? s : "" ;
+	}
+
+	private void start() throws TelosysToolsException {
+		if ( ! started ) {
+			started = true ;
+			writer.writeStartDocument();
+			Element element = scratchDocument.createElement(CHANGELOG_ELEMENT);
+			element.setAttribute("date", RepositoryConst.formatDate(date));
+			writer.writeStartElement(element);
+		}
+	}
+
+	/**
+	 * Writes all the changes of the given change log
+	 * @param changeLog
+	 * @throws TelosysToolsException
+	 */
+	public void writeChanges(ChangeLog changeLog) throws TelosysToolsException {
+		for ( ChangeOnEntity change : changeLog.getChanges() ) {
+			writeChange(change);
+		}
+	}
+
+	/**
+	 * Writes the given change 
+	 * @param change
+	 * @throws TelosysToolsException
+	 */
+	public synchronized void writeChange(ChangeOnEntity change) throws TelosysToolsException {
+		start();
+		Element element = scratchDocument.createElement(ENTITY_CHANGE_ELEMENT);
+		element.setAttribute("type", change.getChangeType().name());
+		element.setAttribute("name", nonNull(change.getEntityName()));
+		element.setAttribute("changes", String.valueOf(change.getNumberOfChanges()));
+		element.setAttribute("databaseTypeChanged", String.valueOf(change.isDatabaseTypeHasChanged()));
+		element.setAttribute("databaseCommentChanged", String.valueOf(change.isDatabaseCommentHasChanged()));
+		writer.writeStartElement(element);
+		switch ( change.getChangeType() ) {
+		case CREATED :
+			writeEntity(AFTER_ELEMENT, change.getEntityCreated());
+			break;
+		case DELETED :
+			writeEntity(BEFORE_ELEMENT, change.getEntityDeleted());
+			break;
+		default :
+			for ( ChangeOnColumn changeOnColumn : change.getChangesOnColumn() ) {
+				writeChangeOnColumn(changeOnColumn);
+			}
+			for ( ChangeOnForeignKey changeOnForeignKey : change.getChangesOnForeignKey() ) {
+				writeChangeOnForeignKey(changeOnForeignKey);
+			}
+			break;
+		}
+		writer.writeEndElement();
+		changesCount++ ;
+	}
+
+	private void writeEntity(String stateElementName, EntityInDbModel entity) throws TelosysToolsException {
+		writer.writeStartElement(scratchDocument.createElement(stateElementName));
+		writer.writeElement(Wrappers.ENTITY_WRAPPER.getXmlDesc(entity, scratchDocument));
+		writer.writeEndElement();
+	}
+
+	private void writeChangeOnColumn(ChangeOnColumn changeOnColumn) throws TelosysToolsException {
+		AttributeInDbModel column = changeOnColumn.getColumnAfter() != null ? changeOnColumn.getColumnAfter() : changeOnColumn.getColumnBefore() ;
+		Element element = scratchDocument.createElement(COLUMN_CHANGE_ELEMENT);
+		element.setAttribute("type", changeOnColumn.getChangeType().name());
+		element.setAttribute("name", column != null ? nonNull(column.getDatabaseName()) : "" );
+		writer.writeStartElement(element);
+		writeColumn(BEFORE_ELEMENT, changeOnColumn.getColumnBefore());
+		writeColumn(AFTER_ELEMENT, changeOnColumn.getColumnAfter());
+		writer.writeEndElement();
+	}
+
+	private void writeColumn(String stateElementName, AttributeInDbModel column) throws TelosysToolsException {
+		if ( column != null ) {
+			writer.writeStartElement(scratchDocument.createElement(stateElementName));
+			writer.writeElement(Wrappers.ATTRIBUTE_WRAPPER.getXmlElement(column, scratchDocument));
+			writer.writeEndElement();
+		}
+	}
+
+	private void writeChangeOnForeignKey(ChangeOnForeignKey changeOnForeignKey) throws TelosysToolsException {
+		Element element = scratchDocument.createElement(FOREIGN_KEY_CHANGE_ELEMENT);
+		element.setAttribute("type", changeOnForeignKey.getChangeType().name());
+		element.setAttribute("name", nonNull(changeOnForeignKey.getForeignKeyName()));
+		writer.writeStartElement(element);
+		writeForeignKey(BEFORE_ELEMENT, changeOnForeignKey.getForeignKeyBefore());
+		writeForeignKey(AFTER_ELEMENT, changeOnForeignKey.getForeignKeyAfter());
+		writer.writeEndElement();
+	}
+
+	private void writeForeignKey(String stateElementName, ForeignKeyInDbModel foreignKey) throws TelosysToolsException {
+		if ( foreignKey != null ) {
+			writer.writeStartElement(scratchDocument.createElement(stateElementName));
+			writer.writeStartElement(Wrappers.FOREIGNKEY_WRAPPER.getXmlDesc(foreignKey, scratchDocument));
+			for ( ForeignKeyColumnInDbModel foreignKeyColumn : foreignKey.getForeignKeyColumns() ) {
+				writer.writeElement(Wrappers.FOREIGNKEY_COLUMN_WRAPPER.getXmlDesc(foreignKeyColumn, scratchDocument));
+			}
+			writer.writeEndElement();
+			writer.writeEndElement();
+		}
+	}
+
+	/**
+	 * Returns the number of changes written
+	 * @return
+	 */
+	public synchronized int getChangesCount() {
+		return changesCount ;
+	}
+
+	/**
+	 * Ends the change log and closes the output stream
+	 * @throws TelosysToolsException
+	 */
+	public synchronized void close() throws TelosysToolsException {
+		start(); // void change log
+		writer.writeEndDocument();
+		try {
+			outputStream.close();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot close change log stream", e);
+		}
+	}
+}
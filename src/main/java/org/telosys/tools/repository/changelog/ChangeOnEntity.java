@@ -31,7 +31,8 @@ public class ChangeOnEntity {
 	
 	private final String           entityName ;
 	private final ChangeType       changeType ;
-	private final EntityInDbModel  entityBefore ;
+	private EntityInDbModel        entityBefore ; // v 3.3.0 : not final (can be captured on the first change)
+	private boolean                entityBeforeReleased = false ; // v 3.3.0
 	private final EntityInDbModel  entityAfter ;
 
 	private final List<ChangeOnColumn>     changesOnColumns     = new LinkedList<>();
@@ -76,6 +77,54 @@ public class ChangeOnEntity {
 		}
 	}
 	
+	/**
+	 * Constructor for an entity UPDATED with a 'before state' captured on demand (copy-on-write) <br>
+	 * The 'before state' is the entity itself as long as captureEntityBefore() has not been called, <br>
+	 * so an entity without change is never copied
+	 * @param entity the entity to be updated
+	 * @since 3.3.0
+	 */
+	public ChangeOnEntity(EntityInDbModel entity) {
+		super();
+		check ( entity != null , "Entity UPDATED must have an 'after state'" ) ;
+		this.changeType   = ChangeType.UPDATED ;
+		this.entityBefore = null ;
+		this.entityAfter  = entity ;
+		this.entityName   = entity.getDatabaseTable();
+	}
+
+	/**
+	 * Captures the 'before state' of an UPDATED entity (if not yet captured) <br>
+	 * Must be called before each modification of the entity 
+	 * @since 3.3.0
+	 */
+	public void captureEntityBefore() {
+		if ( this.entityBefore == null && this.changeType == ChangeType.UPDATED ) {
+			this.entityBefore = new EntityInDbModel(this.entityAfter);
+		}
+	}
+
+	/**
+	 * Returns true if the 'before state' is a distinct copy of the entity 
+	 * (false for an UPDATED entity not yet modified)
+	 * @return
+	 * @since 3.3.0
+	 */
+	public boolean hasEntityBeforeCopy() {
+		return this.entityBefore != null ;
+	}
+
+	/**
+	 * Releases the 'before state' of an UPDATED entity (no longer available after this call)
+	 * @since 3.3.0
+	 */
+	/* package */ void releaseEntityBefore() {
+		if ( this.changeType == ChangeType.UPDATED ) {
+			this.entityBefore = null ;
+			this.entityBeforeReleased = true ;
+		}
+	}
+
 	//----------------------------------------------------------------------------------------------------------
 	/**
 	 * Returns the change type ( CREATED / UPDATED / DELETED )
@@ -95,9 +144,13 @@ public class ChangeOnEntity {
 
 	/**
 	 * Returns the 'before state' of the changed entity 
-	 * @return
+	 * @return the 'before state' (null if released)
 	 */
 	public EntityInDbModel getEntityBefore() {
+		if ( this.entityBefore == null && this.changeType == ChangeType.UPDATED && ! this.entityBeforeReleased ) {
+			// not modified yet : same state before and after
+			return this.entityAfter;
+		}
 		return this.entityBefore;
 	}
 
@@ -0,0 +1,128 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.changelog;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.Wrappers;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+import org.w3c.dom.Document;
+
+/**
+ * Computes the changes between two states of a repository model ( eg before and after an edition of the file ) <br>
+ * The result is a ChangeLog with the same structure as the one produced by a database update : 
+ * entities created, deleted or updated (table type, table comment, columns and foreign keys). <br>
+ * A column is considered as updated if any of its properties (database or Java) has changed.
+ *
+ * @since 3.3.0
+ */
+public class ModelComparator {
+
+	private final Document scratchDocument ;
+
+	/**
+	 * Constructor
+	 * @throws TelosysToolsException
+	 */
+	public ModelComparator() throws TelosysToolsException {
+		super();
+		this.scratchDocument = Xml.createDomDocument();
+	}
+
+	/**
+	 * Returns the changes between the two given models
+	 * @param modelBefore
+	 * @param modelAfter
+	 * @return
+	 */
+	public ChangeLog compare(RepositoryModel modelBefore, RepositoryModel modelAfter) {
+		ChangeLog changeLog = new ChangeLog();
+		//--- Entities deleted or updated
+		for ( EntityInDbModel entityBefore : modelBefore.getEntitiesSortedByTableName() ) {
+			EntityInDbModel entityAfter = modelAfter.getEntityByTableName(entityBefore.getDatabaseTable());
+			if ( entityAfter == null ) {
+				changeLog.log(new ChangeOnEntity(ChangeType.DELETED, entityBefore, null));
+			}
+			else {
+				ChangeOnEntity changeOnEntity = compareEntities(entityBefore, entityAfter);
+				if ( changeOnEntity.getNumberOfChanges() > 0 ) {
+					changeLog.log(changeOnEntity);
+				}
+			}
+		}
+		//--- Entities created
+		for ( EntityInDbModel entityAfter : modelAfter.getEntitiesSortedByTableName() ) {
+			if ( modelBefore.getEntityByTableName(entityAfter.getDatabaseTable()) == null ) {
+				changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, entityAfter));
+			}
+		}
+		return changeLog ;
+	}
+
+	private ChangeOnEntity compareEntities(EntityInDbModel entityBefore, EntityInDbModel entityAfter) {
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(ChangeType.UPDATED, entityBefore, entityAfter);
+		changeOnEntity.setDatabaseTypeHasChanged( ! StrUtil.identical(entityBefore.getDatabaseType(), entityAfter.getDatabaseType()) );
+		changeOnEntity.setDatabaseCommentHasChanged( ! StrUtil.identical(entityBefore.getDatabaseComment(), entityAfter.getDatabaseComment()) );
+
+		//--- Columns
+		for ( AttributeInDbModel columnBefore : entityBefore.getAttributesArray() ) {
+			AttributeInDbModel columnAfter = entityAfter.getAttributeByColumnName(columnBefore.getDatabaseName());
+			if ( columnAfter == null ) {
+				changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.DELETED, columnBefore, null));
+			}
+			else if ( ! isSameColumn(columnBefore, columnAfter) ) {
+				changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.UPDATED, columnBefore, columnAfter));
+			}
+		}
+		for ( AttributeInDbModel columnAfter : entityAfter.getAttributesArray() ) {
+			if ( entityBefore.getAttributeByColumnName(columnAfter.getDatabaseName()) == null ) {
+				changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.CREATED, null, columnAfter));
+			}
+		}
+
+		//--- Foreign keys
+		for ( ForeignKeyInDbModel fkBefore : entityBefore.getForeignKeys() ) {
+			ForeignKeyInDbModel fkAfter = entityAfter.getForeignKey(fkBefore.getName());
+			if ( fkAfter == null ) {
+				changeOnEntity.addChangeOnForeignKey(new ChangeOnForeignKey(ChangeType.DELETED, fkBefore, null));
+			}
+			else if ( ! fkBefore.isIdentical(fkAfter) ) {
+				changeOnEntity.addChangeOnForeignKey(new ChangeOnForeignKey(ChangeType.UPDATED, fkBefore, fkAfter));
+			}
+		}
+		for ( ForeignKeyInDbModel fkAfter : entityAfter.getForeignKeys() ) {
+			if ( entityBefore.getForeignKey(fkAfter.getName()) == null ) {
+				changeOnEntity.addChangeOnForeignKey(new ChangeOnForeignKey(ChangeType.CREATED, null, fkAfter));
+			}
+		}
+		return changeOnEntity ;
+	}
+
+	/**
+	 * Compares all the properties of the two columns (same XML description in the repository file)
+	 * @param column1
+	 * @param column2
+	 * @return
+	 */
+	private boolean isSameColumn(AttributeInDbModel column1, AttributeInDbModel column2) {
+		return Wrappers.ATTRIBUTE_WRAPPER.getXmlElement(column1, scratchDocument)
+				.isEqualNode(Wrappers.ATTRIBUTE_WRAPPER.getXmlElement(column2, scratchDocument));
+	}
+}
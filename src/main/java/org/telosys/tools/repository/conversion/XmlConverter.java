@@ -15,9 +15,14 @@
  */
 package org.telosys.tools.repository.conversion;
 
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLStreamReader;
+
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.XmlTableIndex;
 import org.w3c.dom.Document;
 
 public class XmlConverter {
@@ -46,6 +51,35 @@ public class XmlConverter {
 		return converter.xmlDocumentToModel(xmlDocument);
 	}
 
+	/**
+	 * Converts the XML stream to a model without building a DOM document
+	 * @param xmlStreamReader
+	 * @return
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	public RepositoryModel xmlStreamToModel(XMLStreamReader xmlStreamReader) throws TelosysToolsException {
+		
+		log("xmlStreamToModel()... ");
+		XmlConverterFromStream converter = new XmlConverterFromStream(_logger);
+		return converter.xmlStreamToModel(xmlStreamReader);
+	}
+
+	/**
+	 * Creates a model from the given index of the XML file <br>
+	 * The content of each entity is loaded from the XML file when the entity is used for the first time
+	 * @param index
+	 * @return
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	public RepositoryModel xmlIndexToLazyModel(XmlTableIndex index) throws TelosysToolsException {
+		
+		log("xmlIndexToLazyModel()... ");
+		XmlConverterFromIndex converter = new XmlConverterFromIndex(_logger);
+		return converter.xmlIndexToLazyModel(index);
+	}
+
 	public Document modelToXmlDocument(RepositoryModel model) throws TelosysToolsException {
 		
 		log("modelToXmlDocument()... ");
@@ -53,4 +87,19 @@ public class XmlConverter {
 		return converter.modelToXmlDocument(model);
 	}
 
+	/**
+	 * Writes the model directly in the given output stream without building a DOM document <br>
+	 * The result is the same as the DOM document saved with 'Xml.save'
+	 * @param model
+	 * @param os
+	 * @throws TelosysToolsException
+	 * @since 3.3.0
+	 */
+	public void modelToXmlStream(RepositoryModel model, OutputStream os) throws TelosysToolsException {
+		
+		log("modelToXmlStream()... ");
+		XmlConverterToStream converter = new XmlConverterToStream(_logger);
+		converter.modelToXmlStream(model, os);
+	}
+
 }
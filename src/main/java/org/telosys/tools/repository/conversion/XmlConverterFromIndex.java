@@ -0,0 +1,116 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.conversion;
+
+import javax.xml.stream.XMLStreamReader;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.ForeignKeyTypeManager;
+import org.telosys.tools.repository.model.EntityContentLoader;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+import org.telosys.tools.repository.persistence.util.XmlTableIndex;
+
+/**
+ * Lazy conversion from XML to model using an index of the 'table' elements <br>
+ * Only the base attributes and the entities attributes are read when the model is created,
+ * the content of each entity (columns, foreign keys and links) is read when the entity is used for the first time.
+ *
+ * @since 3.3.0
+ */
+public class XmlConverterFromIndex {
+
+	private final TelosysToolsLogger _logger;
+
+	private final XmlConverterFromStream _streamConverter ;
+
+	/**
+	 * Constructor
+	 *
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	protected XmlConverterFromIndex(TelosysToolsLogger logger) throws TelosysToolsException {
+		_logger = logger;
+		_streamConverter = new XmlConverterFromStream(logger);
+	}
+
+	private void log(String msg) {
+		if ( _logger != null ) {
+			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	protected RepositoryModel xmlIndexToLazyModel(XmlTableIndex index) throws TelosysToolsException {
+
+		log("xmlIndexToLazyModel");
+		//--- Base attributes and encoding of the whole file
+		XMLStreamReader reader = Xml.createStreamReader(index.getInputStream());
+		RepositoryModel model = _streamConverter.xmlStreamToModelBase(reader);
+		String encoding = reader.getEncoding();
+		Xml.closeStreamReader(reader);
+
+		//--- Entities attributes only
+		for ( int i = 0 ; i < index.size() ; i++ ) {
+			reader = Xml.createStreamReader(index.getTableInputStream(i), encoding);
+			EntityInDbModel entity = _streamConverter.xmlStreamToEntity(reader);
+			Xml.closeStreamReader(reader);
+			entity.setContentLoader(new TableContentLoader(model, index, i, encoding));
+			model.storeEntity(entity);
+		}
+		log("Tags <table> : count = " + index.size() );
+		return model ;
+	}
+
+	/**
+	 * Loads the content of an entity from its 'table' element
+	 */
+	private class TableContentLoader implements EntityContentLoader {
+
+		private final RepositoryModel model ;
+		private final XmlTableIndex   index ;
+		private final int             tableNumber ;
+		private final String          encoding ;
+
+		private TableContentLoader(RepositoryModel model, XmlTableIndex index, int tableNumber, String encoding) {
+			super();
+			this.model = model ;
+			this.index = index ;
+			this.tableNumber = tableNumber ;
+			this.encoding = encoding ;
+		}
+
+		@Override
+		public void loadContent(EntityInDbModel entity) {
+			log("loadContent : entity " + entity.getDatabaseTable() );
+			try {
+				XMLStreamReader reader = Xml.createStreamReader(index.getTableInputStream(tableNumber), encoding);
+				// the stream converter (and its scratch document) is shared by all the entities
+				synchronized (_streamConverter) {
+					_streamConverter.xmlStreamToEntityContent(reader, entity);
+				}
+				Xml.closeStreamReader(reader);
+			} catch (TelosysToolsException e) {
+				throw new IllegalStateException("Cannot load entity '" + entity.getDatabaseTable() + "'", e);
+			}
+			//--- Same finalization as a full model loading
+			ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
+			fkTypeManager.setAttributesForeignKeyInformation(model, entity);
+		}
+	}
+}
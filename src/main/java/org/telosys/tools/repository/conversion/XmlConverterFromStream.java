@@ -0,0 +1,322 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.conversion;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.JoinColumnInDbModel;
+import org.telosys.tools.repository.model.JoinTableInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.RepositoryConst;
+import org.telosys.tools.repository.persistence.util.Xml;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Streaming (StAX) conversion from XML to model <br>
+ * The model objects are built directly from the parse events, no DOM tree is kept in memory. <br>
+ * The same wrappers as the DOM conversion are used : for each XML element a detached element
+ * holding only its attributes is passed to the wrapper, so both conversions give the same model.
+ *
+ * @since 3.3.0
+ */
+public class XmlConverterFromStream {
+
+	private final TelosysToolsLogger _logger;
+
+	/**
+	 * Document used only as a factory for the detached elements passed to the wrappers
+	 */
+	private final Document _scratchDocument ;
+
+	/**
+	 * Constructor
+	 *
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	protected XmlConverterFromStream(TelosysToolsLogger logger) throws TelosysToolsException {
+		_logger = logger;
+		_scratchDocument = Xml.createDomDocument();
+	}
+
+	private void log(String msg) {
+		if ( _logger != null ) {
+			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	protected RepositoryModel xmlStreamToModel(XMLStreamReader reader) throws TelosysToolsException {
+
+		log("xmlStreamToModel");
+		try {
+			RepositoryModel model = null ;
+			int tablesCount = 0 ;
+			while ( reader.hasNext() ) {
+				if ( reader.next() == XMLStreamConstants.START_ELEMENT ) {
+					String tagName = reader.getLocalName() ;
+					if ( RepositoryConst.TABLELIST.equals(tagName) ) {
+						//--- Tag <tableList> (only one expected)
+						if ( model != null ) {
+							throw new TelosysToolsException("Unexpected node list size");
+						}
+						model = Wrappers.BASE_WRAPPER.getBase(currentElement(reader));
+					}
+					else if ( RepositoryConst.TABLE.equals(tagName) ) {
+						//--- Tag <table> (entity)
+						if ( model == null ) {
+							throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+						}
+						EntityInDbModel entity = processTableElement( reader );
+						model.storeEntity(entity);
+						tablesCount++ ;
+					}
+				}
+			}
+			if ( model == null ) {
+				throw new TelosysToolsException("Unexpected node list size");
+			}
+			log("Tags <table> : count = " + tablesCount );
+			return model ;
+		} catch (XMLStreamException e) {
+			throw new TelosysToolsException("XML error : Cannot parse : XMLStreamException", e);
+		}
+	}
+
+	/**
+	 * Returns a detached DOM element with the name and the attributes of the current START_ELEMENT
+	 * @param reader
+	 * @return
+	 */
+	private Element currentElement(XMLStreamReader reader) {
+		Element element = _scratchDocument.createElement(reader.getLocalName());
+		int count = reader.getAttributeCount();
+		for ( int i = 0 ; i < count ; i++ ) {
+			element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		return element ;
+	}
+
+	/**
+	 * Moves to the next child element of the current element <br>
+	 * @param reader
+	 * @return true if positioned on a child START_ELEMENT, false if positioned on the END_ELEMENT of the current element
+	 * @throws XMLStreamException
+	 */
+	private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while ( reader.hasNext() ) {
+			int event = reader.next();
+			if ( event == XMLStreamConstants.START_ELEMENT ) {
+				return true ;
+			}
+			if ( event == XMLStreamConstants.END_ELEMENT ) {
+				return false ;
+			}
+		}
+		throw new XMLStreamException("Unexpected end of document");
+	}
+
+	/**
+	 * Skips the current element and all its children (ends on its END_ELEMENT)
+	 * @param reader
+	 * @throws XMLStreamException
+	 */
+	private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		while ( nextChildElement(reader) ) {
+			skipElement(reader);
+		}
+	}
+
+	/**
+	 * Reads the repository base attributes (tag 'tableList') <br>
+	 * The reader is moved to the 'tableList' start element, the rest of the stream is not read
+	 * @param reader
+	 * @return the model without entity
+	 * @throws TelosysToolsException
+	 */
+	protected RepositoryModel xmlStreamToModelBase(XMLStreamReader reader) throws TelosysToolsException {
+		log("xmlStreamToModelBase");
+		try {
+			while ( reader.hasNext() ) {
+				if ( reader.next() == XMLStreamConstants.START_ELEMENT ) {
+					String tagName = reader.getLocalName() ;
+					if ( RepositoryConst.TABLELIST.equals(tagName) ) {
+						return Wrappers.BASE_WRAPPER.getBase(currentElement(reader));
+					}
+					else if ( ! RepositoryConst.ROOT_ELEMENT.equals(tagName) ) {
+						throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+					}
+				}
+			}
+			throw new TelosysToolsException("Unexpected node list size");
+		} catch (XMLStreamException e) {
+			throw new TelosysToolsException("XML error : Cannot parse : XMLStreamException", e);
+		}
+	}
+
+	/**
+	 * Reads the entity attributes of a 'table' element (without its content) <br>
+	 * The reader is moved to the 'table' start element
+	 * @param reader a reader for a 'table' element
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected EntityInDbModel xmlStreamToEntity(XMLStreamReader reader) throws TelosysToolsException {
+		try {
+			moveToTableElement(reader);
+			return Wrappers.ENTITY_WRAPPER.getEntity(currentElement(reader));
+		} catch (XMLStreamException e) {
+			throw new TelosysToolsException("XML error : Cannot parse : XMLStreamException", e);
+		}
+	}
+
+	/**
+	 * Reads the content of a 'table' element (columns, foreign keys and links) and stores it in the given entity
+	 * @param reader a reader for a 'table' element
+	 * @param entity
+	 * @throws TelosysToolsException
+	 */
+	protected void xmlStreamToEntityContent(XMLStreamReader reader, EntityInDbModel entity) throws TelosysToolsException {
+		try {
+			moveToTableElement(reader);
+			processTableChildren(reader, entity);
+		} catch (XMLStreamException e) {
+			throw new TelosysToolsException("XML error : Cannot parse : XMLStreamException", e);
+		}
+	}
+
+	private void moveToTableElement(XMLStreamReader reader) throws TelosysToolsException, XMLStreamException {
+		if ( reader.getEventType() != XMLStreamConstants.START_ELEMENT ) {
+			reader.nextTag();
+		}
+		if ( ! RepositoryConst.TABLE.equals(reader.getLocalName()) ) {
+			throw new TelosysToolsException("Unexpected tag '" + reader.getLocalName() + "' at this position");
+		}
+	}
+
+	private EntityInDbModel processTableElement( XMLStreamReader reader ) throws TelosysToolsException, XMLStreamException  {
+
+		EntityInDbModel entity = Wrappers.ENTITY_WRAPPER.getEntity(currentElement(reader));
+		processTableChildren(reader, entity);
+		return entity;
+	}
+
+	private void processTableChildren( XMLStreamReader reader, EntityInDbModel entity ) throws TelosysToolsException, XMLStreamException  {
+
+		while ( nextChildElement(reader) ) {
+			String tagName = reader.getLocalName() ;
+			if ( RepositoryConst.COLUMN.equals(tagName)) {
+				AttributeInDbModel attribute = Wrappers.ATTRIBUTE_WRAPPER.getAttributeObject(entity, currentElement(reader));
+				// the children of the 'column' tag are not loaded (same behavior as the DOM conversion)
+				skipElement(reader);
+				entity.storeAttribute(attribute);
+			}
+			else if ( RepositoryConst.FK.equals(tagName)) {
+				ForeignKeyInDbModel foreignKey = processForeignKeyElement( reader );
+				entity.storeForeignKey(foreignKey);
+			}
+			else if ( RepositoryConst.LINK.equals(tagName)) {
+				LinkInDbModel link = processLinkElement( reader );
+				entity.storeLink(link);
+			}
+			else  {
+				throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+			}
+		}
+	}
+
+	private ForeignKeyInDbModel processForeignKeyElement( XMLStreamReader reader ) throws TelosysToolsException, XMLStreamException  {
+
+		ForeignKeyInDbModel fk = Wrappers.FOREIGNKEY_WRAPPER.getForeignKey(currentElement(reader));
+		while ( nextChildElement(reader) ) {
+			String tagName = reader.getLocalName() ;
+			if ( RepositoryConst.FKCOL.equals(tagName)) {
+				ForeignKeyColumnInDbModel fkCol = Wrappers.FOREIGNKEY_COLUMN_WRAPPER.getForeignKeyColumn(currentElement(reader));
+				skipElement(reader);
+				fk.storeForeignKeyColumn(fkCol);
+			}
+			else  {
+				throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+			}
+		}
+		return fk ;
+	}
+
+	private LinkInDbModel processLinkElement( XMLStreamReader reader ) throws TelosysToolsException, XMLStreamException  {
+
+		LinkInDbModel link = Wrappers.LINK_WRAPPER.getLink(currentElement(reader));
+		while ( nextChildElement(reader) ) {
+			String tagName = reader.getLocalName() ;
+			if ( RepositoryConst.JOIN_COLUMNS_ELEMENT.equals(tagName)) {
+				link.setJoinColumns( processJoinColumnsElement( reader ) );
+			}
+			else if ( RepositoryConst.JOIN_TABLE_ELEMENT.equals(tagName)) {
+				link.setJoinTable( processJoinTableElement( reader ) );
+			}
+			else  {
+				throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+			}
+		}
+		return link ;
+	}
+
+	private List<JoinColumnInDbModel> processJoinColumnsElement( XMLStreamReader reader ) throws TelosysToolsException, XMLStreamException  {
+
+		String parentTagName = reader.getLocalName() ;
+		List<JoinColumnInDbModel> joinColumns = new LinkedList<JoinColumnInDbModel>();
+		while ( nextChildElement(reader) ) {
+			if ( RepositoryConst.JOIN_COLUMN_ELEMENT.equals(reader.getLocalName())) {
+				JoinColumnInDbModel joinColumn = Wrappers.JOIN_COLUMN_WRAPPER.getJoinColumn(currentElement(reader));
+				skipElement(reader);
+				joinColumns.add(joinColumn);
+			}
+			else  {
+				throw new TelosysToolsException("Unexpected tag '" + parentTagName + "' at this position");
+			}
+		}
+		return joinColumns ;
+	}
+
+	private JoinTableInDbModel processJoinTableElement( XMLStreamReader reader ) throws TelosysToolsException, XMLStreamException  {
+
+		JoinTableInDbModel joinTable = Wrappers.JOIN_TABLE_WRAPPER.getObject(currentElement(reader));
+		while ( nextChildElement(reader) ) {
+			String tagName = reader.getLocalName() ;
+			if ( RepositoryConst.JOIN_COLUMNS_ELEMENT.equals(tagName)) {
+				joinTable.setJoinColumns( processJoinColumnsElement( reader ) );
+			}
+			else if ( RepositoryConst.INVERSE_JOIN_COLUMNS_ELEMENT.equals(tagName)) {
+				joinTable.setInverseJoinColumns( processJoinColumnsElement( reader ) );
+			}
+			else  {
+				throw new TelosysToolsException("Unexpected tag '" + tagName + "' at this position");
+			}
+		}
+		return joinTable ;
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.conversion;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.generic.model.JoinColumn;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.JoinColumnInDbModel;
+import org.telosys.tools.repository.model.JoinTableInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.RepositoryConst;
+import org.telosys.tools.repository.persistence.util.Xml;
+import org.telosys.tools.repository.persistence.util.XmlWriter;
+import org.w3c.dom.Document;
+
+/**
+ * Streaming conversion from model to XML <br>
+ * Same tags, attributes and ordering as 'XmlConverterToXml' but written directly in the output stream
+ * (each element is written as soon as it is built, no DOM tree for the whole model)
+ *
+ * @since 3.3.0
+ */
+public class XmlConverterToStream {
+
+	private final TelosysToolsLogger _logger;
+
+	/**
+	 * Document used only as a factory for the detached elements built by the wrappers
+	 */
+	private final Document _scratchDocument ;
+
+	/**
+	 * Constructor
+	 *
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	protected XmlConverterToStream(TelosysToolsLogger logger) throws TelosysToolsException {
+		_logger = logger;
+		_scratchDocument = Xml.createDomDocument();
+	}
+
+	private void log(String msg) {
+		if ( _logger != null ) {
+			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	protected void modelToXmlStream(RepositoryModel model, OutputStream os) throws TelosysToolsException
+	{
+		log("modelToXmlStream()... ");
+		if (model != null) {
+			XmlWriter writer = new XmlWriter(os);
+			writer.writeStartDocument();
+			writer.writeComment(" Telosys Database Repository ");
+			writer.writeStartElement(_scratchDocument.createElement(RepositoryConst.ROOT_ELEMENT));
+			writer.writeStartElement(Wrappers.BASE_WRAPPER.getXmlDesc(model, _scratchDocument));
+
+			log(" . write entities tags");
+			for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
+				log("entity : " + entity.getDatabaseTable() );
+				writeEntity(writer, entity);
+			}
+			writer.writeEndDocument();
+		} else {
+			throw new TelosysToolsException("Cannot write XML stream : model is null");
+		}
+	}
+
+	private void writeEntity(XmlWriter writer, EntityInDbModel entity) throws TelosysToolsException
+	{
+		writer.writeStartElement(Wrappers.ENTITY_WRAPPER.getXmlDesc(entity, _scratchDocument));
+		writeColumns(writer, entity);
+		writeForeignKeys(writer, entity);
+		writeLinks(writer, entity);
+		writer.writeEndElement();
+	}
+
+	private void writeColumns(XmlWriter writer, EntityInDbModel entity) throws TelosysToolsException {
+		for ( AttributeInDbModel attribute : entity.getAttributesArray() ) {
+			writer.writeStartElement(Wrappers.ATTRIBUTE_WRAPPER.getXmlElement(attribute, _scratchDocument));
+			if (attribute.getGeneratedValue() != null) {
+				writer.writeElement(Wrappers.GENERATED_VALUE_WRAPPER.getXmlDesc(attribute.getGeneratedValue(), _scratchDocument));
+			}
+			if (attribute.getSequenceGenerator() != null) {
+				writer.writeElement(Wrappers.SEQUENCE_GENERATOR_WRAPPER.getXmlDesc(attribute.getSequenceGenerator(), _scratchDocument));
+			}
+			if (attribute.getTableGenerator() != null) {
+				writer.writeElement(Wrappers.TABLE_GENERATOR_WRAPPER.getXmlDesc(attribute.getTableGenerator(), _scratchDocument));
+			}
+			writer.writeEndElement();
+		}
+	}
+
+	private void writeForeignKeys(XmlWriter writer, EntityInDbModel entity) throws TelosysToolsException {
+		for ( ForeignKeyInDbModel foreignKey : entity.getForeignKeys() ) {
+			writer.writeStartElement(Wrappers.FOREIGNKEY_WRAPPER.getXmlDesc(foreignKey, _scratchDocument));
+			for ( ForeignKeyColumnInDbModel foreignKeyColumn : foreignKey.getForeignKeyColumns() ) {
+				writer.writeElement(Wrappers.FOREIGNKEY_COLUMN_WRAPPER.getXmlDesc(foreignKeyColumn, _scratchDocument));
+			}
+			writer.writeEndElement();
+		}
+	}
+
+	private void writeLinks(XmlWriter writer, EntityInDbModel entity) throws TelosysToolsException {
+		for ( LinkInDbModel link : entity.getLinksArray() ) {
+			writer.writeStartElement(Wrappers.LINK_WRAPPER.getXmlDesc(link, _scratchDocument));
+			JoinTableInDbModel joinTable = (JoinTableInDbModel) link.getJoinTable();
+			if ( joinTable != null ) {
+				writer.writeStartElement(Wrappers.JOIN_TABLE_WRAPPER.getXmlDesc(joinTable, _scratchDocument));
+				if ( joinTable.getJoinColumns() != null ) {
+					writeJoinColumns(writer, RepositoryConst.JOIN_COLUMNS_ELEMENT, joinTable.getJoinColumns());
+				}
+				if ( joinTable.getInverseJoinColumns() != null ) {
+					writeJoinColumns(writer, RepositoryConst.INVERSE_JOIN_COLUMNS_ELEMENT, joinTable.getInverseJoinColumns());
+				}
+				writer.writeEndElement();
+			}
+			else if ( link.getJoinColumns() != null ) {
+				writeJoinColumns(writer, RepositoryConst.JOIN_COLUMNS_ELEMENT, link.getJoinColumns());
+			}
+			writer.writeEndElement();
+		}
+	}
+
+	private void writeJoinColumns(XmlWriter writer, String elementName, List<JoinColumn> joinColumns) throws TelosysToolsException {
+		writer.writeStartElement(_scratchDocument.createElement(elementName));
+		for ( JoinColumn joinColumn : joinColumns ) {
+			JoinColumnInDbModel joinColumnInDbModel = (JoinColumnInDbModel) joinColumn ;
+			writer.writeElement(Wrappers.JOIN_COLUMN_WRAPPER.getXmlDesc(joinColumnInDbModel, _scratchDocument));
+		}
+		writer.writeEndElement();
+	}
+}
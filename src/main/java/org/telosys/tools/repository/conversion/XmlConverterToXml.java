@@ -84,8 +84,7 @@ public class XmlConverterToXml {
 	private void addAllEntities(Document doc, RepositoryModel model, Element entitiesElement) 
 	{
 //		EntityInDbModel[] entities = model.getEntities();
-		EntityInDbModel[] entities = model.getEntitiesArraySortedByTableName();
-		for ( EntityInDbModel entity : entities ) {
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) { // v 3.3.0 (cached view)
 //			log("entity : " + entity.getName() );
 			log("entity : " + entity.getDatabaseTable() );
 			addEntity(doc, entity, entitiesElement);
@@ -34,6 +34,7 @@ public class EntityWrapper {
 		entity.setDatabaseSchema(xmlElement.getAttribute(RepositoryConst.TABLE_SCHEMA)); // v 3.0.0
 		entity.setDatabaseType(xmlElement.getAttribute(RepositoryConst.TABLE_DATABASE_TYPE)); // added in v 2.0.7
 		entity.setDatabaseComment(xmlElement.getAttribute(RepositoryConst.TABLE_DATABASE_COMMENT)); // added in v 3.0.3 ( Dec 2018 )
+		entity.setDatabaseFingerprint(xmlElement.getAttribute(RepositoryConst.TABLE_FINGERPRINT)); // added in v 3.3.0
 		return entity;
 	}
 
@@ -45,6 +46,9 @@ public class EntityWrapper {
 		xmlElement.setAttribute(RepositoryConst.TABLE_SCHEMA, entity.getDatabaseSchema()); // v 3.0.0
 		xmlElement.setAttribute(RepositoryConst.TABLE_DATABASE_TYPE, entity.getDatabaseType()); // added in v 2.0.7
 		xmlElement.setAttribute(RepositoryConst.TABLE_DATABASE_COMMENT, entity.getDatabaseComment()); // added in v 3.0.3 ( Dec 2018 )
+		if ( entity.getDatabaseFingerprint() != null ) { // added in v 3.3.0 ( only if known )
+			xmlElement.setAttribute(RepositoryConst.TABLE_FINGERPRINT, entity.getDatabaseFingerprint());
+		}
 		return xmlElement;
 	}
 
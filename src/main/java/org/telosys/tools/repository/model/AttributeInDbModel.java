@@ -136,6 +136,60 @@ public class AttributeInDbModel implements Comparable<AttributeInDbModel>, Seria
 		this.entity = entity ;
 	}
 
+	/**
+	 * Copy constructor (deep copy of the given attribute for the given entity) <br>
+	 * All the fields are copied except the owning entity <br>
+	 * ( String, Integer and BigDecimal are immutable, the generators are copied )
+	 * @param entity the entity owning the new attribute
+	 * @param source the attribute to be copied
+	 * @since 3.3.0
+	 */
+	public AttributeInDbModel(EntityInDbModel entity, AttributeInDbModel source) {
+		super();
+		this.entity = entity ;
+		this._sDatabaseName = source._sDatabaseName ;
+		this._sDatabaseTypeName = source._sDatabaseTypeName ;
+		this.databaseSize = source.databaseSize ;
+		this._bDatabaseNotNull = source._bDatabaseNotNull ;
+		this._bKeyElement = source._bKeyElement ;
+		this._bForeignKeySimple = source._bForeignKeySimple ;
+		this._bForeignKeyComposite = source._bForeignKeyComposite ;
+		this.referencedEntityClassName = source.referencedEntityClassName ;
+		this._bAutoIncremented = source._bAutoIncremented ;
+		this._iDatabasePosition = source._iDatabasePosition ;
+		this._sDatabaseDefaultValue = source._sDatabaseDefaultValue ;
+		this._sDatabaseComment = source._sDatabaseComment ;
+		this._iJdbcTypeCode = source._iJdbcTypeCode ;
+		this._sName = source._sName ;
+		this._sModelFullType = source._sModelFullType ;
+		this._bNotNull = source._bNotNull ;
+		this._sJavaDefaultValue = source._sJavaDefaultValue ;
+		this._bSelected = source._bSelected ;
+		this._sLabel = source._sLabel ;
+		this._sInputType = source._sInputType ;
+		this._bLongText = source._bLongText ;
+		this._bNotEmpty = source._bNotEmpty ;
+		this._bNotBlank = source._bNotBlank ;
+		this._iMinLength = source._iMinLength ;
+		this._iMaxLength = source._iMaxLength ;
+		this._sPattern = source._sPattern ;
+		this.dateType = source.dateType ;
+		this._bDatePast = source._bDatePast ;
+		this._bDateFuture = source._bDateFuture ;
+		this._bDateBefore = source._bDateBefore ;
+		this._bDateAfter = source._bDateAfter ;
+		this._sDateBeforeValue = source._sDateBeforeValue ;
+		this._sDateAfterValue = source._sDateAfterValue ;
+		this._iMinValue = source._iMinValue ;
+		this._iMaxValue = source._iMaxValue ;
+		this._sBooleanTrueValue = source._sBooleanTrueValue ;
+		this._sBooleanFalseValue = source._sBooleanFalseValue ;
+		this._sFormat = source._sFormat ;
+		this.generatedValue    = source.generatedValue != null ? new GeneratedValueInDbModel(source.generatedValue) : null ;
+		this.tableGenerator    = source.tableGenerator != null ? new TableGeneratorInDbModel(source.tableGenerator) : null ;
+		this.sequenceGenerator = source.sequenceGenerator != null ? new SequenceGeneratorInDbModel(source.sequenceGenerator) : null ;
+	}
+
 	public EntityInDbModel getEntity() {
 		return this.entity ;
 	}
@@ -235,6 +289,9 @@ public class AttributeInDbModel implements Comparable<AttributeInDbModel>, Seria
 	 */
 	public void setDatabasePosition(int v) { // #LGU 10/08/2011
 		_iDatabasePosition = v ;
+		if ( entity != null ) { // v 3.3.0
+			entity.attributePositionChanged(this);
+		}
 	}
 	/**
 	 * Set the ordinal position of the column in the database table
@@ -329,7 +386,11 @@ public class AttributeInDbModel implements Comparable<AttributeInDbModel>, Seria
 		return _sName;
 	}
 	public void setName(String s) { // v 3.0.0
+		String oldName = _sName ;
 		_sName = s ;
+		if ( entity != null ) { // v 3.3.0
+			entity.attributeRenamed(this, oldName);
+		}
 	}
 	
 	//-----------------------------------------------------------------------------
@@ -40,4 +40,23 @@ public class DbModelUtil {
 		}
 	}
 
+	/**
+	 * Returns a deep copy of the given list of join columns
+	 * @param listOfJoinColumnInDbModel (can be null)
+	 * @return a new list containing a copy of each join column (or null if the given list is null)
+	 * @since 3.3.0
+	 */
+	protected static List<JoinColumnInDbModel> copyJoinColumns(List<JoinColumnInDbModel> listOfJoinColumnInDbModel) {
+		if ( listOfJoinColumnInDbModel != null ) {
+			LinkedList<JoinColumnInDbModel> joinColumns = new LinkedList<>();
+			for ( JoinColumnInDbModel jc : listOfJoinColumnInDbModel ) {
+				joinColumns.add( jc != null ? new JoinColumnInDbModel(jc) : null );
+			}
+			return joinColumns ;
+		}
+		else {
+			return null ;
+		}
+	}
+
 }
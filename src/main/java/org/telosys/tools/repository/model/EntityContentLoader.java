@@ -0,0 +1,34 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+/**
+ * Loader for the content of an entity (attributes, foreign keys and links) <br>
+ * Used to load the entity content only when it is used for the first time (lazy loading)
+ *
+ * @since 3.3.0
+ */
+public interface EntityContentLoader {
+
+	/**
+	 * Loads the attributes, foreign keys and links of the given entity <br>
+	 * (the entity content is stored with the standard 'store' methods)
+	 * @param entity
+	 * @throws IllegalStateException if the content cannot be loaded
+	 */
+	public void loadContent(EntityInDbModel entity) ;
+
+}
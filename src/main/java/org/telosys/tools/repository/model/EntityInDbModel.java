@@ -15,11 +15,16 @@
  */
 package org.telosys.tools.repository.model;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Hashtable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.telosys.tools.generic.model.Attribute;
 import org.telosys.tools.generic.model.Entity;
@@ -51,14 +56,34 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	private String databaseComment = "";  // v 3.1.0
 
 	private String className ; // v 3.0.0
+
+	private String databaseFingerprint = null ; // v 3.3.0
 	
-	private Hashtable<String,AttributeInDbModel>  attributes  = new Hashtable<>() ; 
+	private Map<String,AttributeInDbModel>  attributes  = new LinkedHashMap<>() ; // v 3.3.0 (was a Hashtable)
 
-	private Hashtable<String,ForeignKeyInDbModel> foreignKeys = new Hashtable<>() ;
+	private Map<String,ForeignKeyInDbModel> foreignKeys = new LinkedHashMap<>() ; // v 3.3.0 (was a Hashtable)
+
+	private Map<String,LinkInDbModel>       links       = new LinkedHashMap<>() ; // v 3.3.0 (was a Hashtable)
+
+	private transient volatile EntityContentLoader contentLoader = null ; // v 3.3.0 (lazy loading)
+
+	private transient boolean contentLoading = false ; // v 3.3.0
+
+	private transient LinksIndex linksIndex = null ; // v 3.3.0 (index of the model holding the entity)
+
+	private transient ForeignKeysIndex foreignKeysIndex = null ; // v 3.3.0 (index of the model holding the entity)
+
+	private transient FieldNamesRegistry fieldNames = null ; // v 3.3.0 (built when used for the first time)
+
+	private transient RepositoryModel model = null ; // v 3.3.0 (model holding the entity)
+
+	private transient volatile SortedView<AttributeInDbModel> attributesView = null ; // v 3.3.0 (cache)
+
+	private transient volatile SortedView<ForeignKeyInDbModel> foreignKeysView = null ; // v 3.3.0 (cache)
+
+	private transient volatile SortedView<LinkInDbModel> linksView = null ; // v 3.3.0 (cache)
 
-	private Hashtable<String,LinkInDbModel>       links       = new Hashtable<>() ;
 
-	
 	/**
 	 * Default constructor 
 	 */
@@ -79,6 +104,148 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 		this.databaseTable = databaseTable;
 	}
 
+	/**
+	 * Copy constructor (deep copy of the entity with its attributes, foreign keys and links) <br>
+	 * The content of the source entity is loaded if necessary. <br>
+	 * The copy is not attached to a model (no indexes) 
+	 * @param source the entity to be copied
+	 * @since 3.3.0
+	 */
+	public EntityInDbModel(EntityInDbModel source) {
+		super();
+		source.loadContentIfNeeded();
+		this.databaseTable   = source.databaseTable ;
+		this.databaseCatalog = source.databaseCatalog ;
+		this.databaseSchema  = source.databaseSchema ;
+		this.databaseType    = source.databaseType ;
+		this.databaseComment = source.databaseComment ;
+		this.className       = source.className ;
+		this.databaseFingerprint = source.databaseFingerprint ;
+		for ( Map.Entry<String,AttributeInDbModel> entry : source.attributes.entrySet() ) {
+			this.attributes.put(entry.getKey(), new AttributeInDbModel(this, entry.getValue()));
+		}
+		for ( Map.Entry<String,ForeignKeyInDbModel> entry : source.foreignKeys.entrySet() ) {
+			this.foreignKeys.put(entry.getKey(), new ForeignKeyInDbModel(entry.getValue()));
+		}
+		for ( Map.Entry<String,LinkInDbModel> entry : source.links.entrySet() ) {
+			LinkInDbModel link = new LinkInDbModel(entry.getValue());
+			link.setEntity(this);
+			this.links.put(entry.getKey(), link);
+		}
+	}
+
+	//--------------------------------------------------------------------------
+	// LAZY LOADING ( v 3.3.0 )
+	//--------------------------------------------------------------------------
+	/**
+	 * Set the loader to be used to load the attributes, foreign keys and links of the entity <br>
+	 * The loader is called once, when the content is used for the first time
+	 * @param loader
+	 * @since 3.3.0
+	 */
+	public void setContentLoader(EntityContentLoader loader) {
+		this.contentLoader = loader ;
+	}
+
+	/**
+	 * Returns true if the attributes, foreign keys and links of the entity are loaded
+	 * @return
+	 * @since 3.3.0
+	 */
+	public boolean isContentLoaded() {
+		return contentLoader == null ;
+	}
+
+	private void loadContentIfNeeded() {
+		if ( contentLoader != null ) {
+			loadContent();
+		}
+	}
+
+	private synchronized void loadContent() {
+		// the loader stores the content with the standard methods (reentrant call ignored)
+		if ( contentLoader != null && ! contentLoading ) {
+			contentLoading = true ;
+			try {
+				contentLoader.loadContent(this);
+				contentLoader = null ;
+			} finally {
+				contentLoading = false ;
+			}
+		}
+	}
+
+	//--------------------------------------------------------------------------
+	// THREAD-SAFETY ( v 3.3.0 )
+	//--------------------------------------------------------------------------
+	/**
+	 * Switches the entity to concurrent maps (called when the entity is stored in a thread-safe model) <br>
+	 * The attributes, foreign keys and links are kept (and still sorted by the getters)
+	 */
+	/* package */ synchronized void useConcurrentMaps() {
+		if ( ! ( attributes instanceof ConcurrentHashMap ) ) {
+			attributes  = new ConcurrentHashMap<>(attributes);
+			foreignKeys = new ConcurrentHashMap<>(foreignKeys);
+			links       = new ConcurrentHashMap<>(links);
+		}
+	}
+
+	/**
+	 * Returns true if the entity uses concurrent maps (entity stored in a thread-safe model)
+	 * @return
+	 * @since 3.3.0
+	 */
+	public boolean isUsingConcurrentMaps() {
+		return attributes instanceof ConcurrentHashMap ;
+	}
+
+	//--------------------------------------------------------------------------
+	// MODEL INDEXES ( v 3.3.0 )
+	//--------------------------------------------------------------------------
+	/**
+	 * Attaches the entity to the indexes of its model (the current links and foreign keys are indexed) <br>
+	 * If the entity content is not yet loaded, the links and foreign keys will be indexed when loaded
+	 * @param linksIndex
+	 * @param foreignKeysIndex
+	 */
+	/* package */ synchronized void attachIndexes(LinksIndex linksIndex, ForeignKeysIndex foreignKeysIndex) {
+		this.linksIndex = linksIndex ;
+		this.foreignKeysIndex = foreignKeysIndex ;
+		if ( isContentLoaded() ) {
+			for ( LinkInDbModel link : links.values() ) {
+				linksIndex.add(this, link);
+			}
+			for ( ForeignKeyInDbModel foreignKey : foreignKeys.values() ) {
+				foreignKeysIndex.add(this, foreignKey);
+			}
+		}
+	}
+
+	/**
+	 * Detaches the entity from the indexes of its model (the current links and foreign keys are removed from the indexes)
+	 * @param linksIndex
+	 * @param foreignKeysIndex
+	 */
+	/* package */ synchronized void detachIndexes(LinksIndex linksIndex, ForeignKeysIndex foreignKeysIndex) {
+		if ( this.linksIndex == linksIndex ) {
+			for ( LinkInDbModel link : links.values() ) {
+				linksIndex.remove(link);
+			}
+			this.linksIndex = null ;
+		}
+		if ( this.foreignKeysIndex == foreignKeysIndex ) {
+			for ( ForeignKeyInDbModel foreignKey : foreignKeys.values() ) {
+				foreignKeysIndex.remove(foreignKey);
+			}
+			this.foreignKeysIndex = null ;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		loadContentIfNeeded(); // the loader is not serialized
+		out.defaultWriteObject();
+	}
+
 	/**
 	 * Returns true if the entity can be considered as a "Join Table" <br>
 	 * Conditions : <br>
@@ -90,20 +257,17 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 */
 	public boolean isJoinTable() 
 	{
+		loadContentIfNeeded(); // v 3.3.0
 		//--- Check if there are 2 FK
 		if ( foreignKeys.size() != 2 ) {
 			return false;
 		} 
 				
-		//--- Check if all the columns are in the Primary Key
-		for ( AttributeInDbModel column : getAttributesArray() ) {
-			if ( ! column.isKeyElement() ) { 
+		//--- Check if all the columns are in the Primary Key and in a Foreign Key
+		for ( AttributeInDbModel attribute : getAttributesView().list ) { // v 3.3.0 (cached view)
+			if ( ! attribute.isKeyElement() ) { 
 				return false ;
 			}
-		}
-		
-		//--- Check if all the columns are in a Foreign Key
-		for ( AttributeInDbModel attribute : getAttributesArray() ) {
 			if ( ! attribute.isFK() ) { 
 				return false ;
 			}
@@ -163,6 +327,25 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 		this.databaseType = s;
 	}
 	
+	/**
+	 * Returns the structural fingerprint of the database table the entity has been generated 
+	 * or updated from ( null if unknown )
+	 * @return
+	 * @since 3.3.0
+	 */
+	public String getDatabaseFingerprint() {
+		return databaseFingerprint;
+	}
+
+	/**
+	 * Set the structural fingerprint of the database table ( a void string is considered as null )
+	 * @param s
+	 * @since 3.3.0
+	 */
+	public void setDatabaseFingerprint(String s) {
+		this.databaseFingerprint = ( s != null && s.length() > 0 ) ? s : null ;
+	}
+
 	@Override
 	public Boolean isTableType() { // v 3.0.0
 		if ( databaseType != null ) {
@@ -201,6 +384,19 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 	public void setClassName(String className) {
 		this.className = className;
+		RepositoryModel currentModel = this.model ;
+		if ( currentModel != null ) { // v 3.3.0
+			currentModel.entityRenamed(this);
+		}
+	}
+
+	/**
+	 * Set the model holding the entity (called by the model when the entity is stored or removed)
+	 * @param model
+	 * @since 3.3.0
+	 */
+	/* package */ void setModel(RepositoryModel model) {
+		this.model = model ;
 	}
 
 	@Override
@@ -223,6 +419,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public int getAttributesCount() {
+		loadContentIfNeeded(); // v 3.3.0
 		return attributes.size();
 	}
 
@@ -233,37 +430,88 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public AttributeInDbModel[] getAttributesArray() {
-		AttributeInDbModel[] cols = (AttributeInDbModel[]) ( attributes.values().toArray( new AttributeInDbModel[attributes.size()] ) );
-		Arrays.sort(cols); // sort using the "Comparable" implementation
-		return cols ;
+		// v 3.3.0 : copy of the cached sorted array (no sort)
+		return getAttributesView().array.clone() ;
+	}
+
+	private SortedView<AttributeInDbModel> getAttributesView() { // v 3.3.0
+		loadContentIfNeeded();
+		SortedView<AttributeInDbModel> view = attributesView ;
+		return view != null ? view : buildAttributesView() ;
+	}
+
+	private synchronized SortedView<AttributeInDbModel> buildAttributesView() { // v 3.3.0
+		if ( attributesView == null ) {
+			AttributeInDbModel[] cols = attributes.values().toArray( new AttributeInDbModel[attributes.size()] );
+			Arrays.sort(cols); // sort using the "Comparable" implementation
+			attributesView = new SortedView<>(cols);
+		}
+		return attributesView ;
 	}
 
 	public void storeAttribute(AttributeInDbModel attribute) { // 'storeColumn' renamed in v 3.0.0
+		loadContentIfNeeded(); // v 3.3.0
 		if ( attribute.getEntity() != this ) {
 			throw new IllegalStateException("Invalid entity in attribute '" + attribute.getName() + "'");
 		}
-		attributes.put(attribute.getDatabaseName(), attribute);
+		AttributeInDbModel previous = attributes.put(attribute.getDatabaseName(), attribute);
+		invalidateAttributesView(); // v 3.3.0
+		if ( previous != null ) { // v 3.3.0
+			unregisterFieldName(previous.getName());
+		}
+		registerFieldName(attribute.getName()); // v 3.3.0
 	}
 
 	public AttributeInDbModel getAttributeByColumnName(String name) {
+		loadContentIfNeeded(); // v 3.3.0
 		return attributes.get(name);
 	}
 
 	public void removeAttribute(AttributeInDbModel attribute) { // 'removeColumn' renamed in v 3.0.0
-		attributes.remove(attribute.getDatabaseName());
+		loadContentIfNeeded(); // v 3.3.0
+		AttributeInDbModel attributeRemoved = attributes.remove(attribute.getDatabaseName());
+		if ( attributeRemoved != null ) { // v 3.3.0
+			invalidateAttributesView();
+			unregisterFieldName(attributeRemoved.getName());
+		}
+	}
+
+	/**
+	 * Called by the attribute when its database position is changed (the attributes order may change)
+	 * @param attribute
+	 * @since 3.3.0
+	 */
+	/* package */ void attributePositionChanged(AttributeInDbModel attribute) {
+		if ( attributes.get(attribute.getDatabaseName()) == attribute ) {
+			invalidateAttributesView();
+		}
+	}
+
+	private synchronized void invalidateAttributesView() { // v 3.3.0
+		attributesView = null ;
+	}
+
+	/**
+	 * Called by the attribute when its name is changed (the registry of used names is updated if the attribute is in the entity)
+	 * @param attribute
+	 * @param oldName
+	 * @since 3.3.0
+	 */
+	/* package */ void attributeRenamed(AttributeInDbModel attribute, String oldName) {
+		if ( attributes.get(attribute.getDatabaseName()) == attribute ) {
+			unregisterFieldName(oldName);
+			registerFieldName(attribute.getName());
+		}
 	}
 
 	//--------------------------------------------------------------------------
 	// COLUMNS exposed as "ATTRIBUTES" of the "GENERIC MODEL" ( v 3.0.0 )
 	//--------------------------------------------------------------------------
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<Attribute> getAttributes() {
-		Attribute[] attributesArray = getAttributesArray();
-		LinkedList<Attribute> attributesList = new LinkedList<>();
-		for ( Attribute a : attributesArray ) {
-			attributesList.add(a);
-		}
-		return attributesList ;
+		// v 3.3.0 : cached unmodifiable sorted list (no copy)
+		return (List<Attribute>) (List<?>) getAttributesView().list ;
 	}
 
 	//--------------------------------------------------------------------------
@@ -277,37 +525,65 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 */
 	public ForeignKeyInDbModel[] getForeignKeys()
 	{
-		ForeignKeyInDbModel[] array = (ForeignKeyInDbModel[]) foreignKeys.values().toArray(new ForeignKeyInDbModel[foreignKeys.size()]);
-		Arrays.sort(array);
-		return array ;
+		// v 3.3.0 : copy of the cached sorted array (no sort)
+		return getForeignKeysView().array.clone() ;
+	}
+
+	private SortedView<ForeignKeyInDbModel> getForeignKeysView() { // v 3.3.0
+		loadContentIfNeeded();
+		SortedView<ForeignKeyInDbModel> view = foreignKeysView ;
+		return view != null ? view : buildForeignKeysView() ;
+	}
+
+	private synchronized SortedView<ForeignKeyInDbModel> buildForeignKeysView() { // v 3.3.0
+		if ( foreignKeysView == null ) {
+			ForeignKeyInDbModel[] array = foreignKeys.values().toArray(new ForeignKeyInDbModel[foreignKeys.size()]);
+			Arrays.sort(array);
+			foreignKeysView = new SortedView<>(array);
+		}
+		return foreignKeysView ;
+	}
+
+	private synchronized void invalidateForeignKeysView() { // v 3.3.0
+		foreignKeysView = null ;
 	}
 	
 	public void storeForeignKey(ForeignKeyInDbModel foreignKey) {
-		foreignKeys.put(foreignKey.getName(), foreignKey);
+		loadContentIfNeeded(); // v 3.3.0
+		ForeignKeyInDbModel previous = foreignKeys.put(foreignKey.getName(), foreignKey);
+		invalidateForeignKeysView(); // v 3.3.0
+		if ( foreignKeysIndex != null ) { // v 3.3.0
+			if ( previous != null ) {
+				foreignKeysIndex.remove(previous);
+			}
+			foreignKeysIndex.add(this, foreignKey);
+		}
 	}
 	
 	public ForeignKeyInDbModel getForeignKey(String name) {
+		loadContentIfNeeded(); // v 3.3.0
 		return foreignKeys.get(name);
 	}
 	
 	public void removeForeignKey(ForeignKeyInDbModel foreignKey) {
-		foreignKeys.remove(foreignKey.getName() );
+		loadContentIfNeeded(); // v 3.3.0
+		ForeignKeyInDbModel removed = foreignKeys.remove(foreignKey.getName() );
+		if ( removed != null ) { // v 3.3.0
+			invalidateForeignKeysView();
+		}
+		if ( removed != null && foreignKeysIndex != null ) { // v 3.3.0
+			foreignKeysIndex.remove(removed);
+		}
 	}
 
 	//--------------------------------------------------------------------------
 	// FOREIGN KEYS exposed as "GENERIC MODEL FOREIGN KEYS" 
 	//--------------------------------------------------------------------------
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<ForeignKey> getDatabaseForeignKeys() {
-		//--- Build a sorted array
-		ForeignKey[] foreignKeysArray = (ForeignKey[]) foreignKeys.values().toArray( new ForeignKey[foreignKeys.size()] );
-		Arrays.sort(foreignKeysArray); // sort using the "Comparable" implementation		
-		//--- Build a List from the array
-		LinkedList<ForeignKey> foreignKeysList = new LinkedList<>();
-		for ( ForeignKey fk : foreignKeysArray ) {
-			foreignKeysList.add(fk);
-		}
-		return foreignKeysList ;		
+		// v 3.3.0 : cached unmodifiable sorted list (no copy)
+		return (List<ForeignKey>) (List<?>) getForeignKeysView().list ;
 	}
 	
 	//--------------------------------------------------------------------------
@@ -318,6 +594,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public int getLinksCount() {
+		loadContentIfNeeded(); // v 3.3.0
 		return links.size();
 	}
 	
@@ -327,7 +604,26 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 */
 	public LinkInDbModel[] getLinksArray()
 	{
-		return (LinkInDbModel[]) links.values().toArray(new LinkInDbModel[links.size()]);
+		// v 3.3.0 : copy of the cached array
+		return getLinksView().array.clone() ;
+	}
+
+	private SortedView<LinkInDbModel> getLinksView() { // v 3.3.0
+		loadContentIfNeeded();
+		SortedView<LinkInDbModel> view = linksView ;
+		return view != null ? view : buildLinksView() ;
+	}
+
+	private synchronized SortedView<LinkInDbModel> buildLinksView() { // v 3.3.0
+		if ( linksView == null ) {
+			// not sorted (the links are in a random order)
+			linksView = new SortedView<>(links.values().toArray(new LinkInDbModel[links.size()]));
+		}
+		return linksView ;
+	}
+
+	private synchronized void invalidateLinksView() { // v 3.3.0
+		linksView = null ;
 	}
 
 	/**
@@ -336,6 +632,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public List<LinkInDbModel> getAllLinks() {
+		loadContentIfNeeded(); // v 3.3.0
 		List<LinkInDbModel> list = new LinkedList<>();
 		for ( LinkInDbModel link : links.values() ) {
 			list.add(link);
@@ -349,6 +646,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public List<LinkInDbModel> getSelectedLinks() {
+		loadContentIfNeeded(); // v 3.3.0
 		List<LinkInDbModel> list = new LinkedList<>();
 		for ( LinkInDbModel link : links.values() ) {
 			if ( link.isSelected() ) {
@@ -359,9 +657,10 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<Link> getLinks() {
-		Link[] linksArray = links.values().toArray(new Link[links.size()]);
-		return Arrays.asList(linksArray);
+		// v 3.3.0 : cached unmodifiable list (no copy)
+		return (List<Link>) (List<?>) getLinksView().list ;
 	}
 
 	/**
@@ -370,6 +669,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @since 2.1.1
 	 */
 	public List<LinkInDbModel> getLinksTo(String entityName) {
+		loadContentIfNeeded(); // v 3.3.0
 		LinkedList<LinkInDbModel> selectedLinks = new LinkedList<>();
 		for ( LinkInDbModel link : links.values() ) {
 			if ( link.getTargetTableName().equals(entityName) ) {
@@ -384,7 +684,23 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @param link
 	 */
 	public void storeLink(LinkInDbModel link) {
-		links.put(link.getId(), link);
+		loadContentIfNeeded(); // v 3.3.0
+		LinkInDbModel previous = links.put(link.getId(), link);
+		link.setEntity(this); // v 3.3.0
+		invalidateLinksView(); // v 3.3.0
+		if ( linksIndex != null ) { // v 3.3.0
+			if ( previous != null ) {
+				linksIndex.remove(previous);
+			}
+			linksIndex.add(this, link);
+		}
+		if ( previous != null ) { // v 3.3.0
+			if ( previous != link ) {
+				previous.setEntity(null);
+			}
+			unregisterFieldName(previous.getFieldName());
+		}
+		registerFieldName(link.getFieldName()); // v 3.3.0
 	}
 	
 	/**
@@ -393,6 +709,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @return
 	 */
 	public LinkInDbModel getLink(String id) {
+		loadContentIfNeeded(); // v 3.3.0
 		return links.get(id);
 	}
 	
@@ -401,7 +718,18 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * @param link
 	 */
 	public int removeLink(LinkInDbModel link) {
+		loadContentIfNeeded(); // v 3.3.0
 		LinkInDbModel linkRemoved = links.remove( link.getId() );
+		if ( linkRemoved != null ) { // v 3.3.0
+			invalidateLinksView();
+		}
+		if ( linkRemoved != null && linksIndex != null ) { // v 3.3.0
+			linksIndex.remove(linkRemoved);
+		}
+		if ( linkRemoved != null ) { // v 3.3.0
+			linkRemoved.setEntity(null);
+			unregisterFieldName(linkRemoved.getFieldName());
+		}
 		return linkRemoved != null ? 1 : 0 ;
 	}
 
@@ -409,7 +737,117 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	 * Remove all the links from the entity
 	 */
 	public void removeAllLinks() {
+		loadContentIfNeeded(); // v 3.3.0
+		if ( linksIndex != null ) { // v 3.3.0
+			for ( LinkInDbModel link : links.values() ) {
+				linksIndex.remove(link);
+			}
+		}
+		for ( LinkInDbModel link : links.values() ) { // v 3.3.0
+			link.setEntity(null);
+		}
 		links.clear();
+		invalidateLinksView(); // v 3.3.0
+		resetFieldNames(); // v 3.3.0
+	}
+
+	/**
+	 * Called by the link when its field name is changed (the registry of used names is updated if the link is in the entity)
+	 * @param link
+	 * @param oldFieldName
+	 * @since 3.3.0
+	 */
+	/* package */ void linkRenamed(LinkInDbModel link, String oldFieldName) {
+		if ( links.get(link.getId()) == link ) {
+			unregisterFieldName(oldFieldName);
+			registerFieldName(link.getFieldName());
+		}
+	}
+
+	/**
+	 * Called by the link before a change of a property used by the links index 
+	 * (id, table names, foreign key name, join table, owning side, inverse side link id) <br>
+	 * The link is removed from the links index until the change is done
+	 * @param link
+	 * @return true if the link is in the entity
+	 * @since 3.3.0
+	 */
+	/* package */ boolean linkChanging(LinkInDbModel link) {
+		if ( links.get(link.getId()) != link ) {
+			return false ;
+		}
+		if ( linksIndex != null ) {
+			linksIndex.remove(link);
+		}
+		return true ;
+	}
+
+	/**
+	 * Called by the link after a change of a property used by the links index <br>
+	 * The link is stored with its new id (if changed) and indexed again
+	 * @param link
+	 * @param oldId
+	 * @since 3.3.0
+	 */
+	/* package */ void linkChanged(LinkInDbModel link, String oldId) {
+		String id = link.getId() ;
+		if ( id != null ? ! id.equals(oldId) : oldId != null ) {
+			links.remove(oldId);
+			LinkInDbModel previous = links.put(id, link);
+			if ( previous != null && previous != link ) {
+				// same behavior as storeLink : the link with the same id is replaced
+				if ( linksIndex != null ) {
+					linksIndex.remove(previous);
+				}
+				previous.setEntity(null);
+				unregisterFieldName(previous.getFieldName());
+			}
+			invalidateLinksView();
+		}
+		if ( linksIndex != null ) {
+			linksIndex.add(this, link);
+		}
+	}
+
+	//--------------------------------------------------------------------------
+	// USED FIELD NAMES ( v 3.3.0 )
+	//--------------------------------------------------------------------------
+	/**
+	 * Returns true if the given name is already used by an attribute or a link of the entity <br>
+	 * ( based on a registry of the used names, without scanning the attributes and the links )
+	 * @param name
+	 * @return
+	 * @since 3.3.0
+	 */
+	public synchronized boolean isFieldNameUsed(String name) {
+		loadContentIfNeeded();
+		if ( fieldNames == null ) {
+			FieldNamesRegistry registry = new FieldNamesRegistry();
+			for ( AttributeInDbModel attribute : attributes.values() ) {
+				registry.add(attribute.getName());
+			}
+			for ( LinkInDbModel link : links.values() ) {
+				registry.add(link.getFieldName());
+			}
+			fieldNames = registry ;
+		}
+		return fieldNames.contains(name);
+	}
+
+	private synchronized void registerFieldName(String name) {
+		if ( fieldNames != null ) {
+			fieldNames.add(name);
+		}
+	}
+
+	private synchronized void unregisterFieldName(String name) {
+		if ( fieldNames != null ) {
+			fieldNames.remove(name);
+		}
+	}
+
+	private synchronized void resetFieldNames() {
+		fieldNames = null ; // rebuilt when used
 	}
 
 	//--------------------------------------------------------------------------
@@ -429,6 +867,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 
 	@Override
 	public String toString() {
+		loadContentIfNeeded(); // v 3.3.0
 		return  className 
 				+ "|" + databaseTable
 				+ "|" + databaseCatalog 
@@ -442,6 +881,7 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 	}
 	
 	public boolean hasPrimaryKey() {
+		loadContentIfNeeded(); // v 3.3.0
 		for ( AttributeInDbModel attribute : this.attributes.values() ) {
 			if ( attribute.isKeyElement() ) {
 				return true ;
@@ -458,4 +898,18 @@ public class EntityInDbModel implements Serializable, Entity // v 3.0.0 ( 2 spec
 		}
 		return warnings;
 	}
+	//--------------------------------------------------------------------------
+	/**
+	 * Immutable snapshot of a collection of the entity (array and unmodifiable list based on the same array) <br>
+	 * Kept until the collection is changed 
+	 * @since 3.3.0
+	 */
+	private static final class SortedView<T> {
+		private final T[] array ;
+		private final List<T> list ;
+		private SortedView(T[] array) {
+			this.array = array ;
+			this.list = Collections.unmodifiableList(Arrays.asList(array));
+		}
+	}
 }
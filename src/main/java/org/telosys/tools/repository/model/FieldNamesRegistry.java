@@ -0,0 +1,78 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the field names used in an entity (attributes names and links field names) <br>
+ * Each name is counted (the same name can be used by an attribute and a link) <br>
+ * The registry is updated by the entity when an attribute or a link is stored or removed,
+ * so the link field name must be set before storing the link.
+ *
+ * @since 3.3.0
+ */
+/* package */ class FieldNamesRegistry {
+
+	private final Map<String, Integer> counters = new HashMap<>() ;
+
+	/**
+	 * Registers one more usage of the given name (null ignored)
+	 * @param name
+	 */
+	protected void add(String name) {
+		if ( name != null ) {
+			Integer n = counters.get(name);
+			counters.put(name, n != null ? n + 1 : 1 );
+		}
+	}
+
+	/**
+	 * Unregisters one usage of the given name (null ignored)
+	 * @param name
+	 */
+	protected void remove(String name) {
+		if ( name != null ) {
+			Integer n = counters.get(name);
+			if ( n != null ) {
+				if ( n > 1 ) {
+					counters.put(name, n - 1 );
+				}
+				else {
+					counters.remove(name);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the given name is used at least once
+	 * @param name
+	 * @return
+	 */
+	protected boolean contains(String name) {
+		return counters.containsKey(name);
+	}
+
+	/**
+	 * Returns the number of distinct names
+	 * @return
+	 */
+	protected int size() {
+		return counters.size();
+	}
+}
@@ -42,6 +42,30 @@ public class ForeignKeyColumnInDbModel implements Comparable<ForeignKeyColumnInD
 	private int  _deleteRuleCode ; // v 2.0.7
 	private int  _deferrableCode ; // v 2.0.7
 
+	/**
+	 * Default constructor
+	 */
+	public ForeignKeyColumnInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public ForeignKeyColumnInDbModel(ForeignKeyColumnInDbModel source) {
+		super();
+		this._tableName  = source._tableName ;
+		this._columnName = source._columnName ;
+		this._sequence   = source._sequence ;
+		this._tableRef   = source._tableRef ;
+		this._columnRef  = source._columnRef ;
+		this._updateRuleCode = source._updateRuleCode ;
+		this._deleteRuleCode = source._deleteRuleCode ;
+		this._deferrableCode = source._deferrableCode ;
+	}
+
 	//-------------------------------------------------------------------------------
 	
 	public String getTableName() {
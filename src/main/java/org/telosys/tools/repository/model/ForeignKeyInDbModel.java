@@ -17,9 +17,10 @@ package org.telosys.tools.repository.model;
 
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.ForeignKey;
@@ -32,8 +33,28 @@ public class ForeignKeyInDbModel implements Comparable<ForeignKeyInDbModel>, Ser
 	private String name ;
 	
 	// Column name --> Column
-	private Hashtable<String, ForeignKeyColumnInDbModel> foreignKeyColumns = new Hashtable<String,ForeignKeyColumnInDbModel>() ;
+	private Map<String, ForeignKeyColumnInDbModel> foreignKeyColumns = new LinkedHashMap<>() ; // v 3.3.0 (was a Hashtable)
 	
+	/**
+	 * Default constructor
+	 */
+	public ForeignKeyInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public ForeignKeyInDbModel(ForeignKeyInDbModel source) {
+		super();
+		this.name = source.name ;
+		for ( Map.Entry<String, ForeignKeyColumnInDbModel> entry : source.foreignKeyColumns.entrySet() ) {
+			this.foreignKeyColumns.put(entry.getKey(), new ForeignKeyColumnInDbModel(entry.getValue()));
+		}
+	}
+
 	//-------------------------------------------------------------------------------
 
 	public String getName() {
@@ -0,0 +1,142 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes for all the foreign keys of a model (whatever the entity holding the foreign key) <br>
+ * . foreign key name --> foreign keys (the same name can be used in different tables) <br>
+ * . referenced table name --> foreign keys referencing this table <br>
+ * The indexes are updated by the entities when a foreign key is stored or removed,
+ * so the foreign key columns must be set before storing the foreign key.
+ *
+ * @since 3.3.0
+ */
+/* package */ class ForeignKeysIndex {
+
+	private final Map<ForeignKeyInDbModel, EntityInDbModel> owners = new IdentityHashMap<>() ;
+
+	private final Map<ForeignKeyInDbModel, String> referencedTables = new IdentityHashMap<>() ;
+
+	private final Map<String, List<ForeignKeyInDbModel>> foreignKeysByName = new HashMap<>() ;
+
+	private final Map<String, List<ForeignKeyInDbModel>> foreignKeysByReferencedTable = new HashMap<>() ;
+
+	//--------------------------------------------------------------------------------------
+	// Updates
+	//--------------------------------------------------------------------------------------
+	/**
+	 * Adds the given foreign key held by the given entity
+	 * @param entity
+	 * @param foreignKey
+	 */
+	protected synchronized void add(EntityInDbModel entity, ForeignKeyInDbModel foreignKey) {
+		if ( owners.put(foreignKey, entity) != null ) {
+			return ; // already indexed
+		}
+		String referencedTable = foreignKey.getReferencedTableName() ;
+		referencedTables.put(foreignKey, referencedTable);
+		addToList(foreignKeysByName, foreignKey.getName(), foreignKey);
+		addToList(foreignKeysByReferencedTable, referencedTable, foreignKey);
+	}
+
+	/**
+	 * Removes the given foreign key
+	 * @param foreignKey
+	 */
+	protected synchronized void remove(ForeignKeyInDbModel foreignKey) {
+		if ( owners.remove(foreignKey) == null ) {
+			return ; // not indexed
+		}
+		// the referenced table used as key when the foreign key has been indexed
+		String referencedTable = referencedTables.remove(foreignKey);
+		removeFromList(foreignKeysByName, foreignKey.getName(), foreignKey);
+		removeFromList(foreignKeysByReferencedTable, referencedTable, foreignKey);
+	}
+
+	private void addToList(Map<String, List<ForeignKeyInDbModel>> map, String key, ForeignKeyInDbModel foreignKey) {
+		if ( key != null ) {
+			List<ForeignKeyInDbModel> list = map.get(key);
+			if ( list == null ) {
+				list = new LinkedList<>();
+				map.put(key, list);
+			}
+			list.add(foreignKey);
+		}
+	}
+
+	private void removeFromList(Map<String, List<ForeignKeyInDbModel>> map, String key, ForeignKeyInDbModel foreignKey) {
+		if ( key != null ) {
+			List<ForeignKeyInDbModel> list = map.get(key);
+			if ( list != null ) {
+				// remove by identity
+				for ( Iterator<ForeignKeyInDbModel> iter = list.iterator() ; iter.hasNext() ; ) {
+					if ( iter.next() == foreignKey ) {
+						iter.remove();
+					}
+				}
+				if ( list.isEmpty() ) {
+					map.remove(key);
+				}
+			}
+		}
+	}
+
+	//--------------------------------------------------------------------------------------
+	// Lookups
+	//--------------------------------------------------------------------------------------
+	protected synchronized EntityInDbModel getOwner(ForeignKeyInDbModel foreignKey) {
+		return owners.get(foreignKey);
+	}
+
+	/**
+	 * Returns the foreign key having the given name <br>
+	 * If the name is used in many tables, the foreign key of the first table (in alphabetical order) is returned
+	 * @param name
+	 * @return the foreign key or null if not found
+	 */
+	protected synchronized ForeignKeyInDbModel getForeignKeyByName(String name) {
+		List<ForeignKeyInDbModel> list = foreignKeysByName.get(name);
+		ForeignKeyInDbModel first = null ;
+		String firstTable = null ;
+		if ( list != null ) {
+			for ( ForeignKeyInDbModel foreignKey : list ) {
+				String table = owners.get(foreignKey).getDatabaseTable() ;
+				if ( first == null || table.compareTo(firstTable) < 0 ) {
+					first = foreignKey ;
+					firstTable = table ;
+				}
+			}
+		}
+		return first ;
+	}
+
+	/**
+	 * Returns the foreign keys referencing the given table
+	 * @param tableName
+	 * @return a copy of the list (void list if none)
+	 */
+	protected synchronized List<ForeignKeyInDbModel> getForeignKeysReferencingTable(String tableName) {
+		List<ForeignKeyInDbModel> list = foreignKeysByReferencedTable.get(tableName);
+		return list != null ? new LinkedList<>(list) : new LinkedList<ForeignKeyInDbModel>() ;
+	}
+}
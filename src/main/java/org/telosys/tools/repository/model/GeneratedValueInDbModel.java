@@ -30,6 +30,24 @@ public class GeneratedValueInDbModel implements Serializable {
 
 	private String generator = null ;
 
+	/**
+	 * Default constructor
+	 */
+	public GeneratedValueInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public GeneratedValueInDbModel(GeneratedValueInDbModel source) {
+		super();
+		this.strategy  = source.strategy ;
+		this.generator = source.generator ;
+	}
+
 	public String getStrategy() {
 		return strategy;
 	}
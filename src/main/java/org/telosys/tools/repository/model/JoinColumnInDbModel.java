@@ -46,6 +46,21 @@ public class JoinColumnInDbModel implements Serializable, JoinColumn
 	public JoinColumnInDbModel() {
 		
 	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public JoinColumnInDbModel(JoinColumnInDbModel source) {
+		super();
+		this.name                 = source.name ;
+		this.referencedColumnName = source.referencedColumnName ;
+		this.unique     = source.unique ;
+		this.nullable   = source.nullable ;
+		this.updatable  = source.updatable ;
+		this.insertable = source.insertable ;
+	}
 	
 	public String getCheckSum() {
 		return name + "#" + referencedColumnName;
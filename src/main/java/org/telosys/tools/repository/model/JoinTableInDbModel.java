@@ -42,7 +42,27 @@ public class JoinTableInDbModel implements Serializable, JoinTable
 //	private InverseJoinColumnsInDbModel inverseJoinColums = null ;
 	private List<JoinColumnInDbModel>   inverseJoinColumns = null ;
 	
-	
+	/**
+	 * Default constructor
+	 */
+	public JoinTableInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public JoinTableInDbModel(JoinTableInDbModel source) {
+		super();
+		this.name    = source.name ;
+		this.schema  = source.schema ;
+		this.catalog = source.catalog ;
+		this.joinColumns        = DbModelUtil.copyJoinColumns(source.joinColumns) ;
+		this.inverseJoinColumns = DbModelUtil.copyJoinColumns(source.inverseJoinColumns) ;
+	}
+
 	//--------------------------------------------------------------------------
 	public String getName() {
 		return name;
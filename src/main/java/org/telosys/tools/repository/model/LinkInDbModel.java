@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.Cardinality;
+import org.telosys.tools.generic.model.CascadeOption;
 import org.telosys.tools.generic.model.CascadeOptions;
 import org.telosys.tools.generic.model.FetchType;
 import org.telosys.tools.generic.model.JoinColumn;
@@ -77,6 +78,8 @@ public class LinkInDbModel implements Serializable, Link
 	 */
 	private Optional optional = Optional.UNDEFINED ; // v 3.0.0
 	
+	private EntityInDbModel entity = null ; // v 3.3.0 - The entity holding the link (set when stored in the entity)
+	
 	private String   targetEntityClassName ; // v 3.0.0
 	
 	private String   foreignKeyName = null ;
@@ -101,6 +104,37 @@ public class LinkInDbModel implements Serializable, Link
 		this.optional    = Optional.UNDEFINED ;
 	}
 
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the link to be copied
+	 * @since 3.3.0
+	 */
+	public LinkInDbModel(LinkInDbModel source) { 
+		super();
+		this.id         = source.id ;
+		this.used       = source.used ;
+		this.sourceTableName = source.sourceTableName ;
+		this.targetTableName = source.targetTableName ;
+		this.cardinality     = source.cardinality ;
+		this.fieldName       = source.fieldName ;
+		this.owningSide        = source.owningSide ;
+		this.inverseSideLinkId = source.inverseSideLinkId ;
+		this.mappedBy          = source.mappedBy ;
+		this.cascadeOptions = new CascadeOptions() ;
+		if ( source.cascadeOptions != null ) {
+			for ( CascadeOption cascadeOption : source.cascadeOptions.getActiveOptions() ) {
+				this.cascadeOptions.add(cascadeOption);
+			}
+		}
+		this.fetchType = source.fetchType ;
+		this.optional  = source.optional ;
+		this.targetEntityClassName = source.targetEntityClassName ;
+		this.foreignKeyName = source.foreignKeyName ;
+		this.joinTableName  = source.joinTableName ;
+		this.joinColumns = DbModelUtil.copyJoinColumns(source.joinColumns) ;
+		this.joinTable   = source.joinTable != null ? new JoinTableInDbModel(source.joinTable) : null ;
+	}
+
 	//--------------------------------------------------------------------------
 	public final static String buildId(ForeignKeyInDbModel foreignKey, boolean owningSide) 
 	{
@@ -134,7 +168,9 @@ public class LinkInDbModel implements Serializable, Link
 		return joinTable ;
 	}
 	public void setJoinTable( JoinTableInDbModel v ) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		joinTable = v ;
+		afterIndexedChange(indexed, id);
 	}
 	
 	//--------------------------------------------------------------------------
@@ -143,7 +179,10 @@ public class LinkInDbModel implements Serializable, Link
 		return id;
 	}
 	public void setId(String id) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
+		String oldId = this.id ;
 		this.id = id;
+		afterIndexedChange(indexed, oldId);
 	}
 
 	//--------------------------------------------------------------------------
@@ -162,7 +201,9 @@ public class LinkInDbModel implements Serializable, Link
 	}
 
 	public void setSourceTableName(String srcTableName) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		this.sourceTableName = srcTableName;
+		afterIndexedChange(indexed, id);
 	}
 
 	//--------------------------------------------------------------------------
@@ -171,7 +212,9 @@ public class LinkInDbModel implements Serializable, Link
 		return targetTableName;
 	}
 	public void setTargetTableName(String targetTableName) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		this.targetTableName = targetTableName;
+		afterIndexedChange(indexed, id);
 	}
 
 	//--------------------------------------------------------------------------
@@ -188,7 +231,41 @@ public class LinkInDbModel implements Serializable, Link
 	 * @param fieldName
 	 */
 	public void setFieldName(String fieldName) {
+		String oldFieldName = this.fieldName ;
 		this.fieldName = fieldName;
+		if ( entity != null ) { // v 3.3.0
+			entity.linkRenamed(this, oldFieldName);
+		}
+	}
+	
+	/**
+	 * Set the entity holding the link (called by the entity when the link is stored or removed)
+	 * @param entity
+	 * @since 3.3.0
+	 */
+	/* package */ void setEntity(EntityInDbModel entity) {
+		this.entity = entity ;
+	}
+
+	/**
+	 * Called before a change of a property used by the links index (the link is removed from the index)
+	 * @return true if the link is held by an entity
+	 * @since 3.3.0
+	 */
+	private boolean beforeIndexedChange() {
+		return entity != null && entity.linkChanging(this);
+	}
+
+	/**
+	 * Called after a change of a property used by the links index (the link is indexed again)
+	 * @param indexed the result of beforeIndexedChange()
+	 * @param oldId the link id before the change
+	 * @since 3.3.0
+	 */
+	private void afterIndexedChange(boolean indexed, String oldId) {
+		if ( indexed && entity != null ) {
+			entity.linkChanged(this, oldId);
+		}
 	}
 	
 	//--------------------------------------------------------------------------
@@ -226,7 +303,9 @@ public class LinkInDbModel implements Serializable, Link
 	}
 
 	public void setOwningSide(boolean owningSide) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		this.owningSide = owningSide;
+		afterIndexedChange(indexed, id);
 	}
 	
 	//--------------------------------------------------------------------------
@@ -240,7 +319,9 @@ public class LinkInDbModel implements Serializable, Link
 	 * @param inverseSideLinkId
 	 */
 	public void setInverseSideLinkId(String inverseSideLinkId) { // v 3.0.0
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		this.inverseSideLinkId = inverseSideLinkId;
+		afterIndexedChange(indexed, id);
 	}
 
 	//--------------------------------------------------------------------------
@@ -403,7 +484,9 @@ public class LinkInDbModel implements Serializable, Link
 	 * @param v
 	 */
 	public void setForeignKeyName(String v) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		foreignKeyName = v ;
+		afterIndexedChange(indexed, id);
 	}
 
 	//--------------------------------------------------------------------------
@@ -434,7 +517,9 @@ public class LinkInDbModel implements Serializable, Link
 	 * @param v
 	 */
 	public void setJoinTableName(String v) {
+		boolean indexed = beforeIndexedChange(); // v 3.3.0
 		joinTableName = v ;
+		afterIndexedChange(indexed, id);
 	}
 	
 	//--------------------------------------------------------------------------
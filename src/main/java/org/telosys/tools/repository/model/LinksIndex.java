@@ -0,0 +1,170 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.telosys.tools.commons.StrUtil;
+
+/**
+ * Secondary indexes for all the links of a model (whatever the entity holding the link) <br>
+ * . link id --> link <br>
+ * . foreign key name --> links <br>
+ * . join table name --> links <br>
+ * . table name (source or target) --> links <br>
+ * . 'inverse side of' link id --> inverse side link <br>
+ * The indexes are updated by the entities when a link is stored or removed,
+ * and when an indexed property of a stored link is changed (the link is removed and added again).
+ *
+ * @since 3.3.0
+ */
+/* package */ class LinksIndex {
+
+	private final Map<LinkInDbModel, EntityInDbModel> owners = new IdentityHashMap<>() ;
+
+	private final Map<String, LinkInDbModel> linksById = new HashMap<>() ;
+
+	private final Map<String, List<LinkInDbModel>> linksByForeignKeyName = new HashMap<>() ;
+
+	private final Map<String, List<LinkInDbModel>> linksByJoinTableName = new HashMap<>() ;
+
+	private final Map<String, List<LinkInDbModel>> linksByTableName = new HashMap<>() ;
+
+	private final Map<String, LinkInDbModel> inverseSideLinks = new HashMap<>() ;
+
+	private long version = 0 ; // incremented for each change
+
+	//--------------------------------------------------------------------------------------
+	// Updates
+	//--------------------------------------------------------------------------------------
+	/**
+	 * Adds the given link held by the given entity
+	 * @param entity
+	 * @param link
+	 */
+	protected synchronized void add(EntityInDbModel entity, LinkInDbModel link) {
+		version++ ;
+		owners.put(link, entity);
+		linksById.put(link.getId(), link);
+		addToList(linksByForeignKeyName, link.getForeignKeyName(), link);
+		addToList(linksByJoinTableName, link.getJoinTableName(), link);
+		addToList(linksByTableName, link.getSourceTableName(), link);
+		if ( ! sameString(link.getSourceTableName(), link.getTargetTableName()) ) {
+			addToList(linksByTableName, link.getTargetTableName(), link);
+		}
+		if ( ! link.isOwningSide() && ! StrUtil.nullOrVoid(link.getInverseSideLinkId()) ) {
+			inverseSideLinks.put(link.getInverseSideLinkId(), link);
+		}
+	}
+
+	/**
+	 * Removes the given link
+	 * @param link
+	 */
+	protected synchronized void remove(LinkInDbModel link) {
+		if ( owners.remove(link) == null ) {
+			return ; // not indexed
+		}
+		version++ ;
+		if ( linksById.get(link.getId()) == link ) {
+			linksById.remove(link.getId());
+		}
+		removeFromList(linksByForeignKeyName, link.getForeignKeyName(), link);
+		removeFromList(linksByJoinTableName, link.getJoinTableName(), link);
+		removeFromList(linksByTableName, link.getSourceTableName(), link);
+		removeFromList(linksByTableName, link.getTargetTableName(), link);
+		if ( link.getInverseSideLinkId() != null && inverseSideLinks.get(link.getInverseSideLinkId()) == link ) {
+			inverseSideLinks.remove(link.getInverseSideLinkId());
+		}
+	}
+
+	private void addToList(Map<String, List<LinkInDbModel>> map, String key, LinkInDbModel link) {
+		if ( ! StrUtil.nullOrVoid(key) ) {
+			List<LinkInDbModel> list = map.get(key);
+			if ( list == null ) {
+				list = new LinkedList<>();
+				map.put(key, list);
+			}
+			list.add(link);
+		}
+	}
+
+	private void removeFromList(Map<String, List<LinkInDbModel>> map, String key, LinkInDbModel link) {
+		if ( key != null ) {
+			List<LinkInDbModel> list = map.get(key);
+			if ( list != null ) {
+				// remove by identity
+				for ( Iterator<LinkInDbModel> iter = list.iterator() ; iter.hasNext() ; ) {
+					if ( iter.next() == link ) {
+						iter.remove();
+					}
+				}
+				if ( list.isEmpty() ) {
+					map.remove(key);
+				}
+			}
+		}
+	}
+
+	private boolean sameString(String s1, String s2) {
+		return s1 != null ? s1.equals(s2) : s2 == null ;
+	}
+
+	//--------------------------------------------------------------------------------------
+	// Lookups
+	//--------------------------------------------------------------------------------------
+	protected synchronized EntityInDbModel getOwner(LinkInDbModel link) {
+		return owners.get(link);
+	}
+
+	protected synchronized LinkInDbModel getLinkById(String id) {
+		return linksById.get(id);
+	}
+
+	protected synchronized LinkInDbModel getInverseSideLink(String owningSideLinkId) {
+		return inverseSideLinks.get(owningSideLinkId);
+	}
+
+	protected synchronized List<LinkInDbModel> getLinksByForeignKeyName(String foreignKeyName) {
+		return copy(linksByForeignKeyName.get(foreignKeyName));
+	}
+
+	protected synchronized List<LinkInDbModel> getLinksByJoinTableName(String joinTableName) {
+		return copy(linksByJoinTableName.get(joinTableName));
+	}
+
+	/**
+	 * Returns the current version of the index (changed each time a link is added or removed)
+	 * @return
+	 */
+	protected synchronized long getVersion() {
+		return version ;
+	}
+
+	protected synchronized List<LinkInDbModel> getLinksByTableName(String tableName) {
+		return copy(linksByTableName.get(tableName));
+	}
+
+	private List<LinkInDbModel> copy(List<LinkInDbModel> list) {
+		// a copy is returned (the links can be removed while iterating)
+		return list != null ? new LinkedList<>(list) : new LinkedList<LinkInDbModel>() ;
+	}
+}
@@ -15,13 +15,17 @@
  */
 package org.telosys.tools.repository.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.Cardinality;
@@ -48,7 +52,78 @@ public class RepositoryModel implements Model
 	
 	private Date   lastUpdateDate ;
 	
-	private Hashtable<String,EntityInDbModel> htEntities = new Hashtable<String,EntityInDbModel>() ; 
+	private final Map<String,EntityInDbModel> entitiesMap ; // v 3.3.0 (was a Hashtable)
+
+	private final ReadWriteLock lock ; // v 3.3.0 (only for a thread-safe model)
+
+	private final LinksIndex linksIndex = new LinksIndex() ; // v 3.3.0
+
+	private final ForeignKeysIndex foreignKeysIndex = new ForeignKeysIndex() ; // v 3.3.0
+
+	private volatile boolean lazyEntitiesStored = false ; // v 3.3.0
+
+	private volatile EntitiesView entitiesView = null ; // v 3.3.0 (cache, rebuilt after storeEntity/removeEntity)
+
+	private volatile LinksView linksView = null ; // v 3.3.0 (cache, rebuilt after a change in the links index)
+
+	//--------------------------------------------------------------------------------------
+	/**
+	 * Default constructor : model for a single-threaded usage
+	 */
+	public RepositoryModel() {
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 * @param threadSafe true to create a model that can be shared and updated by several threads 
+	 * (concurrent maps for the model and its entities, compound operations protected by a read/write lock)
+	 * @since 3.3.0
+	 */
+	public RepositoryModel(boolean threadSafe) {
+		super();
+		if ( threadSafe ) {
+			this.entitiesMap = new ConcurrentHashMap<>();
+			this.lock = new ReentrantReadWriteLock();
+		}
+		else {
+			this.entitiesMap = new LinkedHashMap<>();
+			this.lock = null ;
+		}
+	}
+
+	/**
+	 * Returns true if the model is thread-safe
+	 * @return
+	 * @since 3.3.0
+	 */
+	public boolean isThreadSafe() {
+		return lock != null ;
+	}
+
+	private void lockRead() { // v 3.3.0
+		if ( lock != null ) {
+			lock.readLock().lock();
+		}
+	}
+
+	private void unlockRead() { // v 3.3.0
+		if ( lock != null ) {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void lockWrite() { // v 3.3.0
+		if ( lock != null ) {
+			lock.writeLock().lock();
+		}
+	}
+
+	private void unlockWrite() { // v 3.3.0
+		if ( lock != null ) {
+			lock.writeLock().unlock();
+		}
+	}
 
 	//--------------------------------------------------------------------------------------
 	@Override
@@ -156,21 +231,49 @@ public class RepositoryModel implements Model
 	//-------------------------------------------------------------------------------
 	
 	public int getNumberOfEntities() {
-		return htEntities.size();
+		return entitiesMap.size();
 	}
 
-	private EntityInDbModel[] getEntitiesArray() {
-		return (EntityInDbModel[]) htEntities.values().toArray( new EntityInDbModel[htEntities.size()] ) ;
+	/**
+	 * Returns the current entities view (built if necessary)
+	 * @return
+	 * @since 3.3.0
+	 */
+	private EntitiesView getEntitiesView() {
+		EntitiesView view = entitiesView ;
+		return view != null ? view : buildEntitiesView() ;
 	}
+
+	private synchronized EntitiesView buildEntitiesView() { // v 3.3.0
+		if ( entitiesView == null ) {
+			entitiesView = new EntitiesView( entitiesMap.values().toArray( new EntityInDbModel[entitiesMap.size()] ) );
+		}
+		return entitiesView ;
+	}
+
+	private synchronized void invalidateEntitiesView() { // v 3.3.0
+		entitiesView = null ;
+	}
+
+	/**
+	 * Called by the entity when its class name is changed (the order by class name may change)
+	 * @param entity
+	 * @since 3.3.0
+	 */
+	/* package */ void entityRenamed(EntityInDbModel entity) {
+		if ( entitiesMap.get(entity.getDatabaseTable()) == entity ) {
+			invalidateEntitiesView();
+		}
+	}
+
 	/**
 	 * Returns an array of all the entities defined in the model.<br>
 	 * The entities are sorted by database table name.
 	 * @return
 	 */
 	public EntityInDbModel[] getEntitiesArraySortedByTableName() {
-		EntityInDbModel[] array = getEntitiesArray();
-		Arrays.sort(array, new EntityComparatorOnTableName());
-		return array ;
+		// v 3.3.0 : copy of the cached sorted array (no sort)
+		return getEntitiesView().byTableName.clone() ;
 	}
 	/**
 	 * Returns an array of all the entities defined in the model.<br>
@@ -178,29 +281,34 @@ public class RepositoryModel implements Model
 	 * @return
 	 */
 	public EntityInDbModel[] getEntitiesArraySortedByClassName() {
-		EntityInDbModel[] array = getEntitiesArray();
-		Arrays.sort(array, new EntityComparatorOnClassName());
-		return array ;
+		// v 3.3.0 : copy of the cached sorted array (no sort)
+		return getEntitiesView().byClassName.clone() ;
+	}
+
+	/**
+	 * Returns an unmodifiable list of all the entities defined in the model, sorted by database table name <br>
+	 * The list is cached (no copy) and is not changed when the model is changed (a new list is built)
+	 * @return
+	 * @since 3.3.0
+	 */
+	public List<EntityInDbModel> getEntitiesSortedByTableName() {
+		return getEntitiesView().listByTableName ;
 	}
 	
 	@Override
 	public List<Entity> getEntities() {
-		EntityInDbModel[] entities = getEntitiesArraySortedByClassName();
-		LinkedList<Entity> list = new LinkedList<Entity>();
-		for ( Entity entity : entities ) {
-			list.add(entity);
-		}
-		return list ;
+		// v 3.3.0 : cached unmodifiable list sorted by class name (no copy)
+		return getEntitiesView().entities ;
 	}
 	
 	@Override
 	public EntityInDbModel getEntityByTableName(String entityTableName) {
-		return htEntities.get(entityTableName);
+		return entitiesMap.get(entityTableName);
 	}
 
 	@Override
 	public EntityInDbModel getEntityByClassName(String entityClassName) {
-		for ( EntityInDbModel entity : htEntities.values() ) {
+		for ( EntityInDbModel entity : entitiesMap.values() ) {
 			if ( entity.getClassName().equals(entityClassName) ) {
 				return entity ; // Found
 			}
@@ -215,20 +323,31 @@ public class RepositoryModel implements Model
 	 * @return
 	 */
 	public String[] getEntitiesNames() {
-		Collection<EntityInDbModel> values = htEntities.values();
-		String[] names = new String[values.size()];
-		int cpt = 0;
-		for ( EntityInDbModel entity : values ) {
-			names[cpt] = entity.getDatabaseTable();
-			cpt++;
-		}
-		Arrays.sort(names);
-		return names;
+		// v 3.3.0 : copy of the cached sorted array (no sort)
+		return getEntitiesView().names.clone() ;
 	}
 	
 	public void storeEntity(EntityInDbModel entity) {
-//		htEntities.put(entity.getName(), entity);
-		htEntities.put(entity.getDatabaseTable(), entity); // v 3.0.0
+		lockWrite(); // v 3.3.0
+		try {
+			if ( lock != null ) { // v 3.3.0
+				entity.useConcurrentMaps();
+			}
+//			entitiesMap.put(entity.getName(), entity);
+			EntityInDbModel previous = entitiesMap.put(entity.getDatabaseTable(), entity); // v 3.0.0
+			invalidateEntitiesView(); // v 3.3.0
+			if ( previous != null && previous != entity ) { // v 3.3.0
+				previous.detachIndexes(linksIndex, foreignKeysIndex);
+				previous.setModel(null);
+			}
+			entity.setModel(this); // v 3.3.0
+			if ( ! entity.isContentLoaded() ) {
+				lazyEntitiesStored = true ;
+			}
+			entity.attachIndexes(linksIndex, foreignKeysIndex); // v 3.3.0
+		} finally {
+			unlockWrite();
+		}
 	}
 	
 	/**
@@ -237,7 +356,18 @@ public class RepositoryModel implements Model
 	 * @return the entity removed (or null if none)
 	 */
 	public EntityInDbModel removeEntity(String entityTableName) {
-		return htEntities.remove(entityTableName);
+		lockWrite(); // v 3.3.0
+		try {
+			EntityInDbModel entity = entitiesMap.remove(entityTableName);
+			if ( entity != null ) { // v 3.3.0
+				invalidateEntitiesView();
+				entity.detachIndexes(linksIndex, foreignKeysIndex);
+				entity.setModel(null);
+			}
+			return entity ;
+		} finally {
+			unlockWrite();
+		}
 	}
 	
 	//-------------------------------------------------------------------------------
@@ -248,42 +378,60 @@ public class RepositoryModel implements Model
 	 * @return
 	 */
 	public int getNumberOfLinks() { // v 3.0.0
-		int count = 0 ;
-		for ( EntityInDbModel entity : this.getEntitiesArray() ) {
-			count = count + entity.getLinksCount();
-		}
-		return count ;
+		return getLinksView().links.size() ; // v 3.3.0
 	}
 	
 	//----------------------------------------------------------------------------------------
 	private void sortLinks( List<LinkInDbModel> linksList ) { // v 3.0.0
         Collections.sort(linksList, new LinkComparator( LinkComparator.ASC ) );
 	}
+
+	/**
+	 * Returns the current links view (rebuilt if the links have changed since the last build)
+	 * @return
+	 * @since 3.3.0
+	 */
+	private LinksView getLinksView() {
+		loadLazyEntities(); // all the links must be indexed to have the right version
+		LinksView view = linksView ;
+		if ( view != null && view.version == linksIndex.getVersion() ) {
+			return view ;
+		}
+		return buildLinksView();
+	}
+
+	private synchronized LinksView buildLinksView() { // v 3.3.0
+		long version = linksIndex.getVersion() ;
+		if ( linksView == null || linksView.version != version ) {
+			List<LinkInDbModel> linksList = new ArrayList<>();
+			for ( EntityInDbModel entity : getEntitiesView().listByTableName ) {
+				linksList.addAll(entity.getAllLinks());
+			}
+			sortLinks( linksList );
+			linksView = new LinksView(version, Collections.unmodifiableList(linksList));
+		}
+		return linksView ;
+	}
 	
 	//----------------------------------------------------------------------------------------
+	/**
+	 * Returns all the links of the model sorted with the standard links order <br>
+	 * ( v 3.3.0 : cached unmodifiable list, rebuilt only after a change in the links )
+	 * @return
+	 */
 	public List<LinkInDbModel> getAllLinks()
 	{
-		List<LinkInDbModel> linksList = new LinkedList<LinkInDbModel>();
-		for ( EntityInDbModel entity : this.getEntitiesArray() ) {
-			for ( LinkInDbModel link : entity.getLinksArray() ) {
-				linksList.add(link);
-			}
-		}
-		sortLinks( linksList );
-		return linksList ;
+		return getLinksView().links ;
 	}
 	//----------------------------------------------------------------------------------------
 	public LinkedList<LinkInDbModel> getLinks(LinksCriteria criteria) { // v 3.0.0
 		// ver 3.0.0
 		LinkedList<LinkInDbModel> linksList = new LinkedList<LinkInDbModel>();
-		for ( EntityInDbModel entity : this.getEntitiesArray() ) {
-			for ( LinkInDbModel link : entity.getLinksArray() ) {
-				if ( checkCriteria(link, criteria ) ) {
-					linksList.add(link);
-				}
+		for ( LinkInDbModel link : getLinksView().links ) { // v 3.3.0 (already sorted)
+			if ( checkCriteria(link, criteria ) ) {
+				linksList.add(link);
 			}
 		}
-		sortLinks( linksList );		
 		return linksList ;
 	}
 	//----------------------------------------------------------------------------------------
@@ -317,14 +465,39 @@ public class RepositoryModel implements Model
 	 * @param relation
 	 */
 	public void removeRelation(RelationLinksInDbModel relation) { // v 3.0.0
-		LinkInDbModel link = relation.getInverseSideLink();
-		if ( link != null ) {
-			this.removeLinkById( link.getId() );
+		lockWrite(); // v 3.3.0
+		try {
+			LinkInDbModel link = relation.getInverseSideLink();
+			if ( link != null ) {
+				this.removeLinkById( link.getId() );
+			}
+			link = relation.getOwningSideLink();
+			if ( link != null ) {
+				this.removeLinkById( link.getId() );
+			}
+		} finally {
+			unlockWrite();
 		}
-		link = relation.getOwningSideLink();
-		if ( link != null ) {
-			this.removeLinkById( link.getId() );
-		}		
+	}
+
+	/**
+	 * Loads the content of all the entities (if some entities are not yet loaded) <br>
+	 * in order to have all the links and foreign keys in the indexes 
+	 * @since 3.3.0
+	 */
+	private void loadLazyEntities() {
+		if ( lazyEntitiesStored ) {
+			for ( EntityInDbModel entity : getEntitiesView().listByTableName ) {
+				// the links and foreign keys of the entity are indexed when loaded
+				entity.getLinksCount(); 
+			}
+			lazyEntitiesStored = false ;
+		}
+	}
+
+	private LinksIndex getLinksIndex() {
+		loadLazyEntities();
+		return linksIndex ;
 	}
 
 	/**
@@ -334,31 +507,53 @@ public class RepositoryModel implements Model
 	 */
 	public LinkInDbModel getLinkById(String id) {
 		if ( id != null ) {
-			EntityInDbModel [] entities = this.getEntitiesArraySortedByTableName();
-			for ( int i = 0 ; i < entities.length ; i++ ) {
-				EntityInDbModel entity = entities[i];
-//				LinkInDbModel [] links = entity.getLinks();
-				LinkInDbModel [] links = entity.getLinksArray();
-				for ( int j = 0 ; j < links.length ; j++ ) {
-					LinkInDbModel link = links[j];
-					if ( id.equals( link.getId() ) )  {
-						return link;
-					}
-				}
-			}
+			return getLinksIndex().getLinkById(id); // v 3.3.0
 		}
 		return null ;
 	}
 
+	/**
+	 * Returns the links based on the given Foreign Key name (usually 2 links : owning side and inverse side)
+	 * @param foreignKeyName
+	 * @return the links (void list if none)
+	 * @since 3.3.0
+	 */
+	public List<LinkInDbModel> getLinksByForeignKeyName(String foreignKeyName) {
+		return getLinksIndex().getLinksByForeignKeyName(foreignKeyName);
+	}
+
+	/**
+	 * Returns the links based on the given "join table" name (usually 2 links : owning side and inverse side)
+	 * @param joinTableName
+	 * @return the links (void list if none)
+	 * @since 3.3.0
+	 */
+	public List<LinkInDbModel> getLinksByJoinTableName(String joinTableName) {
+		return getLinksIndex().getLinksByJoinTableName(joinTableName);
+	}
+
+	/**
+	 * Returns the inverse side link of the given owning side link id
+	 * @param owningSideLinkId
+	 * @return the inverse side link or null if none
+	 * @since 3.3.0
+	 */
+	public LinkInDbModel getInverseSideLink(String owningSideLinkId) {
+		return getLinksIndex().getInverseSideLink(owningSideLinkId);
+	}
+
 	//-------------------------------------------------------------------------------
 	/**
 	 * Removes all the links in the model (for all the entities)
 	 */
 	public void removeAllLinks() {
-		EntityInDbModel [] entities = this.getEntitiesArraySortedByTableName();
-		for ( int i = 0 ; i < entities.length ; i++ ) {
-			EntityInDbModel entity = entities[i];
-			entity.removeAllLinks();
+		lockWrite(); // v 3.3.0
+		try {
+			for ( EntityInDbModel entity : getEntitiesView().listByTableName ) { // v 3.3.0
+				entity.removeAllLinks();
+			}
+		} finally {
+			unlockWrite();
 		}
 	}
 	
@@ -369,17 +564,22 @@ public class RepositoryModel implements Model
 	 * @return 1 if the link has been found and removed, 0 if the link has not been found
 	 */
 	public int removeLinkById(String id) {
-		int count = 0 ;
-		LinkInDbModel link = getLinkById(id);
-		if ( link != null ) {
-			//--- Remove link 
-//			EntityInDbModel entity = getEntityByName( link.getSourceTableName() );
-			EntityInDbModel entity = getEntityByTableName( link.getSourceTableName() );
-			if ( entity != null ) {
-				count = entity.removeLink(link);
+		lockWrite(); // v 3.3.0
+		try {
+			int count = 0 ;
+			LinkInDbModel link = getLinkById(id);
+			if ( link != null ) {
+				//--- Remove link 
+//				EntityInDbModel entity = getEntityByName( link.getSourceTableName() );
+				EntityInDbModel entity = getEntityByTableName( link.getSourceTableName() );
+				if ( entity != null ) {
+					count = entity.removeLink(link);
+				}
 			}
+			return count ;
+		} finally {
+			unlockWrite();
 		}
-		return count ;
 	}
 	
 	/**
@@ -389,16 +589,20 @@ public class RepositoryModel implements Model
 	 * @since 2.1.1
 	 */
 	public int removeLinksByEntityName(String entityName) {
-		int count = 0 ;
-		for ( EntityInDbModel entity : this.getEntitiesArraySortedByTableName() ) {
-//			for ( LinkInDbModel link : entity.getLinks() ) {
-			for ( LinkInDbModel link : entity.getLinksArray() ) {
-				if ( entityName.equals( link.getSourceTableName() ) || entityName.equals( link.getTargetTableName() ) ) {
+		lockWrite(); // v 3.3.0
+		try {
+			int count = 0 ;
+			LinksIndex index = getLinksIndex(); // v 3.3.0
+			for ( LinkInDbModel link : index.getLinksByTableName(entityName) ) {
+				EntityInDbModel entity = index.getOwner(link);
+				if ( entity != null ) {
 					count = count + entity.removeLink(link);
 				}
 			}
+			return count ;
+		} finally {
+			unlockWrite();
 		}
-		return count ;
 	}
 	
 	/**
@@ -407,15 +611,20 @@ public class RepositoryModel implements Model
 	 * @return the number of links removes (usually 2)
 	 */
 	public int removeLinksByForeignKey(ForeignKeyInDbModel foreignKey) {
-		int count = 0 ;
-		//--- Build the 2 link id
-		String owningSideLinkId  = LinkInDbModel.buildId(foreignKey, true) ;
-		String inverseSideLinkId = LinkInDbModel.buildId(foreignKey, false) ;
-		//--- Remove the links if they are already in the model
-		count = count + this.removeLinkById(inverseSideLinkId);
-		count = count + this.removeLinkById(owningSideLinkId);
-
-		return count ;
+		lockWrite(); // v 3.3.0
+		try {
+			int count = 0 ;
+			//--- Build the 2 link id
+			String owningSideLinkId  = LinkInDbModel.buildId(foreignKey, true) ;
+			String inverseSideLinkId = LinkInDbModel.buildId(foreignKey, false) ;
+			//--- Remove the links if they are already in the model
+			count = count + this.removeLinkById(inverseSideLinkId);
+			count = count + this.removeLinkById(owningSideLinkId);
+	
+			return count ;
+		} finally {
+			unlockWrite();
+		}
 	}
 	
 	//-------------------------------------------------------------------------------
@@ -427,22 +636,23 @@ public class RepositoryModel implements Model
 	 * @since 2.1.1
 	 */
 	public int removeLinksByJoinTableName(String joinTableName) {
-		int count = 0 ;
-		if ( joinTableName != null ) {
-			for ( EntityInDbModel entity : this.getEntitiesArraySortedByTableName() ) {
-//				for ( LinkInDbModel link : entity.getLinks() ) {
-				for ( LinkInDbModel link : entity.getLinksArray() ) {
-					String jtName = link.getJoinTableName() ;
-					if ( jtName != null ) {
-						if ( jtName.equals(joinTableName) ) {
-							entity.removeLink(link);
-							count++;
-						}
+		lockWrite(); // v 3.3.0
+		try {
+			int count = 0 ;
+			if ( joinTableName != null ) {
+				LinksIndex index = getLinksIndex(); // v 3.3.0
+				for ( LinkInDbModel link : index.getLinksByJoinTableName(joinTableName) ) {
+					EntityInDbModel entity = index.getOwner(link);
+					if ( entity != null ) {
+						entity.removeLink(link);
+						count++;
 					}
 				}
 			}
+			return count ;
+		} finally {
+			unlockWrite();
 		}
-		return count ;
 	}
 	//-------------------------------------------------------------------------------
 	/**
@@ -452,36 +662,27 @@ public class RepositoryModel implements Model
 	 */
 	public RelationLinksInDbModel getRelationByLinkId(String linkId) 
 	{
-		LinkInDbModel link1 = getLinkById(linkId);
-		if ( link1 != null ) {
-			if ( link1.isOwningSide() ) {
-				//--- Owning Side => try to found the inverse side
-				EntityInDbModel [] entities = this.getEntitiesArraySortedByTableName();
-				for ( int i = 0 ; i < entities.length ; i++ ) {
-					EntityInDbModel entity = entities[i];
-//					LinkInDbModel [] links = entity.getLinks();
-					LinkInDbModel [] links = entity.getLinksArray();
-					for ( int j = 0 ; j < links.length ; j++ ) {
-						LinkInDbModel link2 = links[j];
-						if ( link2.isOwningSide() == false ) {
-							//if ( linkId.equals( link2.getInverseSideOf() ) ) {
-							if ( linkId.equals( link2.getInverseSideLinkId() ) ) { // v 3.0.0
-								return new RelationLinksInDbModel ( link1, link2 );
-							}
-						}
-					}
+		lockRead(); // v 3.3.0
+		try {
+			LinkInDbModel link1 = getLinkById(linkId);
+			if ( link1 != null ) {
+				if ( link1.isOwningSide() ) {
+					//--- Owning Side => try to found the inverse side
+					LinkInDbModel link2 = getInverseSideLink(linkId); // v 3.3.0
+					// inverse side can be null (not found)
+					return new RelationLinksInDbModel ( link1, link2 );
+				}
+				else {
+					//--- Inverse Side => try to found the owning side
+					//LinkInDbModel link2 = getLinkById( link1.getInverseSideOf() ) ;
+					LinkInDbModel link2 = getLinkById( link1.getInverseSideLinkId() ) ; // v 3.0.0
+					return new RelationLinksInDbModel ( link2, link1 );
 				}
-				// inverse side not found 
-				return new RelationLinksInDbModel ( link1, null );
-			}
-			else {
-				//--- Inverse Side => try to found the owning side
-				//LinkInDbModel link2 = getLinkById( link1.getInverseSideOf() ) ;
-				LinkInDbModel link2 = getLinkById( link1.getInverseSideLinkId() ) ; // v 3.0.0
-				return new RelationLinksInDbModel ( link2, link1 );
 			}
+			return null ;
+		} finally {
+			unlockRead();
 		}
-		return null ;
 	}
 	
 	//-------------------------------------------------------------------------------
@@ -494,14 +695,69 @@ public class RepositoryModel implements Model
 	 */
 	public ForeignKeyInDbModel getForeignKeyByName(String fkName)
 	{
-		EntityInDbModel [] entities = this.getEntitiesArraySortedByTableName();
-		for ( EntityInDbModel entity : entities ) {
-			ForeignKeyInDbModel fk = entity.getForeignKey(fkName);
-			if ( fk != null ) {
-				return fk ; // FOUND 
+		loadLazyEntities();
+		return foreignKeysIndex.getForeignKeyByName(fkName); // v 3.3.0
+	}
+
+	/**
+	 * Returns all the Foreign Keys referencing the given table ( "who references table X ?" )
+	 * @param tableName the referenced table name
+	 * @return the Foreign Keys (void list if none)
+	 * @since 3.3.0
+	 */
+	public List<ForeignKeyInDbModel> getForeignKeysReferencingTable(String tableName)
+	{
+		loadLazyEntities();
+		return foreignKeysIndex.getForeignKeysReferencingTable(tableName);
+	}
+
+	/**
+	 * Returns the entity holding the given Foreign Key
+	 * @param foreignKey
+	 * @return the entity or null if the Foreign Key is not in the model
+	 * @since 3.3.0
+	 */
+	public EntityInDbModel getEntityHoldingForeignKey(ForeignKeyInDbModel foreignKey)
+	{
+		return foreignKeysIndex.getOwner(foreignKey);
+	}
+
+	//-------------------------------------------------------------------------------
+	/**
+	 * Immutable sorted views of the entities (kept until an entity is stored or removed)
+	 * @since 3.3.0
+	 */
+	private static final class EntitiesView {
+		private final EntityInDbModel[] byTableName ;
+		private final EntityInDbModel[] byClassName ;
+		private final String[] names ;
+		private final List<EntityInDbModel> listByTableName ;
+		private final List<Entity> entities ;
+		private EntitiesView(EntityInDbModel[] array) {
+			byTableName = array.clone();
+			Arrays.sort(byTableName, new EntityComparatorOnTableName());
+			byClassName = array.clone();
+			Arrays.sort(byClassName, new EntityComparatorOnClassName());
+			names = new String[array.length];
+			for ( int i = 0 ; i < byTableName.length ; i++ ) {
+				names[i] = byTableName[i].getDatabaseTable();
 			}
+			Arrays.sort(names);
+			listByTableName = Collections.unmodifiableList(Arrays.asList(byTableName));
+			entities = Collections.<Entity>unmodifiableList(Arrays.asList(byClassName));
 		}
-		return null ;
 	}
 
+	/**
+	 * Immutable sorted list of all the links (kept while the version of the links index is the same)
+	 * @since 3.3.0
+	 */
+	private static final class LinksView {
+		private final long version ;
+		private final List<LinkInDbModel> links ;
+		private LinksView(long version, List<LinkInDbModel> links) {
+			this.version = version ;
+			this.links = links ;
+		}
+	}
 }
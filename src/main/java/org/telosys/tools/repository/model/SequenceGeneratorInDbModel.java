@@ -32,6 +32,25 @@ public class SequenceGeneratorInDbModel implements Serializable {
 
 	private int allocationSize = 0;
 
+	/**
+	 * Default constructor
+	 */
+	public SequenceGeneratorInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public SequenceGeneratorInDbModel(SequenceGeneratorInDbModel source) {
+		super();
+		this.name           = source.name ;
+		this.sequenceName   = source.sequenceName ;
+		this.allocationSize = source.allocationSize ;
+	}
+
 	public String getName() {
 		return name;
 	}
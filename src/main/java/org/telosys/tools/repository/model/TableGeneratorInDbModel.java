@@ -36,6 +36,27 @@ public class TableGeneratorInDbModel implements Serializable {
 
 	private String pkColumnValue = null ;
 
+	/**
+	 * Default constructor
+	 */
+	public TableGeneratorInDbModel() {
+		super();
+	}
+
+	/**
+	 * Copy constructor (deep copy)
+	 * @param source the instance to be copied
+	 * @since 3.3.0
+	 */
+	public TableGeneratorInDbModel(TableGeneratorInDbModel source) {
+		super();
+		this.name            = source.name ;
+		this.table           = source.table ;
+		this.pkColumnName    = source.pkColumnName ;
+		this.valueColumnName = source.valueColumnName ;
+		this.pkColumnValue   = source.pkColumnValue ;
+	}
+
 
 	public String getName() {
 		return name;
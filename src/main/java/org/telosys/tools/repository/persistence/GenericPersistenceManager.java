@@ -15,9 +15,13 @@
  */
 package org.telosys.tools.repository.persistence;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
 import org.telosys.tools.repository.ForeignKeyTypeManager;
@@ -38,6 +42,30 @@ public abstract class GenericPersistenceManager implements PersistenceManager {
 
 	private final TelosysToolsLogger _logger;
 
+	private final boolean _streaming ; // v 3.3.0
+
+	private volatile long _bytesWritten = 0 ; // v 3.3.0 (last save)
+
+	/**
+	 * Output stream counting the bytes written
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count = 0 ;
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++ ;
+		}
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count = count + len ;
+		}
+	}
+
 	private void log(String msg) {
 		if ( _logger != null ) {
 			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
@@ -50,7 +78,37 @@ public abstract class GenericPersistenceManager implements PersistenceManager {
 	 * @param logger
 	 */
 	public GenericPersistenceManager(TelosysToolsLogger logger) {
+		this(logger, false);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param logger
+	 * @param streaming true to use the streaming XML processing (load and save) instead of a DOM document
+	 * @since 3.3.0
+	 */
+	public GenericPersistenceManager(TelosysToolsLogger logger, boolean streaming) {
 		_logger = logger;
+		_streaming = streaming;
+	}
+
+	/**
+	 * Returns true if this persistence manager uses the streaming XML processing
+	 * @return
+	 * @since 3.3.0
+	 */
+	public boolean isStreaming() {
+		return _streaming ;
+	}
+
+	/**
+	 * Returns the number of bytes written by the last save (0 if none)
+	 * @return
+	 * @since 3.3.0
+	 */
+	public long getBytesWritten() {
+		return _bytesWritten ;
 	}
 
 	/**
@@ -61,13 +119,23 @@ public abstract class GenericPersistenceManager implements PersistenceManager {
 	 */
 	public RepositoryModel load(InputStream is) throws TelosysToolsException {
 		
-		log(" . load XML from input stream");
-		Document xmlDocument = Xml.load(is);
-
-		//--- Model loading 
-		log(" . convert XML to model");
+		RepositoryModel model ;
 		XmlConverter  xmlConverter = new XmlConverter(_logger);
-		RepositoryModel model = xmlConverter.xmlDocumentToModel(xmlDocument);
+		if ( _streaming ) {
+			//--- Model loading directly from the XML events
+			log(" . load XML from input stream (streaming)");
+			XMLStreamReader xmlStreamReader = Xml.createStreamReader(is);
+			model = xmlConverter.xmlStreamToModel(xmlStreamReader);
+			Xml.closeStreamReader(xmlStreamReader);
+		}
+		else {
+			log(" . load XML from input stream");
+			Document xmlDocument = Xml.load(is);
+	
+			//--- Model loading 
+			log(" . convert XML to model");
+			model = xmlConverter.xmlDocumentToModel(xmlDocument);
+		}
 		
 		//--- Model finalization 
 		ForeignKeyTypeManager fkTypeManager = new ForeignKeyTypeManager() ;
@@ -88,12 +156,21 @@ public abstract class GenericPersistenceManager implements PersistenceManager {
 		log("save(OutputStream, RepositoryModel)... ");
 		if (model != null) {
 
-			log(" . convert model to XML ");
+			_bytesWritten = 0 ;
+			CountingOutputStream countingOutputStream = new CountingOutputStream(os); // v 3.3.0
 			XmlConverter  xmlConverter = new XmlConverter(_logger);
-			Document doc = xmlConverter.modelToXmlDocument(model);
-			
-			log(" . save XML in output stream");
-			Xml.save(doc, os);
+			if ( _streaming ) {
+				log(" . write model in XML output stream (streaming)");
+				xmlConverter.modelToXmlStream(model, countingOutputStream);
+			}
+			else {
+				log(" . convert model to XML ");
+				Document doc = xmlConverter.modelToXmlDocument(model);
+				
+				log(" . save XML in output stream");
+				Xml.save(doc, countingOutputStream);
+			}
+			_bytesWritten = countingOutputStream.count ;
 		} else {
 			throw new TelosysToolsException("Cannot save model : model is null");
 		}
@@ -35,6 +35,11 @@ import org.telosys.tools.repository.model.RepositoryModel;
 		this.fileInMemory = fileInMemory ;
 	}
 
+	public InMemoryPersistenceManager( FileInMemory fileInMemory, TelosysToolsLogger logger, boolean streaming) { // v 3.3.0
+		super(logger, streaming);
+		this.fileInMemory = fileInMemory ;
+	}
+
 	public RepositoryModel load() throws TelosysToolsException {
 		//InputStream is = new FileInputStream(this._fileName);
 		InputStream is = new ByteArrayInputStream(fileInMemory.getContent());
@@ -0,0 +1,126 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.XmlTableIndex;
+
+/**
+ * Persistence manager with lazy loading for big repository files <br>
+ * The file is memory-mapped and indexed (table name to byte range) when the model is loaded,
+ * the content of each entity (attributes, foreign keys and links) is parsed only when the entity is used. <br>
+ * The save never rewrites the file in place : the model is written in a temporary file which replaces the file, 
+ * so the models already opened keep reading their own mapping (the previous content). <br>
+ * A lazy model must not outlive an external rewrite of its file : if another tool truncates and rewrites the file 
+ * while some entities are not yet loaded, loading them can fail.
+ *
+ * @since 3.3.0
+ */
+/* package */ class LazyFilePersistenceManager extends GenericPersistenceManager
+{
+	private final TelosysToolsLogger _logger ;
+
+	private final File _file ;
+
+	public LazyFilePersistenceManager(File file, TelosysToolsLogger logger) {
+		super(logger, true);
+		this._logger = logger ;
+		this._file = file.getAbsoluteFile() ;
+	}
+
+	private void log(String msg) {
+		if ( _logger != null ) {
+			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	public RepositoryModel load() throws TelosysToolsException {
+		MappedByteBuffer buffer ;
+		try {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(_file, "r");
+			try {
+				FileChannel channel = randomAccessFile.getChannel();
+				// the mapping remains valid after the channel is closed
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				randomAccessFile.close();
+			}
+		} catch (FileNotFoundException e) {
+			throw new TelosysToolsException("file not found : " + _file, e);
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot map file " + _file, e);
+		}
+		log("load() : indexing " + _file );
+		XmlTableIndex index = XmlTableIndex.build(buffer);
+		XmlConverter xmlConverter = new XmlConverter(_logger);
+		return xmlConverter.xmlIndexToLazyModel(index);
+	}
+
+	public void save(RepositoryModel model) throws TelosysToolsException {
+		if ( model == null ) {
+			throw new TelosysToolsException("Cannot save model : model is null");
+		}
+		// the file can be mapped (by this model or by other models) : never truncated, replaced by a new file
+		File tmpFile ;
+		try {
+			tmpFile = File.createTempFile(_file.getName() + ".", ".tmp", _file.getParentFile());
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot create temporary file for " + _file, e);
+		}
+		boolean saved = false ;
+		try {
+			OutputStream os = new FileOutputStream(tmpFile, false);
+			try {
+				super.save(os, model);
+			} finally {
+				os.close();
+			}
+			replaceFile(tmpFile);
+			saved = true ;
+		} catch (FileNotFoundException e) {
+			throw new TelosysToolsException("file not found : " + tmpFile, e);
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot save file " + _file, e);
+		} finally {
+			if ( ! saved ) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	private void replaceFile(File tmpFile) throws IOException {
+		try {
+			Files.move(tmpFile.toPath(), _file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
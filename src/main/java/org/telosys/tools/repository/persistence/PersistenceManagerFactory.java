@@ -21,6 +21,10 @@ import org.telosys.tools.commons.TelosysToolsLogger;
 
 public class PersistenceManagerFactory 
 {
+	/**
+	 * Suffix of the default snapshot file ( v 3.3.0 )
+	 */
+	public final static String SNAPSHOT_FILE_SUFFIX = ".snapshot" ;
 
 	public static PersistenceManager createPersistenceManager(File file) {
 		return new StandardFilePersistenceManager(file, null);
@@ -34,4 +38,63 @@ public class PersistenceManagerFactory
 		return new InMemoryPersistenceManager(fileInMemory, logger);
 	}
 	
+	/**
+	 * Creates a persistence manager using the streaming XML processing (StAX for loading, direct writing for saving) <br>
+	 * Gives the same model and the same file as the standard persistence manager without building a DOM document
+	 * @param file
+	 * @param logger
+	 * @return
+	 * @since 3.3.0
+	 */
+	public static PersistenceManager createStreamingPersistenceManager(File file, TelosysToolsLogger logger) {
+		return new StandardFilePersistenceManager(file, logger, true);
+	}
+	
+	/**
+	 * Creates an in-memory persistence manager using the streaming XML processing
+	 * @param fileInMemory
+	 * @param logger
+	 * @return
+	 * @since 3.3.0
+	 */
+	public static PersistenceManager createStreamingPersistenceManager(FileInMemory fileInMemory, TelosysToolsLogger logger) {
+		return new InMemoryPersistenceManager(fileInMemory, logger, true);
+	}
+
+	/**
+	 * Creates a persistence manager with lazy loading (for big repository files) <br>
+	 * The file is memory-mapped and indexed, the content of each entity is loaded when the entity is used for the first time
+	 * @param file
+	 * @param logger
+	 * @return
+	 * @since 3.3.0
+	 */
+	public static PersistenceManager createLazyPersistenceManager(File file, TelosysToolsLogger logger) {
+		return new LazyFilePersistenceManager(file, logger);
+	}
+
+	/**
+	 * Creates a persistence manager using a binary snapshot as a cache of the given XML file <br>
+	 * The snapshot file is located next to the XML file ( same name + ".snapshot" )
+	 * @param xmlFile
+	 * @param logger
+	 * @return
+	 * @since 3.3.0
+	 */
+	public static PersistenceManager createSnapshotPersistenceManager(File xmlFile, TelosysToolsLogger logger) {
+		return createSnapshotPersistenceManager(xmlFile, new File(xmlFile.getAbsolutePath() + SNAPSHOT_FILE_SUFFIX), logger);
+	}
+
+	/**
+	 * Creates a persistence manager using the given binary snapshot file as a cache of the given XML file
+	 * @param xmlFile
+	 * @param snapshotFile
+	 * @param logger
+	 * @return
+	 * @since 3.3.0
+	 */
+	public static PersistenceManager createSnapshotPersistenceManager(File xmlFile, File snapshotFile, TelosysToolsLogger logger) {
+		return new SnapshotPersistenceManager(xmlFile, snapshotFile, logger);
+	}
+
 }
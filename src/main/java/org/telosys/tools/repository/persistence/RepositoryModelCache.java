@@ -0,0 +1,501 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotHeader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotReader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotWriter;
+
+/**
+ * Process-wide cache of the models loaded from the repository files <br>
+ * The entries are identified by the canonical path of the file and are valid as long as the file has the same 
+ * length and modification time, or the same content hash (file touched without change). <br>
+ * Each entry keeps the model as a binary snapshot : 'getModel' returns a new copy of the model 
+ * (decoded from the snapshot, without XML parsing), 'getSharedModel' returns the same instance 
+ * to all the callers (this instance must not be modified). <br>
+ * The cache is limited by a maximum number of entries and a maximum estimated heap size 
+ * (the size of the snapshots, plus an estimate of the shared models when built), 
+ * the least recently used entries are evicted first. 
+ * With soft references the entries can also be collected by the garbage collector when the memory is low. <br>
+ * Thread-safe : a file is loaded only once when requested concurrently, the other callers wait for this load.
+ *
+ * @since 3.3.0
+ */
+public class RepositoryModelCache {
+
+	public final static int  DEFAULT_MAX_ENTRIES   = 32 ;
+
+	public final static long DEFAULT_MAX_HEAP_SIZE = 64L * 1024 * 1024 ;
+
+	private final static String HASH_ALGORITHM = "SHA-1" ;
+
+	private final static int MAX_ATTEMPTS = 3 ;
+
+	private final static int SHARED_MODEL_SIZE_RATIO = 4 ; // estimated heap size of a decoded model / size of its XML file
+
+	private final static RepositoryModelCache INSTANCE = new RepositoryModelCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_HEAP_SIZE, true);
+
+	/**
+	 * Returns the process-wide cache instance (default limits and soft references)
+	 * @return
+	 */
+	public static RepositoryModelCache getInstance() {
+		return INSTANCE ;
+	}
+
+	/**
+	 * Content of an entry (can be collected if held by a soft reference)
+	 */
+	private static class CachedModel {
+		private final byte[] snapshot ;
+		private final String hash ;
+		private final long xmlLength ;
+		private RepositoryModel sharedModel = null ;
+
+		private CachedModel(byte[] snapshot, String hash, long xmlLength) {
+			this.snapshot = snapshot ;
+			this.hash = hash ;
+			this.xmlLength = xmlLength ;
+		}
+
+		private RepositoryModel newModel() throws TelosysToolsException {
+			ModelSnapshotReader reader = new ModelSnapshotReader(new ByteArrayInputStream(snapshot));
+			reader.readHeader();
+			return reader.readModel();
+		}
+
+		private synchronized RepositoryModel getSharedModel() throws TelosysToolsException {
+			if ( sharedModel == null ) {
+				sharedModel = newModel();
+			}
+			return sharedModel ;
+		}
+
+		private synchronized boolean hasSharedModel() {
+			return sharedModel != null ;
+		}
+
+		/**
+		 * Returns the estimated heap size : the snapshot and the shared model (if built)
+		 */
+		private synchronized long getHeapSize() {
+			return snapshot.length + ( sharedModel != null ? xmlLength * SHARED_MODEL_SIZE_RATIO : 0 ) ;
+		}
+	}
+
+	/**
+	 * Cache entry for a file
+	 */
+	private static class Entry {
+		private final long length ;
+		private final long lastModified ;
+		private final CachedModel strongModel ;
+		private final SoftReference<CachedModel> softModel ;
+		private long heapSize ; // counted in the cache heap size (guarded by the cache)
+
+		private Entry(long length, long lastModified, CachedModel cachedModel, boolean soft) {
+			this.length = length ;
+			this.lastModified = lastModified ;
+			this.heapSize = cachedModel.getHeapSize() ;
+			this.strongModel = soft ? null : cachedModel ;
+			this.softModel = soft ? new SoftReference<CachedModel>(cachedModel) : null ;
+		}
+
+		private CachedModel getCachedModel() {
+			return strongModel != null ? strongModel : softModel.get() ;
+		}
+
+		private boolean isSameFile(long length, long lastModified) {
+			return this.length == length && this.lastModified == lastModified ;
+		}
+	}
+
+	/**
+	 * Load in progress for a file (state of the file when the load has been requested)
+	 */
+	private static class PendingLoad {
+		private final long length ;
+		private final long lastModified ;
+		private final FutureTask<CachedModel> task ;
+
+		private PendingLoad(long length, long lastModified, FutureTask<CachedModel> task) {
+			this.length = length ;
+			this.lastModified = lastModified ;
+			this.task = task ;
+		}
+
+		private boolean isSameFile(long length, long lastModified) {
+			return this.length == length && this.lastModified == lastModified ;
+		}
+	}
+
+	/**
+	 * Cache statistics (values at the time of the call)
+	 */
+	public static class Stats {
+		private final long hits ;
+		private final long misses ;
+		private final long loads ;
+		private final long evictions ;
+		private final int  entries ;
+		private final long heapSize ;
+
+		private Stats(long hits, long misses, long loads, long evictions, int entries, long heapSize) {
+			this.hits = hits ;
+			this.misses = misses ;
+			this.loads = loads ;
+			this.evictions = evictions ;
+			this.entries = entries ;
+			this.heapSize = heapSize ;
+		}
+
+		/**
+		 * Returns the number of requests served by a valid entry
+		 * @return
+		 */
+		public long getHits() {
+			return hits;
+		}
+		/**
+		 * Returns the number of requests without valid entry (served by a load or waiting for another load)
+		 * @return
+		 */
+		public long getMisses() {
+			return misses;
+		}
+		/**
+		 * Returns the number of files loaded
+		 * @return
+		 */
+		public long getLoads() {
+			return loads;
+		}
+		/**
+		 * Returns the number of entries evicted (limits reached or collected by the garbage collector)
+		 * @return
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
+		public int getEntries() {
+			return entries;
+		}
+		/**
+		 * Returns the estimated heap size of the current entries
+		 * @return
+		 */
+		public long getHeapSize() {
+			return heapSize;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + ", misses=" + misses + ", loads=" + loads + ", evictions=" + evictions 
+					+ ", entries=" + entries + ", heapSize=" + heapSize ;
+		}
+	}
+
+	private final int maxEntries ;
+
+	private final long maxHeapSize ;
+
+	private final boolean softReferences ;
+
+	// LRU order, guarded by 'this'
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final ConcurrentMap<String, PendingLoad> loadsInProgress = new ConcurrentHashMap<>();
+
+	private long heapSize = 0 ;
+	private long hits = 0 ;
+	private long misses = 0 ;
+	private long loads = 0 ;
+	private long evictions = 0 ;
+
+	/**
+	 * Constructor
+	 * @param maxEntries maximum number of entries
+	 * @param maxHeapSize maximum estimated heap size (in bytes)
+	 * @param softReferences true to let the garbage collector reclaim the entries when the memory is low
+	 */
+	public RepositoryModelCache(int maxEntries, long maxHeapSize, boolean softReferences) {
+		super();
+		if ( maxEntries <= 0 ) {
+			throw new IllegalArgumentException("Invalid max entries : " + maxEntries);
+		}
+		this.maxEntries = maxEntries ;
+		this.maxHeapSize = maxHeapSize ;
+		this.softReferences = softReferences ;
+	}
+
+	/**
+	 * Returns a new copy of the model stored in the given file (the caller can modify it)
+	 * @param file
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel getModel(File file) throws TelosysToolsException {
+		return getCachedModel(getKey(file), file).newModel();
+	}
+
+	/**
+	 * Returns the model instance shared by all the callers for the given file <br>
+	 * This model must be considered as read-only
+	 * @param file
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel getSharedModel(File file) throws TelosysToolsException {
+		String key = getKey(file);
+		CachedModel cachedModel = getCachedModel(key, file);
+		if ( cachedModel.hasSharedModel() ) {
+			return cachedModel.getSharedModel();
+		}
+		RepositoryModel model = cachedModel.getSharedModel();
+		updateHeapSize(key, cachedModel); // shared model built : bigger entry
+		return model ;
+	}
+
+	/**
+	 * Removes the entry of the given file (if any)
+	 * @param file
+	 * @throws TelosysToolsException
+	 */
+	public synchronized void invalidate(File file) throws TelosysToolsException {
+		Entry entry = entries.remove(getKey(file));
+		if ( entry != null ) {
+			heapSize -= entry.heapSize ;
+		}
+	}
+
+	/**
+	 * Removes all the entries
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		heapSize = 0 ;
+	}
+
+	/**
+	 * Returns the current statistics
+	 * @return
+	 */
+	public synchronized Stats getStats() {
+		return new Stats(hits, misses, loads, evictions, entries.size(), heapSize);
+	}
+
+	//-----------------------------------------------------------------------------------
+	private String getKey(File file) throws TelosysToolsException {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot get canonical path for " + file, e);
+		}
+	}
+
+	private CachedModel getCachedModel(final String key, File file) throws TelosysToolsException {
+		final File canonicalFile = new File(key);
+		for ( int attempt = 1 ; ; attempt++ ) {
+			if ( ! canonicalFile.exists() ) {
+				throw new TelosysToolsException("file not found : " + file );
+			}
+			final long length = canonicalFile.length() ;
+			final long lastModified = canonicalFile.lastModified() ;
+
+			final Entry previous ;
+			synchronized (this) {
+				previous = entries.get(key);
+				if ( previous != null ) {
+					CachedModel cachedModel = previous.getCachedModel();
+					if ( cachedModel == null ) {
+						// collected by the garbage collector
+						removeEntry(key);
+						evictions++ ;
+					}
+					else if ( previous.isSameFile(length, lastModified) ) {
+						if ( attempt == 1 ) {
+							hits++ ;
+						}
+						return cachedModel ;
+					}
+				}
+				if ( attempt == 1 ) {
+					misses++ ;
+				}
+			}
+
+			//--- Single load for concurrent requests on the same state of the file
+			PendingLoad load = new PendingLoad(length, lastModified, new FutureTask<>(new Callable<CachedModel>() {
+				@Override
+				public CachedModel call() throws Exception {
+					return loadEntry(key, canonicalFile, previous, length, lastModified);
+				}
+			}));
+			PendingLoad current = loadsInProgress.putIfAbsent(key, load);
+			if ( current == null ) {
+				try {
+					load.task.run();
+				} finally {
+					loadsInProgress.remove(key, load);
+				}
+				return getResult(load, file);
+			}
+			else if ( current.isSameFile(length, lastModified) ) {
+				return getResult(current, file);
+			}
+			else if ( attempt >= MAX_ATTEMPTS ) {
+				// the file keeps changing : load without waiting for the other load
+				load.task.run();
+				return getResult(load, file);
+			}
+			else {
+				// load of another state of the file : wait for its end and check the file again
+				try {
+					getResult(current, file);
+				} catch (TelosysToolsException e) {
+					// error for the other state of the file
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the model loaded (strong reference, cannot be collected while used by the caller)
+	 * @param load
+	 * @param file
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private CachedModel getResult(PendingLoad load, File file) throws TelosysToolsException {
+		try {
+			return load.task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Interrupted while loading " + file, e);
+		} catch (ExecutionException e) {
+			if ( e.getCause() instanceof TelosysToolsException ) {
+				throw (TelosysToolsException) e.getCause();
+			}
+			throw new TelosysToolsException("Cannot load " + file, e.getCause());
+		}
+	}
+
+	/**
+	 * Loads the file and stores its entry <br>
+	 * The entry keeps the state of the file observed before the load (if the file is changed during the load, 
+	 * the entry will not be considered as valid for the new state)
+	 */
+	private CachedModel loadEntry(String key, File file, Entry previous, long length, long lastModified) throws TelosysToolsException {
+		byte[] content ;
+		try {
+			content = Files.readAllBytes(file.toPath());
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot read file " + file, e);
+		}
+		String hash = computeHash(content);
+
+		CachedModel cachedModel = previous != null ? previous.getCachedModel() : null ;
+		if ( cachedModel == null || ! hash.equals(cachedModel.hash) ) {
+			//--- Load the XML content and keep it as a snapshot
+			FileInMemory fileInMemory = new FileInMemory();
+			fileInMemory.setContent(content);
+			RepositoryModel model = PersistenceManagerFactory.createStreamingPersistenceManager(fileInMemory, null).load();
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 2);
+			new ModelSnapshotWriter(baos).write(new ModelSnapshotHeader(length, lastModified, hash), model);
+			cachedModel = new CachedModel(baos.toByteArray(), hash, content.length);
+			synchronized (this) {
+				loads++ ;
+			}
+		}
+		// else : file touched without change, same content with the new file information
+
+		Entry entry = new Entry(length, lastModified, cachedModel, softReferences);
+		synchronized (this) {
+			removeEntry(key);
+			entries.put(key, entry);
+			heapSize += entry.heapSize ;
+			evict();
+		}
+		return cachedModel ;
+	}
+
+	private void removeEntry(String key) {
+		Entry entry = entries.remove(key);
+		if ( entry != null ) {
+			heapSize -= entry.heapSize ;
+		}
+	}
+
+	/**
+	 * Updates the heap size of the entry holding the given cached model (if still in the cache), 
+	 * then evicts the entries exceeding the limits
+	 */
+	private synchronized void updateHeapSize(String key, CachedModel cachedModel) {
+		Entry entry = entries.get(key);
+		if ( entry != null && entry.getCachedModel() == cachedModel ) {
+			long newHeapSize = cachedModel.getHeapSize() ;
+			heapSize += newHeapSize - entry.heapSize ;
+			entry.heapSize = newHeapSize ;
+			evict();
+		}
+	}
+
+	/**
+	 * Evicts the least recently used entries until the limits are respected (the last entry is always kept)
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while ( entries.size() > 1 && ( entries.size() > maxEntries || heapSize > maxHeapSize ) ) {
+			Entry entry = iterator.next().getValue();
+			iterator.remove();
+			heapSize -= entry.heapSize ;
+			evictions++ ;
+		}
+	}
+
+	private String computeHash(byte[] content) throws TelosysToolsException {
+		MessageDigest digest ;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new TelosysToolsException("Hash algorithm not available : " + HASH_ALGORITHM, e);
+		}
+		StringBuilder sb = new StringBuilder();
+		for ( byte b : digest.digest(content) ) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Holder of the current model of a repository file <br>
+ * The model is replaced atomically by the 'RepositoryModelWatcher' when the file is modified 
+ * (a caller must keep the model returned by 'getModel()' for a consistent processing)
+ *
+ * @since 3.3.0
+ */
+public class RepositoryModelHolder {
+
+	private final AtomicReference<RepositoryModel> model ;
+
+	/**
+	 * Constructor
+	 * @param model the initial model
+	 */
+	public RepositoryModelHolder(RepositoryModel model) {
+		super();
+		this.model = new AtomicReference<>(model);
+	}
+
+	/**
+	 * Returns the current model
+	 * @return
+	 */
+	public RepositoryModel getModel() {
+		return model.get();
+	}
+
+	/**
+	 * Replaces the current model
+	 * @param newModel
+	 * @return the previous model
+	 */
+	public RepositoryModel setModel(RepositoryModel newModel) {
+		return model.getAndSet(newModel);
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.io.File;
+
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Listener notified by the 'RepositoryModelWatcher' when a repository file has been reloaded
+ *
+ * @since 3.3.0
+ */
+public interface RepositoryModelListener {
+
+	/**
+	 * Called (in the reload thread) after the new model has been set in the holders
+	 * @param file the repository file
+	 * @param model the new model
+	 * @param changes the changes between the previous model and the new one
+	 */
+	public void modelReloaded(File file, RepositoryModel model, ChangeLog changes);
+
+}
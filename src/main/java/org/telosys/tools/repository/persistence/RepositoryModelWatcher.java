@@ -0,0 +1,371 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ModelComparator;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Watcher of repository files ( opt-in hot reload based on the file system 'WatchService' ) <br>
+ * The directories of the watched files are registered in a WatchService. When a file is modified the reload 
+ * is delayed until no other modification occurs during the 'debounce' time (bursts of writes give a single reload). <br>
+ * The file is reloaded in a background thread (with the standard persistence manager, or with the cache if any), 
+ * each modification event gives a reload, even if the file has the same length and modification time. 
+ * then the new model is set in all the holders of this file and the listeners are notified with the changes 
+ * between the previous model and the new one. <br>
+ * The new model is shared by all the holders and listeners (it must be considered as read-only). <br>
+ * A file that cannot be loaded (eg partially written) keeps its current model until its next modification.
+ *
+ * @since 3.3.0
+ */
+public class RepositoryModelWatcher {
+
+	public final static long DEFAULT_DEBOUNCE_MILLIS = 500 ;
+
+	/**
+	 * Watched file with its current model and its holders
+	 */
+	private static class WatchedFile {
+		private final File file ;
+		private final List<RepositoryModelHolder> holders = new CopyOnWriteArrayList<>();
+		private volatile RepositoryModel model ;
+
+		private WatchedFile(File file, RepositoryModel model) {
+			this.file = file ;
+			this.model = model ;
+		}
+	}
+
+	private final TelosysToolsLogger logger ;
+
+	private final long debounceMillis ;
+
+	private final WatchService watchService ;
+
+	private final Map<Path, WatchedFile> watchedFiles = new ConcurrentHashMap<>();
+
+	private final Set<Path> watchedDirectories = new HashSet<>();
+
+	private final List<RepositoryModelListener> listeners = new CopyOnWriteArrayList<>();
+
+	private final ExecutorService reloadExecutor ;
+
+	private final AtomicLong reloadsCount = new AtomicLong(0);
+
+	private volatile RepositoryModelCache cache = null ;
+
+	private Thread watchThread = null ;
+
+	/**
+	 * Constructor with the default debounce time
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModelWatcher(TelosysToolsLogger logger) throws TelosysToolsException {
+		this(DEFAULT_DEBOUNCE_MILLIS, logger);
+	}
+
+	/**
+	 * Constructor
+	 * @param debounceMillis the time without modification before reloading a file
+	 * @param logger
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModelWatcher(long debounceMillis, TelosysToolsLogger logger) throws TelosysToolsException {
+		super();
+		this.logger = logger ;
+		this.debounceMillis = debounceMillis ;
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot create watch service", e);
+		}
+		this.reloadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "RepositoryModelWatcher-reload");
+				thread.setDaemon(true);
+				return thread ;
+			}
+		});
+	}
+
+	private void log(String msg) {
+		if ( logger != null ) {
+			logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	/**
+	 * Set the cache used to load the files (the cache entry is refreshed by each reload)
+	 * @param cache the cache or null to use the standard persistence manager
+	 */
+	public void setCache(RepositoryModelCache cache) {
+		this.cache = cache ;
+	}
+
+	/**
+	 * Adds a listener notified after each reload
+	 * @param listener
+	 */
+	public void addListener(RepositoryModelListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(RepositoryModelListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Returns the number of reloads done since the creation
+	 * @return
+	 */
+	public long getReloadsCount() {
+		return reloadsCount.get();
+	}
+
+	/**
+	 * Loads the given file and watches it 
+	 * @param file
+	 * @return a new holder for the model of this file
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModelHolder watch(File file) throws TelosysToolsException {
+		WatchedFile watchedFile = getWatchedFile(file);
+		RepositoryModelHolder holder = new RepositoryModelHolder(watchedFile.model);
+		watchedFile.holders.add(holder);
+		return holder ;
+	}
+
+	/**
+	 * Watches the given file and keeps the model of the given holder up to date
+	 * @param file
+	 * @param holder
+	 * @throws TelosysToolsException
+	 */
+	public void watch(File file, RepositoryModelHolder holder) throws TelosysToolsException {
+		getWatchedFile(file).holders.add(holder);
+	}
+
+	private synchronized WatchedFile getWatchedFile(File file) throws TelosysToolsException {
+		Path path = file.toPath().toAbsolutePath().normalize();
+		WatchedFile watchedFile = watchedFiles.get(path);
+		if ( watchedFile == null ) {
+			Path directory = path.getParent();
+			if ( ! watchedDirectories.contains(directory) ) {
+				try {
+					directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+				} catch (IOException e) {
+					throw new TelosysToolsException("Cannot watch directory " + directory, e);
+				}
+				watchedDirectories.add(directory);
+			}
+			File f = path.toFile();
+			watchedFile = new WatchedFile(f, loadModel(f));
+			watchedFiles.put(path, watchedFile);
+		}
+		return watchedFile ;
+	}
+
+	private RepositoryModel loadModel(File file) throws TelosysToolsException {
+		RepositoryModelCache currentCache = this.cache ;
+		if ( currentCache != null ) {
+			return currentCache.getModel(file);
+		}
+		else {
+			return PersistenceManagerFactory.createPersistenceManager(file, logger).load();
+		}
+	}
+
+	/**
+	 * Loads the model again after a modification event <br>
+	 * The cache entry (if any) is invalidated : the length and the modification time of the file can be unchanged 
+	 * (eg same length and time resolution of the file system)
+	 */
+	private RepositoryModel reloadModel(File file) throws TelosysToolsException {
+		RepositoryModelCache currentCache = this.cache ;
+		if ( currentCache != null ) {
+			currentCache.invalidate(file);
+		}
+		return loadModel(file);
+	}
+
+	/**
+	 * Starts the watching thread
+	 */
+	public synchronized void start() {
+		if ( watchThread == null ) {
+			watchThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					watchLoop();
+				}
+			}, "RepositoryModelWatcher");
+			watchThread.setDaemon(true);
+			watchThread.start();
+		}
+	}
+
+	/**
+	 * Stops the watching and the reloads
+	 * @throws TelosysToolsException
+	 */
+	public void close() throws TelosysToolsException {
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot close watch service", e);
+		} finally {
+			reloadExecutor.shutdownNow();
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Watching thread
+	//-----------------------------------------------------------------------------------
+	private void watchLoop() {
+		// reload time for each modified file
+		Map<Path, Long> pendingReloads = new HashMap<>();
+		try {
+			while ( true ) {
+				WatchKey key ;
+				if ( pendingReloads.isEmpty() ) {
+					key = watchService.take();
+				}
+				else {
+					long timeout = nextReloadTime(pendingReloads) - System.currentTimeMillis() ;
+					key = watchService.poll(Math.max(timeout, 0), TimeUnit.MILLISECONDS);
+				}
+				if ( key != null ) {
+					Path directory = (Path) key.watchable();
+					for ( WatchEvent<?> event : key.pollEvents() ) {
+						if ( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+							// events lost : all the files of this directory are checked
+							for ( Path path : watchedFiles.keySet() ) {
+								if ( directory.equals(path.getParent()) ) {
+									pendingReloads.put(path, System.currentTimeMillis() + debounceMillis);
+								}
+							}
+						}
+						else {
+							Path path = directory.resolve((Path) event.context());
+							if ( watchedFiles.containsKey(path) ) {
+								pendingReloads.put(path, System.currentTimeMillis() + debounceMillis);
+							}
+						}
+					}
+					key.reset();
+				}
+				submitReloads(pendingReloads);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// watcher closed
+		}
+		log("watching stopped");
+	}
+
+	private long nextReloadTime(Map<Path, Long> pendingReloads) {
+		long next = Long.MAX_VALUE ;
+		for ( Long time : pendingReloads.values() ) {
+			next = Math.min(next, time);
+		}
+		return next ;
+	}
+
+	private void submitReloads(Map<Path, Long> pendingReloads) {
+		long now = System.currentTimeMillis() ;
+		Iterator<Map.Entry<Path, Long>> iterator = pendingReloads.entrySet().iterator();
+		while ( iterator.hasNext() ) {
+			Map.Entry<Path, Long> entry = iterator.next();
+			if ( entry.getValue() <= now ) {
+				iterator.remove();
+				final WatchedFile watchedFile = watchedFiles.get(entry.getKey());
+				reloadExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						reload(watchedFile);
+					}
+				});
+			}
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Reload (single thread)
+	//-----------------------------------------------------------------------------------
+	private void reload(WatchedFile watchedFile) {
+		File file = watchedFile.file ;
+		if ( ! file.exists() ) {
+			log("file removed : " + file + " (current model kept)");
+			return ;
+		}
+		RepositoryModel newModel ;
+		try {
+			newModel = reloadModel(file);
+		} catch (TelosysToolsException e) {
+			log("cannot reload " + file + " : " + e.getMessage() + " (current model kept)");
+			return ;
+		}
+		ChangeLog changes ;
+		try {
+			changes = new ModelComparator().compare(watchedFile.model, newModel);
+		} catch (TelosysToolsException e) {
+			log("cannot compare models : " + e.getMessage() );
+			changes = new ChangeLog();
+		}
+		watchedFile.model = newModel ;
+		for ( RepositoryModelHolder holder : watchedFile.holders ) {
+			holder.setModel(newModel);
+		}
+		reloadsCount.incrementAndGet();
+		log("file reloaded : " + file + " (" + changes.getNumberOfEntities() + " entities changed)");
+		for ( RepositoryModelListener listener : listeners ) {
+			try {
+				listener.modelReloaded(file, newModel, changes);
+			} catch (RuntimeException e) {
+				log("listener error : " + e.getMessage() );
+			}
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotHeader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotReader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotWriter;
+
+/**
+ * Persistence manager using a binary snapshot as a cache of the XML repository file <br>
+ * The XML file remains the reference : the snapshot is used only if it has been built from the current XML file
+ * (same length and modification time, or same content hash) with the current model version. <br>
+ * Otherwise the XML file is loaded and the snapshot is rebuilt.
+ *
+ * @since 3.3.0
+ */
+/* package */ class SnapshotPersistenceManager extends GenericPersistenceManager
+{
+	private final static String HASH_ALGORITHM = "SHA-1" ;
+
+	private final TelosysToolsLogger _logger ;
+
+	private final File _xmlFile ;
+
+	private final File _snapshotFile ;
+
+	/**
+	 * Constructor
+	 * @param xmlFile the XML repository file
+	 * @param snapshotFile the binary snapshot file
+	 * @param logger
+	 */
+	public SnapshotPersistenceManager(File xmlFile, File snapshotFile, TelosysToolsLogger logger) {
+		super(logger, true);
+		this._logger = logger ;
+		this._xmlFile = xmlFile.getAbsoluteFile() ;
+		this._snapshotFile = snapshotFile.getAbsoluteFile() ;
+	}
+
+	private void log(String msg) {
+		if ( _logger != null ) {
+			_logger.log("[LOG] " + this.getClass().getName() + " : " + msg);
+		}
+	}
+
+	/**
+	 * Returns the snapshot file
+	 * @return
+	 */
+	public File getSnapshotFile() {
+		return _snapshotFile ;
+	}
+
+	public RepositoryModel load() throws TelosysToolsException {
+		if ( ! _xmlFile.exists() ) {
+			throw new TelosysToolsException("file not found : " + _xmlFile );
+		}
+		long length = _xmlFile.length() ;
+		long lastModified = _xmlFile.lastModified() ;
+
+		//--- Try to use the current snapshot
+		ModelSnapshotHeader header = readSnapshotHeader();
+		if ( header != null ) {
+			if ( header.isSameSource(length, lastModified) ) {
+				log("load() : snapshot is up to date");
+				RepositoryModel model = readSnapshotModel();
+				if ( model != null ) {
+					return model ;
+				}
+			}
+			else {
+				String hash = computeHash();
+				if ( hash.equals(header.getSourceHash()) ) {
+					// file touched but not changed : keep the snapshot content with the new file information
+					log("load() : XML file touched without change, snapshot content is still valid");
+					RepositoryModel model = readSnapshotModel();
+					if ( model != null ) {
+						writeSnapshot(new ModelSnapshotHeader(length, lastModified, hash), model);
+						return model ;
+					}
+				}
+			}
+		}
+
+		//--- Load the XML file and rebuild the snapshot
+		log("load() : loading XML file and rebuilding snapshot");
+		MessageDigest digest = createMessageDigest();
+		RepositoryModel model ;
+		try {
+			InputStream is = new DigestInputStream(new FileInputStream(_xmlFile), digest);
+			try {
+				model = super.load(is);
+				// read the end of the file (if any) to get the hash of the whole file
+				byte[] buffer = new byte[8192];
+				while ( is.read(buffer) >= 0 ) {
+					// nothing to do
+				}
+			} finally {
+				is.close();
+			}
+		} catch (FileNotFoundException e) {
+			throw new TelosysToolsException("file not found : " + _xmlFile, e);
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot read file " + _xmlFile, e);
+		}
+		writeSnapshot(new ModelSnapshotHeader(length, lastModified, toHexString(digest.digest())), model);
+		return model ;
+	}
+
+	public void save(RepositoryModel model) throws TelosysToolsException {
+		try {
+			OutputStream os = new FileOutputStream(_xmlFile, false);
+			try {
+				super.save(os, model);
+			} finally {
+				os.close();
+			}
+		} catch (FileNotFoundException e) {
+			throw new TelosysToolsException("file not found : " + _xmlFile, e);
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot close file " + _xmlFile, e);
+		}
+		// the snapshot will be rebuilt from the new XML file at the next load
+		deleteSnapshot();
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Snapshot file management
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Returns the header of the current snapshot or null if no valid snapshot
+	 * (no file, other format or other model version)
+	 * @return
+	 */
+	private ModelSnapshotHeader readSnapshotHeader() {
+		if ( ! _snapshotFile.exists() ) {
+			return null ;
+		}
+		try {
+			InputStream is = new FileInputStream(_snapshotFile);
+			try {
+				ModelSnapshotHeader header = new ModelSnapshotReader(is).readHeader();
+				if ( header == null ) {
+					log("snapshot ignored : unknown format");
+					return null ;
+				}
+				if ( ! header.isCurrentModelVersion() ) {
+					log("snapshot ignored : model version " + header.getModelVersion() );
+					return null ;
+				}
+				return header ;
+			} finally {
+				is.close();
+			}
+		} catch (Exception e) {
+			log("snapshot ignored : " + e.getMessage() );
+			return null ;
+		}
+	}
+
+	/**
+	 * Reads the model from the snapshot file
+	 * @return the model or null if the snapshot cannot be read
+	 */
+	private RepositoryModel readSnapshotModel() {
+		try {
+			InputStream is = new FileInputStream(_snapshotFile);
+			try {
+				ModelSnapshotReader reader = new ModelSnapshotReader(is);
+				if ( reader.readHeader() == null ) {
+					return null ;
+				}
+				return reader.readModel();
+			} finally {
+				is.close();
+			}
+		} catch (Exception e) {
+			log("snapshot ignored : " + e.getMessage() );
+			return null ;
+		}
+	}
+
+	/**
+	 * Writes the snapshot in a temporary file and then renames it <br>
+	 * A failure is not blocking (the snapshot is just a cache)
+	 * @param header
+	 * @param model
+	 */
+	private void writeSnapshot(ModelSnapshotHeader header, RepositoryModel model) {
+		File tmpFile = new File(_snapshotFile.getAbsolutePath() + ".tmp");
+		try {
+			OutputStream os = new FileOutputStream(tmpFile, false);
+			try {
+				new ModelSnapshotWriter(os).write(header, model);
+			} finally {
+				os.close();
+			}
+			deleteSnapshot();
+			if ( ! tmpFile.renameTo(_snapshotFile) ) {
+				log("cannot rename snapshot file " + tmpFile );
+				tmpFile.delete();
+			}
+		} catch (Exception e) {
+			log("cannot write snapshot : " + e.getMessage() );
+			tmpFile.delete();
+		}
+	}
+
+	private void deleteSnapshot() {
+		if ( _snapshotFile.exists() && ! _snapshotFile.delete() ) {
+			log("cannot delete snapshot file " + _snapshotFile );
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Hash
+	//-----------------------------------------------------------------------------------
+	private MessageDigest createMessageDigest() throws TelosysToolsException {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new TelosysToolsException("Hash algorithm not available : " + HASH_ALGORITHM, e);
+		}
+	}
+
+	private String computeHash() throws TelosysToolsException {
+		MessageDigest digest = createMessageDigest();
+		try {
+			InputStream is = new FileInputStream(_xmlFile);
+			try {
+				byte[] buffer = new byte[8192];
+				int n ;
+				while ( ( n = is.read(buffer) ) >= 0 ) {
+					digest.update(buffer, 0, n);
+				}
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			throw new TelosysToolsException("cannot read file " + _xmlFile, e);
+		}
+		return toHexString(digest.digest());
+	}
+
+	private String toHexString(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for ( byte b : bytes ) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
@@ -42,6 +42,11 @@ import org.telosys.tools.repository.model.RepositoryModel;
 		this._fileName = file.getAbsolutePath() ;
 	}
 
+	public StandardFilePersistenceManager(File file, TelosysToolsLogger logger, boolean streaming) { // v 3.3.0
+		super(logger, streaming);
+		this._fileName = file.getAbsolutePath() ;
+	}
+
 	public RepositoryModel load() throws TelosysToolsException {
 		try {
 			InputStream is = new FileInputStream(this._fileName);
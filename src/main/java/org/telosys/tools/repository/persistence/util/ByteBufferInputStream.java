@@ -0,0 +1,81 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * InputStream reading a range of bytes in a ByteBuffer (typically a memory-mapped file) <br>
+ * The given buffer is not modified (the stream uses its own view of the buffer)
+ *
+ * @since 3.3.0
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer buffer ;
+
+	/**
+	 * Constructor for a range of bytes
+	 * @param buffer
+	 * @param start position of the first byte
+	 * @param end position after the last byte
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer, int start, int end) {
+		super();
+		this.buffer = buffer.duplicate();
+		this.buffer.limit(end);
+		this.buffer.position(start);
+	}
+
+	/**
+	 * Constructor for all the bytes of the buffer
+	 * @param buffer
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this(buffer, 0, buffer.limit());
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? ( buffer.get() & 0xFF ) : -1 ;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) {
+		if ( length == 0 ) {
+			return 0 ;
+		}
+		if ( ! buffer.hasRemaining() ) {
+			return -1 ;
+		}
+		int n = Math.min(length, buffer.remaining());
+		buffer.get(bytes, offset, n);
+		return n ;
+	}
+
+	@Override
+	public long skip(long n) {
+		int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + skipped);
+		return skipped ;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import org.telosys.tools.repository.model.DbModelVersion;
+
+/**
+ * Header of a binary model snapshot <br>
+ * Identifies the snapshot format, the model version and the XML source file used to build the snapshot
+ *
+ * @since 3.3.0
+ */
+public class ModelSnapshotHeader {
+
+	/**
+	 * Magic number at the beginning of each snapshot file ( "TDBS" )
+	 */
+	public final static int MAGIC = 0x54444253 ;
+
+	/**
+	 * Version of the binary format (to be changed for any change in the snapshot structure)
+	 */
+	public final static int FORMAT_VERSION = 2 ; // v 2 : entity fingerprint
+
+	private final String modelVersion ;
+
+	private final long   sourceLength ;
+
+	private final long   sourceLastModified ;
+
+	private final String sourceHash ;
+
+	/**
+	 * Constructor for a snapshot of the current model version
+	 * @param sourceLength length of the XML source file
+	 * @param sourceLastModified last modification time of the XML source file
+	 * @param sourceHash hash of the XML source file content
+	 */
+	public ModelSnapshotHeader(long sourceLength, long sourceLastModified, String sourceHash) {
+		this(DbModelVersion.VERSION, sourceLength, sourceLastModified, sourceHash);
+	}
+
+	/**
+	 * Constructor
+	 * @param modelVersion
+	 * @param sourceLength
+	 * @param sourceLastModified
+	 * @param sourceHash
+	 */
+	public ModelSnapshotHeader(String modelVersion, long sourceLength, long sourceLastModified, String sourceHash) {
+		super();
+		this.modelVersion = modelVersion;
+		this.sourceLength = sourceLength;
+		this.sourceLastModified = sourceLastModified;
+		this.sourceHash = sourceHash;
+	}
+
+	public String getModelVersion() {
+		return modelVersion;
+	}
+
+	public long getSourceLength() {
+		return sourceLength;
+	}
+
+	public long getSourceLastModified() {
+		return sourceLastModified;
+	}
+
+	public String getSourceHash() {
+		return sourceHash;
+	}
+
+	/**
+	 * Returns true if the snapshot has been written for the current model version
+	 * @return
+	 */
+	public boolean isCurrentModelVersion() {
+		return DbModelVersion.VERSION.equals(modelVersion);
+	}
+
+	/**
+	 * Returns true if the given file length and modification time are those recorded in the snapshot
+	 * @param length
+	 * @param lastModified
+	 * @return
+	 */
+	public boolean isSameSource(long length, long lastModified) {
+		return sourceLength == length && sourceLastModified == lastModified ;
+	}
+
+	@Override
+	public String toString() {
+		return "model version " + modelVersion + ", source length " + sourceLength
+				+ ", source last modified " + sourceLastModified + ", source hash " + sourceHash ;
+	}
+}
@@ -0,0 +1,346 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.generic.model.CascadeOption;
+import org.telosys.tools.generic.model.CascadeOptions;
+import org.telosys.tools.generic.model.Cardinality;
+import org.telosys.tools.generic.model.DateType;
+import org.telosys.tools.generic.model.FetchType;
+import org.telosys.tools.generic.model.Optional;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.GeneratedValueInDbModel;
+import org.telosys.tools.repository.model.JoinColumnInDbModel;
+import org.telosys.tools.repository.model.JoinTableInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.model.SequenceGeneratorInDbModel;
+import org.telosys.tools.repository.model.TableGeneratorInDbModel;
+
+/**
+ * Reads a binary snapshot written by 'ModelSnapshotWriter' <br>
+ * The header can be read alone (to check if the snapshot is still valid) before reading the model
+ *
+ * @since 3.3.0
+ */
+public class ModelSnapshotReader {
+
+	private final static int NULL_STRING = -1 ;
+
+	private final DataInputStream in ;
+
+	private final List<String> strings = new ArrayList<String>();
+
+	private ModelSnapshotHeader header = null ;
+
+	/**
+	 * Constructor
+	 * @param is the input stream (not closed by this reader)
+	 */
+	public ModelSnapshotReader(InputStream is) {
+		super();
+		this.in = new DataInputStream(new BufferedInputStream(is));
+	}
+
+	/**
+	 * Reads the snapshot header <br>
+	 * @return the header or null if the stream is not a snapshot in the current format
+	 * @throws TelosysToolsException
+	 */
+	public ModelSnapshotHeader readHeader() throws TelosysToolsException {
+		try {
+			if ( in.readInt() != ModelSnapshotHeader.MAGIC ) {
+				return null ;
+			}
+			if ( in.readInt() != ModelSnapshotHeader.FORMAT_VERSION ) {
+				return null ;
+			}
+			String modelVersion = in.readUTF();
+			long sourceLength = in.readLong();
+			long sourceLastModified = in.readLong();
+			String sourceHash = in.readUTF();
+			header = new ModelSnapshotHeader(modelVersion, sourceLength, sourceLastModified, sourceHash);
+			return header ;
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read model snapshot header", e);
+		}
+	}
+
+	/**
+	 * Reads the model (the header must have been read before)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel readModel() throws TelosysToolsException {
+		if ( header == null ) {
+			throw new TelosysToolsException("Cannot read model snapshot : no valid header");
+		}
+		try {
+			return readRepositoryModel();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read model snapshot", e);
+		} catch (IllegalArgumentException e) {
+			// unknown enum name
+			throw new TelosysToolsException("Invalid model snapshot", e);
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Basic values
+	//-----------------------------------------------------------------------------------
+	private String readString() throws IOException {
+		int index = in.readInt();
+		if ( index == NULL_STRING ) {
+			return null ;
+		}
+		else if ( index < strings.size() ) {
+			return strings.get(index);
+		}
+		else if ( index == strings.size() ) {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			String s = new String(bytes, "UTF-8");
+			strings.add(s);
+			return s ;
+		}
+		else {
+			throw new IOException("Invalid string index " + index );
+		}
+	}
+
+	private Integer readInteger() throws IOException {
+		return in.readBoolean() ? Integer.valueOf(in.readInt()) : null ;
+	}
+
+	private BigDecimal readBigDecimal() throws IOException {
+		String s = readString();
+		return s != null ? new BigDecimal(s) : null ;
+	}
+
+	private Date readDate() throws IOException {
+		return in.readBoolean() ? new Date(in.readLong()) : null ;
+	}
+
+	private <T extends Enum<T>> T readEnum(Class<T> enumClass) throws IOException {
+		String name = readString();
+		return name != null ? Enum.valueOf(enumClass, name) : null ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Model
+	//-----------------------------------------------------------------------------------
+	private RepositoryModel readRepositoryModel() throws IOException {
+		RepositoryModel model = new RepositoryModel();
+		model.setName(readString());
+		model.setDescription(readString());
+		model.setDatabaseName(readString());
+		model.setDatabaseId(in.readInt());
+		model.setDatabaseProductName(readString());
+		model.setGenerationDate(readDate());
+		model.setLastUpdateDate(readDate());
+
+		int count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			model.storeEntity(readEntity());
+		}
+		return model ;
+	}
+
+	private EntityInDbModel readEntity() throws IOException {
+		EntityInDbModel entity = new EntityInDbModel();
+		entity.setDatabaseTable(readString());
+		entity.setDatabaseCatalog(readString());
+		entity.setDatabaseSchema(readString());
+		entity.setDatabaseType(readString());
+		entity.setDatabaseComment(readString());
+		entity.setClassName(readString());
+		entity.setDatabaseFingerprint(readString());
+
+		int count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			entity.storeAttribute(readAttribute(entity));
+		}
+		count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			entity.storeForeignKey(readForeignKey());
+		}
+		count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			entity.storeLink(readLink());
+		}
+		return entity ;
+	}
+
+	private AttributeInDbModel readAttribute(EntityInDbModel entity) throws IOException {
+		AttributeInDbModel attribute = new AttributeInDbModel(entity);
+		//--- Database
+		attribute.setDatabaseName(readString());
+		attribute.setDatabaseTypeName(readString());
+		attribute.setDatabaseSize(readString());
+		attribute.setDatabaseNotNull(in.readBoolean());
+		attribute.setKeyElement(in.readBoolean());
+		attribute.setFKSimple(in.readBoolean());
+		attribute.setFKComposite(in.readBoolean());
+		attribute.setReferencedEntityClassName(readString());
+		attribute.setAutoIncremented(in.readBoolean());
+		attribute.setDatabasePosition(in.readInt());
+		attribute.setDatabaseDefaultValue(readString());
+		attribute.setDatabaseComment(readString());
+		attribute.setJdbcTypeCode(in.readInt());
+		//--- Java
+		attribute.setName(readString());
+		attribute.setModelFullType(readString());
+		attribute.setNotNull(in.readBoolean());
+		attribute.setDefaultValue(readString());
+		attribute.setSelected(in.readBoolean());
+		attribute.setLabel(readString());
+		attribute.setInputType(readString());
+		//--- String
+		attribute.setLongText(in.readBoolean());
+		attribute.setNotEmpty(in.readBoolean());
+		attribute.setNotBlank(in.readBoolean());
+		attribute.setMinLength(readInteger());
+		attribute.setMaxLength(readInteger());
+		attribute.setPattern(readString());
+		//--- Date
+		attribute.setDateType(readEnum(DateType.class));
+		attribute.setDatePast(in.readBoolean());
+		attribute.setDateFuture(in.readBoolean());
+		attribute.setDateBefore(in.readBoolean());
+		attribute.setDateBeforeValue(readString());
+		attribute.setDateAfter(in.readBoolean());
+		attribute.setDateAfterValue(readString());
+		//--- Number
+		attribute.setMinValue(readBigDecimal());
+		attribute.setMaxValue(readBigDecimal());
+		//--- Boolean
+		attribute.setBooleanTrueValue(readString());
+		attribute.setBooleanFalseValue(readString());
+		//--- Other
+		attribute.setFormat(readString());
+		//--- Key generation
+		if ( in.readBoolean() ) {
+			GeneratedValueInDbModel generatedValue = new GeneratedValueInDbModel();
+			generatedValue.setStrategy(readString());
+			generatedValue.setGenerator(readString());
+			attribute.setGeneratedValue(generatedValue);
+		}
+		if ( in.readBoolean() ) {
+			TableGeneratorInDbModel tableGenerator = new TableGeneratorInDbModel();
+			tableGenerator.setName(readString());
+			tableGenerator.setTable(readString());
+			tableGenerator.setPkColumnName(readString());
+			tableGenerator.setValueColumnName(readString());
+			tableGenerator.setPkColumnValue(readString());
+			attribute.setTableGenerator(tableGenerator);
+		}
+		if ( in.readBoolean() ) {
+			SequenceGeneratorInDbModel sequenceGenerator = new SequenceGeneratorInDbModel();
+			sequenceGenerator.setName(readString());
+			sequenceGenerator.setSequenceName(readString());
+			sequenceGenerator.setAllocationSize(in.readInt());
+			attribute.setSequenceGenerator(sequenceGenerator);
+		}
+		return attribute ;
+	}
+
+	private ForeignKeyInDbModel readForeignKey() throws IOException {
+		ForeignKeyInDbModel foreignKey = new ForeignKeyInDbModel();
+		foreignKey.setName(readString());
+		int count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			ForeignKeyColumnInDbModel column = new ForeignKeyColumnInDbModel();
+			column.setTableName(readString());
+			column.setColumnName(readString());
+			column.setSequence(in.readInt());
+			column.setTableRef(readString());
+			column.setReferencedColumnName(readString());
+			column.setUpdateRuleCode(in.readInt());
+			column.setDeleteRuleCode(in.readInt());
+			column.setDeferrableCode(in.readInt());
+			foreignKey.storeForeignKeyColumn(column);
+		}
+		return foreignKey ;
+	}
+
+	private LinkInDbModel readLink() throws IOException {
+		LinkInDbModel link = new LinkInDbModel();
+		link.setId(readString());
+		link.setSelected(in.readBoolean());
+		link.setSourceTableName(readString());
+		link.setTargetTableName(readString());
+		link.setCardinality(readEnum(Cardinality.class));
+		link.setFieldName(readString());
+		link.setOwningSide(in.readBoolean());
+		link.setInverseSideLinkId(readString());
+		link.setMappedBy(readString());
+		CascadeOptions cascadeOptions = new CascadeOptions();
+		int count = in.readInt();
+		for ( int i = 0 ; i < count ; i++ ) {
+			cascadeOptions.add(readEnum(CascadeOption.class));
+		}
+		link.setCascadeOptions(cascadeOptions);
+		link.setFetchType(readEnum(FetchType.class));
+		link.setOptional(readEnum(Optional.class));
+		link.setTargetEntityClassName(readString());
+		link.setForeignKeyName(readString());
+		link.setJoinTableName(readString());
+		link.setJoinColumns(readJoinColumns());
+		if ( in.readBoolean() ) {
+			JoinTableInDbModel joinTable = new JoinTableInDbModel();
+			joinTable.setName(readString());
+			joinTable.setSchema(readString());
+			joinTable.setCatalog(readString());
+			joinTable.setJoinColumns(readJoinColumns());
+			joinTable.setInverseJoinColumns(readJoinColumns());
+			link.setJoinTable(joinTable);
+		}
+		return link ;
+	}
+
+	private List<JoinColumnInDbModel> readJoinColumns() throws IOException {
+		int count = in.readInt();
+		if ( count < 0 ) {
+			return null ;
+		}
+		List<JoinColumnInDbModel> joinColumns = new LinkedList<JoinColumnInDbModel>();
+		for ( int i = 0 ; i < count ; i++ ) {
+			JoinColumnInDbModel joinColumn = new JoinColumnInDbModel();
+			joinColumn.setName(readString());
+			joinColumn.setReferencedColumnName(readString());
+			joinColumn.setUnique(in.readBoolean());
+			joinColumn.setNullable(in.readBoolean());
+			joinColumn.setUpdatable(in.readBoolean());
+			joinColumn.setInsertable(in.readBoolean());
+			joinColumns.add(joinColumn);
+		}
+		return joinColumns ;
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.generic.model.CascadeOption;
+import org.telosys.tools.generic.model.JoinColumn;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.GeneratedValueInDbModel;
+import org.telosys.tools.repository.model.JoinTableInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.model.SequenceGeneratorInDbModel;
+import org.telosys.tools.repository.model.TableGeneratorInDbModel;
+
+/**
+ * Writes a binary snapshot of a repository model <br>
+ * All the strings are interned : each distinct string is written only once, then referenced by its index
+ * (table names, column names, types, etc are highly repetitive) <br>
+ * The structure must be kept in sync with 'ModelSnapshotReader' (change 'FORMAT_VERSION' for any change)
+ *
+ * @since 3.3.0
+ */
+public class ModelSnapshotWriter {
+
+	private final static int NULL_STRING = -1 ;
+
+	private final DataOutputStream out ;
+
+	private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+	/**
+	 * Constructor
+	 * @param os the output stream (not closed by this writer)
+	 */
+	public ModelSnapshotWriter(OutputStream os) {
+		super();
+		this.out = new DataOutputStream(new BufferedOutputStream(os));
+	}
+
+	/**
+	 * Writes the snapshot header and the given model
+	 * @param header
+	 * @param model
+	 * @throws TelosysToolsException
+	 */
+	public void write(ModelSnapshotHeader header, RepositoryModel model) throws TelosysToolsException {
+		try {
+			writeHeader(header);
+			writeModel(model);
+			out.flush();
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot write model snapshot", e);
+		}
+	}
+
+	private void writeHeader(ModelSnapshotHeader header) throws IOException {
+		out.writeInt(ModelSnapshotHeader.MAGIC);
+		out.writeInt(ModelSnapshotHeader.FORMAT_VERSION);
+		out.writeUTF(header.getModelVersion());
+		out.writeLong(header.getSourceLength());
+		out.writeLong(header.getSourceLastModified());
+		out.writeUTF(header.getSourceHash() != null ? header.getSourceHash() : "");
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Basic values
+	//-----------------------------------------------------------------------------------
+	private void writeString(String s) throws IOException {
+		if ( s == null ) {
+			out.writeInt(NULL_STRING);
+		}
+		else {
+			Integer index = strings.get(s);
+			if ( index != null ) {
+				out.writeInt(index);
+			}
+			else {
+				// new string : next index followed by the string content
+				int newIndex = strings.size();
+				strings.put(s, newIndex);
+				out.writeInt(newIndex);
+				byte[] bytes = s.getBytes("UTF-8");
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+	}
+
+	private void writeEnum(Enum<?> e) throws IOException {
+		writeString( e != null ? e.name() : null );
+	}
+
+	private void writeInteger(Integer v) throws IOException {
+		out.writeBoolean(v != null);
+		if ( v != null ) {
+			out.writeInt(v);
+		}
+	}
+
+	private void writeBigDecimal(BigDecimal v) throws IOException {
+		writeString( v != null ? v.toString() : null );
+	}
+
+	private void writeDate(Date date) throws IOException {
+		out.writeBoolean(date != null);
+		if ( date != null ) {
+			out.writeLong(date.getTime());
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Model
+	//-----------------------------------------------------------------------------------
+	private void writeModel(RepositoryModel model) throws IOException {
+		writeString(model.getName());
+		writeString(model.getDescription());
+		writeString(model.getDatabaseName());
+		out.writeInt(model.getDatabaseIdAsInt());
+		writeString(model.getDatabaseProductName());
+		writeDate(model.getGenerationDate());
+		writeDate(model.getLastUpdateDate());
+
+		List<EntityInDbModel> entities = model.getEntitiesSortedByTableName();
+		out.writeInt(entities.size());
+		for ( EntityInDbModel entity : entities ) {
+			writeEntity(entity);
+		}
+	}
+
+	private void writeEntity(EntityInDbModel entity) throws IOException {
+		writeString(entity.getDatabaseTable());
+		writeString(entity.getDatabaseCatalog());
+		writeString(entity.getDatabaseSchema());
+		writeString(entity.getDatabaseType());
+		writeString(entity.getDatabaseComment());
+		writeString(entity.getClassName());
+		writeString(entity.getDatabaseFingerprint());
+
+		AttributeInDbModel[] attributes = entity.getAttributesArray();
+		out.writeInt(attributes.length);
+		for ( AttributeInDbModel attribute : attributes ) {
+			writeAttribute(attribute);
+		}
+
+		ForeignKeyInDbModel[] foreignKeys = entity.getForeignKeys();
+		out.writeInt(foreignKeys.length);
+		for ( ForeignKeyInDbModel foreignKey : foreignKeys ) {
+			writeForeignKey(foreignKey);
+		}
+
+		LinkInDbModel[] links = entity.getLinksArray();
+		out.writeInt(links.length);
+		for ( LinkInDbModel link : links ) {
+			writeLink(link);
+		}
+	}
+
+	private void writeAttribute(AttributeInDbModel attribute) throws IOException {
+		//--- Database
+		writeString(attribute.getDatabaseName());
+		writeString(attribute.getDatabaseType());
+		writeString(attribute.getDatabaseSize());
+		out.writeBoolean(attribute.isDatabaseNotNull());
+		out.writeBoolean(attribute.isKeyElement());
+		out.writeBoolean(attribute.isFKSimple());
+		out.writeBoolean(attribute.isFKComposite());
+		writeString(attribute.getReferencedEntityClassName());
+		out.writeBoolean(attribute.isAutoIncremented());
+		out.writeInt(attribute.getDatabasePosition());
+		writeString(attribute.getDatabaseDefaultValue());
+		writeString(attribute.getDatabaseComment());
+		out.writeInt(attribute.getJdbcTypeCode());
+		//--- Java
+		writeString(attribute.getName());
+		writeString(attribute.getModelFullType());
+		out.writeBoolean(attribute.isNotNull());
+		writeString(attribute.getDefaultValue());
+		out.writeBoolean(attribute.isSelected());
+		writeString(attribute.getLabel());
+		writeString(attribute.getInputType());
+		//--- String
+		out.writeBoolean(attribute.isLongText());
+		out.writeBoolean(attribute.isNotEmpty());
+		out.writeBoolean(attribute.isNotBlank());
+		writeInteger(attribute.getMinLength());
+		writeInteger(attribute.getMaxLength());
+		writeString(attribute.getPattern());
+		//--- Date
+		writeEnum(attribute.getDateType());
+		out.writeBoolean(attribute.isDatePast());
+		out.writeBoolean(attribute.isDateFuture());
+		out.writeBoolean(attribute.isDateBefore());
+		writeString(attribute.getDateBeforeValue());
+		out.writeBoolean(attribute.isDateAfter());
+		writeString(attribute.getDateAfterValue());
+		//--- Number
+		writeBigDecimal(attribute.getMinValue());
+		writeBigDecimal(attribute.getMaxValue());
+		//--- Boolean
+		writeString(attribute.getBooleanTrueValue());
+		writeString(attribute.getBooleanFalseValue());
+		//--- Other
+		writeString(attribute.getFormat());
+		//--- Key generation
+		GeneratedValueInDbModel generatedValue = attribute.getGeneratedValue();
+		out.writeBoolean(generatedValue != null);
+		if ( generatedValue != null ) {
+			writeString(generatedValue.getStrategy());
+			writeString(generatedValue.getGenerator());
+		}
+		TableGeneratorInDbModel tableGenerator = attribute.getTableGenerator();
+		out.writeBoolean(tableGenerator != null);
+		if ( tableGenerator != null ) {
+			writeString(tableGenerator.getName());
+			writeString(tableGenerator.getTable());
+			writeString(tableGenerator.getPkColumnName());
+			writeString(tableGenerator.getValueColumnName());
+			writeString(tableGenerator.getPkColumnValue());
+		}
+		SequenceGeneratorInDbModel sequenceGenerator = attribute.getSequenceGenerator();
+		out.writeBoolean(sequenceGenerator != null);
+		if ( sequenceGenerator != null ) {
+			writeString(sequenceGenerator.getName());
+			writeString(sequenceGenerator.getSequenceName());
+			out.writeInt(sequenceGenerator.getAllocationSize());
+		}
+	}
+
+	private void writeForeignKey(ForeignKeyInDbModel foreignKey) throws IOException {
+		writeString(foreignKey.getName());
+		ForeignKeyColumnInDbModel[] columns = foreignKey.getForeignKeyColumns();
+		out.writeInt(columns.length);
+		for ( ForeignKeyColumnInDbModel column : columns ) {
+			writeString(column.getTableName());
+			writeString(column.getColumnName());
+			out.writeInt(column.getSequence());
+			writeString(column.getTableRef());
+			writeString(column.getReferencedColumnName());
+			out.writeInt(column.getUpdateRuleCode());
+			out.writeInt(column.getDeleteRuleCode());
+			out.writeInt(column.getDeferrableCode());
+		}
+	}
+
+	private void writeLink(LinkInDbModel link) throws IOException {
+		writeString(link.getId());
+		out.writeBoolean(link.isSelected());
+		writeString(link.getSourceTableName());
+		writeString(link.getTargetTableName());
+		writeEnum(link.getCardinality());
+		writeString(link.getFieldName());
+		out.writeBoolean(link.isOwningSide());
+		writeString(link.getInverseSideLinkId());
+		writeString(link.getMappedBy());
+		List<CascadeOption> cascadeOptions = link.getCascadeOptions().getActiveOptions();
+		out.writeInt(cascadeOptions.size());
+		for ( CascadeOption cascadeOption : cascadeOptions ) {
+			writeEnum(cascadeOption);
+		}
+		writeEnum(link.getFetchType());
+		writeEnum(link.getOptional());
+		writeString(link.getTargetEntityClassName());
+		writeString(link.getForeignKeyName());
+		writeString(link.getJoinTableName());
+		writeJoinColumns(link.getJoinColumns());
+		JoinTableInDbModel joinTable = (JoinTableInDbModel) link.getJoinTable();
+		out.writeBoolean(joinTable != null);
+		if ( joinTable != null ) {
+			writeString(joinTable.getName());
+			writeString(joinTable.getSchema());
+			writeString(joinTable.getCatalog());
+			writeJoinColumns(joinTable.getJoinColumns());
+			writeJoinColumns(joinTable.getInverseJoinColumns());
+		}
+	}
+
+	private void writeJoinColumns(List<JoinColumn> joinColumns) throws IOException {
+		if ( joinColumns == null ) {
+			out.writeInt(-1);
+		}
+		else {
+			out.writeInt(joinColumns.size());
+			for ( JoinColumn joinColumn : joinColumns ) {
+				writeString(joinColumn.getName());
+				writeString(joinColumn.getReferencedColumnName());
+				out.writeBoolean(joinColumn.isUnique());
+				out.writeBoolean(joinColumn.isNullable());
+				out.writeBoolean(joinColumn.isUpdatable());
+				out.writeBoolean(joinColumn.isInsertable());
+			}
+		}
+	}
+}
@@ -71,6 +71,7 @@ public class RepositoryConst {
 	public static final String TABLE_JAVA_BEAN         = "javaBean";
 	public static final String TABLE_DATABASE_TYPE     = "databaseType"; // added in v 2.0.7
 	public static final String TABLE_DATABASE_COMMENT  = "databaseComment"; // added in v 3.0.3
+	public static final String TABLE_FINGERPRINT       = "fingerprint"; // added in v 3.3.0
 	
 
 	//--------------------------------------------------------------------------------------------------
@@ -26,6 +26,9 @@ import java.io.OutputStream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -113,6 +116,74 @@ public class Xml
     	}
     }
     
+    /**
+     * Creates a StAX reader for the given XML input stream (streaming loading, no DOM document)
+     * @param is
+     * @return
+     * @throws TelosysToolsException
+     * @since 3.3.0
+     */
+    public static XMLStreamReader createStreamReader(InputStream is) throws TelosysToolsException
+    {
+    	return createStreamReader(is, null);
+    }
+    
+    /**
+     * Creates a StAX reader for the given XML input stream with the given encoding <br>
+     * (useful for an XML fragment without declaration)
+     * @param is
+     * @param encoding the encoding or null to use the XML declaration (or the default encoding)
+     * @return
+     * @throws TelosysToolsException
+     * @since 3.3.0
+     */
+    public static XMLStreamReader createStreamReader(InputStream is, String encoding) throws TelosysToolsException
+    {
+    	if ( is != null ) {
+    		try {
+    			if ( encoding != null ) {
+    				return getInputFactory().createXMLStreamReader(is, encoding);
+    			}
+    			else {
+    				return getInputFactory().createXMLStreamReader(is);
+    			}
+    		} catch (XMLStreamException e) {
+    			throw new TelosysToolsException("XML error : Cannot create XMLStreamReader", e);
+    		}
+    	}
+    	else {
+    		throw new TelosysToolsException("XML error : createStreamReader(null) ");
+    	}
+    }
+    
+    private static XMLInputFactory inputFactory = null ; // v 3.3.0
+    
+    private static synchronized XMLInputFactory getInputFactory() 
+    {
+    	// the factory is configured once and then only used to create readers
+    	if ( inputFactory == null ) {
+    		XMLInputFactory factory = XMLInputFactory.newInstance();
+    		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    		inputFactory = factory ;
+    	}
+    	return inputFactory ;
+    }
+    
+    /**
+     * Closes the given StAX reader (the underlying input stream is not closed)
+     * @param reader
+     * @throws TelosysToolsException
+     * @since 3.3.0
+     */
+    public static void closeStreamReader(XMLStreamReader reader) throws TelosysToolsException
+    {
+    	try {
+    		reader.close();
+    	} catch (XMLStreamException e) {
+    		throw new TelosysToolsException("XML error : Cannot close XMLStreamReader", e);
+    	}
+    }
+    
     public static void save(Document doc, String fileName) throws TelosysToolsException
     {
     	save ( doc, new StreamResult(fileName));
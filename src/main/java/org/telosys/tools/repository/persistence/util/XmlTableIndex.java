@@ -0,0 +1,230 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.telosys.tools.commons.TelosysToolsException;
+
+/**
+ * Index of the 'table' elements of a repository XML file held in a ByteBuffer (typically a memory-mapped file) <br>
+ * Each 'table' element is located by its byte range (from '&lt;table' to the end of '&lt;/table&gt;') <br>
+ * The index is built with a simple bytes scan, the XML content is not parsed.
+ *
+ * @since 3.3.0
+ */
+public class XmlTableIndex {
+
+	private final static byte[] TABLE_START = ( "<" + RepositoryConst.TABLE ).getBytes() ;
+
+	private final static byte[] TABLE_END   = ( "</" + RepositoryConst.TABLE ).getBytes() ;
+
+	private final static byte[] COMMENT_START = "<!--".getBytes() ;
+	private final static byte[] COMMENT_END   = "-->".getBytes() ;
+	private final static byte[] CDATA_START   = "<![CDATA[".getBytes() ;
+	private final static byte[] CDATA_END     = "]]>".getBytes() ;
+
+	private final ByteBuffer buffer ;
+
+	private int   size = 0 ;
+	private int[] starts = new int[64] ;
+	private int[] ends   = new int[64] ;
+
+	/**
+	 * Builds the index of the given buffer
+	 * @param buffer the XML content (UTF-8 or any other ASCII based encoding)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public static XmlTableIndex build(ByteBuffer buffer) throws TelosysToolsException {
+		XmlTableIndex index = new XmlTableIndex(buffer);
+		index.scan();
+		return index ;
+	}
+
+	private XmlTableIndex(ByteBuffer buffer) {
+		super();
+		this.buffer = buffer ;
+	}
+
+	/**
+	 * Returns the number of 'table' elements
+	 * @return
+	 */
+	public int size() {
+		return size ;
+	}
+
+	/**
+	 * Returns the position of the first byte of the given 'table' element
+	 * @param i
+	 * @return
+	 */
+	public int getStart(int i) {
+		checkIndex(i);
+		return starts[i] ;
+	}
+
+	/**
+	 * Returns the position after the last byte of the given 'table' element
+	 * @param i
+	 * @return
+	 */
+	public int getEnd(int i) {
+		checkIndex(i);
+		return ends[i] ;
+	}
+
+	/**
+	 * Returns an InputStream for the whole XML content
+	 * @return
+	 */
+	public InputStream getInputStream() {
+		return new ByteBufferInputStream(buffer);
+	}
+
+	/**
+	 * Returns an InputStream for the given 'table' element only <br>
+	 * (a well-formed XML fragment with the 'table' element as root)
+	 * @param i
+	 * @return
+	 */
+	public InputStream getTableInputStream(int i) {
+		checkIndex(i);
+		return new ByteBufferInputStream(buffer, starts[i], ends[i]);
+	}
+
+	private void checkIndex(int i) {
+		if ( i < 0 || i >= size ) {
+			throw new IndexOutOfBoundsException("Invalid table index " + i + " (size = " + size + ")");
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Bytes scan
+	//-----------------------------------------------------------------------------------
+	private void scan() throws TelosysToolsException {
+		int limit = buffer.limit();
+		int pos = 0 ;
+		while ( pos < limit ) {
+			if ( buffer.get(pos) != '<' ) {
+				pos++ ;
+			}
+			else if ( startsWith(pos, COMMENT_START) ) {
+				pos = skipAfter(pos, COMMENT_END);
+			}
+			else if ( startsWith(pos, CDATA_START) ) {
+				pos = skipAfter(pos, CDATA_END);
+			}
+			else if ( startsWith(pos, TABLE_START) && isNameEnd(pos + TABLE_START.length) ) {
+				int start = pos ;
+				int startTagEnd = skipStartTag(pos);
+				if ( buffer.get(startTagEnd - 2) == '/' ) {
+					// empty element : <table ... />
+					pos = startTagEnd ;
+				}
+				else {
+					pos = skipEndTag(startTagEnd);
+				}
+				add(start, pos);
+			}
+			else {
+				pos++ ;
+			}
+		}
+	}
+
+	private void add(int start, int end) {
+		if ( size == starts.length ) {
+			starts = Arrays.copyOf(starts, size * 2);
+			ends   = Arrays.copyOf(ends, size * 2);
+		}
+		starts[size] = start ;
+		ends[size] = end ;
+		size++ ;
+	}
+
+	private boolean startsWith(int pos, byte[] bytes) {
+		if ( pos + bytes.length > buffer.limit() ) {
+			return false ;
+		}
+		for ( int i = 0 ; i < bytes.length ; i++ ) {
+			if ( buffer.get(pos + i) != bytes[i] ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	private boolean isNameEnd(int pos) {
+		if ( pos >= buffer.limit() ) {
+			return false ;
+		}
+		byte b = buffer.get(pos);
+		return b == ' ' || b == '>' || b == '/' || b == '\t' || b == '\n' || b == '\r' ;
+	}
+
+	/**
+	 * Returns the position after the given bytes
+	 */
+	private int skipAfter(int pos, byte[] bytes) throws TelosysToolsException {
+		int limit = buffer.limit() - bytes.length ;
+		for ( int p = pos ; p <= limit ; p++ ) {
+			if ( startsWith(p, bytes) ) {
+				return p + bytes.length ;
+			}
+		}
+		throw new TelosysToolsException("XML error : unexpected end of file (position " + pos + ")");
+	}
+
+	/**
+	 * Returns the position after the '>' ending the start tag (attribute values are skipped)
+	 */
+	private int skipStartTag(int pos) throws TelosysToolsException {
+		int limit = buffer.limit();
+		byte quote = 0 ;
+		for ( int p = pos ; p < limit ; p++ ) {
+			byte b = buffer.get(p);
+			if ( quote != 0 ) {
+				if ( b == quote ) {
+					quote = 0 ;
+				}
+			}
+			else if ( b == '"' || b == '\'' ) {
+				quote = b ;
+			}
+			else if ( b == '>' ) {
+				return p + 1 ;
+			}
+		}
+		throw new TelosysToolsException("XML error : unexpected end of file (position " + pos + ")");
+	}
+
+	/**
+	 * Returns the position after the '&lt;/table&gt;' end tag ('table' elements are not nested)
+	 */
+	private int skipEndTag(int pos) throws TelosysToolsException {
+		int p = pos ;
+		while ( true ) {
+			p = skipAfter(p, TABLE_END) ;
+			if ( isNameEnd(p) ) {
+				return skipStartTag(p);
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.repository.persistence.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+
+/**
+ * Streaming XML writer producing the same layout as the repository files saved with 'Xml.save' : <br>
+ * one element per line, no indentation, attributes sorted by name, same escaping rules. <br>
+ * Elements are written as soon as they are started (only the current element path is kept in memory)
+ *
+ * @since 3.3.0
+ */
+public class XmlWriter {
+
+	private final static String ENCODING = "UTF-8" ;
+
+	private final static String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
+
+	private final Writer writer ;
+
+	private final LinkedList<String> openElements = new LinkedList<String>();
+
+	private boolean startTagOpen = false ;
+
+	/**
+	 * Constructor
+	 * @param os the output stream (not closed by this writer)
+	 */
+	public XmlWriter(OutputStream os) throws TelosysToolsException {
+		super();
+		try {
+			this.writer = new BufferedWriter(new OutputStreamWriter(os, ENCODING));
+		} catch (IOException e) {
+			throw new TelosysToolsException("XML error : Cannot create writer", e);
+		}
+	}
+
+	/**
+	 * Writes the XML declaration
+	 * @throws TelosysToolsException
+	 */
+	public void writeStartDocument() throws TelosysToolsException {
+		write("<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" standalone=\"no\"?>");
+		write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Writes a comment
+	 * @param comment
+	 * @throws TelosysToolsException
+	 */
+	public void writeComment(String comment) throws TelosysToolsException {
+		closeStartTag();
+		write("<!--" + comment + "-->");
+		write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Starts a new element with the name and the attributes of the given (detached) DOM element <br>
+	 * The child nodes of the given element are ignored
+	 * @param element
+	 * @throws TelosysToolsException
+	 */
+	public void writeStartElement(Element element) throws TelosysToolsException {
+		closeStartTag();
+		StringBuilder sb = new StringBuilder();
+		sb.append('<').append(element.getTagName());
+		NamedNodeMap attributes = element.getAttributes();
+		String[] names = new String[attributes.getLength()];
+		for ( int i = 0 ; i < names.length ; i++ ) {
+			names[i] = attributes.item(i).getNodeName();
+		}
+		Arrays.sort(names);
+		for ( String name : names ) {
+			Attr attr = (Attr) attributes.getNamedItem(name);
+			sb.append(' ').append(name).append("=\"");
+			appendEscapedValue(sb, attr.getValue());
+			sb.append('"');
+		}
+		write(sb.toString());
+		openElements.addLast(element.getTagName());
+		startTagOpen = true ;
+	}
+
+	/**
+	 * Writes an element without child
+	 * @param element
+	 * @throws TelosysToolsException
+	 */
+	public void writeElement(Element element) throws TelosysToolsException {
+		writeStartElement(element);
+		writeEndElement();
+	}
+
+	/**
+	 * Ends the current element
+	 * @throws TelosysToolsException
+	 */
+	public void writeEndElement() throws TelosysToolsException {
+		if ( openElements.isEmpty() ) {
+			throw new TelosysToolsException("XML error : no element to end");
+		}
+		String name = openElements.removeLast();
+		if ( startTagOpen ) {
+			write("/>");
+			startTagOpen = false ;
+		}
+		else {
+			write("</" + name + ">");
+		}
+		write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Ends all the open elements and flushes the writer (the output stream is not closed)
+	 * @throws TelosysToolsException
+	 */
+	public void writeEndDocument() throws TelosysToolsException {
+		while ( ! openElements.isEmpty() ) {
+			writeEndElement();
+		}
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new TelosysToolsException("XML error : Cannot flush", e);
+		}
+	}
+
+	private void closeStartTag() throws TelosysToolsException {
+		if ( startTagOpen ) {
+			write(">");
+			write(LINE_SEPARATOR);
+			startTagOpen = false ;
+		}
+	}
+
+	private void write(String s) throws TelosysToolsException {
+		try {
+			writer.write(s);
+		} catch (IOException e) {
+			throw new TelosysToolsException("XML error : Cannot write", e);
+		}
+	}
+
+	/**
+	 * Appends the given attribute value with the same escaping as the standard XML serializer
+	 * @param sb
+	 * @param value (null is written as a void value)
+	 */
+	private void appendEscapedValue(StringBuilder sb, String value) {
+		if ( value == null ) {
+			return ;
+		}
+		for ( int i = 0 ; i < value.length() ; i++ ) {
+			char c = value.charAt(i);
+			switch ( c ) {
+			case '&'  : sb.append("&amp;");  break;
+			case '<'  : sb.append("&lt;");   break;
+			case '>'  : sb.append("&gt;");   break;
+			case '"'  : sb.append("&quot;"); break;
+			case '\n' : sb.append("&#10;");  break;
+			case '\r' : sb.append("&#13;");  break;
+			case '\t' : sb.append("&#9;");   break;
+			default   :
+				if ( Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1)) ) {
+					// supplementary character written as a character reference
+					sb.append("&#").append(Character.toCodePoint(c, value.charAt(i + 1))).append(';');
+					i++ ;
+				}
+				else {
+					sb.append(c);
+				}
+			}
+		}
+	}
+}
@@ -17,9 +17,7 @@ package org.telosys.tools.repository.rules;
 
 import java.util.StringTokenizer;
 
-import org.telosys.tools.repository.model.AttributeInDbModel;
 import org.telosys.tools.repository.model.EntityInDbModel;
-import org.telosys.tools.repository.model.LinkInDbModel;
 
 public class RulesUtils {
 	
@@ -118,25 +116,15 @@ public class RulesUtils {
         }
     }
 
+    /**
+     * Returns true if the given name is already used by an attribute or a link of the given entity
+     * @param attributeName
+     * @param entity
+     * @return
+     */
     public boolean attributeNameAlreadyUsed(String attributeName, EntityInDbModel entity ) {
-    	//--- Search in all columns/attributes
-    	AttributeInDbModel[] columns = entity.getAttributesArray();
-    	for ( AttributeInDbModel column : columns ) {
-    		//if ( column.getJavaName().equals(attributeName) ) {
-        	if ( column.getName().equals(attributeName) ) { // v 3.0.0
-    			return true ;
-    		}
-    	}
-    	//--- Search in all links
-//    	LinkInDbModel[] links = entity.getLinks();
-    	LinkInDbModel[] links = entity.getLinksArray();
-    	for ( LinkInDbModel link : links ) {
-//    		if ( link.getJavaFieldName().equals(attributeName) ) {
-        	if ( link.getFieldName().equals(attributeName) ) {
-    			return true ;
-    		}
-    	}
-    	return false ;
+    	//--- Search in all attributes and links names ( v 3.3.0 : registry of the entity, no scan )
+    	return entity.isFieldNameUsed(attributeName);
     }
 
 }
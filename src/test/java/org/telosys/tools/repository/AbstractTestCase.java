@@ -3,6 +3,7 @@ package org.telosys.tools.repository;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.TelosysToolsLogger;
@@ -83,6 +84,18 @@ public abstract class AbstractTestCase {
 	 * @throws TelosysToolsException
 	 */
 	protected RepositoryModel generateRepositoryModel(int sqlScriptId) throws TelosysToolsException {
+		return generateRepositoryModel(sqlScriptId, 1);
+	}
+	
+	/**
+	 * Same as generateRepositoryModel(int) using the given number of connections to load the meta-data
+	 * 
+	 * @param sqlScriptId
+	 * @param connectionsCount
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected RepositoryModel generateRepositoryModel(int sqlScriptId, int connectionsCount) throws TelosysToolsException {
 		
 		System.out.println("Database initialization... ");
 		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
@@ -91,6 +104,7 @@ public abstract class AbstractTestCase {
 		System.out.println("Repository generation... ");
 		//RepositoryGenerator repositoryGenerator = getRepositoryGenerator() ;
 		DbModelGenerator repositoryGenerator = getDbModelGenerator(PROJECT_FOLDER);
+		repositoryGenerator.setConnectionsCount(connectionsCount);
 
 		RepositoryModel repositoryModel = repositoryGenerator.generate( databaseInMemory.getDatabaseConfiguration() );
 		
@@ -110,6 +124,18 @@ public abstract class AbstractTestCase {
 	 * @throws TelosysToolsException
 	 */
 	protected UpdateResult generateAndUpdateRepositoryModel(int sqlScriptId) throws TelosysToolsException {
+		return generateAndUpdateRepositoryModel(sqlScriptId, null);
+	}
+	
+	/**
+	 * Same as generateAndUpdateRepositoryModel(int) with the given executor for the update
+	 * 
+	 * @param sqlScriptId
+	 * @param executor the executor used for the parallel update (or null)
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected UpdateResult generateAndUpdateRepositoryModel(int sqlScriptId, ExecutorService executor) throws TelosysToolsException {
 		
 		System.out.println("Database initialization... ");
 		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
@@ -129,6 +155,7 @@ public abstract class AbstractTestCase {
 		ByteArrayOutputStream baosUpdateLog = new ByteArrayOutputStream();
 		//RepositoryUpdator repositoryUpdator = getRepositoryUpdator(baosUpdateLog);
 		DbModelUpdator repositoryUpdator = getDbModelUpdator(PROJECT_FOLDER, baosUpdateLog);
+		repositoryUpdator.setExecutor(executor);
 
 		ChangeLog changeLog = repositoryUpdator.updateRepository(databaseInMemory.getDatabaseConfiguration(), repositoryModel);
 		
@@ -163,9 +190,12 @@ public abstract class AbstractTestCase {
 	}
 	
 	protected DbModelUpdator getDbModelUpdator(String projectFolderName, ByteArrayOutputStream baosUpdateLog) throws TelosysToolsException {
+		return getDbModelUpdator(projectFolderName, new UpdateLogWriter( baosUpdateLog ));
+	}
+	
+	protected DbModelUpdator getDbModelUpdator(String projectFolderName, UpdateLogWriter updateLogger) throws TelosysToolsException {
 		TelosysToolsLogger logger = LoggerProviderForUnitTests.getLogger();
 		DbConnectionManager dbConnectionManager = getDbConnectionManager(projectFolderName);
-		UpdateLogWriter updateLogger = new UpdateLogWriter( baosUpdateLog );
 		return new DbModelUpdator(dbConnectionManager, logger, updateLogger);
 	}
 	
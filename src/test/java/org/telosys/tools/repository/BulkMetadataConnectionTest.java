@@ -0,0 +1,83 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+public class BulkMetadataConnectionTest extends AbstractTestCase {
+
+	private final static String[] TABLES = { "COUNTRY", "DEPARTMENT", "CUSTOMER" } ;
+
+	private List<String> readRows(ResultSet rs) throws SQLException {
+		List<String> rows = new LinkedList<>();
+		try {
+			int n = rs.getMetaData().getColumnCount();
+			while ( rs.next() ) {
+				StringBuilder sb = new StringBuilder();
+				for ( int i = 1 ; i <= n ; i++ ) {
+					sb.append(rs.getString(i)).append("|");
+				}
+				rows.add(sb.toString());
+			}
+		} finally {
+			rs.close();
+		}
+		return rows ;
+	}
+
+	@Test
+	public void testSameMetaData() throws TelosysToolsException, SQLException {
+		printSeparator("testSameMetaData");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(93);
+		try {
+			Connection connection = databaseInMemory.getCurrentConnection();
+			BulkMetadataConnection bulkMetadataConnection = new BulkMetadataConnection(connection);
+			DatabaseMetaData dbmd = connection.getMetaData();
+			DatabaseMetaData bulkDbmd = bulkMetadataConnection.getConnection().getMetaData();
+			for ( String table : TABLES ) {
+				assertEquals(readRows(dbmd.getColumns(null, null, table, "%")), readRows(bulkDbmd.getColumns(null, null, table, "%")));
+				assertEquals(readRows(dbmd.getPrimaryKeys(null, null, table)), readRows(bulkDbmd.getPrimaryKeys(null, null, table)));
+				assertEquals(readRows(dbmd.getImportedKeys(null, null, table)), readRows(bulkDbmd.getImportedKeys(null, null, table)));
+			}
+			System.out.println("Bulk calls : " + bulkMetadataConnection.getBulkCalls() 
+					+ ", calls served : " + bulkMetadataConnection.getServedCalls() );
+			// at least the columns are served from the bulk results ( H2 ignores a null table name for the keys )
+			assertTrue(bulkMetadataConnection.getServedCalls() >= TABLES.length );
+			assertEquals(bulkMetadataConnection.getServedCalls() - bulkMetadataConnection.getBulkCalls(), 
+					bulkMetadataConnection.getRoundTripsSaved() );
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+
+	@Test
+	public void testGenerationWithBulkMetaData() throws TelosysToolsException {
+		printSeparator("testGenerationWithBulkMetaData");
+		RepositoryModel expectedModel = generateRepositoryModel(93);
+
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(93);
+		DbModelGenerator generator = getDbModelGenerator("project2");
+		generator.setBulkMetadata(true);
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+
+		System.out.println("Round trips saved : " + generator.getMetadataRoundTripsSaved() );
+		model.setGenerationDate(expectedModel.getGenerationDate());
+		XmlConverter xmlConverter = new XmlConverter(null);
+		assertEquals(Xml.toString(xmlConverter.modelToXmlDocument(expectedModel)), Xml.toString(xmlConverter.modelToXmlDocument(model)));
+	}
+}
@@ -0,0 +1,43 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+public class DbModelGeneratorParallelTest extends AbstractTestCase {
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private void checkSameModel(int sqlScriptId, int connectionsCount) throws TelosysToolsException {
+		RepositoryModel expectedModel = generateRepositoryModel(sqlScriptId);
+		RepositoryModel model = generateRepositoryModel(sqlScriptId, connectionsCount);
+		model.setGenerationDate(expectedModel.getGenerationDate());
+		assertEquals(expectedModel.getNumberOfEntities(), model.getNumberOfEntities());
+		assertEquals(modelToString(expectedModel), modelToString(model));
+	}
+
+	@Test
+	public void testParallelGeneration4() throws TelosysToolsException {
+		printSeparator("testParallelGeneration4");
+		checkSameModel(4, 2);
+	}
+
+	@Test
+	public void testParallelGeneration93() throws TelosysToolsException {
+		printSeparator("testParallelGeneration93");
+		checkSameModel(93, 3);
+	}
+
+	@Test
+	public void testMoreConnectionsThanTables() throws TelosysToolsException {
+		printSeparator("testMoreConnectionsThanTables");
+		checkSameModel(8, 5);
+	}
+}
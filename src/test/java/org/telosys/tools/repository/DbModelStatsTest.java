@@ -0,0 +1,153 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class DbModelStatsTest extends AbstractTestCase {
+
+	@Test
+	public void testPhases() throws InterruptedException {
+		printSeparator("testPhases");
+		DbModelStats stats = new DbModelStats(DbModelStats.GENERATION);
+		stats.startPhase(DbModelStats.PHASE_CONNECTION);
+		Thread.sleep(5);
+		stats.startPhase(DbModelStats.PHASE_METADATA);
+		Thread.sleep(5);
+		stats.startPhase(DbModelStats.PHASE_CONNECTION); // added to the first measure
+		Thread.sleep(5);
+		stats.endPhase();
+		stats.endPhase(); // no current phase
+		Map<String, Double> times = stats.getPhasesTimes();
+		System.out.println(times);
+		assertEquals(2, times.size());
+		assertEquals(DbModelStats.PHASE_CONNECTION, times.keySet().iterator().next());
+		assertTrue(stats.getPhaseTime(DbModelStats.PHASE_CONNECTION) >= 10.0 );
+		assertTrue(stats.getPhaseTime(DbModelStats.PHASE_METADATA) >= 5.0 );
+		assertEquals(0.0, stats.getPhaseTime(DbModelStats.PHASE_LINKS), 0.0);
+		assertEquals(stats.getPhaseTime(DbModelStats.PHASE_CONNECTION) + stats.getPhaseTime(DbModelStats.PHASE_METADATA),
+				stats.getTotalTime(), 0.001);
+	}
+
+	@Test
+	public void testJson() {
+		printSeparator("testJson");
+		DbModelStats stats = new DbModelStats("my \"op\"");
+		stats.setTablesCount(3);
+		stats.setColumnsCount(12);
+		stats.setForeignKeysCount(2);
+		stats.setLinksCount(4);
+		stats.incrementJdbcCalls();
+		stats.addBytesWritten(100);
+		String json = stats.toJson();
+		System.out.println(json);
+		assertEquals("{\"operation\":\"my \\\"op\\\"\",\"totalTimeMs\":0.000,\"phasesTimeMs\":{}"
+				+ ",\"tables\":3,\"columns\":12,\"foreignKeys\":2,\"links\":4,\"changes\":0"
+				+ ",\"jdbcCalls\":1,\"bytesWritten\":100}", json);
+	}
+
+	@Test
+	public void testGenerationStats() throws TelosysToolsException {
+		printSeparator("testGenerationStats");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		DbModelGenerator generator = getDbModelGenerator("project2");
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+
+		DbModelStats stats = generator.getStats();
+		System.out.println(stats.toJson());
+		assertEquals(DbModelStats.GENERATION, stats.getOperation());
+		assertEquals(model.getNumberOfEntities(), stats.getTablesCount());
+		assertEquals(model.getNumberOfLinks(), stats.getLinksCount());
+		assertTrue(stats.getColumnsCount() > 0);
+		assertTrue(stats.getForeignKeysCount() > 0);
+		// at least the tables and the columns of each table
+		assertTrue(stats.getJdbcCalls() > stats.getTablesCount());
+		assertEquals(5, stats.getPhasesTimes().size());
+	}
+
+	@Test
+	public void testGenerationStatsWithBulkMetaData() throws TelosysToolsException {
+		printSeparator("testGenerationStatsWithBulkMetaData");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(93);
+		DbModelGenerator generator = getDbModelGenerator("project2");
+		generator.generate(databaseInMemory.getDatabaseConfiguration());
+		long jdbcCalls = generator.getStats().getJdbcCalls();
+		generator.setBulkMetadata(true);
+		generator.generate(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+
+		System.out.println("JDBC calls : " + jdbcCalls + " / with bulk meta-data : " + generator.getStats().getJdbcCalls()
+				+ " ( " + generator.getMetadataRoundTripsSaved() + " saved )");
+		assertTrue(generator.getStats().getJdbcCalls() <= jdbcCalls - generator.getMetadataRoundTripsSaved());
+	}
+
+	@Test
+	public void testUpdateStats() throws TelosysToolsException {
+		printSeparator("testUpdateStats");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		RepositoryModel model = getDbModelGenerator("project2").generate(databaseInMemory.getDatabaseConfiguration());
+		ByteArrayOutputStream baosUpdateLog = new ByteArrayOutputStream();
+		DbModelUpdator updator = getDbModelUpdator("project2", baosUpdateLog);
+		updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+
+		DbModelStats stats = updator.getStats();
+		System.out.println(stats.toJson());
+		assertEquals(DbModelStats.UPDATE, stats.getOperation());
+		assertEquals(model.getNumberOfEntities(), stats.getTablesCount());
+		assertEquals(0, stats.getChangesCount());
+		assertEquals(0, stats.getLinksCount());
+		assertEquals(baosUpdateLog.size(), stats.getBytesWritten());
+		assertTrue(stats.getJdbcCalls() > 0);
+	}
+
+	@Test
+	public void testUpdateStatsWithSameUpdator() throws TelosysToolsException {
+		printSeparator("testUpdateStatsWithSameUpdator");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		RepositoryModel model = getDbModelGenerator("project2").generate(databaseInMemory.getDatabaseConfiguration());
+		ByteArrayOutputStream baosUpdateLog = new ByteArrayOutputStream();
+		DbModelUpdator updator = getDbModelUpdator("project2", baosUpdateLog);
+		updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		int firstUpdateSize = baosUpdateLog.size();
+		updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		databaseInMemory.close();
+
+		//--- Only the bytes written by the second update
+		assertEquals(baosUpdateLog.size() - firstUpdateSize, updator.getStats().getBytesWritten());
+	}
+
+	@Test
+	public void testSaveStats() throws TelosysToolsException {
+		printSeparator("testSaveStats");
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(2);
+		DbModelGenerator generator = getDbModelGenerator("project2");
+		RepositoryModel model = generator.generate(databaseInMemory.getDatabaseConfiguration());
+		databaseInMemory.close();
+		assertEquals(0, generator.getStats().getBytesWritten());
+
+		File file = TestsEnv.getTmpFile("DbModelStatsTest-save.dbrep");
+		file.getParentFile().mkdirs();
+		generator.saveRepository(PersistenceManagerFactory.createPersistenceManager(file), model);
+		DbModelStats stats = generator.getStats();
+		System.out.println(stats.toJson());
+		assertTrue(stats.getPhasesTimes().containsKey(DbModelStats.PHASE_SAVE));
+		assertEquals(file.length(), stats.getBytesWritten());
+	}
+}
@@ -0,0 +1,59 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.benchmark.WideEntitySchema;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.StandardRepositoryRules;
+
+/**
+ * Links generation for an entity with 200 foreign keys referencing the same table <br>
+ * (see LinksGenerationWideEntityBenchmark for the timings)
+ */
+public class LinksGenerationWideEntityTest {
+
+	private final static int FK_COUNT = 200 ;
+
+	private final static WideEntitySchema SCHEMA = new WideEntitySchema(FK_COUNT);
+
+	private Set<String> linksNames(RepositoryModel model) {
+		Set<String> set = new HashSet<>();
+		for ( LinkInDbModel link : model.getAllLinks() ) {
+			set.add(link.getId() + ":" + link.getFieldName());
+		}
+		return set ;
+	}
+
+	@Test
+	public void testNames() throws TelosysToolsException {
+		System.out.println("testNames");
+		RepositoryModel model = SCHEMA.buildModel();
+		new LinksManager(new StandardRepositoryRules()).generateAllLinks(model);
+		EntityInDbModel source = model.getEntityByTableName("SOURCE");
+		EntityInDbModel target = model.getEntityByTableName("TARGET");
+		assertEquals(FK_COUNT, source.getLinksCount());
+		assertEquals(FK_COUNT, target.getLinksCount());
+		assertTrue(source.isFieldNameUsed("target"));
+		assertTrue(source.isFieldNameUsed("target" + FK_COUNT));
+		assertTrue(target.isFieldNameUsed("listOfSource" + FK_COUNT));
+		assertEquals(false, target.isFieldNameUsed("listOfSource" + ( FK_COUNT + 1 ) ));
+	}
+
+	@Test
+	public void testSameNamesAsScanning() throws TelosysToolsException {
+		System.out.println("testSameNamesAsScanning");
+		RepositoryModel registryModel = SCHEMA.buildModel();
+		assertEquals(FK_COUNT * 2, new LinksManager(new StandardRepositoryRules()).generateAllLinks(registryModel));
+		RepositoryModel scanningModel = SCHEMA.buildModel();
+		assertEquals(FK_COUNT * 2, new LinksManager(new WideEntitySchema.ScanningRules()).generateAllLinks(scanningModel));
+		assertEquals(linksNames(scanningModel), linksNames(registryModel));
+	}
+}
@@ -0,0 +1,124 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeOnEntity;
+import org.telosys.tools.repository.changelog.ChangeType;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+public class LinksManagerUpdateTest {
+
+	private final static File MODEL_FILE = new File("src/test/resources/repo/BookStore-with-JC.dbrep");
+
+	private LinksManager linksManager() {
+		return new LinksManager(RepositoryRulesProvider.getRepositoryRules());
+	}
+
+	private RepositoryModel loadModelWithAllLinks() throws TelosysToolsException {
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		model.removeAllLinks();
+		linksManager().generateAllLinks(model);
+		return model ;
+	}
+
+	private List<String> links(RepositoryModel model) {
+		List<String> list = new ArrayList<>();
+		for ( LinkInDbModel link : model.getAllLinks() ) {
+			list.add(link.getId() + ":" + link.getSourceTableName() + ":" + link.getFieldName() + ":" + link.getTargetTableName());
+		}
+		Collections.sort(list);
+		return list ;
+	}
+
+	@Test
+	public void testEntityCreated() throws TelosysToolsException {
+		System.out.println("testEntityCreated");
+		RepositoryModel model = loadModelWithAllLinks();
+		List<String> expected = links(model);
+
+		//--- AUTHOR created : its links and the links from the existing entities referencing it must be generated
+		int removed = model.removeLinksByEntityName("AUTHOR");
+		assertTrue(removed > 0);
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, model.getEntityByTableName("AUTHOR")));
+		int count = linksManager().updateLinks(model, changeLog);
+		assertEquals(removed, count);
+		assertEquals(expected, links(model));
+	}
+
+	@Test
+	public void testEntityCreatedWithReferencingEntityUpdated() throws TelosysToolsException {
+		System.out.println("testEntityCreatedWithReferencingEntityUpdated");
+		RepositoryModel model = loadModelWithAllLinks();
+		List<String> expected = links(model);
+
+		//--- AUTHOR created and BOOK (referencing AUTHOR) updated without foreign key change
+		int removed = model.removeLinksByEntityName("AUTHOR");
+		assertTrue(removed > 0);
+		EntityInDbModel bookBefore = new EntityInDbModel(model.getEntityByTableName("BOOK"));
+		EntityInDbModel book = model.getEntityByTableName("BOOK");
+		book.setDatabaseComment("Comment changed");
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, model.getEntityByTableName("AUTHOR")));
+		changeLog.log(new ChangeOnEntity(ChangeType.UPDATED, bookBefore, book));
+		int count = linksManager().updateLinks(model, changeLog);
+		assertEquals(removed, count);
+		assertEquals(expected, links(model));
+	}
+
+	@Test
+	public void testAllEntitiesCreated() throws TelosysToolsException {
+		System.out.println("testAllEntitiesCreated");
+		RepositoryModel model = loadModelWithAllLinks();
+		List<String> expected = links(model);
+
+		model.removeAllLinks();
+		ChangeLog changeLog = new ChangeLog();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, entity));
+		}
+		assertEquals(expected.size(), linksManager().updateLinks(model, changeLog));
+		assertEquals(expected, links(model));
+	}
+
+	@Test
+	public void testJoinTableStatusChanged() throws TelosysToolsException {
+		System.out.println("testJoinTableStatusChanged");
+		RepositoryModel model = loadModelWithAllLinks();
+		EntityInDbModel before = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load().getEntityByTableName("EMPLOYEE_GROUP");
+		EntityInDbModel after = model.getEntityByTableName("EMPLOYEE_GROUP");
+		assertTrue(after.isJoinTable());
+		assertFalse(model.getLinksByJoinTableName("EMPLOYEE_GROUP").isEmpty());
+
+		//--- A column is added : no longer a join table (without any change on the foreign keys)
+		AttributeInDbModel attribute = new AttributeInDbModel(after);
+		attribute.setDatabaseName("EXTRA_COL");
+		after.storeAttribute(attribute);
+		assertFalse(after.isJoinTable());
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(new ChangeOnEntity(ChangeType.UPDATED, before, after));
+		assertTrue(linksManager().updateLinks(model, changeLog) > 0);
+		assertTrue(model.getLinksByJoinTableName("EMPLOYEE_GROUP").isEmpty());
+
+		//--- Same links as a full generation
+		List<String> actual = links(model);
+		model.removeAllLinks();
+		linksManager().generateAllLinks(model);
+		assertEquals(links(model), actual);
+	}
+}
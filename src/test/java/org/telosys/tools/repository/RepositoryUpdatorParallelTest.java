@@ -0,0 +1,68 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeOnEntity;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+public class RepositoryUpdatorParallelTest extends AbstractTestCase {
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private List<String> changes(ChangeLog changeLog) {
+		List<String> list = new ArrayList<>();
+		for ( ChangeOnEntity change : changeLog.getChanges() ) {
+			list.add(change.getChangeType() + ":" + change.getEntityName() + ":" 
+					+ change.getChangesOnColumn().size() + ":" + change.getChangesOnForeignKey().size() );
+		}
+		return list ;
+	}
+
+	private void checkSameUpdate(int sqlScriptId) throws TelosysToolsException {
+		UpdateResult sequentialResult = generateAndUpdateRepositoryModel(sqlScriptId);
+		ExecutorService executor = new ForkJoinPool(4);
+		try {
+			UpdateResult parallelResult = generateAndUpdateRepositoryModel(sqlScriptId, executor);
+			parallelResult.getRepositoryModel().setGenerationDate(sequentialResult.getRepositoryModel().getGenerationDate());
+			assertEquals(modelToString(sequentialResult.getRepositoryModel()), modelToString(parallelResult.getRepositoryModel()));
+			ChangeLog sequentialChanges = sequentialResult.getChangeLog();
+			ChangeLog parallelChanges = parallelResult.getChangeLog();
+			assertEquals(sequentialChanges.getNumberOfEntitiesCreated(), parallelChanges.getNumberOfEntitiesCreated());
+			assertEquals(sequentialChanges.getNumberOfEntitiesUpdated(), parallelChanges.getNumberOfEntitiesUpdated());
+			assertEquals(sequentialChanges.getNumberOfEntitiesDeleted(), parallelChanges.getNumberOfEntitiesDeleted());
+			List<String> expected = changes(sequentialChanges);
+			List<String> actual = changes(parallelChanges);
+			assertEquals(expected.size(), actual.size());
+			assertEquals(true, actual.containsAll(expected));
+			// deterministic order : same changes for another parallel update
+			assertEquals(actual, changes(generateAndUpdateRepositoryModel(sqlScriptId, executor).getChangeLog()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelUpdate5() throws TelosysToolsException {
+		printSeparator("testParallelUpdate5");
+		checkSameUpdate(5);
+	}
+
+	@Test
+	public void testParallelUpdate6() throws TelosysToolsException {
+		printSeparator("testParallelUpdate6");
+		checkSameUpdate(6);
+	}
+}
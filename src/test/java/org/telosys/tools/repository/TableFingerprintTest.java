@@ -0,0 +1,97 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+public class TableFingerprintTest extends AbstractTestCase {
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private RepositoryModel xmlCopy(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return xmlConverter.xmlDocumentToModel(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private UpdateResult generateAndUpdate(int sqlScriptId, boolean useFingerprints, ByteArrayOutputStream baosUpdateLog) throws TelosysToolsException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(sqlScriptId);
+		try {
+			// the model is saved and reloaded (fingerprints from the XML)
+			RepositoryModel model = xmlCopy(getDbModelGenerator("project2").generate(databaseInMemory.getDatabaseConfiguration()));
+			databaseInMemory.executeSqlAlter(sqlScriptId);
+			DbModelUpdator updator = getDbModelUpdator("project2", baosUpdateLog);
+			updator.setUseFingerprints(useFingerprints);
+			ChangeLog changeLog = updator.updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+			return new UpdateResult(model, changeLog);
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+
+	@Test
+	public void testFingerprintsInModel() throws TelosysToolsException {
+		printSeparator("testFingerprintsInModel");
+		RepositoryModel model = generateRepositoryModel(5);
+		RepositoryModel model2 = xmlCopy(model);
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
+			System.out.println(entity.getDatabaseTable() + " : " + entity.getDatabaseFingerprint());
+			assertNotNull(entity.getDatabaseFingerprint());
+			assertEquals(40, entity.getDatabaseFingerprint().length());
+			assertEquals(entity.getDatabaseFingerprint(), model2.getEntityByTableName(entity.getDatabaseTable()).getDatabaseFingerprint());
+		}
+		// same database => same fingerprints
+		RepositoryModel model3 = generateRepositoryModel(5);
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
+			assertEquals(entity.getDatabaseFingerprint(), model3.getEntityByTableName(entity.getDatabaseTable()).getDatabaseFingerprint());
+		}
+	}
+
+	@Test
+	public void testNoChange() throws TelosysToolsException {
+		printSeparator("testNoChange");
+		ByteArrayOutputStream baosUpdateLog = new ByteArrayOutputStream();
+		UpdateResult result = generateAndUpdate(2, true, baosUpdateLog);
+		String log = baosUpdateLog.toString();
+		System.out.println(log);
+		assertEquals(0, result.getChangeLog().getNumberOfEntities());
+		int n = log.split("same fingerprint").length - 1 ;
+		assertEquals(result.getRepositoryModel().getNumberOfEntities(), n);
+	}
+
+	private void checkSameUpdate(int sqlScriptId) throws TelosysToolsException {
+		UpdateResult expected = generateAndUpdate(sqlScriptId, false, new ByteArrayOutputStream());
+		UpdateResult actual = generateAndUpdate(sqlScriptId, true, new ByteArrayOutputStream());
+		actual.getRepositoryModel().setGenerationDate(expected.getRepositoryModel().getGenerationDate());
+		assertEquals(modelToString(expected.getRepositoryModel()), modelToString(actual.getRepositoryModel()));
+		assertEquals(expected.getChangeLog().getNumberOfEntitiesCreated(), actual.getChangeLog().getNumberOfEntitiesCreated());
+		assertEquals(expected.getChangeLog().getNumberOfEntitiesUpdated(), actual.getChangeLog().getNumberOfEntitiesUpdated());
+		assertEquals(expected.getChangeLog().getNumberOfEntitiesDeleted(), actual.getChangeLog().getNumberOfEntitiesDeleted());
+		assertTrue(actual.getChangeLog().getNumberOfEntities() > 0);
+	}
+
+	@Test
+	public void testSameUpdate5() throws TelosysToolsException {
+		printSeparator("testSameUpdate5");
+		checkSameUpdate(5);
+	}
+
+	@Test
+	public void testSameUpdate6() throws TelosysToolsException {
+		printSeparator("testSameUpdate6");
+		checkSameUpdate(6);
+	}
+}
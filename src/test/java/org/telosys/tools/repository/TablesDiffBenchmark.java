@@ -0,0 +1,51 @@
+package org.telosys.tools.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for the tables diff ( linear time expected : the time per table must not grow with the number of tables ) <br>
+ * 5% of the tables are added and 5% are removed <br>
+ * In this package because TablesDiff is not public (launched by RepositoryBenchmarks)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TablesDiffBenchmark {
+
+	@Param({"100", "1000", "2000", "5000", "10000", "20000"})
+	public int tablesCount ;
+
+	private List<TableKey> databaseTables ;
+
+	private List<TableKey> modelTables ;
+
+	private List<TableKey> buildTables(int start, int n) {
+		List<TableKey> list = new ArrayList<>(n);
+		for ( int i = start ; i < start + n ; i++ ) {
+			list.add(new TableKey("CAT", "SCH" + (i % 10), "TABLE_" + i));
+		}
+		return list ;
+	}
+
+	@Setup
+	public void setup() {
+		databaseTables = buildTables(tablesCount / 20, tablesCount);
+		modelTables = buildTables(0, tablesCount);
+	}
+
+	@Benchmark
+	public TablesDiff diff() {
+		return new TablesDiff(databaseTables, modelTables);
+	}
+}
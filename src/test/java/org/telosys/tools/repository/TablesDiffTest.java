@@ -0,0 +1,76 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TablesDiffTest {
+
+	private List<TableKey> keys(String... tableNames) {
+		List<TableKey> list = new ArrayList<>();
+		for ( String tableName : tableNames ) {
+			list.add(new TableKey("CAT", "SCH", tableName));
+		}
+		return list ;
+	}
+
+	@Test
+	public void testDiff() {
+		System.out.println("testDiff");
+		List<TableKey> databaseTables = keys("A", "B", "C", "D");
+		List<TableKey> modelTables = keys("B", "D", "E");
+		TablesDiff diff = new TablesDiff(databaseTables, modelTables);
+		assertEquals(keys("A", "C"), diff.getAddedTables());
+		assertEquals(keys("E"), diff.getRemovedTables());
+		assertEquals(keys("B", "D"), diff.getCommonTables());
+		assertNull(diff.getMatchingTable(databaseTables.get(0)));
+		assertSame(modelTables.get(0), diff.getMatchingTable(databaseTables.get(1)));
+	}
+
+	@Test
+	public void testMatchByName() {
+		System.out.println("testMatchByName");
+		List<TableKey> databaseTables = new ArrayList<>();
+		databaseTables.add(new TableKey("CAT", "SCH", "A"));
+		databaseTables.add(new TableKey("CAT", "SCH", "B"));
+		databaseTables.add(new TableKey("CAT", "OTHER", "B"));
+		List<TableKey> modelTables = new ArrayList<>();
+		modelTables.add(new TableKey(null, null, "A")); // schema not set in the model
+		TablesDiff diff = new TablesDiff(databaseTables, modelTables);
+		assertEquals(1, diff.getAddedTables().size());
+		assertEquals(0, diff.getRemovedTables().size());
+		assertSame(modelTables.get(0), diff.getMatchingTable(databaseTables.get(0)));
+		// same table name in another schema => same entity in the model
+		assertSame(databaseTables.get(1), diff.getMatchingTable(databaseTables.get(2)));
+		assertEquals(new TableKey("", "", "A"), new TableKey(null, null, "A"));
+	}
+
+	/**
+	 * Builds 'n' tables keys, starting at the given index
+	 */
+	private List<TableKey> buildTables(int start, int n) {
+		List<TableKey> list = new ArrayList<>(n);
+		for ( int i = start ; i < start + n ; i++ ) {
+			list.add(new TableKey("CAT", "SCH" + (i % 10), "TABLE_" + i));
+		}
+		return list ;
+	}
+
+	@Test
+	public void testLargeDiff() {
+		System.out.println("testLargeDiff");
+		int n = 20000 ;
+		int delta = n / 20 ; // 5% added and 5% removed
+		TablesDiff diff = new TablesDiff(buildTables(delta, n), buildTables(0, n));
+		assertEquals(delta, diff.getAddedTables().size());
+		assertEquals(delta, diff.getRemovedTables().size());
+		assertEquals(n - delta, diff.getCommonTables().size());
+		assertEquals(new TableKey("CAT", "SCH9", "TABLE_20999"), diff.getAddedTables().get(diff.getAddedTables().size() - 1));
+		assertEquals(new TableKey("CAT", "SCH0", "TABLE_0"), diff.getRemovedTables().get(0));
+	}
+}
@@ -0,0 +1,232 @@
+package org.telosys.tools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+public class UpdateLogWriterTest extends AbstractTestCase {
+
+	private final static String[] LINES = { "Update date : now", " Table 'FOO' found in repository",
+			" . Column '\u00c9T\u00c9' added", "", " (*) table 'FOO' updated : 1 change(s)" } ;
+
+	private void writeLines(UpdateLogWriter writer) {
+		for ( String line : LINES ) {
+			writer.println(line);
+		}
+		writer.write("raw bytes\n".getBytes());
+		writer.close();
+	}
+
+	private byte[] expectedBytes() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		writeLines(new UpdateLogWriter(baos));
+		return baos.toByteArray();
+	}
+
+	private byte[] readFile(File file) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[1024];
+			int n ;
+			while ( ( n = fis.read(buffer) ) >= 0 ) {
+				baos.write(buffer, 0, n);
+			}
+		} finally {
+			fis.close();
+		}
+		return baos.toByteArray();
+	}
+
+	@Test
+	public void testSameOutput() throws IOException {
+		printSeparator("testSameOutput");
+		String expected = new String(expectedBytes());
+		System.out.println(expected);
+
+		//--- Buffered
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		UpdateLogWriter writer = new UpdateLogWriter(baos, Charset.defaultCharset());
+		writeLines(writer);
+		assertEquals(expected, baos.toString());
+		assertEquals(baos.size(), writer.getBytesWritten());
+
+		//--- Buffered file ( flushed by close )
+		File file = File.createTempFile("update", ".log");
+		file.deleteOnExit();
+		writeLines(new UpdateLogWriter(file, Charset.defaultCharset()));
+		assertEquals(expected, new String(readFile(file)));
+
+		//--- Asynchronous
+		baos = new ByteArrayOutputStream();
+		writer = new AsyncUpdateLogWriter(new UpdateLogWriter(baos, Charset.defaultCharset()), 2);
+		writeLines(writer);
+		assertEquals(expected, baos.toString());
+		assertEquals(baos.size(), writer.getBytesWritten());
+	}
+
+	@Test
+	public void testCharset() {
+		printSeparator("testCharset");
+		Charset utf16 = Charset.forName("UTF-16BE");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		UpdateLogWriter writer = new UpdateLogWriter(baos, utf16);
+		writer.println("\u00c9T\u00c9");
+		writer.close();
+		assertEquals("\u00c9T\u00c9", new String(baos.toByteArray(), 0, 6, utf16));
+		assertEquals(7, baos.size()); // 3 characters + LF (1 byte)
+	}
+
+	/**
+	 * Output stream blocked until the latch is released
+	 */
+	private static class BlockedOutputStream extends ByteArrayOutputStream {
+		private final CountDownLatch latch ;
+		private BlockedOutputStream(CountDownLatch latch) {
+			this.latch = latch ;
+		}
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.write(b, off, len);
+		}
+	}
+
+	@Test
+	public void testBackPressure() throws InterruptedException {
+		printSeparator("testBackPressure");
+		final CountDownLatch latch = new CountDownLatch(1);
+		BlockedOutputStream out = new BlockedOutputStream(latch);
+		final UpdateLogWriter writer = new AsyncUpdateLogWriter(new UpdateLogWriter(out, Charset.defaultCharset()), 2);
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for ( int i = 0 ; i < 10 ; i++ ) {
+					writer.println("line " + i);
+				}
+				done.countDown();
+			}
+		});
+		producer.start();
+		// 1 line in the target + 2 lines in the queue => the producer is blocked
+		assertEquals(false, done.await(200, TimeUnit.MILLISECONDS));
+		latch.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		writer.close();
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			sb.append("line " + i + "\n");
+		}
+		assertEquals(sb.toString(), out.toString());
+	}
+
+	@Test
+	public void testError() {
+		printSeparator("testError");
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+		// the line is written in the buffer of the target => error when flushed by close
+		UpdateLogWriter writer = new AsyncUpdateLogWriter(new UpdateLogWriter(out, Charset.defaultCharset()), 10);
+		writer.println("line");
+		try {
+			writer.close();
+			fail("Exception expected");
+		} catch (RuntimeException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Output stream interrupting the writing thread (the background thread of the asynchronous writer)
+	 */
+	private static class InterruptingOutputStream extends ByteArrayOutputStream {
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			Thread.currentThread().interrupt();
+			super.write(b, off, len);
+		}
+	}
+
+	@Test
+	public void testBackgroundThreadInterrupted() throws InterruptedException {
+		printSeparator("testBackgroundThreadInterrupted");
+		final UpdateLogWriter writer = new AsyncUpdateLogWriter(
+				new UpdateLogWriter(new InterruptingOutputStream(), Charset.defaultCharset()), 1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final int[] errors = { 0 } ;
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				// more lines than the queue capacity : never blocked
+				for ( int i = 0 ; i < 10 ; i++ ) {
+					try {
+						writer.println("line " + i);
+					} catch (RuntimeException e) {
+						errors[0]++ ;
+					}
+				}
+				try {
+					writer.close();
+				} catch (RuntimeException e) {
+					System.out.println("Expected exception : " + e.getMessage());
+					errors[0]++ ;
+				}
+				done.countDown();
+			}
+		});
+		producer.start();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertTrue(errors[0] > 0);
+	}
+
+	private String update(UpdateLogWriter updateLogWriter, ByteArrayOutputStream baos) throws TelosysToolsException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(DEFAULT_DATABASE_ID);
+		databaseInMemory.executeSqlInit(5);
+		try {
+			RepositoryModel model = getDbModelGenerator("project2").generate(databaseInMemory.getDatabaseConfiguration());
+			databaseInMemory.executeSqlAlter(5);
+			getDbModelUpdator("project2", updateLogWriter).updateRepository(databaseInMemory.getDatabaseConfiguration(), model);
+		} finally {
+			databaseInMemory.close();
+		}
+		// the first line is the update date
+		String log = baos.toString();
+		return log.substring(log.indexOf('\n') + 1);
+	}
+
+	@Test
+	public void testUpdateLog() throws TelosysToolsException {
+		printSeparator("testUpdateLog");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		String expected = update(new UpdateLogWriter(baos), baos);
+		System.out.println(expected);
+
+		baos = new ByteArrayOutputStream();
+		assertEquals(expected, update(new UpdateLogWriter(baos, Charset.defaultCharset()), baos));
+
+		baos = new ByteArrayOutputStream();
+		assertEquals(expected, update(new AsyncUpdateLogWriter(new UpdateLogWriter(baos, Charset.defaultCharset()), 16), baos));
+	}
+}
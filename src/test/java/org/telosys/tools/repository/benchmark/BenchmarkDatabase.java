@@ -0,0 +1,101 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.sql.SQLException;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.commons.cfg.TelosysToolsCfgManager;
+import org.telosys.tools.commons.dbcfg.DatabaseConfiguration;
+import org.telosys.tools.commons.dbcfg.DbConnectionManager;
+import org.telosys.tools.repository.DatabaseInMemory;
+import org.telosys.tools.repository.DbModelGenerator;
+import org.telosys.tools.repository.DbModelUpdator;
+import org.telosys.tools.repository.UpdateLogWriter;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+/**
+ * H2 database in memory holding a synthetic schema, with the generator and the updator used by the benchmarks
+ */
+public class BenchmarkDatabase {
+
+	private static final String PROJECT_FOLDER = "project2" ;
+
+	private static final int    DATABASE_ID = 1 ;
+
+	private final DatabaseInMemory databaseInMemory ;
+
+	private final DbConnectionManager dbConnectionManager ;
+
+	private final SyntheticSchema schema ;
+
+	/**
+	 * Creates the database in memory with the given schema
+	 * @param schema
+	 * @throws TelosysToolsException
+	 */
+	public BenchmarkDatabase(SyntheticSchema schema) throws TelosysToolsException {
+		super();
+		this.schema = schema ;
+		this.databaseInMemory = new DatabaseInMemory(DATABASE_ID);
+		File projectFolder = TestsEnv.getTestFolder(PROJECT_FOLDER);
+		TelosysToolsCfgManager cfgManager = new TelosysToolsCfgManager(projectFolder.getAbsolutePath());
+		TelosysToolsCfg telosysToolsCfg = cfgManager.loadTelosysToolsCfg();
+		this.dbConnectionManager = new DbConnectionManager(telosysToolsCfg);
+		createSchema();
+	}
+
+	public DatabaseConfiguration getDatabaseConfiguration() {
+		return databaseInMemory.getDatabaseConfiguration();
+	}
+
+	/**
+	 * Drops all the tables and creates the initial schema
+	 * @throws TelosysToolsException
+	 */
+	public void createSchema() throws TelosysToolsException {
+		try {
+			schema.drop(databaseInMemory.getCurrentConnection());
+			schema.create(databaseInMemory.getCurrentConnection());
+		} catch (SQLException e) {
+			throw new TelosysToolsException("Cannot create schema", e);
+		}
+	}
+
+	/**
+	 * Applies the alterations of the schema
+	 * @throws TelosysToolsException
+	 */
+	public void alterSchema() throws TelosysToolsException {
+		try {
+			schema.alter(databaseInMemory.getCurrentConnection());
+		} catch (SQLException e) {
+			throw new TelosysToolsException("Cannot alter schema", e);
+		}
+	}
+
+	public DbModelGenerator getDbModelGenerator() {
+		return new DbModelGenerator(dbConnectionManager, LoggerProviderForUnitTests.getLogger());
+	}
+
+	public DbModelUpdator getDbModelUpdator() {
+		return new DbModelUpdator(dbConnectionManager, LoggerProviderForUnitTests.getLogger(), new UpdateLogWriter(new ByteArrayOutputStream()));
+	}
+
+	/**
+	 * Generates a new model from the current schema
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel generateModel() throws TelosysToolsException {
+		return getDbModelGenerator().generate(getDatabaseConfiguration());
+	}
+
+	public void close() {
+		databaseInMemory.close();
+	}
+}
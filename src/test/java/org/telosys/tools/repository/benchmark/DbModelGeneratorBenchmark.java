@@ -0,0 +1,48 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.DbModelGenerator;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Benchmark for the model generation from an H2 database 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DbModelGeneratorBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int tablesCount ;
+
+	private BenchmarkDatabase database ;
+
+	private DbModelGenerator generator ;
+
+	@Setup
+	public void setup() throws TelosysToolsException {
+		database = new BenchmarkDatabase(new SyntheticSchema(tablesCount));
+		generator = database.getDbModelGenerator();
+	}
+
+	@TearDown
+	public void tearDown() {
+		database.close();
+	}
+
+	@Benchmark
+	public RepositoryModel generate() throws TelosysToolsException {
+		return generator.generate(database.getDatabaseConfiguration());
+	}
+}
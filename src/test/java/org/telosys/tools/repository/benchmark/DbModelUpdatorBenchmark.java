@@ -0,0 +1,60 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.DbModelUpdator;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+/**
+ * Benchmark for the model update after synthetic alterations of the database schema <br>
+ * Each invocation starts with a model generated from the initial schema and a database with the altered schema 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DbModelUpdatorBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int tablesCount ;
+
+	private BenchmarkDatabase database ;
+
+	private DbModelUpdator updator ;
+
+	private RepositoryModel model ;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws TelosysToolsException {
+		database = new BenchmarkDatabase(new SyntheticSchema(tablesCount));
+		updator = database.getDbModelUpdator();
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() throws TelosysToolsException {
+		database.createSchema();
+		model = database.generateModel();
+		database.alterSchema();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		database.close();
+	}
+
+	@Benchmark
+	public ChangeLog updateRepository() throws TelosysToolsException {
+		return updator.updateRepository(database.getDatabaseConfiguration(), model);
+	}
+}
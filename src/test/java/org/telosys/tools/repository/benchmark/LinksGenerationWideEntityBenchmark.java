@@ -0,0 +1,60 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.LinksManager;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.StandardRepositoryRules;
+
+/**
+ * Benchmark for the links generation of an entity with N foreign keys referencing the same table : 
+ * registry of the used names versus scan of the attributes and links for each name
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LinksGenerationWideEntityBenchmark {
+
+	@Param({"50", "200", "1000"})
+	public int foreignKeysCount ;
+
+	private WideEntitySchema schema ;
+
+	private LinksManager registryLinksManager ;
+
+	private LinksManager scanningLinksManager ;
+
+	private RepositoryModel model ;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		schema = new WideEntitySchema(foreignKeysCount);
+		registryLinksManager = new LinksManager(new StandardRepositoryRules());
+		scanningLinksManager = new LinksManager(new WideEntitySchema.ScanningRules());
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		model = schema.buildModel();
+	}
+
+	@Benchmark
+	public int registry() throws TelosysToolsException {
+		return registryLinksManager.generateAllLinks(model);
+	}
+
+	@Benchmark
+	public int scan() throws TelosysToolsException {
+		return scanningLinksManager.generateAllLinks(model);
+	}
+}
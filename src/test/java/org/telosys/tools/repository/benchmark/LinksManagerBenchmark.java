@@ -0,0 +1,49 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.LinksManager;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+/**
+ * Benchmark for the generation of all the links of a model
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LinksManagerBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int tablesCount ;
+
+	private RepositoryModel model ;
+
+	private LinksManager linksManager ;
+
+	@Setup(Level.Trial)
+	public void setupTrial() throws TelosysToolsException {
+		model = new SyntheticSchema(tablesCount).buildModel(RepositoryRulesProvider.getRepositoryRules());
+		linksManager = new LinksManager(RepositoryRulesProvider.getRepositoryRules());
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		model.removeAllLinks();
+	}
+
+	@Benchmark
+	public int generateAllLinks() throws TelosysToolsException {
+		return linksManager.generateAllLinks(model);
+	}
+}
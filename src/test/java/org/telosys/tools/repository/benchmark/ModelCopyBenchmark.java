@@ -0,0 +1,54 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.telosys.tools.commons.ObjectUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+/**
+ * Benchmarks for the copy of all the entities of a model : 
+ * copy constructor versus copy by serialization ( ObjectUtil.deepCopy ) <br>
+ * The model is built in memory from the synthetic schema
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ModelCopyBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int tablesCount ;
+
+	private List<EntityInDbModel> entities ;
+
+	@Setup
+	public void setup() throws TelosysToolsException {
+		entities = new SyntheticSchema(tablesCount).buildModel(RepositoryRulesProvider.getRepositoryRules())
+				.getEntitiesSortedByTableName();
+	}
+
+	@Benchmark
+	public void copyConstructor(Blackhole blackhole) {
+		for ( EntityInDbModel entity : entities ) {
+			blackhole.consume(new EntityInDbModel(entity));
+		}
+	}
+
+	@Benchmark
+	public void serializationCopy(Blackhole blackhole) {
+		for ( EntityInDbModel entity : entities ) {
+			blackhole.consume(ObjectUtil.deepCopy(entity));
+		}
+	}
+}
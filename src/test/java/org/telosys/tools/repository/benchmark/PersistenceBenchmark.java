@@ -0,0 +1,119 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.FileInMemory;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+import org.w3c.dom.Document;
+
+/**
+ * Benchmarks for the repository persistence : XML load, XML save and XmlConverter round-trip <br>
+ * The model is built in memory from the synthetic schema, the file loads and the lazy openings use a temporary file <br>
+ * DOM versus StAX memory usage : see the allocation rates of the GC profiler (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PersistenceBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	public int tablesCount ;
+
+	private RepositoryModel model ;
+
+	private FileInMemory xmlFile ;
+
+	private File xmlDiskFile ;
+
+	private String middleTableName ;
+
+	private XmlConverter xmlConverter ;
+
+	@Setup
+	public void setup() throws TelosysToolsException, IOException {
+		SyntheticSchema schema = new SyntheticSchema(tablesCount);
+		model = schema.buildModel(RepositoryRulesProvider.getRepositoryRules());
+		middleTableName = schema.getTableName(tablesCount / 2);
+		xmlFile = new FileInMemory();
+		PersistenceManagerFactory.createPersistenceManager(xmlFile, null).save(model);
+		xmlDiskFile = File.createTempFile("telosys-benchmark-", ".dbrep");
+		PersistenceManagerFactory.createPersistenceManager(xmlDiskFile, null).save(model);
+		xmlConverter = new XmlConverter(null);
+	}
+
+	@TearDown
+	public void tearDown() {
+		model = null ;
+		xmlFile = null ;
+		xmlDiskFile.delete();
+	}
+
+	@Benchmark
+	public RepositoryModel load() throws TelosysToolsException {
+		return PersistenceManagerFactory.createPersistenceManager(xmlFile, null).load();
+	}
+
+	@Benchmark
+	public RepositoryModel loadStreaming() throws TelosysToolsException {
+		return PersistenceManagerFactory.createStreamingPersistenceManager(xmlFile, null).load();
+	}
+
+	@Benchmark
+	public RepositoryModel loadFile() throws TelosysToolsException {
+		return PersistenceManagerFactory.createPersistenceManager(xmlDiskFile, null).load();
+	}
+
+	@Benchmark
+	public RepositoryModel loadFileStreaming() throws TelosysToolsException {
+		return PersistenceManagerFactory.createStreamingPersistenceManager(xmlDiskFile, null).load();
+	}
+
+	@Benchmark
+	public RepositoryModel openLazy() throws TelosysToolsException {
+		return PersistenceManagerFactory.createLazyPersistenceManager(xmlDiskFile, null).load();
+	}
+
+	@Benchmark
+	public EntityInDbModel openLazyAndLoadOneEntity() throws TelosysToolsException {
+		EntityInDbModel entity = PersistenceManagerFactory.createLazyPersistenceManager(xmlDiskFile, null).load()
+				.getEntityByTableName(middleTableName);
+		entity.getAttributesCount();
+		return entity ;
+	}
+
+	@Benchmark
+	public FileInMemory save() throws TelosysToolsException {
+		FileInMemory file = new FileInMemory();
+		PersistenceManagerFactory.createPersistenceManager(file, null).save(model);
+		return file ;
+	}
+
+	@Benchmark
+	public FileInMemory saveStreaming() throws TelosysToolsException {
+		FileInMemory file = new FileInMemory();
+		PersistenceManagerFactory.createStreamingPersistenceManager(file, null).save(model);
+		return file ;
+	}
+
+	@Benchmark
+	public RepositoryModel xmlConverterRoundTrip() throws TelosysToolsException {
+		Document document = xmlConverter.modelToXmlDocument(model);
+		return xmlConverter.xmlDocumentToModel(document);
+	}
+}
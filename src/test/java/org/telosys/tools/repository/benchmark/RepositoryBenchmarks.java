@@ -0,0 +1,29 @@
+package org.telosys.tools.repository.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Launcher for all the repository benchmarks (JMH) <br>
+ * Reports the throughput (ops/s) and the allocation rates (GC profiler) <br>
+ * The first argument (optional) is a regular expression to select the benchmarks, eg "PersistenceBenchmark" <br>
+ * 
+ * Run with the test classpath after "mvn test-compile" (the JMH annotation processor is a test dependency)
+ */
+public class RepositoryBenchmarks {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "org\\.telosys\\.tools\\.repository\\..*Benchmark" ; // this package and the package-private benchmarks
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.forks(1)
+				.warmupIterations(3)
+				.measurementIterations(5)
+				.build();
+		new Runner(options).run();
+	}
+}
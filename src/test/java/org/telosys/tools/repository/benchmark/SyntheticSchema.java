@@ -0,0 +1,521 @@
+package org.telosys.tools.repository.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.LinksManager;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.RepositoryRules;
+
+/**
+ * Synthetic database schema used as input for the tests and the benchmarks <br>
+ * The schema is deterministic : the same configuration with the same seed always gives the same schema. <br>
+ * It can be used as SQL statements (H2 DDL) or directly as an in-memory RepositoryModel. <br>
+ * <br>
+ * Configuration : <br>
+ * . number of tables and number of data columns per table (min/max) <br>
+ * . foreign keys : max number of foreign keys per table (fan-out) and skew of the referenced tables (fan-in) <br>
+ * . ratios of composite primary keys, join tables, self references and foreign keys cycles
+ */
+public class SyntheticSchema {
+
+	private static final String[] DATA_TYPES = { "VARCHAR", "INTEGER", "BIGINT", "DECIMAL", "DATE", "TIMESTAMP", "BOOLEAN" } ;
+
+	private static final int[] DATA_TYPES_CODES = { Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.DECIMAL, Types.DATE, Types.TIMESTAMP, Types.BOOLEAN } ;
+
+	/**
+	 * Column definition
+	 */
+	public static class Column {
+		private final String  name ;
+		private final String  type ;
+		private final int     jdbcTypeCode ;
+		private final int     size ;
+		private final boolean notNull ;
+		private final boolean inPrimaryKey ;
+
+		private Column(String name, String type, int jdbcTypeCode, int size, boolean notNull, boolean inPrimaryKey) {
+			this.name = name ;
+			this.type = type ;
+			this.jdbcTypeCode = jdbcTypeCode ;
+			this.size = size ;
+			this.notNull = notNull || inPrimaryKey ;
+			this.inPrimaryKey = inPrimaryKey ;
+		}
+		public String getName() {
+			return name;
+		}
+		public boolean isInPrimaryKey() {
+			return inPrimaryKey;
+		}
+		private String getSqlType() {
+			if ( "VARCHAR".equals(type) ) {
+				return "VARCHAR(" + size + ")" ;
+			}
+			else if ( "DECIMAL".equals(type) ) {
+				return "DECIMAL(" + size + ",2)" ;
+			}
+			return type ;
+		}
+	}
+
+	/**
+	 * Foreign key definition
+	 */
+	public static class ForeignKey {
+		private final String name ;
+		private final Table  referencedTable ;
+		private final List<String> columns = new LinkedList<>();
+
+		private ForeignKey(String name, Table referencedTable) {
+			this.name = name ;
+			this.referencedTable = referencedTable ;
+		}
+		public String getName() {
+			return name;
+		}
+		public Table getReferencedTable() {
+			return referencedTable;
+		}
+	}
+
+	/**
+	 * Table definition
+	 */
+	public static class Table {
+		private final String  name ;
+		private final boolean joinTable ;
+		private final List<Column> columns = new LinkedList<>();
+		private final List<ForeignKey> foreignKeys = new LinkedList<>();
+
+		private Table(String name, boolean joinTable) {
+			this.name = name ;
+			this.joinTable = joinTable ;
+		}
+		public String getName() {
+			return name;
+		}
+		public boolean isJoinTable() {
+			return joinTable;
+		}
+		public List<Column> getColumns() {
+			return columns;
+		}
+		public List<ForeignKey> getForeignKeys() {
+			return foreignKeys;
+		}
+		private List<Column> getPrimaryKey() {
+			List<Column> list = new LinkedList<>();
+			for ( Column column : columns ) {
+				if ( column.inPrimaryKey ) {
+					list.add(column);
+				}
+			}
+			return list ;
+		}
+		private Column getColumn(String columnName) {
+			for ( Column column : columns ) {
+				if ( column.name.equals(columnName) ) {
+					return column ;
+				}
+			}
+			return null ;
+		}
+		/**
+		 * Adds a foreign key referencing the primary key of the given table
+		 */
+		private ForeignKey addForeignKey(String fkName, String columnsPrefix, Table referencedTable, boolean inPrimaryKey) {
+			ForeignKey fk = new ForeignKey(fkName, referencedTable);
+			for ( Column pkColumn : referencedTable.getPrimaryKey() ) {
+				String columnName = columnsPrefix + pkColumn.name ;
+				columns.add(new Column(columnName, pkColumn.type, pkColumn.jdbcTypeCode, pkColumn.size, false, inPrimaryKey));
+				fk.columns.add(columnName);
+			}
+			foreignKeys.add(fk);
+			return fk ;
+		}
+	}
+
+	private final int  tablesCount ;
+
+	private final long seed ;
+
+	private int    minColumns = 3 ;
+	private int    maxColumns = 8 ;
+	private int    maxForeignKeys = 2 ;
+	private double fanInSkew = 1.0 ;
+	private double compositeKeysRatio = 0.1 ;
+	private double joinTablesRatio = 0.1 ;
+	private double selfReferencesRatio = 0.05 ;
+	private double cyclesRatio = 0.02 ;
+
+	private List<Table> tables = null ; // built when used for the first time
+
+	/**
+	 * Constructor with the default seed
+	 * @param tablesCount
+	 */
+	public SyntheticSchema(int tablesCount) {
+		this(tablesCount, 0L);
+	}
+
+	/**
+	 * Constructor
+	 * @param tablesCount
+	 * @param seed the seed of the random generator
+	 */
+	public SyntheticSchema(int tablesCount, long seed) {
+		super();
+		this.tablesCount = tablesCount ;
+		this.seed = seed ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Configuration
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Sets the number of data columns per table (in addition to the key and foreign keys columns)
+	 * @param min
+	 * @param max
+	 */
+	public void setColumnsCount(int min, int max) {
+		this.minColumns = min ;
+		this.maxColumns = Math.max(min, max) ;
+		this.tables = null ;
+	}
+
+	/**
+	 * Sets the max number of foreign keys per table (fan-out)
+	 * @param max
+	 */
+	public void setMaxForeignKeys(int max) {
+		this.maxForeignKeys = max ;
+		this.tables = null ;
+	}
+
+	/**
+	 * Sets the skew of the tables referenced by the foreign keys (fan-in) <br>
+	 * 1.0 : uniform distribution, greater than 1.0 : the first tables are referenced by a lot of tables
+	 * @param skew
+	 */
+	public void setFanInSkew(double skew) {
+		this.fanInSkew = skew ;
+		this.tables = null ;
+	}
+
+	public void setCompositeKeysRatio(double ratio) {
+		this.compositeKeysRatio = ratio ;
+		this.tables = null ;
+	}
+
+	public void setJoinTablesRatio(double ratio) {
+		this.joinTablesRatio = ratio ;
+		this.tables = null ;
+	}
+
+	public void setSelfReferencesRatio(double ratio) {
+		this.selfReferencesRatio = ratio ;
+		this.tables = null ;
+	}
+
+	/**
+	 * Sets the ratio of tables involved in a foreign keys cycle (2 tables referencing each other)
+	 * @param ratio
+	 */
+	public void setCyclesRatio(double ratio) {
+		this.cyclesRatio = ratio ;
+		this.tables = null ;
+	}
+
+	public int getTablesCount() {
+		return tablesCount;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// Schema definition
+	//-----------------------------------------------------------------------------------
+	public String getTableName(int i) {
+		return String.format("TABLE_%05d", i);
+	}
+
+	public boolean isJoinTable(int i) {
+		return getTables().get(i).isJoinTable();
+	}
+
+	/**
+	 * Returns the tables definitions (built with the current configuration)
+	 * @return
+	 */
+	public List<Table> getTables() {
+		if ( tables == null ) {
+			tables = buildTables();
+		}
+		return tables ;
+	}
+
+	private Table pickTable(Random random, List<Table> candidates) {
+		int index = (int) ( candidates.size() * Math.pow(random.nextDouble(), fanInSkew) ) ;
+		return candidates.get(Math.min(index, candidates.size() - 1));
+	}
+
+	private List<Table> buildTables() {
+		Random random = new Random(seed);
+		List<Table> list = new ArrayList<>(tablesCount);
+		List<Table> regularTables = new ArrayList<>(tablesCount);
+		for ( int i = 0 ; i < tablesCount ; i++ ) {
+			String name = getTableName(i);
+			if ( regularTables.size() >= 2 && random.nextDouble() < joinTablesRatio ) {
+				//--- Join table : 2 foreign keys in the primary key
+				Table table = new Table(name, true);
+				Table tableA = pickTable(random, regularTables);
+				Table tableB = pickTable(random, regularTables);
+				table.addForeignKey("FK_" + name + "_A", "A_", tableA, true);
+				table.addForeignKey("FK_" + name + "_B", "B_", tableB, true);
+				list.add(table);
+			}
+			else {
+				Table table = new Table(name, false);
+				//--- Primary key (simple or composite)
+				table.columns.add(new Column("ID", "INTEGER", Types.INTEGER, 10, true, true));
+				if ( random.nextDouble() < compositeKeysRatio ) {
+					table.columns.add(new Column("LINE_NO", "INTEGER", Types.INTEGER, 10, true, true));
+				}
+				//--- Data columns
+				int columnsCount = minColumns + random.nextInt(maxColumns - minColumns + 1);
+				for ( int c = 1 ; c <= columnsCount ; c++ ) {
+					int t = random.nextInt(DATA_TYPES.length);
+					int size = "VARCHAR".equals(DATA_TYPES[t]) ? 10 + random.nextInt(246) : 10 ;
+					table.columns.add(new Column("COL_" + c, DATA_TYPES[t], DATA_TYPES_CODES[t], size, random.nextDouble() < 0.3, false));
+				}
+				//--- Foreign keys to the previous tables (fan-out)
+				if ( ! regularTables.isEmpty() ) {
+					int fkCount = random.nextInt(maxForeignKeys + 1);
+					for ( int k = 1 ; k <= fkCount ; k++ ) {
+						table.addForeignKey("FK_" + name + "_" + k, "REF" + k + "_", pickTable(random, regularTables), false);
+					}
+				}
+				//--- Self reference
+				if ( random.nextDouble() < selfReferencesRatio ) {
+					table.addForeignKey("FK_" + name + "_SELF", "PARENT_", table, false);
+				}
+				list.add(table);
+				regularTables.add(table);
+			}
+		}
+		//--- Cycles : 2 tables referencing each other
+		for ( int i = 0 ; i < regularTables.size() - 1 ; i++ ) {
+			if ( random.nextDouble() < cyclesRatio ) {
+				Table table = regularTables.get(i);
+				Table next = regularTables.get(i + 1 + random.nextInt(regularTables.size() - i - 1));
+				table.addForeignKey("FK_" + table.name + "_NEXT", "NEXT_", next, false);
+				next.addForeignKey("FK_" + next.name + "_PREV_" + i, "PREV" + i + "_", table, false);
+			}
+		}
+		return list ;
+	}
+
+	//-----------------------------------------------------------------------------------
+	// SQL
+	//-----------------------------------------------------------------------------------
+	private String buildCreateTable(Table table) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE TABLE ").append(table.name).append(" ( ");
+		for ( Column column : table.columns ) {
+			sb.append(column.name).append(" ").append(column.getSqlType());
+			if ( column.notNull ) {
+				sb.append(" NOT NULL");
+			}
+			sb.append(", ");
+		}
+		sb.append("PRIMARY KEY (");
+		int n = 0 ;
+		for ( Column column : table.getPrimaryKey() ) {
+			sb.append( n++ > 0 ? ", " : "" ).append(column.name);
+		}
+		sb.append(") )");
+		return sb.toString();
+	}
+
+	private String buildAddForeignKey(Table table, ForeignKey fk) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ALTER TABLE ").append(table.name).append(" ADD CONSTRAINT ").append(fk.name).append(" FOREIGN KEY (");
+		int n = 0 ;
+		for ( String column : fk.columns ) {
+			sb.append( n++ > 0 ? ", " : "" ).append(column);
+		}
+		sb.append(") REFERENCES ").append(fk.referencedTable.name).append(" (");
+		n = 0 ;
+		for ( Column column : fk.referencedTable.getPrimaryKey() ) {
+			sb.append( n++ > 0 ? ", " : "" ).append(column.name);
+		}
+		sb.append(")");
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the SQL statements creating all the tables and foreign keys
+	 * @return
+	 */
+	public List<String> getCreateStatements() {
+		List<String> statements = new LinkedList<>();
+		for ( Table table : getTables() ) {
+			statements.add(buildCreateTable(table));
+		}
+		//--- Foreign keys after all the tables (for the cycles)
+		for ( Table table : getTables() ) {
+			for ( ForeignKey fk : table.foreignKeys ) {
+				statements.add(buildAddForeignKey(table, fk));
+			}
+		}
+		return statements ;
+	}
+
+	/**
+	 * Returns the SQL statements altering the schema (for the repository update) : <br>
+	 * new columns, changed columns, dropped columns, dropped foreign keys and new tables
+	 * @return
+	 */
+	public List<String> getAlterStatements() {
+		Random random = new Random(seed + 1);
+		List<String> statements = new LinkedList<>();
+		for ( Table table : getTables() ) {
+			if ( table.joinTable ) {
+				continue ;
+			}
+			if ( random.nextDouble() < 0.15 ) {
+				statements.add("ALTER TABLE " + table.name + " ADD COLUMN EXTRA VARCHAR(30)");
+			}
+			Column column = table.getColumn("COL_1");
+			if ( column != null && random.nextDouble() < 0.10 ) {
+				if ( "VARCHAR".equals(column.type) ) {
+					statements.add("ALTER TABLE " + table.name + " ALTER COLUMN COL_1 VARCHAR(" + ( column.size + 100 ) + ")");
+				}
+				else {
+					statements.add("ALTER TABLE " + table.name + " ALTER COLUMN COL_1 VARCHAR(50)");
+				}
+			}
+			column = table.getColumn("COL_2");
+			if ( column != null && random.nextDouble() < 0.08 ) {
+				statements.add("ALTER TABLE " + table.name + " DROP COLUMN COL_2");
+			}
+			if ( ! table.foreignKeys.isEmpty() && random.nextDouble() < 0.05 ) {
+				statements.add("ALTER TABLE " + table.name + " DROP CONSTRAINT " + table.foreignKeys.get(0).name);
+			}
+		}
+		int newTables = Math.max(1, tablesCount / 100);
+		for ( int i = 0 ; i < newTables ; i++ ) {
+			String name = "NEW_" + getTableName(i);
+			statements.add("CREATE TABLE " + name + " ( ID INTEGER NOT NULL, REF_ID INTEGER, PRIMARY KEY (ID) )");
+			statements.add("ALTER TABLE " + name + " ADD CONSTRAINT FK_" + name + " FOREIGN KEY (REF_ID) REFERENCES " + getTableName(0) + " (ID)");
+		}
+		return statements ;
+	}
+
+	public void create(Connection connection) throws SQLException {
+		execute(connection, getCreateStatements());
+	}
+
+	public void alter(Connection connection) throws SQLException {
+		execute(connection, getAlterStatements());
+	}
+
+	/**
+	 * Drops all the tables (H2 database)
+	 * @param connection
+	 * @throws SQLException
+	 */
+	public void drop(Connection connection) throws SQLException {
+		List<String> statements = new LinkedList<>();
+		statements.add("DROP ALL OBJECTS");
+		execute(connection, statements);
+	}
+
+	private void execute(Connection connection, List<String> statements) throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			for ( String sql : statements ) {
+				statement.execute(sql);
+			}
+		} finally {
+			statement.close();
+		}
+	}
+
+	//-----------------------------------------------------------------------------------
+	// In-memory model
+	//-----------------------------------------------------------------------------------
+	/**
+	 * Builds the RepositoryModel of the schema directly in memory (without database) <br>
+	 * The names and types are given by the rules, the links are generated
+	 * @param rules
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public RepositoryModel buildModel(RepositoryRules rules) throws TelosysToolsException {
+		RepositoryModel model = new RepositoryModel();
+		model.setDatabaseName("SYNTHETIC");
+		model.setDatabaseProductName("H2");
+		for ( Table table : getTables() ) {
+			model.storeEntity(buildEntity(table, rules));
+		}
+		new LinksManager(rules).generateAllLinks(model);
+		return model ;
+	}
+
+	private EntityInDbModel buildEntity(Table table, RepositoryRules rules) {
+		EntityInDbModel entity = new EntityInDbModel();
+		entity.setDatabaseTable(table.name);
+		entity.setClassName(rules.getEntityClassName(table.name));
+		entity.setDatabaseType("TABLE");
+		int position = 0 ;
+		for ( Column column : table.columns ) {
+			AttributeInDbModel attribute = new AttributeInDbModel(entity);
+			attribute.setDatabaseName(column.name);
+			attribute.setDatabaseTypeName(column.type);
+			attribute.setJdbcTypeCode(column.jdbcTypeCode);
+			attribute.setDatabaseNotNull(column.notNull);
+			attribute.setDatabaseSize("" + column.size);
+			attribute.setDatabasePosition(++position);
+			attribute.setDatabaseComment("");
+			attribute.setKeyElement(column.inPrimaryKey);
+			attribute.setName(rules.getAttributeName(column.name));
+			attribute.setModelFullType(rules.getAttributeType(column.type, column.jdbcTypeCode, column.notNull));
+			attribute.setLabel(rules.getAttributeGuiLabel(column.name));
+			attribute.setInputType(rules.getAttributeGuiType(column.type, column.jdbcTypeCode));
+			entity.storeAttribute(attribute);
+		}
+		for ( ForeignKey fk : table.foreignKeys ) {
+			ForeignKeyInDbModel foreignKey = new ForeignKeyInDbModel();
+			foreignKey.setName(fk.name);
+			List<Column> pkColumns = fk.referencedTable.getPrimaryKey();
+			int sequence = 0 ;
+			for ( String columnName : fk.columns ) {
+				ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+				fkColumn.setSequence(sequence + 1);
+				fkColumn.setTableName(table.name);
+				fkColumn.setColumnName(columnName);
+				fkColumn.setTableRef(fk.referencedTable.name);
+				fkColumn.setReferencedColumnName(pkColumns.get(sequence).name);
+				foreignKey.storeForeignKeyColumn(fkColumn);
+				sequence++ ;
+			}
+			entity.storeForeignKey(foreignKey);
+		}
+		return entity ;
+	}
+}
@@ -0,0 +1,101 @@
+package org.telosys.tools.repository.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.RepositoryRulesProvider;
+
+/**
+ * Checks the synthetic schemas used as inputs for the benchmarks
+ */
+public class SyntheticSchemaTest {
+
+	private SyntheticSchema buildSchema(int tablesCount, long seed) {
+		SyntheticSchema schema = new SyntheticSchema(tablesCount, seed);
+		schema.setCompositeKeysRatio(0.2);
+		schema.setJoinTablesRatio(0.15);
+		schema.setSelfReferencesRatio(0.1);
+		schema.setCyclesRatio(0.1);
+		schema.setMaxForeignKeys(3);
+		schema.setFanInSkew(2.0);
+		return schema ;
+	}
+
+	private int countJoinTables(SyntheticSchema schema) {
+		int n = 0 ;
+		for ( SyntheticSchema.Table table : schema.getTables() ) {
+			n += table.isJoinTable() ? 1 : 0 ;
+		}
+		return n ;
+	}
+
+	@Test
+	public void testDeterministic() {
+		System.out.println("testDeterministic");
+		assertEquals(buildSchema(200, 1L).getCreateStatements(), buildSchema(200, 1L).getCreateStatements());
+		assertEquals(buildSchema(200, 1L).getAlterStatements(), buildSchema(200, 1L).getAlterStatements());
+		assertFalse(buildSchema(200, 1L).getCreateStatements().equals(buildSchema(200, 2L).getCreateStatements()));
+		SyntheticSchema schema = buildSchema(200, 1L);
+		assertEquals(200, schema.getTables().size());
+		assertTrue(countJoinTables(schema) > 0);
+		for ( String sql : schema.getCreateStatements() ) {
+			System.out.println(sql);
+		}
+	}
+
+	@Test
+	public void testInMemoryModel() throws TelosysToolsException {
+		System.out.println("testInMemoryModel");
+		SyntheticSchema schema = buildSchema(300, 3L);
+		RepositoryModel model = schema.buildModel(RepositoryRulesProvider.getRepositoryRules());
+		assertEquals(300, model.getNumberOfEntities());
+		int joinTables = 0 ;
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
+			joinTables += entity.isJoinTable() ? 1 : 0 ;
+		}
+		assertEquals(countJoinTables(schema), joinTables);
+		assertTrue(model.getNumberOfLinks() > 0);
+	}
+
+	@Test
+	public void testGenerateAndUpdate() throws TelosysToolsException {
+		System.out.println("testGenerateAndUpdate");
+		SyntheticSchema schema = buildSchema(60, 5L);
+		BenchmarkDatabase database = new BenchmarkDatabase(schema);
+		try {
+			RepositoryModel model = database.generateModel();
+			assertEquals(60, model.getNumberOfEntities());
+
+			//--- Same entities, foreign keys and links as the in-memory model
+			RepositoryModel inMemoryModel = schema.buildModel(RepositoryRulesProvider.getRepositoryRules());
+			for ( EntityInDbModel entity : inMemoryModel.getEntitiesSortedByTableName() ) {
+				EntityInDbModel generated = model.getEntityByTableName(entity.getDatabaseTable());
+				assertNotNull(generated);
+				assertEquals(entity.getAttributes().size(), generated.getAttributes().size());
+				assertEquals(entity.getDatabaseForeignKeys().size(), generated.getDatabaseForeignKeys().size());
+				assertEquals(entity.isJoinTable(), generated.isJoinTable());
+			}
+			assertEquals(inMemoryModel.getNumberOfLinks(), model.getNumberOfLinks());
+
+			database.alterSchema();
+			ChangeLog changeLog = database.getDbModelUpdator().updateRepository(database.getDatabaseConfiguration(), model);
+			System.out.println("Changes : " + changeLog.getNumberOfEntities() );
+			assertEquals(1, changeLog.getNumberOfEntitiesCreated());
+			assertTrue(changeLog.getNumberOfEntitiesUpdated() > 0);
+			assertEquals(61, model.getNumberOfEntities());
+
+			//--- Same schema again
+			database.createSchema();
+			assertEquals(60, database.generateModel().getNumberOfEntities());
+		} finally {
+			database.close();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package org.telosys.tools.repository.benchmark;
+
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.model.LinkInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.rules.StandardRepositoryRules;
+
+/**
+ * Model with a "wide" entity : 'SOURCE' with N foreign keys referencing the same table 'TARGET' <br>
+ * (all the links names are built from the same original name) <br>
+ * Used as input for the tests and the benchmarks of the links names generation
+ */
+public class WideEntitySchema {
+
+	/**
+	 * Reference rules : the names are checked by scanning all the attributes and links (previous implementation)
+	 */
+	public static class ScanningRules extends StandardRepositoryRules {
+		private boolean used(String name, EntityInDbModel entity) {
+			for ( AttributeInDbModel attribute : entity.getAttributesArray() ) {
+				if ( attribute.getName().equals(name) ) return true ;
+			}
+			for ( LinkInDbModel link : entity.getLinksArray() ) {
+				if ( link.getFieldName().equals(name) ) return true ;
+			}
+			return false ;
+		}
+		private String name(String original, EntityInDbModel entity) {
+			String name = original ;
+			int n = 1 ;
+			while ( used(name, entity) ) {
+				n++;
+				name = original + n ;
+			}
+			return name ;
+		}
+		@Override
+		public String getAttributeNameForLinkToOne(EntityInDbModel entity, EntityInDbModel referencedEntity) {
+			String className = referencedEntity.getClassName();
+			return name(className.substring(0, 1).toLowerCase() + className.substring(1), entity);
+		}
+		@Override
+		public String getAttributeNameForLinkToMany(EntityInDbModel entity, EntityInDbModel referencedEntity) {
+			return name("listOf" + referencedEntity.getClassName(), entity);
+		}
+	}
+
+	private final int foreignKeysCount ;
+
+	public WideEntitySchema(int foreignKeysCount) {
+		this.foreignKeysCount = foreignKeysCount ;
+	}
+
+	public int getForeignKeysCount() {
+		return foreignKeysCount ;
+	}
+
+	private AttributeInDbModel buildAttribute(EntityInDbModel entity, String dbName, String name, boolean key) {
+		AttributeInDbModel attribute = new AttributeInDbModel(entity);
+		attribute.setDatabaseName(dbName);
+		attribute.setName(name);
+		attribute.setKeyElement(key);
+		return attribute ;
+	}
+
+	/**
+	 * Builds a new model (without links)
+	 * @return
+	 */
+	public RepositoryModel buildModel() {
+		RepositoryModel model = new RepositoryModel();
+		EntityInDbModel target = new EntityInDbModel("Target", "TARGET");
+		target.storeAttribute(buildAttribute(target, "ID", "id", true));
+		model.storeEntity(target);
+		EntityInDbModel source = new EntityInDbModel("Source", "SOURCE");
+		source.storeAttribute(buildAttribute(source, "ID", "id", true));
+		for ( int i = 1 ; i <= foreignKeysCount ; i++ ) {
+			source.storeAttribute(buildAttribute(source, "TARGET_ID_" + i, "targetId" + i, false));
+			ForeignKeyInDbModel fk = new ForeignKeyInDbModel();
+			fk.setName("FK_SOURCE_" + i);
+			ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+			fkColumn.setTableName("SOURCE");
+			fkColumn.setColumnName("TARGET_ID_" + i);
+			fkColumn.setSequence(1);
+			fkColumn.setTableRef("TARGET");
+			fkColumn.setReferencedColumnName("ID");
+			fk.storeForeignKeyColumn(fkColumn);
+			source.storeForeignKey(fk);
+		}
+		model.storeEntity(source);
+		return model ;
+	}
+}
@@ -1,10 +1,13 @@
 package org.telosys.tools.repository.changelog;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.junit.Test;
@@ -173,4 +176,129 @@ public class ChangeLogTest {
 		assertTrue( changeLog.getChangesByType(ChangeType.UPDATED).size() == 0 );
 	}
 
+	@Test
+	public void testUpdatedWithCapturedBeforeState() throws TelosysToolsException {
+		
+		System.out.println("testUpdatedWithCapturedBeforeState");
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		entity.setDatabaseComment("comment 1");
+		AttributeInDbModel column = new AttributeInDbModel(entity);
+		column.setDatabaseName("ID");
+		column.setDatabaseComment("id 1");
+		entity.storeAttribute(column);
+
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(entity);
+		assertEquals(ChangeType.UPDATED, changeOnEntity.getChangeType());
+		assertEquals("FOO", changeOnEntity.getEntityName());
+		//--- No change : no copy
+		assertFalse( changeOnEntity.hasEntityBeforeCopy() );
+		assertTrue( changeOnEntity.getEntityBefore() == entity );
+		assertTrue( changeOnEntity.getEntityAfter()  == entity );
+
+		//--- First change : copy captured before the modification
+		changeOnEntity.captureEntityBefore();
+		entity.setDatabaseComment("comment 2");
+		column.setDatabaseComment("id 2");
+		assertTrue( changeOnEntity.hasEntityBeforeCopy() );
+		EntityInDbModel entityBefore = changeOnEntity.getEntityBefore() ;
+		assertTrue( entityBefore != entity );
+		assertEquals("comment 1", entityBefore.getDatabaseComment());
+		assertEquals("id 1", entityBefore.getAttributeByColumnName("ID").getDatabaseComment());
+
+		//--- Next changes : same copy
+		changeOnEntity.captureEntityBefore();
+		entity.setDatabaseComment("comment 3");
+		assertTrue( changeOnEntity.getEntityBefore() == entityBefore );
+		assertEquals("comment 1", changeOnEntity.getEntityBefore().getDatabaseComment());
+	}
+
+	@Test
+	public void testWriterError() throws TelosysToolsException {
+		System.out.println("testWriterError");
+		OutputStream out = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+		ChangeLog changeLog = new ChangeLog(new ChangeLogWriter(out));
+		changeLog.checkWriter(); // no error yet
+		//--- More changes than the writer buffer : the error does not interrupt the logging
+		for ( int i = 0 ; i < 500 ; i++ ) {
+			changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, new EntityInDbModel("Foo" + i, "FOO_" + i)));
+		}
+		assertEquals(500, changeLog.getNumberOfEntitiesCreated());
+		try {
+			changeLog.checkWriter();
+			fail("Exception expected");
+		} catch (TelosysToolsException e) {
+			System.out.println("Expected exception : " + e.getMessage());
+		}
+	}
+
+	@Test
+	public void testReleaseEntitiesBefore() throws TelosysToolsException {
+		System.out.println("testReleaseEntitiesBefore");
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		EntityInDbModel entityDeleted = new EntityInDbModel("Bar", "BAR");
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(entity);
+		changeOnEntity.captureEntityBefore();
+		entity.setDatabaseComment("comment 2");
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(changeOnEntity);
+		changeLog.log(new ChangeOnEntity(ChangeType.DELETED, entityDeleted, null));
+		assertNotNull( changeOnEntity.getEntityBefore() );
+
+		changeLog.releaseEntitiesBefore();
+		assertTrue( changeOnEntity.getEntityBefore() == null );
+		assertFalse( changeOnEntity.hasEntityBeforeCopy() );
+		assertTrue( changeOnEntity.getEntityAfter() == entity );
+		assertTrue( changeLog.getChangeByEntityName("BAR").getEntityDeleted() == entityDeleted );
+	}
+
+	@Test
+	public void testIndexes() throws TelosysToolsException {
+		
+		System.out.println("testIndexes");
+		ChangeLog changeLog = new ChangeLog();
+		int n = 1000 ;
+		for ( int i = 0 ; i < n ; i++ ) {
+			EntityInDbModel entity = new EntityInDbModel("Foo" + i, "FOO" + i);
+			switch ( i % 3 ) {
+			case 0 :
+				changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, entity));
+				break;
+			case 1 :
+				changeLog.log(new ChangeOnEntity(entity));
+				break;
+			default :
+				changeLog.log(new ChangeOnEntity(ChangeType.DELETED, entity, null));
+			}
+		}
+		assertEquals(n, changeLog.getNumberOfEntities());
+		assertEquals(334, changeLog.getNumberOfEntitiesCreated());
+		assertEquals(333, changeLog.getNumberOfEntitiesUpdated());
+		assertEquals(333, changeLog.getNumberOfEntitiesDeleted());
+		assertEquals(ChangeType.UPDATED, changeLog.getChangeByEntityName("FOO997").getChangeType());
+		assertEquals(null, changeLog.getChangeByEntityName("BAR"));
+		//--- Same order as the log
+		List<ChangeOnEntity> deleted = changeLog.getChangesByType(ChangeType.DELETED);
+		assertEquals("FOO2", deleted.get(0).getEntityName());
+		assertEquals("FOO998", deleted.get(deleted.size()-1).getEntityName());
+		try {
+			changeLog.getChanges().clear(); // only 'log' can change the change log
+			fail("Exception expected");
+		} catch (UnsupportedOperationException e) {
+			// Expected exception 
+		}
+		//--- Duplicated name
+		changeLog.log(new ChangeOnEntity(new EntityInDbModel("Foo1", "FOO1")));
+		try {
+			changeLog.getChangeByEntityName("FOO1");
+			fail("Exception expected");
+		} catch (RuntimeException e) {
+			// Expected exception 
+		}
+	}
+
 }
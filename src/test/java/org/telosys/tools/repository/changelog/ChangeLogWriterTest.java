@@ -0,0 +1,113 @@
+package org.telosys.tools.repository.changelog;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyColumnInDbModel;
+import org.telosys.tools.repository.model.ForeignKeyInDbModel;
+import org.telosys.tools.repository.persistence.util.RepositoryConst;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class ChangeLogWriterTest {
+
+	private ChangeOnEntity buildUpdatedEntity() {
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		AttributeInDbModel column = new AttributeInDbModel(entity);
+		column.setDatabaseName("NAME");
+		column.setDatabaseSize("20");
+		entity.storeAttribute(column);
+
+		ChangeOnEntity changeOnEntity = new ChangeOnEntity(entity);
+		changeOnEntity.captureEntityBefore();
+		column.setDatabaseSize("40");
+		changeOnEntity.addChangeOnColumn(new ChangeOnColumn(ChangeType.UPDATED,
+				changeOnEntity.getEntityBefore().getAttributeByColumnName("NAME"), column));
+
+		ForeignKeyInDbModel fk = new ForeignKeyInDbModel();
+		fk.setName("FK_FOO_BAR");
+		ForeignKeyColumnInDbModel fkColumn = new ForeignKeyColumnInDbModel();
+		fkColumn.setSequence(1);
+		fkColumn.setTableName("FOO");
+		fkColumn.setColumnName("BAR_ID");
+		fkColumn.setTableRef("BAR");
+		fkColumn.setReferencedColumnName("ID");
+		fk.storeForeignKeyColumn(fkColumn);
+		changeOnEntity.addChangeOnForeignKey(new ChangeOnForeignKey(ChangeType.CREATED, null, fk));
+		return changeOnEntity ;
+	}
+
+	private Document parse(byte[] bytes) throws Exception {
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		System.out.println("testStreaming");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ChangeLogWriter writer = new ChangeLogWriter(baos);
+		ChangeLog changeLog = new ChangeLog(writer);
+		changeLog.log(new ChangeOnEntity(ChangeType.CREATED, null, new EntityInDbModel("New", "NEW")));
+		changeLog.log(buildUpdatedEntity());
+		changeLog.log(new ChangeOnEntity(ChangeType.DELETED, new EntityInDbModel("Old", "OLD"), null));
+		assertEquals(3, writer.getChangesCount());
+		writer.close();
+		System.out.println(baos.toString("UTF-8"));
+
+		Document doc = parse(baos.toByteArray());
+		Element root = doc.getDocumentElement();
+		assertEquals(ChangeLogWriter.CHANGELOG_ELEMENT, root.getTagName());
+		NodeList changes = root.getElementsByTagName(ChangeLogWriter.ENTITY_CHANGE_ELEMENT);
+		assertEquals(3, changes.getLength());
+		assertEquals("CREATED", ((Element) changes.item(0)).getAttribute("type"));
+		assertEquals("NEW", ((Element) changes.item(0)).getAttribute("name"));
+		assertEquals(1, ((Element) changes.item(0)).getElementsByTagName(RepositoryConst.TABLE).getLength());
+
+		Element updated = (Element) changes.item(1);
+		assertEquals("UPDATED", updated.getAttribute("type"));
+		assertEquals("2", updated.getAttribute("changes"));
+		Element columnChange = (Element) updated.getElementsByTagName(ChangeLogWriter.COLUMN_CHANGE_ELEMENT).item(0);
+		assertEquals("NAME", columnChange.getAttribute("name"));
+		NodeList columns = columnChange.getElementsByTagName(RepositoryConst.COLUMN);
+		assertEquals(2, columns.getLength());
+		assertEquals("20", ((Element) columns.item(0)).getAttribute(RepositoryConst.COLUMN_DB_SIZE));
+		assertEquals("40", ((Element) columns.item(1)).getAttribute(RepositoryConst.COLUMN_DB_SIZE));
+		Element fkChange = (Element) updated.getElementsByTagName(ChangeLogWriter.FOREIGN_KEY_CHANGE_ELEMENT).item(0);
+		assertEquals("FK_FOO_BAR", fkChange.getAttribute("name"));
+		assertEquals(0, fkChange.getElementsByTagName(ChangeLogWriter.BEFORE_ELEMENT).getLength());
+		assertEquals(1, fkChange.getElementsByTagName(RepositoryConst.FKCOL).getLength());
+
+		assertEquals("DELETED", ((Element) changes.item(2)).getAttribute("type"));
+	}
+
+	@Test
+	public void testWriteChangeLog() throws Exception {
+		System.out.println("testWriteChangeLog");
+		ChangeLog changeLog = new ChangeLog();
+		changeLog.log(buildUpdatedEntity());
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ChangeLogWriter writer = new ChangeLogWriter(baos, changeLog.getDate());
+		writer.writeChanges(changeLog);
+		writer.close();
+		Document doc = parse(baos.toByteArray());
+		assertEquals(1, doc.getDocumentElement().getElementsByTagName(ChangeLogWriter.ENTITY_CHANGE_ELEMENT).getLength());
+	}
+
+	@Test
+	public void testVoidChangeLog() throws Exception {
+		System.out.println("testVoidChangeLog");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new ChangeLogWriter(baos).close();
+		Document doc = parse(baos.toByteArray());
+		assertEquals(ChangeLogWriter.CHANGELOG_ELEMENT, doc.getDocumentElement().getTagName());
+		assertEquals(0, doc.getDocumentElement().getElementsByTagName(ChangeLogWriter.ENTITY_CHANGE_ELEMENT).getLength());
+	}
+}
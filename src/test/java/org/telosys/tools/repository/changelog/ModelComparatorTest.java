@@ -0,0 +1,60 @@
+package org.telosys.tools.repository.changelog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class ModelComparatorTest {
+
+	private RepositoryModel loadModel() throws TelosysToolsException {
+		return PersistenceManagerFactory.createPersistenceManager(TestsEnv.getTestFile("repo/BookStore-with-JC.dbrep")).load();
+	}
+
+	@Test
+	public void testSameModel() throws TelosysToolsException {
+		System.out.println("testSameModel");
+		ChangeLog changeLog = new ModelComparator().compare(loadModel(), loadModel());
+		assertEquals(0, changeLog.getNumberOfEntities());
+	}
+
+	@Test
+	public void testChanges() throws TelosysToolsException {
+		System.out.println("testChanges");
+		RepositoryModel modelBefore = loadModel();
+		RepositoryModel modelAfter = loadModel();
+		modelAfter.removeEntity("TESTBLOB");
+		modelAfter.storeEntity(new EntityInDbModel("Foo", "FOO"));
+		EntityInDbModel book = modelAfter.getEntityByTableName("BOOK");
+		book.setDatabaseComment("Modified comment");
+		book.getAttributeByColumnName("TITLE").setDatabaseSize("200");
+		book.getAttributeByColumnName("ISBN").setLabel("ISBN code");
+		book.removeAttribute(book.getAttributeByColumnName("PRICE"));
+		book.removeForeignKey(book.getForeignKey("FK_BOOK002"));
+
+		ChangeLog changeLog = new ModelComparator().compare(modelBefore, modelAfter);
+		assertEquals(3, changeLog.getNumberOfEntities());
+		assertEquals(1, changeLog.getNumberOfEntitiesCreated());
+		assertEquals(1, changeLog.getNumberOfEntitiesDeleted());
+		assertEquals(1, changeLog.getNumberOfEntitiesUpdated());
+		assertEquals(ChangeType.CREATED, changeLog.getChangeByEntityName("FOO").getChangeType());
+		assertEquals(ChangeType.DELETED, changeLog.getChangeByEntityName("TESTBLOB").getChangeType());
+
+		ChangeOnEntity changeOnBook = changeLog.getChangeByEntityName("BOOK");
+		assertTrue(changeOnBook.isDatabaseCommentHasChanged());
+		assertEquals(false, changeOnBook.isDatabaseTypeHasChanged());
+		assertEquals(3, changeOnBook.getChangesOnColumn().size());
+		assertEquals(ChangeType.UPDATED, changeOnBook.getChangesOnColumn().get(0).getChangeType());
+		assertEquals(ChangeType.UPDATED, changeOnBook.getChangesOnColumn().get(1).getChangeType());
+		assertEquals(ChangeType.DELETED, changeOnBook.getChangesOnColumn().get(2).getChangeType());
+		assertEquals(1, changeOnBook.getChangesOnForeignKey().size());
+		assertEquals(ChangeType.DELETED, changeOnBook.getChangesOnForeignKey().get(0).getChangeType());
+		assertEquals(5, changeOnBook.getNumberOfChanges());
+	}
+}
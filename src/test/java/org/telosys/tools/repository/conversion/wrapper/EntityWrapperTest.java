@@ -3,6 +3,7 @@ package org.telosys.tools.repository.conversion.wrapper;
 //import static org.junit.Assert.assertEquals;
 //import static org.junit.Assert.assertFalse;
 //import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 //import static org.junit.Assert.assertNull;
 //import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
@@ -26,6 +27,7 @@ public class EntityWrapperTest {
 	private static final String CATALOG_VALUE  = "MYCATALOG" ;
 	private static final String TYPE_VALUE     = "TABLE" ;
 	private static final String COMMENT_VALUE  = "MYCOMMENT" ;
+	private static final String FINGERPRINT_VALUE = "0123456789abcdef0123456789abcdef01234567" ;
 
 	//-----------------------------------------------------------------------------------
 	@Test
@@ -45,6 +47,11 @@ public class EntityWrapperTest {
 		checkAttribute(element, RepositoryConst.TABLE_DATABASE_TYPE, TYPE_VALUE);
 		checkAttribute(element, RepositoryConst.TABLE_JAVA_BEAN, CLASS_NAME_VALUE );
 		checkAttribute(element, RepositoryConst.TABLE_DATABASE_COMMENT, COMMENT_VALUE); // ver 3.0.3
+		checkAttribute(element, RepositoryConst.TABLE_FINGERPRINT, FINGERPRINT_VALUE); // ver 3.3.0
+
+		// no fingerprint => no attribute
+		entity.setDatabaseFingerprint(null);
+		assertNull( Wrappers.ENTITY_WRAPPER.getXmlDesc(entity, doc).getAttributeNode(RepositoryConst.TABLE_FINGERPRINT) );
 	}
 
 	private EntityInDbModel createEntity() {
@@ -55,6 +62,7 @@ public class EntityWrapperTest {
 		entity.setDatabaseType(TYPE_VALUE);
 		entity.setClassName(CLASS_NAME_VALUE);
 		entity.setDatabaseComment(COMMENT_VALUE);
+		entity.setDatabaseFingerprint(FINGERPRINT_VALUE);
 		
 //		entity.storeAttribute(attribute);
 //		entity.storeForeignKey(foreignKey);
@@ -84,6 +92,7 @@ public class EntityWrapperTest {
 		xmlElement.setAttribute(RepositoryConst.TABLE_SCHEMA, SCHEMA_VALUE); 
 		xmlElement.setAttribute(RepositoryConst.TABLE_DATABASE_TYPE, TYPE_VALUE); 
 		xmlElement.setAttribute(RepositoryConst.TABLE_DATABASE_COMMENT, COMMENT_VALUE);
+		xmlElement.setAttribute(RepositoryConst.TABLE_FINGERPRINT, FINGERPRINT_VALUE);
 		return xmlElement;
 	}
 	private void checkEntity1(EntityInDbModel entity ) {
@@ -93,6 +102,7 @@ public class EntityWrapperTest {
 		assertEquals(CATALOG_VALUE, entity.getDatabaseCatalog() );
 		assertEquals(TYPE_VALUE, entity.getDatabaseType() );
 		assertEquals(COMMENT_VALUE, entity.getDatabaseComment() );
+		assertEquals(FINGERPRINT_VALUE, entity.getDatabaseFingerprint() );
 	}
 	//-----------------------------------------------------------------------------------
 	@Test
@@ -118,5 +128,6 @@ public class EntityWrapperTest {
 		assertEquals(CATALOG_VALUE, entity.getDatabaseCatalog() );
 		assertEquals(TYPE_VALUE, entity.getDatabaseType() );
 		assertEquals("", entity.getDatabaseComment() ); // Void comment
+		assertNull(entity.getDatabaseFingerprint() ); // No fingerprint
 	}
 }
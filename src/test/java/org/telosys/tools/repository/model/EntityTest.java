@@ -1,12 +1,15 @@
 package org.telosys.tools.repository.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 import java.util.LinkedList;
 import java.util.List;
 
 import org.junit.Test;
 import org.telosys.tools.commons.ObjectUtil;
+import org.telosys.tools.generic.model.Attribute;
 import org.telosys.tools.generic.model.Cardinality;
 
 public class EntityTest {
@@ -112,4 +115,80 @@ public class EntityTest {
 		
 	}
 
+	@Test
+	public void testFieldNameUsed() {
+		EntityInDbModel entity = new EntityInDbModel("Book", "BOOK");
+		AttributeInDbModel attribute = buildAttribute(entity, 1);
+		attribute.setName("title");
+		entity.storeAttribute(attribute);
+		LinkInDbModel link = buildLink(1);
+		entity.storeLink(link);
+		assertEquals(true, entity.isFieldNameUsed("title"));
+		assertEquals(true, entity.isFieldNameUsed("author1"));
+		assertEquals(false, entity.isFieldNameUsed("author2"));
+
+		//--- Registry kept in step with the entity
+		attribute.setName("bookTitle");
+		assertEquals(false, entity.isFieldNameUsed("title"));
+		assertEquals(true, entity.isFieldNameUsed("bookTitle"));
+		entity.storeLink(buildLink(2));
+		assertEquals(true, entity.isFieldNameUsed("author2"));
+		link.setFieldName("mainAuthor");
+		assertEquals(false, entity.isFieldNameUsed("author1"));
+		assertEquals(true, entity.isFieldNameUsed("mainAuthor"));
+		entity.removeLink(link);
+		assertEquals(false, entity.isFieldNameUsed("mainAuthor"));
+		link.setFieldName("author1"); // no more in the entity
+		assertEquals(false, entity.isFieldNameUsed("author1"));
+		entity.removeAttribute(attribute);
+		assertEquals(false, entity.isFieldNameUsed("bookTitle"));
+		entity.removeAllLinks();
+		assertEquals(false, entity.isFieldNameUsed("author2"));
+	}
+
+	@Test
+	public void testCachedViews() {
+		EntityInDbModel entity = new EntityInDbModel("Book", "BOOK");
+		for ( int i = 3 ; i >= 1 ; i-- ) {
+			AttributeInDbModel attribute = buildAttribute(entity, i);
+			attribute.setDatabasePosition(i);
+			entity.storeAttribute(attribute);
+		}
+		entity.storeForeignKey(buildForeignKey(2));
+		entity.storeForeignKey(buildForeignKey(1));
+		entity.storeLink(buildLink(1));
+
+		//--- Same snapshot while not changed
+		assertSame(entity.getAttributes(), entity.getAttributes());
+		assertSame(entity.getDatabaseForeignKeys(), entity.getDatabaseForeignKeys());
+		assertSame(entity.getLinks(), entity.getLinks());
+		assertEquals("COL_NAME1", entity.getAttributesArray()[0].getDatabaseName());
+		assertEquals("FK1", entity.getForeignKeys()[0].getName());
+
+		//--- New snapshot after a change
+		List<Attribute> attributes = entity.getAttributes();
+		AttributeInDbModel attribute = buildAttribute(entity, 0);
+		attribute.setDatabasePosition(0);
+		entity.storeAttribute(attribute);
+		assertEquals(3, attributes.size());
+		assertEquals(4, entity.getAttributes().size());
+		assertEquals("COL_NAME0", entity.getAttributesArray()[0].getDatabaseName());
+		attribute.setDatabasePosition(9);
+		assertEquals("COL_NAME0", entity.getAttributesArray()[3].getDatabaseName());
+		entity.removeForeignKey(entity.getForeignKey("FK1"));
+		assertEquals(1, entity.getDatabaseForeignKeys().size());
+		entity.storeLink(buildLink(2));
+		assertEquals(2, entity.getLinks().size());
+
+		//--- The arrays are copies, the lists are unmodifiable
+		entity.getAttributesArray()[0] = null ;
+		assertEquals("COL_NAME1", entity.getAttributesArray()[0].getDatabaseName());
+		try {
+			entity.getAttributes().clear();
+			fail("unmodifiable list expected");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
 }
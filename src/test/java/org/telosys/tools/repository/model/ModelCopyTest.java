@@ -0,0 +1,197 @@
+package org.telosys.tools.repository.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+import org.telosys.tools.commons.ObjectUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.generic.model.DateType;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+public class ModelCopyTest {
+
+	private final static File MODEL_FILE = new File("src/test/resources/repo/BookStore-with-JC.dbrep");
+
+	private boolean isImmutable(Object o) {
+		return o instanceof String || o instanceof Number || o instanceof Boolean
+				|| o instanceof Character || o instanceof Enum ;
+	}
+
+	/**
+	 * Checks field by field (reflection) that 'copy' is a deep copy of 'source' <br>
+	 * Non-transient fields only, the objects already compared must be copied only once (back references)
+	 */
+	private void assertDeepCopy(String path, Object source, Object copy, Map<Object,Object> copies) throws IllegalAccessException {
+		if ( source == null ) {
+			assertNull(path, copy);
+			return ;
+		}
+		if ( isImmutable(source) ) {
+			assertEquals(path, source, copy);
+			return ;
+		}
+		if ( copies.containsKey(source) ) {
+			assertSame(path + " (reference)", copies.get(source), copy);
+			return ;
+		}
+		assertNotSame(path + " (not copied)", source, copy);
+		copies.put(source, copy);
+		if ( source instanceof Map ) {
+			Map<?,?> sourceMap = (Map<?,?>) source ;
+			Map<?,?> copyMap = (Map<?,?>) copy ;
+			assertEquals(path + ".size", sourceMap.size(), copyMap.size());
+			for ( Map.Entry<?,?> entry : sourceMap.entrySet() ) {
+				assertTrue(path + " key " + entry.getKey(), copyMap.containsKey(entry.getKey()));
+				assertDeepCopy(path + "[" + entry.getKey() + "]", entry.getValue(), copyMap.get(entry.getKey()), copies);
+			}
+		}
+		else if ( source instanceof Collection ) {
+			Collection<?> sourceCollection = (Collection<?>) source ;
+			Collection<?> copyCollection = (Collection<?>) copy ;
+			assertEquals(path + ".size", sourceCollection.size(), copyCollection.size());
+			Iterator<?> it = copyCollection.iterator();
+			int i = 0 ;
+			for ( Object o : sourceCollection ) {
+				assertDeepCopy(path + "[" + (i++) + "]", o, it.next(), copies);
+			}
+		}
+		else if ( source.getClass().isArray() ) {
+			assertEquals(path + ".length", Array.getLength(source), Array.getLength(copy));
+			for ( int i = 0 ; i < Array.getLength(source) ; i++ ) {
+				assertDeepCopy(path + "[" + i + "]", Array.get(source, i), Array.get(copy, i), copies);
+			}
+		}
+		else {
+			assertEquals(path + " (class)", source.getClass(), copy.getClass());
+			for ( Class<?> c = source.getClass() ; c != null && c != Object.class ; c = c.getSuperclass() ) {
+				for ( Field field : c.getDeclaredFields() ) {
+					int modifiers = field.getModifiers() ;
+					if ( ! Modifier.isStatic(modifiers) && ! Modifier.isTransient(modifiers) ) {
+						field.setAccessible(true);
+						assertDeepCopy(path + "." + field.getName(), field.get(source), field.get(copy), copies);
+					}
+				}
+			}
+		}
+	}
+
+	private void assertDeepCopy(Object source, Object copy) throws IllegalAccessException {
+		assertDeepCopy(source.getClass().getSimpleName(), source, copy, new IdentityHashMap<Object,Object>());
+	}
+
+	/**
+	 * Sets a non-default value in each field of the attribute (to check that no field is forgotten by the copy)
+	 */
+	private void setAllFields(AttributeInDbModel attribute) throws IllegalAccessException {
+		int n = 0 ;
+		for ( Field field : AttributeInDbModel.class.getDeclaredFields() ) {
+			int modifiers = field.getModifiers() ;
+			if ( Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) ) {
+				continue ;
+			}
+			n++ ;
+			field.setAccessible(true);
+			Class<?> type = field.getType();
+			if ( type == String.class ) {
+				field.set(attribute, "v" + n);
+			}
+			else if ( type == boolean.class ) {
+				field.setBoolean(attribute, ! field.getBoolean(attribute));
+			}
+			else if ( type == int.class ) {
+				field.setInt(attribute, n);
+			}
+			else if ( type == Integer.class ) {
+				field.set(attribute, Integer.valueOf(n));
+			}
+			else if ( type == BigDecimal.class ) {
+				field.set(attribute, new BigDecimal(n + ".5"));
+			}
+			else if ( type == DateType.class ) {
+				DateType[] values = DateType.values();
+				field.set(attribute, values[values.length-1]);
+			}
+			else if ( type == GeneratedValueInDbModel.class ) {
+				GeneratedValueInDbModel v = new GeneratedValueInDbModel();
+				v.setStrategy("SEQUENCE");
+				v.setGenerator("GEN");
+				field.set(attribute, v);
+			}
+			else if ( type == TableGeneratorInDbModel.class ) {
+				TableGeneratorInDbModel v = new TableGeneratorInDbModel();
+				v.setName("GEN");
+				v.setTable("ID_GEN");
+				v.setPkColumnName("ID_NAME");
+				v.setValueColumnName("ID_VAL");
+				v.setPkColumnValue("INV_GEN");
+				field.set(attribute, v);
+			}
+			else if ( type == SequenceGeneratorInDbModel.class ) {
+				SequenceGeneratorInDbModel v = new SequenceGeneratorInDbModel();
+				v.setName("GEN");
+				v.setSequenceName("INV_SEQ");
+				v.setAllocationSize(5);
+				field.set(attribute, v);
+			}
+			else {
+				throw new RuntimeException("Unexpected field type : " + field.getName() + " " + type);
+			}
+		}
+	}
+
+	@Test
+	public void testAttributeCopy() throws IllegalAccessException {
+		System.out.println("testAttributeCopy");
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		AttributeInDbModel attribute = new AttributeInDbModel(entity);
+		setAllFields(attribute);
+		EntityInDbModel entity2 = new EntityInDbModel("Foo", "FOO");
+		AttributeInDbModel copy = new AttributeInDbModel(entity2, attribute);
+		assertSame(entity2, copy.getEntity());
+		Map<Object,Object> copies = new IdentityHashMap<>();
+		copies.put(entity, entity2);
+		assertDeepCopy("attribute", attribute, copy, copies);
+	}
+
+	@Test
+	public void testEntitiesCopy() throws TelosysToolsException, IllegalAccessException {
+		System.out.println("testEntitiesCopy");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		for ( EntityInDbModel entity : model.getEntitiesSortedByTableName() ) {
+			EntityInDbModel copy = new EntityInDbModel(entity);
+			assertDeepCopy(entity, copy);
+			// same result as a copy by serialization
+			assertDeepCopy(ObjectUtil.deepCopy(entity), copy);
+		}
+	}
+
+	@Test
+	public void testCopyIsIndependent() throws TelosysToolsException {
+		System.out.println("testCopyIsIndependent");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		EntityInDbModel book = model.getEntityByClassName("Book");
+		EntityInDbModel copy = new EntityInDbModel(book);
+		int n = book.getAttributes().size();
+		copy.removeAttribute(copy.getAttributesArray()[0]);
+		copy.getLinks().get(0).setFieldName("changed");
+		assertEquals(n, book.getAttributes().size());
+		assertEquals(n - 1, copy.getAttributes().size());
+		assertTrue( ! "changed".equals(book.getLinks().get(0).getFieldName()) );
+		// the copy is not attached to the model
+		assertEquals(n, model.getEntityByClassName("Book").getAttributes().size());
+	}
+}
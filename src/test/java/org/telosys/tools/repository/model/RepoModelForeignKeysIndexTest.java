@@ -0,0 +1,91 @@
+package org.telosys.tools.repository.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+public class RepoModelForeignKeysIndexTest {
+
+	private final static File MODEL_FILE = new File("src/test/resources/repo/BookStore-with-JC.dbrep");
+
+	/**
+	 * Search the foreign keys referencing a table by scanning all the entities (reference implementation)
+	 */
+	private List<ForeignKeyInDbModel> findForeignKeysReferencingTable(RepositoryModel model, String tableName) {
+		List<ForeignKeyInDbModel> list = new LinkedList<>();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+				if ( tableName.equals(fk.getReferencedTableName()) ) {
+					list.add(fk);
+				}
+			}
+		}
+		return list ;
+	}
+
+	@Test
+	public void testLookups() throws TelosysToolsException {
+		System.out.println("testLookups");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			for ( ForeignKeyInDbModel fk : entity.getForeignKeys() ) {
+				assertSame(fk, model.getForeignKeyByName(fk.getName()));
+				assertSame(entity, model.getEntityHoldingForeignKey(fk));
+			}
+			List<ForeignKeyInDbModel> expected = findForeignKeysReferencingTable(model, entity.getDatabaseTable());
+			List<ForeignKeyInDbModel> actual = model.getForeignKeysReferencingTable(entity.getDatabaseTable());
+			assertEquals(expected.size(), actual.size());
+			assertTrue(actual.containsAll(expected));
+		}
+		assertNull(model.getForeignKeyByName("NO_SUCH_FK"));
+		assertEquals(0, model.getForeignKeysReferencingTable("NO_SUCH_TABLE").size());
+	}
+
+	@Test
+	public void testIndexUpdates() throws TelosysToolsException {
+		System.out.println("testIndexUpdates");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		EntityInDbModel book = model.getEntityByTableName("BOOK");
+		ForeignKeyInDbModel fk = model.getForeignKeyByName("FK_BOOK002");
+		assertNotNull(fk);
+		assertEquals("PUBLISHER", fk.getReferencedTableName());
+		assertTrue(model.getForeignKeysReferencingTable("PUBLISHER").contains(fk));
+
+		//--- Remove the FK
+		book.removeForeignKey(fk);
+		assertNull(model.getForeignKeyByName("FK_BOOK002"));
+		assertEquals(0, model.getForeignKeysReferencingTable("PUBLISHER").size());
+
+		//--- Store it again
+		book.storeForeignKey(fk);
+		assertSame(fk, model.getForeignKeyByName("FK_BOOK002"));
+		assertEquals(1, model.getForeignKeysReferencingTable("PUBLISHER").size());
+
+		//--- Replace it with another FK with the same name
+		ForeignKeyInDbModel newFk = new ForeignKeyInDbModel();
+		newFk.setName("FK_BOOK002");
+		for ( ForeignKeyColumnInDbModel column : fk.getForeignKeyColumns() ) {
+			newFk.storeForeignKeyColumn(column);
+		}
+		book.storeForeignKey(newFk);
+		assertSame(newFk, model.getForeignKeyByName("FK_BOOK002"));
+		assertEquals(1, model.getForeignKeysReferencingTable("PUBLISHER").size());
+		assertNull(model.getEntityHoldingForeignKey(fk));
+
+		//--- Remove the entity
+		model.removeEntity("BOOK");
+		assertNull(model.getForeignKeyByName("FK_BOOK002"));
+		assertNull(model.getForeignKeyByName("FK_BOOK001"));
+		assertEquals(0, model.getForeignKeysReferencingTable("PUBLISHER").size());
+	}
+}
@@ -0,0 +1,159 @@
+package org.telosys.tools.repository.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+public class RepoModelLinksIndexTest {
+
+	private final static File MODEL_FILE = new File("src/test/resources/repo/BookStore-with-JC.dbrep");
+
+	/**
+	 * Search the inverse side link by scanning all the links (reference implementation)
+	 */
+	private LinkInDbModel findInverseSideLink(RepositoryModel model, String owningSideLinkId) {
+		for ( LinkInDbModel link : model.getAllLinks() ) {
+			if ( ! link.isOwningSide() && owningSideLinkId.equals(link.getInverseSideLinkId()) ) {
+				return link ;
+			}
+		}
+		return null ;
+	}
+
+	@Test
+	public void testLookups() throws TelosysToolsException {
+		System.out.println("testLookups");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		List<LinkInDbModel> allLinks = model.getAllLinks();
+		assertTrue(allLinks.size() > 0);
+		for ( LinkInDbModel link : allLinks ) {
+			assertSame(link, model.getLinkById(link.getId()));
+			if ( link.isBasedOnForeignKey() ) {
+				assertTrue(model.getLinksByForeignKeyName(link.getForeignKeyName()).contains(link));
+			}
+			if ( link.isBasedOnJoinTable() ) {
+				assertTrue(model.getLinksByJoinTableName(link.getJoinTableName()).contains(link));
+			}
+			RelationLinksInDbModel relation = model.getRelationByLinkId(link.getId());
+			assertNotNull(relation);
+			if ( link.isOwningSide() ) {
+				assertSame(link, relation.getOwningSideLink());
+				assertSame(findInverseSideLink(model, link.getId()), relation.getInverseSideLink());
+			}
+			else {
+				assertSame(link, relation.getInverseSideLink());
+			}
+		}
+		assertNull(model.getLinkById("NO_SUCH_LINK"));
+		assertEquals(0, model.getLinksByForeignKeyName("NO_SUCH_FK").size());
+	}
+
+	@Test
+	public void testIndexUpdates() throws TelosysToolsException {
+		System.out.println("testIndexUpdates");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		int linksCount = model.getNumberOfLinks();
+
+		//--- Remove links by FK
+		ForeignKeyInDbModel fk = model.getForeignKeyByName("FK_BOOK001");
+		assertNotNull(fk);
+		assertEquals(2, model.getLinksByForeignKeyName("FK_BOOK001").size());
+		assertEquals(2, model.removeLinksByForeignKey(fk));
+		assertEquals(0, model.getLinksByForeignKeyName("FK_BOOK001").size());
+		assertNull(model.getLinkById(LinkInDbModel.buildId(fk, true)));
+		assertEquals(linksCount - 2, model.getNumberOfLinks());
+
+		//--- Store a link again
+		LinkInDbModel link = new LinkInDbModel();
+		link.setId("LINK_TEST");
+		link.setSourceTableName("BOOK");
+		link.setTargetTableName("AUTHOR");
+		link.setForeignKeyName("FK_BOOK001");
+		link.setOwningSide(true);
+		model.getEntityByTableName("BOOK").storeLink(link);
+		assertSame(link, model.getLinkById("LINK_TEST"));
+		assertEquals(1, model.getLinksByForeignKeyName("FK_BOOK001").size());
+
+		//--- Remove entity
+		EntityInDbModel book = model.removeEntity("BOOK");
+		assertNotNull(book);
+		assertNull(model.getLinkById("LINK_TEST"));
+		model.storeEntity(book);
+		assertSame(link, model.getLinkById("LINK_TEST"));
+
+		//--- Remove all links
+		model.removeAllLinks();
+		assertNull(model.getLinkById("LINK_TEST"));
+		assertEquals(0, model.getNumberOfLinks());
+	}
+
+	@Test
+	public void testStoredLinkChanges() throws TelosysToolsException {
+		System.out.println("testStoredLinkChanges");
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		EntityInDbModel book = model.getEntityByTableName("BOOK");
+		LinkInDbModel link = new LinkInDbModel();
+		link.setId("LINK_TEST");
+		link.setFieldName("testLink");
+		link.setSourceTableName("BOOK");
+		link.setTargetTableName("AUTHOR");
+		link.setForeignKeyName("FK_TEST");
+		link.setOwningSide(true);
+		book.storeLink(link);
+		assertSame(link, model.getLinkById("LINK_TEST"));
+
+		//--- Indexed properties changed after storing the link
+		link.setForeignKeyName("FK_TEST_2");
+		assertEquals(0, model.getLinksByForeignKeyName("FK_TEST").size());
+		assertSame(link, model.getLinksByForeignKeyName("FK_TEST_2").get(0));
+		link.setJoinTableName("JT_TEST");
+		assertSame(link, model.getLinksByJoinTableName("JT_TEST").get(0));
+		link.setJoinTableName(null);
+		assertEquals(0, model.getLinksByJoinTableName("JT_TEST").size());
+
+		//--- Id changed : the link is stored in the entity with the new id
+		link.setId("LINK_TEST_2");
+		assertNull(model.getLinkById("LINK_TEST"));
+		assertSame(link, model.getLinkById("LINK_TEST_2"));
+		assertNull(book.getLink("LINK_TEST"));
+		assertSame(link, book.getLink("LINK_TEST_2"));
+		assertTrue(book.isFieldNameUsed("testLink"));
+
+		//--- Inverse side
+		link.setOwningSide(false);
+		link.setInverseSideLinkId("LINK_OWNING");
+		assertSame(link, model.getInverseSideLink("LINK_OWNING"));
+		link.setInverseSideLinkId("LINK_OWNING_2");
+		assertNull(model.getInverseSideLink("LINK_OWNING"));
+		assertSame(link, model.getInverseSideLink("LINK_OWNING_2"));
+
+		//--- No more index update once removed
+		book.removeLink(link);
+		link.setId("LINK_TEST");
+		link.setForeignKeyName("FK_TEST");
+		assertNull(model.getLinkById("LINK_TEST"));
+		assertEquals(0, model.getLinksByForeignKeyName("FK_TEST").size());
+		assertNull(book.getLink("LINK_TEST"));
+	}
+
+	@Test
+	public void testLazyModel() throws TelosysToolsException {
+		System.out.println("testLazyModel");
+		RepositoryModel model = PersistenceManagerFactory.createLazyPersistenceManager(MODEL_FILE, null).load();
+		RepositoryModel fullModel = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		for ( LinkInDbModel link : fullModel.getAllLinks() ) {
+			LinkInDbModel link2 = model.getLinkById(link.getId());
+			assertNotNull(link2);
+			assertEquals(link.getSourceTableName(), link2.getSourceTableName());
+		}
+	}
+}
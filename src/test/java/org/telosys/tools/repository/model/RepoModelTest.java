@@ -1,6 +1,7 @@
 package org.telosys.tools.repository.model;
 
 import java.io.File;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -65,4 +66,59 @@ public class RepoModelTest {
 		Assert.assertTrue(n == nbLinks * 2 );
 	}
 
+	@Test
+	public void testCachedViews() throws TelosysToolsException {
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(new File("src/test/resources/repo/BookStoreDERBY.dbrep")).load();
+		//--- Same views while the model is not changed
+		Assert.assertSame(model.getEntities(), model.getEntities());
+		Assert.assertSame(model.getEntitiesSortedByTableName(), model.getEntitiesSortedByTableName());
+		Assert.assertSame(model.getAllLinks(), model.getAllLinks());
+		List<LinkInDbModel> links = model.getAllLinks();
+		String[] names = model.getEntitiesNames();
+		Assert.assertEquals(names.length, model.getEntitiesSortedByTableName().size());
+		for ( int i = 0 ; i < names.length ; i++ ) {
+			Assert.assertEquals(names[i], model.getEntitiesSortedByTableName().get(i).getDatabaseTable());
+		}
+
+		//--- Entity stored : new entities views, same links view 
+		EntityInDbModel entity = new EntityInDbModel("Aaa", "AAA");
+		model.storeEntity(entity);
+		Assert.assertEquals(names.length + 1, model.getEntitiesNames().length);
+		Assert.assertSame(entity, model.getEntitiesArraySortedByTableName()[0]);
+		Assert.assertSame(entity, model.getEntitiesSortedByTableName().get(0));
+		Assert.assertSame(links, model.getAllLinks());
+
+		//--- Link stored in an entity : new links view
+		LinkInDbModel link = new LinkInDbModel();
+		link.setId("LINK_TEST");
+		link.setSourceTableName("AAA");
+		link.setTargetTableName("BOOK");
+		link.setFieldName("book");
+		entity.storeLink(link);
+		Assert.assertEquals(links.size() + 1, model.getAllLinks().size());
+		Assert.assertEquals(links.size() + 1, model.getNumberOfLinks());
+		entity.removeLink(link);
+		Assert.assertEquals(links.size(), model.getAllLinks().size());
+
+		//--- Entity renamed : new order by class name
+		Assert.assertSame(entity, model.getEntities().get(0));
+		entity.setClassName("ZzzLast");
+		Assert.assertSame(entity, model.getEntities().get(names.length));
+		Assert.assertSame(entity, model.getEntitiesArraySortedByClassName()[names.length]);
+		Assert.assertSame(entity, model.getEntityByClassName("ZzzLast"));
+
+		//--- Entity removed
+		model.removeEntity("AAA");
+		entity.setClassName("Aaa"); // no more in the model
+		Assert.assertEquals(names.length, model.getEntities().size());
+		Assert.assertEquals(names.length, model.getEntitiesNames().length);
+		
+		//--- Unmodifiable views
+		try {
+			model.getAllLinks().clear();
+			Assert.fail("unmodifiable list expected");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
 }
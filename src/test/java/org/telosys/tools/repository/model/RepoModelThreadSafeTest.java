@@ -0,0 +1,114 @@
+package org.telosys.tools.repository.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.telosys.tools.commons.ObjectUtil;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.persistence.PersistenceManagerFactory;
+
+public class RepoModelThreadSafeTest {
+
+	private final static File MODEL_FILE = new File("src/test/resources/repo/BookStore-with-JC.dbrep");
+
+	private RepositoryModel loadThreadSafeModel() throws TelosysToolsException {
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(MODEL_FILE).load();
+		RepositoryModel threadSafeModel = new RepositoryModel(true);
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			threadSafeModel.storeEntity(entity);
+		}
+		return threadSafeModel ;
+	}
+
+	@Test
+	public void testDefaultModel() {
+		System.out.println("testDefaultModel");
+		RepositoryModel model = new RepositoryModel();
+		assertFalse(model.isThreadSafe());
+		EntityInDbModel entity = new EntityInDbModel("Foo", "FOO");
+		model.storeEntity(entity);
+		assertFalse(entity.isUsingConcurrentMaps());
+	}
+
+	@Test
+	public void testThreadSafeModel() throws TelosysToolsException {
+		System.out.println("testThreadSafeModel");
+		RepositoryModel model = loadThreadSafeModel();
+		assertTrue(model.isThreadSafe());
+		EntityInDbModel book = model.getEntityByTableName("BOOK");
+		assertTrue(book.isUsingConcurrentMaps());
+		int linksCount = model.getNumberOfLinks();
+		assertTrue(linksCount > 0);
+
+		//--- Serialization (deep copy) keeps the content
+		EntityInDbModel copy = ObjectUtil.deepCopy(book);
+		assertEquals(book.getAttributesCount(), copy.getAttributesCount());
+		assertEquals(book.getForeignKeys().length, copy.getForeignKeys().length);
+		assertEquals(book.getLinksCount(), copy.getLinksCount());
+		assertTrue(copy.isUsingConcurrentMaps());
+	}
+
+	@Test
+	public void testConcurrentUpdates() throws Exception {
+		System.out.println("testConcurrentUpdates");
+		final RepositoryModel model = loadThreadSafeModel();
+		final int entitiesCount = model.getNumberOfEntities();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<Integer>> tasks = new ArrayList<>();
+			//--- Entities created and removed by several threads
+			for ( int t = 0 ; t < 4 ; t++ ) {
+				final int taskId = t ;
+				tasks.add(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						for ( int i = 0 ; i < 200 ; i++ ) {
+							String tableName = "TMP_" + taskId + "_" + i ;
+							model.storeEntity(new EntityInDbModel("Tmp", tableName));
+							model.getEntitiesNames();
+							model.getAllLinks();
+							if ( i % 2 == 0 ) {
+								model.removeEntity(tableName);
+							}
+						}
+						return 0 ;
+					}
+				});
+			}
+			//--- Links removed by other threads
+			for ( final String tableName : new String[] { "BOOK", "EMPLOYEE_GROUP" } ) {
+				tasks.add(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						return model.removeLinksByEntityName(tableName);
+					}
+				});
+			}
+			int linksRemoved = 0 ;
+			for ( Future<Integer> future : executor.invokeAll(tasks) ) {
+				linksRemoved = linksRemoved + future.get();
+			}
+			assertTrue(linksRemoved > 0);
+			assertEquals(entitiesCount + 4 * 100, model.getNumberOfEntities());
+			assertEquals(entitiesCount + 4 * 100, model.getEntitiesNames().length);
+			assertNull(model.getEntityByTableName("TMP_0_0"));
+			assertEquals(0, model.getEntityByTableName("BOOK").getLinksCount());
+			for ( LinkInDbModel link : model.getAllLinks() ) {
+				assertFalse("BOOK".equals(link.getSourceTableName()) || "BOOK".equals(link.getTargetTableName()));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.telosys.tools.repository.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.AttributeInDbModel;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class PersistenceManagerLazyTest {
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private int countLoadedEntities(RepositoryModel model) {
+		int n = 0 ;
+		for ( EntityInDbModel entity : model.getEntitiesArraySortedByTableName() ) {
+			if ( entity.isContentLoaded() ) {
+				n++ ;
+			}
+		}
+		return n ;
+	}
+
+	@Test
+	public void testLazyLoading() throws TelosysToolsException {
+		System.out.println("testLazyLoading");
+		File file = TestsEnv.getTestFile(ScaledUpFiles.BOOKSTORE_FILE);
+		RepositoryModel domModel = PersistenceManagerFactory.createPersistenceManager(file).load();
+		RepositoryModel lazyModel = PersistenceManagerFactory.createLazyPersistenceManager(file, LoggerProviderForUnitTests.getLogger()).load();
+
+		//--- Only the entities attributes after loading
+		assertEquals(domModel.getNumberOfEntities(), lazyModel.getNumberOfEntities());
+		assertEquals(0, countLoadedEntities(lazyModel));
+		EntityInDbModel book = lazyModel.getEntityByTableName("BOOK");
+		assertNotNull(book);
+		assertEquals("Book", book.getClassName());
+		assertFalse(book.isContentLoaded());
+
+		//--- Content loaded on first access
+		assertEquals(2, book.getForeignKeys().length);
+		assertTrue(book.isContentLoaded());
+		assertEquals(1, countLoadedEntities(lazyModel));
+		assertEquals(5, book.getAllLinks().size() );
+		// FK information set when the entity is loaded
+		AttributeInDbModel publisherId = book.getAttributeByColumnName("PUBLISHER_ID");
+		assertNotNull(publisherId);
+		assertTrue(publisherId.isFKSimple());
+		assertEquals("Publisher", publisherId.getReferencedEntityClassName());
+		assertEquals(1, countLoadedEntities(lazyModel));
+
+		//--- Same model when all the entities are loaded
+		assertEquals(modelToString(domModel), modelToString(lazyModel));
+		assertEquals(lazyModel.getNumberOfEntities(), countLoadedEntities(lazyModel));
+	}
+
+	@Test
+	public void testLazySave() throws TelosysToolsException, IOException {
+		System.out.println("testLazySave");
+		File file = ScaledUpFiles.build(2);
+		PersistenceManager pm = PersistenceManagerFactory.createLazyPersistenceManager(file, null);
+		RepositoryModel model = pm.load();
+		RepositoryModel otherModel = PersistenceManagerFactory.createLazyPersistenceManager(file, null).load();
+		String expected = modelToString(PersistenceManagerFactory.createPersistenceManager(file).load());
+
+		//--- Save in the mapped file itself
+		pm.save(model);
+		assertEquals(expected, modelToString(pm.load()));
+		//--- Other model opened on the same file : entities still loaded from the previous mapping
+		assertEquals(0, countLoadedEntities(otherModel));
+		assertEquals(expected, modelToString(otherModel));
+		//--- No temporary file left
+		for ( File f : file.getParentFile().listFiles() ) {
+			assertFalse(f.getName().startsWith(file.getName() + ".") && f.getName().endsWith(".tmp"));
+		}
+	}
+
+	@Test
+	public void testScaledUpOpening() throws TelosysToolsException, IOException {
+		System.out.println("testScaledUpOpening");
+		File file = ScaledUpFiles.build(2);
+		RepositoryModel fullModel = PersistenceManagerFactory.createStreamingPersistenceManager(file, null).load();
+		RepositoryModel lazyModel = PersistenceManagerFactory.createLazyPersistenceManager(file, null).load();
+		assertEquals(fullModel.getNumberOfEntities(), lazyModel.getNumberOfEntities());
+		assertEquals(0, countLoadedEntities(lazyModel));
+
+		EntityInDbModel entity = lazyModel.getEntityByTableName("BOOK_S2");
+		assertNotNull(entity);
+		assertEquals(fullModel.getEntityByTableName("BOOK_S2").getAttributesCount(), entity.getAttributesCount());
+		assertEquals(1, countLoadedEntities(lazyModel));
+	}
+}
@@ -0,0 +1,140 @@
+package org.telosys.tools.repository.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.DbModelVersion;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotHeader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotReader;
+import org.telosys.tools.repository.persistence.util.ModelSnapshotWriter;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class PersistenceManagerSnapshotTest {
+
+	private final static String BOOKSTORE_FILE = "repo/BookStore-with-JC.dbrep" ;
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private File copyTestFile(String name) throws IOException {
+		File file = TestsEnv.getTmpFile(name);
+		file.getParentFile().mkdirs();
+		Files.copy(TestsEnv.getTestFile(BOOKSTORE_FILE).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		File snapshotFile = new File(file.getAbsolutePath() + PersistenceManagerFactory.SNAPSHOT_FILE_SUFFIX);
+		snapshotFile.delete();
+		return file ;
+	}
+
+	private ModelSnapshotHeader readHeader(File snapshotFile) throws TelosysToolsException, IOException {
+		InputStream is = new FileInputStream(snapshotFile);
+		try {
+			return new ModelSnapshotReader(is).readHeader();
+		} finally {
+			is.close();
+		}
+	}
+
+	@Test
+	public void testSnapshotBuildAndReuse() throws TelosysToolsException, IOException {
+		System.out.println("testSnapshotBuildAndReuse");
+		File file = copyTestFile("BookStore-snapshot1.dbrep");
+		File snapshotFile = new File(file.getAbsolutePath() + PersistenceManagerFactory.SNAPSHOT_FILE_SUFFIX);
+		RepositoryModel xmlModel = PersistenceManagerFactory.createPersistenceManager(file).load();
+
+		PersistenceManager pm = PersistenceManagerFactory.createSnapshotPersistenceManager(file, LoggerProviderForUnitTests.getLogger());
+		//--- 1st load : from XML, snapshot created
+		assertFalse(snapshotFile.exists());
+		RepositoryModel model1 = pm.load();
+		assertTrue(snapshotFile.exists());
+		ModelSnapshotHeader header = readHeader(snapshotFile);
+		assertNotNull(header);
+		assertEquals(DbModelVersion.VERSION, header.getModelVersion());
+		assertEquals(file.length(), header.getSourceLength());
+		assertEquals(40, header.getSourceHash().length());
+		System.out.println("XML file : " + file.length() + " bytes, snapshot : " + snapshotFile.length() + " bytes");
+
+		//--- 2nd load : from snapshot
+		long snapshotLastModified = snapshotFile.lastModified();
+		RepositoryModel model2 = pm.load();
+		assertEquals(snapshotLastModified, snapshotFile.lastModified());
+
+		assertEquals(modelToString(xmlModel), modelToString(model1));
+		assertEquals(modelToString(xmlModel), modelToString(model2));
+		EntityInDbModel book = model2.getEntityByClassName("Book");
+		assertNotNull(book);
+		assertEquals(5, book.getAllLinks().size() );
+		assertEquals(2, book.getForeignKeys().length);
+	}
+
+	@Test
+	public void testSnapshotRebuiltWhenXmlChanged() throws TelosysToolsException, IOException {
+		System.out.println("testSnapshotRebuiltWhenXmlChanged");
+		File file = copyTestFile("BookStore-snapshot2.dbrep");
+		File snapshotFile = new File(file.getAbsolutePath() + PersistenceManagerFactory.SNAPSHOT_FILE_SUFFIX);
+		PersistenceManager pm = PersistenceManagerFactory.createSnapshotPersistenceManager(file, null);
+		RepositoryModel model = pm.load();
+		String hash1 = readHeader(snapshotFile).getSourceHash();
+
+		//--- XML file modified by another persistence manager
+		model.getEntityByClassName("Book").setDatabaseComment("Modified comment");
+		PersistenceManagerFactory.createPersistenceManager(file).save(model);
+
+		RepositoryModel model2 = pm.load();
+		assertEquals("Modified comment", model2.getEntityByClassName("Book").getDatabaseComment());
+		String hash2 = readHeader(snapshotFile).getSourceHash();
+		assertFalse(hash1.equals(hash2));
+
+		//--- XML file touched without change : same hash, new modification time
+		long newTime = file.lastModified() - 10000 ;
+		assertTrue(file.setLastModified(newTime));
+		RepositoryModel model3 = pm.load();
+		assertEquals(modelToString(model2), modelToString(model3));
+		assertEquals(hash2, readHeader(snapshotFile).getSourceHash());
+		assertEquals(file.lastModified(), readHeader(snapshotFile).getSourceLastModified());
+
+		//--- Save with the snapshot persistence manager : snapshot removed
+		pm.save(model3);
+		assertFalse(snapshotFile.exists());
+		assertEquals(modelToString(model3), modelToString(pm.load()));
+		assertTrue(snapshotFile.exists());
+	}
+
+	@Test
+	public void testSnapshotRejectedForOtherModelVersion() throws TelosysToolsException, IOException {
+		System.out.println("testSnapshotRejectedForOtherModelVersion");
+		File file = copyTestFile("BookStore-snapshot3.dbrep");
+		File snapshotFile = new File(file.getAbsolutePath() + PersistenceManagerFactory.SNAPSHOT_FILE_SUFFIX);
+
+		//--- Snapshot with the right source but an old model version and a void model
+		OutputStream os = new FileOutputStream(snapshotFile);
+		new ModelSnapshotWriter(os).write(new ModelSnapshotHeader("1.0.0", file.length(), file.lastModified(), ""),
+				new RepositoryModel());
+		os.close();
+		assertEquals("1.0.0", readHeader(snapshotFile).getModelVersion());
+
+		RepositoryModel model = PersistenceManagerFactory.createSnapshotPersistenceManager(file, null).load();
+		assertTrue(model.getNumberOfEntities() > 0);
+		assertEquals(DbModelVersion.VERSION, readHeader(snapshotFile).getModelVersion());
+	}
+}
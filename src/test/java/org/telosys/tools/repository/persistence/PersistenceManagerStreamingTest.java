@@ -0,0 +1,149 @@
+package org.telosys.tools.repository.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.EntityInDbModel;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class PersistenceManagerStreamingTest {
+
+	private final static String BOOKSTORE_FILE = "repo/BookStore-with-JC.dbrep" ;
+
+	/**
+	 * Returns the model as an XML string (DOM conversion) in order to compare 2 models
+	 * @param model
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private byte[] saveWithDom(RepositoryModel model) throws TelosysToolsException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		Xml.save(new XmlConverter(null).modelToXmlDocument(model), os);
+		return os.toByteArray();
+	}
+
+	private byte[] saveWithStream(RepositoryModel model) throws TelosysToolsException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		new XmlConverter(null).modelToXmlStream(model, os);
+		return os.toByteArray();
+	}
+
+	/**
+	 * Removes the indentation added by the XML serializer of recent JDKs (Java 9+) <br>
+	 * (the repository files are written without indentation by Java 6/7/8)
+	 * @param domOutput
+	 * @return
+	 * @throws IOException
+	 */
+	private String removeIndentation(byte[] domOutput) throws IOException {
+		String lineSeparator = System.getProperty("line.separator");
+		String[] lines = new String(domOutput, "UTF-8").split(lineSeparator);
+		StringBuilder sb = new StringBuilder();
+		for ( String line : lines ) {
+			String s = line.replaceFirst("^\\s+", "").replace("--><root>", "-->" + lineSeparator + "<root>");
+			sb.append(s).append(lineSeparator);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testSameModelAsDom() throws TelosysToolsException {
+		System.out.println("testSameModelAsDom");
+		TelosysToolsLogger logger = LoggerProviderForUnitTests.getLogger();
+		File file = TestsEnv.getTestFile(BOOKSTORE_FILE);
+
+		RepositoryModel domModel = PersistenceManagerFactory.createPersistenceManager(file, logger).load();
+		RepositoryModel staxModel = PersistenceManagerFactory.createStreamingPersistenceManager(file, logger).load();
+
+		assertEquals(domModel.getNumberOfEntities(), staxModel.getNumberOfEntities());
+		assertEquals(domModel.getNumberOfLinks(), staxModel.getNumberOfLinks());
+		EntityInDbModel book = staxModel.getEntityByClassName("Book");
+		assertNotNull(book);
+		assertEquals(5, book.getAllLinks().size() );
+		assertEquals(2, book.getForeignKeys().length);
+
+		assertEquals(modelToString(domModel), modelToString(staxModel));
+	}
+
+	@Test
+	public void testInMemory() throws TelosysToolsException, IOException {
+		System.out.println("testInMemory");
+		File file = TestsEnv.getTestFile(BOOKSTORE_FILE);
+		FileInMemory fileInMemory = new FileInMemory();
+		fileInMemory.setContent(new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+
+		RepositoryModel domModel = PersistenceManagerFactory.createPersistenceManager(fileInMemory, null).load();
+		RepositoryModel staxModel = PersistenceManagerFactory.createStreamingPersistenceManager(fileInMemory, null).load();
+		assertEquals(modelToString(domModel), modelToString(staxModel));
+	}
+
+	@Test
+	public void testScaledUpSameModel() throws TelosysToolsException, IOException {
+		System.out.println("testScaledUpSameModel");
+		File file = ScaledUpFiles.build(10);
+		RepositoryModel domModel  = PersistenceManagerFactory.createPersistenceManager(file).load();
+		RepositoryModel staxModel = PersistenceManagerFactory.createStreamingPersistenceManager(file, null).load();
+
+		assertTrue(staxModel.getNumberOfEntities() > 0 );
+		assertEquals(domModel.getNumberOfEntities(), staxModel.getNumberOfEntities());
+		assertEquals(domModel.getNumberOfLinks(), staxModel.getNumberOfLinks());
+		assertEquals(modelToString(domModel), modelToString(staxModel));
+	}
+
+	@Test
+	public void testSaveSameAsDom() throws TelosysToolsException, IOException {
+		System.out.println("testSaveSameAsDom");
+		File file = TestsEnv.getTestFile(BOOKSTORE_FILE);
+		RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(file).load();
+
+		//--- Special characters in attributes
+		EntityInDbModel book = model.getEntityByClassName("Book");
+		book.setDatabaseComment("a & b < c > d \"e\" 'f' \n g \t h \u00e9");
+
+		byte[] domOutput = saveWithDom(model);
+		byte[] streamOutput = saveWithStream(model);
+		assertEquals(removeIndentation(domOutput), new String(streamOutput, "UTF-8"));
+	}
+
+	@Test
+	public void testSaveFileFormat() throws TelosysToolsException, IOException {
+		System.out.println("testSaveFileFormat");
+		File file = TestsEnv.getTestFile(BOOKSTORE_FILE);
+		RepositoryModel model = PersistenceManagerFactory.createStreamingPersistenceManager(file, null).load();
+
+		File savedFile = TestsEnv.getTmpFile("BookStore-streaming-save.dbrep");
+		savedFile.getParentFile().mkdirs();
+		PersistenceManagerFactory.createStreamingPersistenceManager(savedFile, null).save(model);
+
+		String content = new String(Files.readAllBytes(savedFile.toPath()), "UTF-8");
+		String lineSeparator = System.getProperty("line.separator");
+		assertTrue(content.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>" + lineSeparator 
+				+ "<!-- Telosys Database Repository -->" + lineSeparator
+				+ "<root>" + lineSeparator + "<tableList "));
+		assertTrue(content.endsWith("</table>" + lineSeparator + "</tableList>" + lineSeparator + "</root>" + lineSeparator));
+
+		//--- Reload the saved file
+		RepositoryModel model2 = PersistenceManagerFactory.createStreamingPersistenceManager(savedFile, null).load();
+		assertEquals(modelToString(model), modelToString(model2));
+		assertEquals(new String(saveWithStream(model), "UTF-8"), new String(saveWithStream(model2), "UTF-8"));
+	}
+}
@@ -0,0 +1,179 @@
+package org.telosys.tools.repository.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.conversion.XmlConverter;
+import org.telosys.tools.repository.model.RepositoryModel;
+import org.telosys.tools.repository.persistence.util.Xml;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class RepositoryModelCacheTest {
+
+	private final static String BOOKSTORE_FILE = "repo/BookStore-with-JC.dbrep" ;
+
+	private String modelToString(RepositoryModel model) throws TelosysToolsException {
+		XmlConverter xmlConverter = new XmlConverter(null);
+		return Xml.toString(xmlConverter.modelToXmlDocument(model));
+	}
+
+	private File copyTestFile(String name) throws IOException {
+		File file = TestsEnv.getTmpFile(name);
+		file.getParentFile().mkdirs();
+		Files.copy(TestsEnv.getTestFile(BOOKSTORE_FILE).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return file ;
+	}
+
+	@Test
+	public void testHitsAndCopies() throws TelosysToolsException, IOException {
+		System.out.println("testHitsAndCopies");
+		File file = copyTestFile("BookStore-cache1.dbrep");
+		String expected = modelToString(PersistenceManagerFactory.createPersistenceManager(file).load());
+		RepositoryModelCache cache = new RepositoryModelCache(10, Long.MAX_VALUE, false);
+
+		RepositoryModel model1 = cache.getModel(file);
+		RepositoryModel model2 = cache.getModel(new File(file.getParentFile(), "./" + file.getName()));
+		assertNotSame(model1, model2);
+		assertEquals(expected, modelToString(model1));
+		assertEquals(expected, modelToString(model2));
+		long snapshotSize = cache.getStats().getHeapSize();
+		assertTrue(snapshotSize > 0);
+		assertSame(cache.getSharedModel(file), cache.getSharedModel(file));
+
+		RepositoryModelCache.Stats stats = cache.getStats();
+		System.out.println(stats);
+		assertEquals(1, stats.getMisses());
+		assertEquals(3, stats.getHits());
+		assertEquals(1, stats.getLoads());
+		assertEquals(1, stats.getEntries());
+		// snapshot + estimated size of the shared model
+		assertTrue(stats.getHeapSize() > snapshotSize + file.length());
+
+		//--- A copy can be modified without effect on the cache
+		model1.getEntityByClassName("Book").setDatabaseComment("Modified comment");
+		assertEquals(expected, modelToString(cache.getModel(file)));
+	}
+
+	@Test
+	public void testFileChanged() throws TelosysToolsException, IOException {
+		System.out.println("testFileChanged");
+		File file = copyTestFile("BookStore-cache2.dbrep");
+		RepositoryModelCache cache = new RepositoryModelCache(10, Long.MAX_VALUE, true);
+		RepositoryModel model = cache.getModel(file);
+
+		//--- File touched without change : same content, no load
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		cache.getModel(file);
+		assertEquals(1, cache.getStats().getLoads());
+		cache.getModel(file);
+		assertEquals(1, cache.getStats().getHits());
+
+		//--- File modified : loaded again
+		model.getEntityByClassName("Book").setDatabaseComment("Modified comment");
+		PersistenceManagerFactory.createPersistenceManager(file).save(model);
+		assertTrue(file.setLastModified(file.lastModified() + 10000));
+		assertEquals("Modified comment", cache.getModel(file).getEntityByClassName("Book").getDatabaseComment());
+		assertEquals(2, cache.getStats().getLoads());
+		assertEquals(1, cache.getStats().getEntries());
+
+		cache.invalidate(file);
+		assertEquals(0, cache.getStats().getEntries());
+		assertEquals(0, cache.getStats().getHeapSize());
+	}
+
+	@Test
+	public void testEviction() throws TelosysToolsException, IOException {
+		System.out.println("testEviction");
+		File file1 = copyTestFile("BookStore-cache3a.dbrep");
+		File file2 = copyTestFile("BookStore-cache3b.dbrep");
+		File file3 = copyTestFile("BookStore-cache3c.dbrep");
+		RepositoryModelCache cache = new RepositoryModelCache(2, Long.MAX_VALUE, false);
+		cache.getModel(file1);
+		cache.getModel(file2);
+		cache.getModel(file1); // file2 becomes the least recently used
+		cache.getModel(file3);
+		assertEquals(2, cache.getStats().getEntries());
+		assertEquals(1, cache.getStats().getEvictions());
+		cache.getModel(file1);
+		assertEquals(3, cache.getStats().getLoads());
+		cache.getModel(file2);
+		assertEquals(4, cache.getStats().getLoads());
+
+		//--- Heap size limit : only one entry
+		cache = new RepositoryModelCache(10, Long.MAX_VALUE, false);
+		cache.getModel(file1);
+		long entrySize = cache.getStats().getHeapSize();
+		cache = new RepositoryModelCache(10, entrySize + 1, false);
+		cache.getModel(file1);
+		cache.getModel(file2);
+		assertEquals(1, cache.getStats().getEntries());
+		assertEquals(1, cache.getStats().getEvictions());
+
+		//--- Heap size limit reached when a shared model is built
+		cache = new RepositoryModelCache(10, 2 * entrySize + 1, false);
+		cache.getModel(file1);
+		cache.getModel(file2);
+		assertEquals(2, cache.getStats().getEntries());
+		cache.getSharedModel(file2);
+		assertEquals(1, cache.getStats().getEntries());
+		assertEquals(1, cache.getStats().getEvictions());
+		assertEquals(2, cache.getStats().getLoads());
+	}
+
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		System.out.println("testConcurrentRequests");
+		final File file = copyTestFile("BookStore-cache4.dbrep");
+		final RepositoryModelCache cache = new RepositoryModelCache(10, Long.MAX_VALUE, true);
+		final int threads = 8 ;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<RepositoryModel>> futures = new ArrayList<>();
+			for ( int i = 0 ; i < threads ; i++ ) {
+				futures.add(executor.submit(new Callable<RepositoryModel>() {
+					@Override
+					public RepositoryModel call() throws Exception {
+						start.await();
+						return cache.getSharedModel(file);
+					}
+				}));
+			}
+			start.countDown();
+			RepositoryModel model = futures.get(0).get();
+			assertNotNull(model);
+			for ( Future<RepositoryModel> future : futures ) {
+				assertSame(model, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		System.out.println(cache.getStats());
+		assertEquals(1, cache.getStats().getLoads());
+		assertEquals(threads, cache.getStats().getHits() + cache.getStats().getMisses());
+	}
+
+	@Test(expected=TelosysToolsException.class)
+	public void testFileNotFound() throws TelosysToolsException {
+		System.out.println("testFileNotFound");
+		RepositoryModelCache.getInstance().getModel(new File("inexistent-file.dbrep"));
+	}
+}
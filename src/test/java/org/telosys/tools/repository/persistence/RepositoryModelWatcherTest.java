@@ -0,0 +1,154 @@
+package org.telosys.tools.repository.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.repository.changelog.ChangeLog;
+import org.telosys.tools.repository.changelog.ChangeType;
+import org.telosys.tools.repository.model.RepositoryModel;
+
+import junit.env.telosys.tools.commons.LoggerProviderForUnitTests;
+import junit.env.telosys.tools.commons.TestsEnv;
+
+public class RepositoryModelWatcherTest {
+
+	private final static String BOOKSTORE_FILE = "repo/BookStore-with-JC.dbrep" ;
+
+	private File copyTestFile(String name) throws IOException {
+		File file = TestsEnv.getTmpFile(name);
+		file.getParentFile().mkdirs();
+		Files.copy(TestsEnv.getTestFile(BOOKSTORE_FILE).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return file ;
+	}
+
+	/**
+	 * Listener keeping the last reload, the latch is released when the BOOK comment is the expected one
+	 */
+	private static class TestListener implements RepositoryModelListener {
+		private final String expectedComment ;
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private final AtomicReference<RepositoryModel> model = new AtomicReference<>();
+		private final AtomicReference<ChangeLog> changes = new AtomicReference<>();
+
+		private TestListener(String expectedComment) {
+			this.expectedComment = expectedComment ;
+		}
+
+		@Override
+		public void modelReloaded(File file, RepositoryModel newModel, ChangeLog changeLog) {
+			model.set(newModel);
+			changes.set(changeLog);
+			if ( expectedComment.equals(newModel.getEntityByTableName("BOOK").getDatabaseComment()) ) {
+				latch.countDown();
+			}
+		}
+	}
+
+	@Test
+	public void testReload() throws TelosysToolsException, IOException, InterruptedException {
+		System.out.println("testReload");
+		File file = copyTestFile("BookStore-watch1.dbrep");
+		RepositoryModelWatcher watcher = new RepositoryModelWatcher(1000, LoggerProviderForUnitTests.getLogger());
+		TestListener listener = new TestListener("Modified comment 3");
+		watcher.addListener(listener);
+		try {
+			RepositoryModelHolder holder1 = watcher.watch(file);
+			RepositoryModelHolder holder2 = watcher.watch(file);
+			RepositoryModel initialModel = holder1.getModel();
+			assertSame(initialModel, holder2.getModel());
+			watcher.start();
+
+			//--- Burst of writes by another tool : usually a single reload after the last one
+			RepositoryModel model = PersistenceManagerFactory.createPersistenceManager(file).load();
+			PersistenceManager pm = PersistenceManagerFactory.createPersistenceManager(file);
+			for ( int i = 1 ; i <= 3 ; i++ ) {
+				model.getEntityByTableName("BOOK").setDatabaseComment("Modified comment " + i);
+				pm.save(model);
+			}
+			assertTrue(listener.latch.await(20, TimeUnit.SECONDS));
+			assertTrue(watcher.getReloadsCount() >= 1);
+
+			RepositoryModel newModel = holder1.getModel();
+			assertNotSame(initialModel, newModel);
+			assertSame(newModel, holder2.getModel());
+			assertSame(newModel, listener.model.get());
+			assertEquals("Modified comment 3", newModel.getEntityByTableName("BOOK").getDatabaseComment());
+			ChangeLog changes = listener.changes.get();
+			System.out.println("Changes : " + changes.getNumberOfEntities());
+			assertEquals(1, changes.getNumberOfEntities());
+			assertEquals(ChangeType.UPDATED, changes.getChangeByEntityName("BOOK").getChangeType());
+			assertTrue(changes.getChangeByEntityName("BOOK").isDatabaseCommentHasChanged());
+		} finally {
+			watcher.close();
+		}
+	}
+
+	@Test
+	public void testSameLengthAndTime() throws TelosysToolsException, IOException, InterruptedException {
+		System.out.println("testSameLengthAndTime");
+		File file = copyTestFile("BookStore-watch3.dbrep");
+		PersistenceManager pm = PersistenceManagerFactory.createPersistenceManager(file);
+		RepositoryModel model = pm.load();
+		model.getEntityByTableName("BOOK").setDatabaseComment("Comment A");
+		pm.save(model);
+		long length = file.length();
+		long lastModified = file.lastModified();
+
+		RepositoryModelCache cache = new RepositoryModelCache(10, Long.MAX_VALUE, false);
+		RepositoryModelWatcher watcher = new RepositoryModelWatcher(200, null);
+		watcher.setCache(cache);
+		TestListener listener = new TestListener("Comment B");
+		watcher.addListener(listener);
+		try {
+			RepositoryModelHolder holder = watcher.watch(file);
+			watcher.start();
+			//--- Same length and same modification time (eg coarse time resolution)
+			model.getEntityByTableName("BOOK").setDatabaseComment("Comment B");
+			pm.save(model);
+			assertTrue(file.setLastModified(lastModified));
+			assertEquals(length, file.length());
+			assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+			assertEquals("Comment B", holder.getModel().getEntityByTableName("BOOK").getDatabaseComment());
+			assertEquals("Comment B", cache.getModel(file).getEntityByTableName("BOOK").getDatabaseComment());
+		} finally {
+			watcher.close();
+		}
+	}
+
+	@Test
+	public void testInvalidFileKeepsModel() throws TelosysToolsException, IOException, InterruptedException {
+		System.out.println("testInvalidFileKeepsModel");
+		File file = copyTestFile("BookStore-watch2.dbrep");
+		RepositoryModelCache cache = new RepositoryModelCache(10, Long.MAX_VALUE, false);
+		RepositoryModelWatcher watcher = new RepositoryModelWatcher(200, null);
+		watcher.setCache(cache);
+		try {
+			RepositoryModelHolder holder = watcher.watch(file);
+			RepositoryModel initialModel = holder.getModel();
+			watcher.start();
+			OutputStream os = new FileOutputStream(file);
+			os.write("<root><invalid".getBytes());
+			os.close();
+			Thread.sleep(1000);
+			assertEquals(0, watcher.getReloadsCount());
+			assertSame(initialModel, holder.getModel());
+		} finally {
+			watcher.close();
+		}
+		assertEquals(1, cache.getStats().getLoads());
+	}
+}
@@ -0,0 +1,50 @@
+package org.telosys.tools.repository.persistence;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import junit.env.telosys.tools.commons.TestsEnv;
+
+/**
+ * Builds big repository files for tests by duplicating all the tables of the BookStore file
+ */
+public class ScaledUpFiles {
+
+	public final static String BOOKSTORE_FILE = "repo/BookStore-with-JC.dbrep" ;
+
+	private final static String TABLE_LIST_END = "</tableList>" ;
+
+	private final static String ATTRIBUTES_TO_SUFFIX =
+			"\\b(name|javaBean|id|inverseSideOf|foreignKeyName|joinTableName|sourceTableName|targetTableName|targetEntity|tablename|tableref)=\"([^\"]+)\"" ;
+
+	/**
+	 * Builds a bigger repository file by duplicating all the tables of the BookStore file 'n' times
+	 * @param copies
+	 * @return
+	 * @throws IOException
+	 */
+	public static File build(int copies) throws IOException {
+		File original = TestsEnv.getTestFile(BOOKSTORE_FILE);
+		String content = new String(Files.readAllBytes(original.toPath()), "UTF-8");
+		int tablesStart = content.indexOf('>', content.indexOf("<tableList")) + 1 ;
+		int tablesEnd = content.indexOf(TABLE_LIST_END);
+		String tables = content.substring(tablesStart, tablesEnd);
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(content.substring(0, tablesStart));
+		for ( int i = 1 ; i <= copies ; i++ ) {
+			sb.append(tables.replaceAll(ATTRIBUTES_TO_SUFFIX, "$1=\"$2_S" + i + "\"" ));
+		}
+		sb.append(content.substring(tablesEnd));
+
+		File file = TestsEnv.getTmpFile("BookStore-x" + copies + ".dbrep");
+		file.getParentFile().mkdirs();
+		OutputStream os = new FileOutputStream(file);
+		os.write(sb.toString().getBytes("UTF-8"));
+		os.close();
+		return file ;
+	}
+}